@@ -22,17 +22,23 @@ import java.awt.Color;
 import java.awt.Composite;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.Polygon;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
+import java.awt.font.FontRenderContext;
 import java.awt.font.TextAttribute;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
 import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
 import java.awt.geom.QuadCurve2D;
-import java.awt.image.AffineTransformOp;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
-import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
 import java.awt.image.Kernel;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -48,30 +54,46 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.awt.BasicStroke;
 import java.awt.geom.GeneralPath;
 
-import javax.imageio.ImageIO;
-
 import com.drew.imaging.FileType;
 import com.drew.imaging.FileTypeDetector;
 import com.drew.imaging.ImageProcessingException;
 
 import javaxt.io.Image;
+import ortus.boxlang.modules.image.services.ImageCodecPool;
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.services.TextCache;
+import ortus.boxlang.modules.image.util.BlendUtil;
+import ortus.boxlang.modules.image.util.ConvolutionUtil;
+import ortus.boxlang.modules.image.util.DisplayList;
 import ortus.boxlang.modules.image.util.EnumConverterUtil;
 import ortus.boxlang.modules.image.util.ImageMetadataUtil;
+import ortus.boxlang.modules.image.util.ImageWriteOptions;
 import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.modules.image.util.RasterPool;
+import ortus.boxlang.modules.image.util.RasterUtil;
+import ortus.boxlang.modules.image.util.ResampleUtil;
+import ortus.boxlang.modules.image.util.RotateUtil;
 import ortus.boxlang.modules.image.util.StrokeBuilder;
+import ortus.boxlang.modules.image.util.TransposeUtil;
 import ortus.boxlang.runtime.dynamic.casters.ArrayCaster;
 import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
 import ortus.boxlang.runtime.dynamic.casters.CastAttempt;
+import ortus.boxlang.runtime.dynamic.casters.DoubleCaster;
 import ortus.boxlang.runtime.dynamic.casters.FloatCaster;
 import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
 import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.dynamic.casters.StructCaster;
 import ortus.boxlang.runtime.types.Array;
 import ortus.boxlang.runtime.types.IStruct;
 import ortus.boxlang.runtime.types.Struct;
@@ -133,24 +155,33 @@ import ortus.boxlang.runtime.util.IBoxBinaryRepresentable;
  * @see javaxt.io.Image The underlying image library
  * @see java.awt.Graphics2D The drawing context used for operations
  */
-public class BoxImage implements IBoxBinaryRepresentable {
+public class BoxImage implements IBoxBinaryRepresentable, AutoCloseable {
 
 	/** Map of named colors to java.awt.Color instances */
 	public static final Map<String, Color>	COLORS;
 
 	/** Default font family for text drawing operations */
-	public static final String				DEFAULT_FONT_FAMILY		= Font.SANS_SERIF;
+	public static final String				DEFAULT_FONT_FAMILY			= Font.SANS_SERIF;
 
 	/** Default font style (plain, not bold or italic) */
-	public static final int					DEFAULT_FONT_STYLE		= Font.PLAIN;
+	public static final int					DEFAULT_FONT_STYLE			= Font.PLAIN;
 
 	/** Default font size in points */
-	public static final int					DEFAULT_FONT_SIZE		= 10;
+	public static final int					DEFAULT_FONT_SIZE			= 10;
 
 	/** Default interpolation method for image scaling operations */
-	public static final String				DEFAULT_INTERPOLATION	= "bilinear";
+	public static final String				DEFAULT_INTERPOLATION		= "bilinear";
+
+	/** Interpolation method for fast thumbnails: repeated halving followed by one Mitchell resample */
+	public static final String				FAST_QUALITY_INTERPOLATION	= "fast-quality";
+
+	/** Default blur algorithm */
+	public static final String				DEFAULT_BLUR_ALGORITHM		= "box";
+
+	private static final String				DEFAULT_FORMAT				= "jpg";
 
-	private static final String				DEFAULT_FORMAT			= "jpg";
+	/** Font render context of a new image, used to measure text when no image is given */
+	private static final FontRenderContext	DEFAULT_FONT_RENDER_CONTEXT	= createDefaultFontRenderContext();
 
 	static {
 		COLORS = new HashMap<String, Color>();
@@ -170,28 +201,46 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	}
 
 	/** Path or URL from which the image was loaded, if applicable */
-	private String		sourcePath;
+	private String			sourcePath;
 
 	/** Graphics2D context for drawing operations on the image */
-	private Graphics2D	graphics;
+	private Graphics2D		graphics;
 
 	/** The underlying javaxt.io.Image wrapped by this BoxImage */
-	private Image		image;
+	private Image			image;
 
 	/** Current drawing color (default: white) */
-	private String		drawingColor	= "white";
+	private String			drawingColor	= "white";
 
 	/** Current background color (default: white) */
-	private String		backgroundColor	= "white";
+	private String			backgroundColor	= "white";
 
 	/** EXIF metadata extracted from the image file */
-	private IStruct		exifData		= new Struct();
+	private IStruct			exifData		= new Struct();
 
 	/** IPTC metadata extracted from the image file */
-	private IStruct		iptcData		= new Struct();
+	private IStruct			iptcData		= new Struct();
 
 	/** Detected file type from metadata-extractor library */
-	private FileType	fileType;
+	private FileType		fileType;
+
+	/**
+	 * Whether the current image was allocated by this BoxImage and has not been handed out,
+	 * so its pixel buffer can be returned to the raster pool once the image is replaced or released
+	 */
+	private boolean			ownsRaster;
+
+	/**
+	 * The number of BoxImages sharing the current image through {@link #snapshot()}, or null when the
+	 * image is not shared. The counter object itself is shared by all of them.
+	 */
+	private AtomicInteger	shareCount;
+
+	/**
+	 * The drawing operations recorded since display list mode was started with {@link #beginDisplayList()}
+	 * and not rendered yet, or null when drawing operations are applied immediately
+	 */
+	private DisplayList		displayList;
 
 	/**
 	 * Enumeration for specifying image dimensions in scaling operations.
@@ -220,7 +269,30 @@ public class BoxImage implements IBoxBinaryRepresentable {
 				base64String = base64String.substring( commaIndex + 1 );
 			}
 		}
-		return new BoxImage( ImageIO.read( new ByteArrayInputStream( Base64.getDecoder().decode( base64String ) ) ) );
+		BufferedImage decoded = getCodecPool().read( new ByteArrayInputStream( Base64.getDecoder().decode( base64String ) ) );
+
+		return new BoxImage( decoded == null ? null : normalizeDecoded( decoded ) );
+	}
+
+	/**
+	 * Converts a freshly decoded image to its canonical pixel layout ({@code TYPE_INT_ARGB_PRE},
+	 * {@code TYPE_INT_RGB} or {@code TYPE_BYTE_GRAY}) when the {@code normalizeDecodedImages} module
+	 * setting is enabled. Decoders often produce {@code TYPE_CUSTOM} or {@code TYPE_3BYTE_BGR} rasters,
+	 * which push every later Java2D operation onto its slow generic loops; converting once up front
+	 * lets all subsequent operations use the accelerated ones.
+	 *
+	 * @param decoded The image as produced by the decoder
+	 *
+	 * @return The decoded image, or a normalized copy of it
+	 */
+	private static BufferedImage normalizeDecoded( BufferedImage decoded ) {
+		ImageService imageService = ImageService.getInstance();
+
+		if ( imageService == null || !imageService.isNormalizeDecodedImages() ) {
+			return decoded;
+		}
+
+		return RasterUtil.normalize( decoded );
 	}
 
 	/**
@@ -238,8 +310,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 											case GRAYSCALE -> BufferedImage.TYPE_BYTE_GRAY;
 										};
 
-		BufferedImage	bufferedImage	= new BufferedImage( width, height, bufferedType );
-		this.image = new Image( bufferedImage );
+		BufferedImage	bufferedImage	= borrowImage( width, height, bufferedType );
+		this.image		= new Image( bufferedImage );
+		this.ownsRaster	= true;
 		this.cacheGraphics();
 
 		this.setDrawingColor( color );
@@ -290,8 +363,17 @@ public class BoxImage implements IBoxBinaryRepresentable {
 		bas.reset();
 		iptcData = ImageMetadataUtil.readIPTCMetaData( bas );
 		bas.reset();
-		this.image = new Image( bas );
 
+		BufferedImage decoded;
+		try {
+			decoded = getCodecPool().read( bas );
+		} catch ( Exception e ) {
+			// Like javaxt, an undecodable image leaves the image empty
+			decoded = null;
+		}
+		this.image = new Image( decoded == null ? null : normalizeDecoded( decoded ) );
+
+		this.ownsRaster = true;
 		this.cacheGraphics();
 	}
 
@@ -335,6 +417,399 @@ public class BoxImage implements IBoxBinaryRepresentable {
 
 		this.setDrawingColor( this.drawingColor );
 		this.setBackgroundColor( this.backgroundColor );
+
+		if ( this.displayList != null ) {
+			this.displayList = new DisplayList( this.graphics );
+		}
+	}
+
+	/**
+	 * Replaces the current image with the result of a transform and refreshes the graphics context.
+	 * When this BoxImage owned the previous image, its pixel buffer is returned to the raster pool.
+	 *
+	 * @param next  The image replacing the current one
+	 * @param owned Whether {@code next} was allocated for this BoxImage alone (and may be recycled later)
+	 */
+	private void setImage( BufferedImage next, boolean owned ) {
+		BufferedImage previous = this.ownsRaster ? this.image.getBufferedImage() : null;
+
+		this.unshare();
+		this.image		= new Image( next );
+		this.ownsRaster	= owned;
+		this.cacheGraphics();
+
+		if ( previous != null && previous != next ) {
+			RasterPool pool = rasterPool();
+			if ( pool != null ) {
+				pool.release( previous );
+			}
+		}
+	}
+
+	/**
+	 * Creates a blank image for the result of a transform, reusing a pooled pixel buffer when available.
+	 *
+	 * @param width  The width of the image
+	 * @param height The height of the image
+	 * @param type   The {@link BufferedImage} type of the image
+	 *
+	 * @return A new blank image
+	 */
+	private static BufferedImage borrowImage( int width, int height, int type ) {
+		RasterPool pool = rasterPool();
+
+		if ( pool == null ) {
+			return new BufferedImage( width, height, type );
+		}
+
+		return pool.borrowImage( width, height, type );
+	}
+
+	/**
+	 * Returns the raster pool of the image service, if the module is loaded.
+	 *
+	 * @return The raster pool, or null when no image service is registered
+	 */
+	private static RasterPool rasterPool() {
+		ImageService imageService = ImageService.getInstance();
+
+		return imageService == null ? null : imageService.getRasterPool();
+	}
+
+	/**
+	 * Releases the pixel data of this image, returning its buffer to the raster pool so later
+	 * transforms can reuse it instead of allocating a new one. Useful in loops that process many
+	 * images, to keep the allocation rate (and the resulting garbage collection pauses) down.
+	 *
+	 * <p>
+	 * The BoxImage must not be used after it has been released. Buffers that have been handed
+	 * out through {@link #getBufferedImage()} are never recycled, they are simply dropped.
+	 * </p>
+	 */
+	public void release() {
+		if ( this.image == null ) {
+			return;
+		}
+
+		if ( this.graphics != null ) {
+			this.graphics.dispose();
+			this.graphics = null;
+		}
+		if ( this.displayList != null ) {
+			this.displayList.discard();
+			this.displayList = null;
+		}
+
+		BufferedImage	bufferedImage	= this.image.getBufferedImage();
+		RasterPool		pool			= this.ownsRaster ? rasterPool() : null;
+
+		this.unshare();
+		this.image		= null;
+		this.ownsRaster	= false;
+
+		if ( pool != null ) {
+			pool.release( bufferedImage );
+		}
+	}
+
+	/**
+	 * Whether this image has been released with {@link #release()} or {@link #close()}.
+	 *
+	 * @return true if the image data has been released
+	 */
+	public boolean isReleased() {
+		return this.image == null;
+	}
+
+	/**
+	 * Returns a snapshot of this image: a new BoxImage that shares the pixel data of this one until
+	 * either of them is modified. The first drawing operation on a shared image copies its pixel
+	 * buffer with a direct array copy (copy-on-write), so neither image ever sees changes made to the
+	 * other. Transforms that produce a new image (resize, rotate, ...) simply stop sharing.
+	 *
+	 * <p>
+	 * Snapshots are cheap to create and safe to take from several threads at once, which makes them
+	 * suited to handing out copies of decoded logos, watermarks or templates kept in the application
+	 * scope. The source image itself must not be modified while other threads take snapshots of it,
+	 * and the {@link BufferedImage} returned by {@link #getBufferedImage()} of a shared image must not
+	 * be modified directly.
+	 * </p>
+	 *
+	 * @return A new BoxImage sharing the pixel data of this image
+	 */
+	public BoxImage snapshot() {
+		BoxImage snapshot = new BoxImage( this.pixels() );
+
+		snapshot.shareCount	= this.share();
+		snapshot.sourcePath	= this.sourcePath;
+		snapshot.fileType	= this.fileType;
+		snapshot.exifData	= this.exifData;
+		snapshot.iptcData	= this.iptcData;
+		snapshot.setDrawingColor( this.drawingColor );
+		snapshot.setBackgroundColor( this.backgroundColor );
+
+		return snapshot;
+	}
+
+	/**
+	 * Registers one more BoxImage sharing the pixel data of this one.
+	 *
+	 * @return The counter to assign to the new BoxImage
+	 */
+	private synchronized AtomicInteger share() {
+		if ( this.shareCount == null ) {
+			this.shareCount = new AtomicInteger( 1 );
+		}
+		this.shareCount.incrementAndGet();
+		// Shared pixel buffers are never returned to the raster pool
+		this.ownsRaster = false;
+
+		return this.shareCount;
+	}
+
+	/**
+	 * Whether the pixel data of this image is currently shared with a {@link #snapshot()}.
+	 *
+	 * @return true if a modification of this image would first copy its pixel data
+	 */
+	public boolean isShared() {
+		return this.shareCount != null && this.shareCount.get() > 1;
+	}
+
+	/**
+	 * Makes sure the pixel data of this image is not shared with another BoxImage before it is modified
+	 * in place. Any pending display list operations are rendered first. A shared image gets its own copy
+	 * of the pixel buffer; the state of the graphics context (color, font, stroke, transform, composite,
+	 * ...) is carried over to the copy.
+	 */
+	private void ensureWritable() {
+		this.flushDisplayList();
+
+		if ( this.shareCount == null ) {
+			return;
+		}
+
+		if ( this.shareCount.get() <= 1 ) {
+			this.shareCount = null;
+			return;
+		}
+
+		Graphics2D		previousGraphics	= this.graphics;
+		BufferedImage	copy				= RasterUtil.copy( this.image.getBufferedImage() );
+
+		this.unshare();
+		this.image		= new Image( copy );
+		this.ownsRaster	= true;
+		this.graphics	= copy.createGraphics();
+
+		this.graphics.setTransform( previousGraphics.getTransform() );
+		this.graphics.setClip( previousGraphics.getClip() );
+		this.graphics.setRenderingHints( previousGraphics.getRenderingHints() );
+		this.graphics.setComposite( previousGraphics.getComposite() );
+		this.graphics.setStroke( previousGraphics.getStroke() );
+		this.graphics.setPaint( previousGraphics.getPaint() );
+		this.graphics.setFont( previousGraphics.getFont() );
+		this.graphics.setBackground( previousGraphics.getBackground() );
+		previousGraphics.dispose();
+	}
+
+	/**
+	 * Starts display list mode: drawing operations (lines, shapes, text, images, ...) and drawing state
+	 * changes are no longer applied to the pixels immediately but recorded, and rasterised together by
+	 * {@link #endDisplayList()}. Large display lists are rasterised in parallel on horizontal tiles of
+	 * the image, each tile only drawing the primitives that overlap it, which makes charts and maps
+	 * with thousands of primitives render many times faster on multi-core machines. The result is
+	 * identical to drawing the same operations one at a time.
+	 *
+	 * <p>
+	 * Any other operation that reads or replaces the pixels of the image (transforms, encoding,
+	 * {@link #getBufferedImage()}, ...) first renders the operations recorded so far, after which
+	 * recording continues. Starting display list mode when it is already active has no effect.
+	 * </p>
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage beginDisplayList() {
+		if ( this.displayList == null ) {
+			this.displayList = new DisplayList( this.graphics );
+		}
+
+		return this;
+	}
+
+	/**
+	 * Renders the drawing operations recorded since {@link #beginDisplayList()} and returns to drawing
+	 * immediately. Has no effect when display list mode is not active.
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage endDisplayList() {
+		this.flushDisplayList();
+		this.displayList = null;
+
+		return this;
+	}
+
+	/**
+	 * Whether drawing operations are currently recorded in a display list instead of being applied immediately.
+	 *
+	 * @return true if display list mode is active
+	 */
+	public boolean isDisplayListActive() {
+		return this.displayList != null;
+	}
+
+	/**
+	 * Ends display list mode without rendering, and returns the drawing operations recorded since
+	 * {@link #beginDisplayList()} (or since the image was last read) as a resolution-independent
+	 * {@link ImageDrawing} the size of this image. The drawing can then be rendered at any size, any
+	 * number of times, without running the drawing code again. Images drawn in the recorded operations
+	 * are copied, so they stop sharing their pixel data with the drawing.
+	 *
+	 * @return The recorded drawing
+	 *
+	 * @throws BoxRuntimeException If display list mode is not active
+	 */
+	public ImageDrawing captureDrawing() {
+		if ( this.displayList == null ) {
+			throw new BoxRuntimeException( "No drawing to capture: call beginDisplayList() before drawing on the image." );
+		}
+
+		this.displayList.capture();
+
+		ImageDrawing drawing = new ImageDrawing( this.displayList, this.image.getWidth(), this.image.getHeight(),
+		    RasterUtil.derivedType( this.image.getBufferedImage() ) );
+
+		this.displayList = null;
+
+		return drawing;
+	}
+
+	/**
+	 * Renders a display list onto this image under a base transform, on top of its current pixels.
+	 *
+	 * @param list The display list to render
+	 * @param base The transform applied under the recorded transforms
+	 */
+	void renderDisplayList( DisplayList list, AffineTransform base ) {
+		this.ensureWritable();
+
+		list.render( this.image.getBufferedImage(), base );
+	}
+
+	/**
+	 * Renders the pending display list operations, if any, and starts a new display list from the
+	 * current drawing state so recording continues.
+	 */
+	private void flushDisplayList() {
+		if ( this.displayList == null || this.displayList.isEmpty() ) {
+			return;
+		}
+
+		DisplayList pending = this.displayList;
+
+		this.displayList = null;
+		this.ensureWritable();
+		pending.render( this.image.getBufferedImage() );
+		pending.discard();
+		this.displayList = new DisplayList( this.graphics );
+	}
+
+	/**
+	 * Returns the current pixels of the image, after rendering any pending display list operations.
+	 *
+	 * @return The BufferedImage wrapped by this BoxImage
+	 */
+	private BufferedImage pixels() {
+		this.flushDisplayList();
+
+		return this.image.getBufferedImage();
+	}
+
+	/**
+	 * Applies a drawing operation to the image, or records it when display list mode is active.
+	 *
+	 * @param shape     The user space shape that is drawn, used to locate the operation, or null if it is unknown
+	 * @param stroked   Whether the outline of the shape is stroked rather than filled
+	 * @param operation The drawing operation
+	 */
+	private void paint( Shape shape, boolean stroked, Consumer<Graphics2D> operation ) {
+		if ( this.displayList == null ) {
+			this.ensureWritable();
+			operation.accept( this.graphics );
+		} else if ( shape == null ) {
+			this.displayList.draw( operation );
+		} else {
+			this.displayList.draw( this.graphics, shape, stroked, operation );
+		}
+	}
+
+	/**
+	 * Applies a change of the drawing state, recording it as well when display list mode is active.
+	 *
+	 * @param change The state change
+	 */
+	private void configure( Consumer<Graphics2D> change ) {
+		change.accept( this.graphics );
+
+		if ( this.displayList != null ) {
+			this.displayList.configure( change );
+		}
+	}
+
+	/**
+	 * Sets the transform of the drawing axis, recording it as well when display list mode is active.
+	 *
+	 * @param transform The new transform
+	 */
+	private void configureTransform( AffineTransform transform ) {
+		this.graphics.setTransform( transform );
+
+		if ( this.displayList != null ) {
+			this.displayList.setTransform( transform );
+		}
+	}
+
+	/**
+	 * Stops sharing the current image with other BoxImages, if it is shared.
+	 */
+	private void unshare() {
+		if ( this.shareCount != null ) {
+			this.shareCount.decrementAndGet();
+			this.shareCount = null;
+		}
+	}
+
+	/**
+	 * Disposes of all resources held by this image: the graphics context is disposed, the pixel
+	 * buffer is returned to the raster pool and the EXIF and IPTC metadata are dropped. Allows
+	 * memory to be reclaimed deterministically instead of waiting for garbage collection, for
+	 * example in try-with-resources blocks or loops that process many images.
+	 *
+	 * <p>
+	 * The BoxImage must not be used after it has been closed. Closing an image more than once has no effect.
+	 * </p>
+	 */
+	@Override
+	public void close() {
+		this.release();
+		this.exifData	= null;
+		this.iptcData	= null;
+	}
+
+	/**
+	 * Estimates the memory held by the pixel data of this image, in bytes.
+	 *
+	 * @return The size of the pixel buffer in bytes, or 0 if the image has been released
+	 */
+	public long getMemoryFootprint() {
+		if ( this.image == null ) {
+			return 0;
+		}
+
+		DataBuffer buffer = this.image.getBufferedImage().getRaster().getDataBuffer();
+
+		return ( long ) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize( buffer.getDataType() ) / 8;
 	}
 
 	/**
@@ -355,6 +830,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 *         - width: Image width in pixels
 	 *         - colormodel: Struct with color model details (alpha support, color space, etc.)
 	 *         - source: Original source path if available
+	 *         - memory_footprint: Estimated size of the pixel data in bytes
 	 */
 	public IStruct getImageInfo() {
 		IStruct info = new Struct();
@@ -363,7 +839,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 		info.put( "width", this.image.getWidth() );
 
 		IStruct		colorModel	= new Struct();
-		ColorModel	cm			= this.image.getBufferedImage().getColorModel();
+		ColorModel	cm			= this.pixels().getColorModel();
 
 		int			index		= 1;
 		for ( int size : cm.getComponentSize() ) {
@@ -382,6 +858,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 		colorModel.put( "transparency", EnumConverterUtil.getTransparencyDescription( cm.getTransparency() ) );
 		info.put( "colormodel", colorModel );
 		info.put( "source", this.getSourcePath() );
+		info.put( "memory_footprint", this.getMemoryFootprint() );
 
 		return info;
 	}
@@ -411,10 +888,25 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @throws IOException If encoding fails
 	 */
 	public byte[] toByteArray( String format ) {
-		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		return toByteArray( format, null );
+	}
+
+	/**
+	 * Converts the image to a byte array in the specified format, with encoder options.
+	 *
+	 * @param format  The image format (e.g., "png", "jpg", "gif")
+	 * @param options The encoder options, see {@link ImageWriteOptions}, or null for the defaults of the format
+	 *
+	 * @return A byte array representing the encoded image
+	 *
+	 * @throws BoxRuntimeException If encoding fails or an option is invalid
+	 */
+	public byte[] toByteArray( String format, IStruct options ) {
+		ImageWriteOptions		writeOptions	= ImageWriteOptions.of( options );
+		ByteArrayOutputStream	output			= new ByteArrayOutputStream();
 
 		try {
-			ImageIO.write( prepareForFormat( this.image.getBufferedImage(), format ), format, output );
+			getCodecPool().write( prepareForFormat( this.pixels(), format ), format, output, writeOptions );
 		} catch ( IOException e ) {
 			throw new BoxRuntimeException( "Failed to convert image to byte array: " + e.getMessage(), e );
 		} catch ( Error e ) {
@@ -445,10 +937,25 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @throws IOException If encoding fails
 	 */
 	public String toBase64String( String format ) throws IOException {
-		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		return toBase64String( format, null );
+	}
+
+	/**
+	 * Converts the image to a Base64-encoded string in the specified format, with encoder options.
+	 *
+	 * @param format  The image format (e.g., "png", "jpg", "gif")
+	 * @param options The encoder options, see {@link ImageWriteOptions}, or null for the defaults of the format
+	 *
+	 * @return A Base64-encoded string representing the image
+	 *
+	 * @throws IOException If encoding fails
+	 */
+	public String toBase64String( String format, IStruct options ) throws IOException {
+		ImageWriteOptions		writeOptions	= ImageWriteOptions.of( options );
+		ByteArrayOutputStream	output			= new ByteArrayOutputStream();
 
 		try {
-			ImageIO.write( prepareForFormat( this.image.getBufferedImage(), format ), format, output );
+			getCodecPool().write( prepareForFormat( this.pixels(), format ), format, output, writeOptions );
 		} catch ( Error e ) {
 			throw new BoxRuntimeException( "Native library required to encode format [" + format + "] is not available on this platform", e );
 		}
@@ -464,8 +971,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage setAntiAliasing( boolean useAntiAliasing ) {
-		this.graphics.setRenderingHint( RenderingHints.KEY_ANTIALIASING,
-		    useAntiAliasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF );
+		Object value = useAntiAliasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF;
+
+		this.configure( g -> g.setRenderingHint( RenderingHints.KEY_ANTIALIASING, value ) );
 
 		return this;
 	}
@@ -577,7 +1085,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage translateDrawingAxis( int x, int y ) {
-		this.graphics.setTransform( AffineTransform.getTranslateInstance( x, y ) );
+		AffineTransform transform = AffineTransform.getTranslateInstance( x, y );
+
+		this.configureTransform( transform );
 
 		return this;
 	}
@@ -591,7 +1101,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage shearDrawingAxis( double x, double y ) {
-		this.graphics.setTransform( AffineTransform.getShearInstance( x, y ) );
+		AffineTransform transform = AffineTransform.getShearInstance( x, y );
+
+		this.configureTransform( transform );
 
 		return this;
 	}
@@ -606,7 +1118,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage rotateDrawingAxis( double angle, int x, int y ) {
-		this.graphics.setTransform( AffineTransform.getRotateInstance( Math.toRadians( angle ), x, y ) );
+		AffineTransform transform = AffineTransform.getRotateInstance( Math.toRadians( angle ), x, y );
+
+		this.configureTransform( transform );
 
 		return this;
 	}
@@ -620,17 +1134,16 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage translate( int x, int y ) {
-		BufferedImage	resizedImage	= new BufferedImage( this.image.getWidth(), this.image.getHeight(),
-		    this.image.getBufferedImage().getType() );
+		BufferedImage	resizedImage	= borrowImage( this.image.getWidth(), this.image.getHeight(),
+		    RasterUtil.derivedType( this.pixels() ) );
 		Graphics2D		resizedGraphics	= resizedImage.createGraphics();
 
 		resizedGraphics.setColor( Color.BLACK );
 		resizedGraphics.fillRect( 0, 0, this.getWidth(), this.getHeight() );
-		resizedGraphics.drawImage( this.image.getBufferedImage(), x, y, null );
+		resizedGraphics.drawImage( this.pixels(), x, y, null );
 		resizedGraphics.dispose();
 
-		this.image = new Image( resizedImage );
-		this.cacheGraphics();
+		this.setImage( resizedImage, true );
 
 		return this;
 	}
@@ -653,18 +1166,39 @@ public class BoxImage implements IBoxBinaryRepresentable {
 		int				newWidth		= Double.valueOf( bounds.getWidth() ).intValue();
 		int				newHeight		= Double.valueOf( bounds.getHeight() ).intValue();
 
-		BufferedImage	resizedImage	= new BufferedImage( newWidth, newHeight,
-		    this.image.getBufferedImage().getType() );
+		BufferedImage	resizedImage	= borrowImage( newWidth, newHeight,
+		    RasterUtil.derivedType( this.pixels() ) );
 		Graphics2D		resizedGraphics	= resizedImage.createGraphics();
 
 		resizedGraphics.fillRect( 0, 0, newWidth, newHeight );
 		resizedGraphics.setTransform( rotate );
 		resizedGraphics.setTransform( AffineTransform.getRotateInstance( Math.toRadians( angle ), newWidth / 2, newHeight / 2 ) );
-		resizedGraphics.drawImage( this.image.getBufferedImage(), ( newWidth - oldWidth ) / 2, ( newHeight - oldHeight ) / 2, null );
+		resizedGraphics.drawImage( this.pixels(), ( newWidth - oldWidth ) / 2, ( newHeight - oldHeight ) / 2, null );
 		resizedGraphics.dispose();
 
-		this.image = new Image( resizedImage );
-		this.cacheGraphics();
+		this.setImage( resizedImage, true );
+
+		return this;
+	}
+
+	/**
+	 * Rotates the image clockwise by an arbitrary, possibly fractional, angle in degrees, using the
+	 * multithreaded {@link RotateUtil} engine. The canvas is resized to the exact bounding box of the
+	 * rotated image. The uncovered corners are transparent for images with an alpha channel, and filled
+	 * with the background color (see {@link #setBackgroundColor(String)}) for opaque images.
+	 *
+	 * @param angle         The rotation angle in degrees (positive for clockwise)
+	 * @param interpolation The interpolation method ("nearest", "bilinear" or "bicubic")
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage rotate( double angle, String interpolation ) {
+		BufferedImage	current		= this.pixels();
+		int				background	= current.getColorModel().hasAlpha()
+		    ? 0
+		    : COLORS.getOrDefault( this.backgroundColor.toLowerCase(), Color.white ).getRGB();
+
+		this.setImage( RotateUtil.rotate( current, angle, EnumConverterUtil.getRotateInterpolation( interpolation ), background ), true );
 
 		return this;
 	}
@@ -673,37 +1207,85 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * Overlays another image on top of this image using the specified composite rule and transparency.
 	 *
 	 * @param toOverlay    The BoxImage to overlay on this image
-	 * @param overlayRule  The composite rule (e.g., "normal", "multiply", "screen")
+	 * @param overlayRule  The Porter-Duff composite rule (e.g., "SRC_OVER", "DST_IN") or blend mode (e.g., "normal", "multiply", "screen")
 	 * @param transparency The transparency level (0.0 to 1.0, where 1.0 is fully opaque)
 	 *
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage overlay( BoxImage toOverlay, String overlayRule, double transparency ) {
+		return this.overlay( toOverlay, overlayRule, transparency, 0, 0 );
+	}
+
+	/**
+	 * Overlays another image on top of this image at the given position, using the specified composite
+	 * rule and transparency. Blend modes are composited by {@link BlendUtil}, Porter-Duff rules are
+	 * drawn through {@code Graphics2D}.
+	 *
+	 * @param toOverlay    The BoxImage to overlay on this image
+	 * @param overlayRule  The Porter-Duff composite rule (e.g., "SRC_OVER", "DST_IN") or blend mode (e.g., "normal", "multiply", "screen")
+	 * @param transparency The transparency level (0.0 to 1.0, where 1.0 is fully opaque)
+	 * @param x            The x-coordinate of the overlay
+	 * @param y            The y-coordinate of the overlay
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage overlay( BoxImage toOverlay, String overlayRule, double transparency, int x, int y ) {
+		if ( EnumConverterUtil.getBlendMode( overlayRule ) != null ) {
+			return this.blend( toOverlay, overlayRule, x, y, transparency );
+		}
+
+		this.ensureWritable();
+
 		AlphaComposite	overlayComposite	= AlphaComposite.getInstance( EnumConverterUtil.getOveralyRule( overlayRule ), ( float ) transparency );
 		Composite		original			= this.graphics.getComposite();
 
 		this.graphics.setComposite( overlayComposite );
-		this.graphics.drawImage( toOverlay.getBufferedImage(), 0, 0, null );
+		this.graphics.drawImage( toOverlay.pixels(), x, y, null );
 
 		this.graphics.setComposite( original );
 
 		return this;
 	}
 
+	/**
+	 * Composites another image onto this image with a blend mode, using the multithreaded
+	 * {@link BlendUtil} engine.
+	 *
+	 * @param source    The BoxImage to composite onto this image
+	 * @param blendMode The blend mode ("normal", "multiply", "screen", "overlay", "hard-light", "soft-light", "darken", "lighten", "difference")
+	 * @param x         The x-coordinate of the source image, may be negative
+	 * @param y         The y-coordinate of the source image, may be negative
+	 * @param opacity   The opacity of the source image (0.0 to 1.0, where 1.0 is fully opaque)
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage blend( BoxImage source, String blendMode, int x, int y, double opacity ) {
+		BlendUtil.BlendMode mode = EnumConverterUtil.getBlendMode( blendMode );
+
+		if ( mode == null ) {
+			throw new BoxRuntimeException( "Invalid blend mode [" + blendMode
+			    + "]. Valid blend modes are normal, multiply, screen, overlay, hard-light, soft-light, darken, lighten and difference." );
+		}
+
+		this.ensureWritable();
+
+		BlendUtil.composite( this.pixels(), source.pixels(), x, y, mode, opacity );
+
+		return this;
+	}
+
 	/**
 	 * Converts the image to grayscale.
 	 *
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage grayScale() {
-		BufferedImage	grayImage	= new BufferedImage( this.image.getWidth(), this.image.getHeight(), BufferedImage.TYPE_BYTE_GRAY );
+		BufferedImage	grayImage	= borrowImage( this.image.getWidth(), this.image.getHeight(), BufferedImage.TYPE_BYTE_GRAY );
 		Graphics2D		g			= grayImage.createGraphics();
-		g.drawImage( this.image.getBufferedImage(), 0, 0, null );
+		g.drawImage( this.pixels(), 0, 0, null );
+		g.dispose();
 
-		this.image		= new Image( grayImage );
-		this.graphics	= g;
-		this.setDrawingColor( this.drawingColor );
-		this.setBackgroundColor( this.backgroundColor );
+		this.setImage( grayImage, true );
 
 		return this;
 	}
@@ -761,14 +1343,15 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	}
 
 	/**
-	 * Creates a copy of this image.
+	 * Creates a copy of this image. The pixel buffer is duplicated with a direct array copy, so the copy
+	 * has the same type and pixels as this image, transparency included. Use {@link #snapshot()} to
+	 * defer the copy until one of the images is modified.
 	 *
 	 * @return A new BoxImage instance containing a copy of this image's data
 	 */
 	public BoxImage copy() {
-		BoxImage newImage = new BoxImage( getWidth(), getHeight(), ImageType.ARGB, "black" );
-
-		newImage.drawImage( this, 0, 0 );
+		BoxImage newImage = new BoxImage( RasterUtil.copy( this.pixels() ) );
+		newImage.ownsRaster = true;
 
 		return newImage;
 	}
@@ -787,11 +1370,12 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawArc( int x, int y, int width, int height, int startAngle, int archAngle, boolean filled ) {
+		Shape arc = new Arc2D.Double( x, y, width, height, startAngle, archAngle, filled ? Arc2D.PIE : Arc2D.OPEN );
 
 		if ( filled ) {
-			this.graphics.fillArc( x, y, width, height, startAngle, archAngle );
+			this.paint( arc, false, g -> g.fillArc( x, y, width, height, startAngle, archAngle ) );
 		} else {
-			this.graphics.drawArc( x, y, width, height, startAngle, archAngle );
+			this.paint( arc, true, g -> g.drawArc( x, y, width, height, startAngle, archAngle ) );
 		}
 
 		return this;
@@ -812,7 +1396,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawCubicCurve( int x1, int y1, int ctrlx1, int ctrly1, int ctrlx2, int ctrly2, int x2, int y2 ) {
-		this.graphics.draw( new CubicCurve2D.Double( x1, y1, ctrlx1, ctrly1, ctrlx2, ctrly2, x2, y2 ) );
+		CubicCurve2D curve = new CubicCurve2D.Double( x1, y1, ctrlx1, ctrly1, ctrlx2, ctrly2, x2, y2 );
+
+		this.paint( curve, true, g -> g.draw( curve ) );
 
 		return this;
 	}
@@ -828,7 +1414,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawLine( int x1, int y1, int x2, int y2 ) {
-		this.graphics.drawLine( x1, y1, x2, y2 );
+		this.paint( new Line2D.Double( x1, y1, x2, y2 ), true, g -> g.drawLine( x1, y1, x2, y2 ) );
 
 		return this;
 	}
@@ -846,16 +1432,18 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	public BoxImage drawLines( Array xCoords, Array yCoords, boolean isPolygon, boolean filled ) {
 		int[]	xPoints	= xCoords.stream().mapToInt( IntegerCaster::cast ).toArray();
 		int[]	yPoints	= yCoords.stream().mapToInt( IntegerCaster::cast ).toArray();
+		int		count	= xCoords.size();
+		Polygon	polygon	= new Polygon( xPoints, yPoints, Math.min( count, yPoints.length ) );
 
 		if ( !isPolygon ) {
-			this.graphics.drawPolyline( xPoints, yPoints, xCoords.size() );
+			this.paint( polygon, true, g -> g.drawPolyline( xPoints, yPoints, count ) );
 			return this;
 		}
 
 		if ( filled ) {
-			this.graphics.fillPolygon( xPoints, yPoints, xCoords.size() );
+			this.paint( polygon, false, g -> g.fillPolygon( xPoints, yPoints, count ) );
 		} else {
-			this.graphics.drawPolygon( xPoints, yPoints, xCoords.size() );
+			this.paint( polygon, true, g -> g.drawPolygon( xPoints, yPoints, count ) );
 		}
 
 		return this;
@@ -874,7 +1462,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawQuadraticCurve( int ctrlx1, int ctrly1, int x1, int y1, int x2, int y2 ) {
-		this.graphics.draw( new QuadCurve2D.Double( ctrlx1, ctrly1, x1, y1, x2, y2 ) );
+		QuadCurve2D curve = new QuadCurve2D.Double( ctrlx1, ctrly1, x1, y1, x2, y2 );
+
+		this.paint( curve, true, g -> g.draw( curve ) );
 
 		return this;
 	}
@@ -889,7 +1479,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawText( String str, int x, int y ) {
-		this.graphics.drawString( str, x, y );
+		TextCache textCache = getTextCache();
+
+		this.paint( null, false, g -> textCache.drawString( g, str, x, y ) );
 		return this;
 	}
 
@@ -940,7 +1532,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 			builder.dashPhase( FloatCaster.cast( strokeConfig.get( KeyDictionary.dashPhase ) ) );
 		}
 
-		this.graphics.setStroke( builder.build() );
+		BasicStroke stroke = builder.build();
+
+		this.configure( g -> g.setStroke( stroke ) );
 
 		return this;
 	}
@@ -954,7 +1548,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 */
 	public BoxImage setDrawingTransparency( double transparency ) {
 		AlphaComposite composite = AlphaComposite.getInstance( AlphaComposite.SRC_OVER, ( float ) ( transparency / 100.0 ) );
-		this.graphics.setComposite( composite );
+		this.configure( g -> g.setComposite( composite ) );
 		return this;
 	}
 
@@ -979,21 +1573,20 @@ public class BoxImage implements IBoxBinaryRepresentable {
 		int				newWidth		= Double.valueOf( bounds.getWidth() ).intValue();
 		int				newHeight		= Double.valueOf( bounds.getHeight() ).intValue();
 
-		BufferedImage	resizedImage	= new BufferedImage( newWidth, newHeight,
-		    this.image.getBufferedImage().getType() );
+		BufferedImage	resizedImage	= borrowImage( newWidth, newHeight,
+		    RasterUtil.derivedType( this.pixels() ) );
 		Graphics2D		resizedGraphics	= resizedImage.createGraphics();
 
 		resizedGraphics.fillRect( 0, 0, newWidth, newHeight );
 		resizedGraphics.setTransform( shear );
-		resizedGraphics.drawImage( this.image.getBufferedImage(), 0, 0, null );
+		resizedGraphics.drawImage( this.pixels(), 0, 0, null );
 		resizedGraphics.dispose();
 
-		this.image = new Image( resizedImage );
-		this.cacheGraphics();
+		this.setImage( resizedImage, true );
 		if ( dim == Dimension.HEIGHT ) {
-			this.graphics.shear( 0, amount );
+			this.configure( g -> g.shear( 0, amount ) );
 		} else {
-			this.graphics.shear( amount, 0 );
+			this.configure( g -> g.shear( amount, 0 ) );
 		}
 
 		return this;
@@ -1016,8 +1609,63 @@ public class BoxImage implements IBoxBinaryRepresentable {
 		        -num, center, -num,
 		        -num, -num, -num } );
 
-		this.image = new Image( new ConvolveOp( kernel ).filter( this.image.getBufferedImage(), null ) );
-		this.cacheGraphics();
+		return convolve( kernel, ConvolutionUtil.EdgeMode.CLAMP );
+	}
+
+	/**
+	 * Convolves the image with an arbitrary kernel.
+	 *
+	 * @param kernel   The kernel as an array of rows, each row an array of numeric weights. All rows must have the same length.
+	 * @param edgeMode How pixels beyond the image edges are sampled: "clamp", "wrap" or "zero"
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage convolve( Array kernel, String edgeMode ) {
+		int kernelHeight = kernel.size();
+
+		if ( kernelHeight == 0 ) {
+			throw new BoxRuntimeException( "The convolution kernel must contain at least one row" );
+		}
+
+		int		kernelWidth	= -1;
+		float[]	weights		= null;
+
+		for ( int row = 0; row < kernelHeight; row++ ) {
+			CastAttempt<Array> rowAttempt = ArrayCaster.attempt( kernel.get( row ) );
+
+			if ( !rowAttempt.wasSuccessful() ) {
+				throw new BoxRuntimeException( "The convolution kernel must be an array of arrays of numbers" );
+			}
+
+			Array values = rowAttempt.get();
+
+			if ( kernelWidth == -1 ) {
+				kernelWidth	= values.size();
+				weights		= new float[ kernelWidth * kernelHeight ];
+			}
+
+			if ( values.size() == 0 || values.size() != kernelWidth ) {
+				throw new BoxRuntimeException( "All rows of the convolution kernel must have the same, non-zero length" );
+			}
+
+			for ( int column = 0; column < kernelWidth; column++ ) {
+				weights[ row * kernelWidth + column ] = FloatCaster.cast( values.get( column ) );
+			}
+		}
+
+		return convolve( new Kernel( kernelWidth, kernelHeight, weights ), EnumConverterUtil.getEdgeMode( edgeMode ) );
+	}
+
+	/**
+	 * Convolves the image with the given kernel using the parallel convolution engine.
+	 *
+	 * @param kernel   The kernel to apply
+	 * @param edgeMode How pixels beyond the image edges are sampled
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage convolve( Kernel kernel, ConvolutionUtil.EdgeMode edgeMode ) {
+		this.setImage( ConvolutionUtil.convolve( this.pixels(), kernel, edgeMode ), true );
 
 		return this;
 	}
@@ -1038,6 +1686,236 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawText( String str, int x, int y, IStruct fontConfig ) {
+		Font currentFont = getTextCache().getFont( fontKey( fontConfig ), BoxImage::createFont );
+
+		this.configure( g -> g.setFont( currentFont ) );
+
+		this.drawText( str, x, y );
+
+		this.configure( g -> g.setFont( null ) );
+
+		return this;
+	}
+
+	/**
+	 * Draws text wrapped in a box: the lines are broken at the line breaks of the text and wherever needed to fit the
+	 * width of the box, and drawn from the top of the box down. Lines that do not fit the height of the box are left out,
+	 * the last line drawn ending with an ellipsis, and the text is clipped to the box. The line breaks are cached per text,
+	 * font and width, so captions drawn again on other images are only laid out once.
+	 *
+	 * @param text       The text to draw, line breaks start new lines
+	 * @param x          The x-coordinate of the left edge of the box
+	 * @param y          The y-coordinate of the top edge of the box
+	 * @param width      The width of the box
+	 * @param height     The height of the box
+	 * @param fontConfig A struct containing font properties, as accepted by {@link #drawText(String, int, int, IStruct)}
+	 * @param align      The horizontal alignment of the lines in the box: "left", "center" or "right"
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage drawTextBox( String text, int x, int y, int width, int height, IStruct fontConfig, String align ) {
+		double alignment = switch ( align.toLowerCase() ) {
+			case "left" -> 0;
+			case "center" -> 0.5;
+			case "right" -> 1;
+			default -> throw new BoxRuntimeException( "Invalid text alignment [" + align + "]: must be one of left, center or right" );
+		};
+
+		if ( width <= 0 || height <= 0 ) {
+			return this;
+		}
+
+		TextCache			textCache	= getTextCache();
+		Font				font		= textCache.getFont( fontKey( fontConfig ), BoxImage::createFont );
+		FontRenderContext	context		= this.graphics.getFontRenderContext();
+		TextCache.TextBlock	block		= textCache.measure( text, font, context, width );
+
+		// As many lines as fit the height, but at least the first one, clipped
+		int							fitting	= ( int ) ( ( height + block.leading() ) / block.lineHeight() );
+		List<TextCache.TextLine>	lines	= block.lines().subList( 0, Math.max( 1, Math.min( fitting, block.lines().size() ) ) );
+
+		if ( lines.size() < block.lines().size() ) {
+			lines = new ArrayList<>( lines );
+			lines.set( lines.size() - 1, TextCache.ellipsize( lines.get( lines.size() - 1 ), font, context, width ) );
+		}
+
+		List<TextCache.TextLine>	drawn	= lines;
+		Rectangle					box		= new Rectangle( x, y, width, height );
+
+		this.paint( box, false, g -> {
+			Shape clip = g.getClip();
+
+			g.clip( box );
+			try {
+				float baseline = y + block.ascent();
+
+				for ( TextCache.TextLine line : drawn ) {
+					if ( line.layout() != null ) {
+						line.layout().draw( g, ( float ) ( x + ( width - line.width() ) * alignment ), baseline );
+					}
+					baseline += block.lineHeight();
+				}
+			} finally {
+				g.setClip( clip );
+			}
+		} );
+
+		return this;
+	}
+
+	/**
+	 * Measures a text as it would be drawn on this image with {@link #drawText(String, int, int, IStruct)}, using the
+	 * antialiasing and fractional metrics settings of the image. See {@link #getTextDimensions(String, IStruct, Integer, Integer)}.
+	 *
+	 * @param text       The text to measure, line breaks start new lines
+	 * @param fontConfig A struct containing font properties, as accepted by drawText()
+	 * @param width      The width to wrap the lines at, or null to only break them at line breaks
+	 * @param height     The height of the box to fit the text in, or null to measure it at the configured font size
+	 *
+	 * @return A struct with the keys width, height, ascent, descent, leading, lineHeight, size, fits and lines
+	 */
+	public IStruct measureText( String text, IStruct fontConfig, Integer width, Integer height ) {
+		return measureText( text, fontConfig, width, height, this.graphics.getFontRenderContext() );
+	}
+
+	/**
+	 * Measures a text as it would be drawn with {@link #drawText(String, int, int, IStruct)} on a new image, without
+	 * drawing it.
+	 *
+	 * <p>
+	 * The lines are broken at the line breaks of the text and, when a width is given, wherever needed to fit it.
+	 * When a height is given too, the text is fitted in the box: the font size is the largest one, up to the
+	 * configured size (or the height of the box when no size is configured), at which the wrapped text fits in the
+	 * box, found with a binary search over the measurements.
+	 * </p>
+	 *
+	 * @param text       The text to measure, line breaks start new lines
+	 * @param fontConfig A struct containing font properties, as accepted by drawText()
+	 * @param width      The width to wrap the lines at, or null to only break them at line breaks
+	 * @param height     The height of the box to fit the text in, or null to measure it at the configured font size
+	 *
+	 * @return A struct with the keys width, height, ascent, descent, leading, lineHeight, size, fits and lines
+	 */
+	public static IStruct getTextDimensions( String text, IStruct fontConfig, Integer width, Integer height ) {
+		return measureText( text, fontConfig, width, height, DEFAULT_FONT_RENDER_CONTEXT );
+	}
+
+	/**
+	 * Returns the font render context of the graphics context of a new image.
+	 *
+	 * @return The font render context
+	 */
+	private static FontRenderContext createDefaultFontRenderContext() {
+		Graphics2D graphics = new BufferedImage( 1, 1, BufferedImage.TYPE_INT_ARGB ).createGraphics();
+
+		try {
+			return graphics.getFontRenderContext();
+		} finally {
+			graphics.dispose();
+		}
+	}
+
+	/**
+	 * Measures a text, fitting it in a box when a height is given.
+	 *
+	 * @param text       The text to measure
+	 * @param fontConfig A struct containing font properties
+	 * @param width      The width to wrap the lines at, or null
+	 * @param height     The height of the box to fit the text in, or null
+	 * @param context    The font render context to measure the text in
+	 *
+	 * @return The measurements
+	 */
+	private static IStruct measureText( String text, IStruct fontConfig, Integer width, Integer height, FontRenderContext context ) {
+		TextCache			textCache	= getTextCache();
+		TextCache.FontKey	key			= fontKey( fontConfig );
+		float				wrapWidth	= width == null ? 0 : width;
+
+		if ( height != null ) {
+			int	low		= 1;
+			int	high	= Math.max( 1, key.size() != null ? key.size() : height );
+
+			while ( low < high ) {
+				int					middle	= ( low + high + 1 ) >>> 1;
+				TextCache.FontKey	sized	= key.withSize( middle );
+
+				if ( fits( textCache.measure( text, textCache.getFont( sized, BoxImage::createFont ), context, wrapWidth ), width, height ) ) {
+					low = middle;
+				} else {
+					high = middle - 1;
+				}
+			}
+			key = key.withSize( low );
+		}
+
+		Font				font	= textCache.getFont( key, BoxImage::createFont );
+		TextCache.TextBlock	block	= textCache.measure( text, font, context, wrapWidth );
+		Array				lines	= new Array();
+
+		for ( TextCache.TextLine line : block.lines() ) {
+			IStruct lineInfo = new Struct();
+			lineInfo.put( "text", line.text() );
+			lineInfo.put( "width", line.width() );
+			lines.push( lineInfo );
+		}
+
+		IStruct result = new Struct();
+		result.put( "width", block.width() );
+		result.put( "height", block.height() );
+		result.put( "ascent", block.ascent() );
+		result.put( "descent", block.descent() );
+		result.put( "leading", block.leading() );
+		result.put( "lineHeight", block.lineHeight() );
+		result.put( "size", font.getSize2D() );
+		result.put( "fits", fits( block, width, height ) );
+		result.put( "lines", lines );
+
+		return result;
+	}
+
+	/**
+	 * Whether a measured text fits in a box.
+	 *
+	 * @param block  The measured text
+	 * @param width  The width of the box, or null if the width is not constrained
+	 * @param height The height of the box, or null if the height is not constrained
+	 *
+	 * @return true if the text fits
+	 */
+	private static boolean fits( TextCache.TextBlock block, Integer width, Integer height ) {
+		return ( width == null || block.width() <= width ) && ( height == null || block.height() <= height );
+	}
+
+	/**
+	 * Reads the font properties of a drawText() font configuration.
+	 *
+	 * @param fontConfig A struct containing the font properties (font, style, size, strikeThrough, underline)
+	 *
+	 * @return The font configuration, usable as a cache key
+	 */
+	private static TextCache.FontKey fontKey( IStruct fontConfig ) {
+		String					style			= fontConfig.getAsString( KeyDictionary.style );
+		CastAttempt<Integer>	size			= IntegerCaster.attempt( fontConfig.get( KeyDictionary.size ) );
+		CastAttempt<Boolean>	strikeThrough	= BooleanCaster.attempt( fontConfig.get( KeyDictionary.strikeThrough ) );
+		CastAttempt<Boolean>	underline		= BooleanCaster.attempt( fontConfig.get( KeyDictionary.underline ) );
+
+		return new TextCache.FontKey(
+		    fontConfig.getAsString( KeyDictionary.font ),
+		    style == null ? null : style.toLowerCase(),
+		    size.wasSuccessful() ? size.get() : null,
+		    strikeThrough.wasSuccessful() ? strikeThrough.get() : null,
+		    underline.wasSuccessful() && underline.get()
+		);
+	}
+
+	/**
+	 * Builds the font of a drawText() font configuration.
+	 *
+	 * @param key The font configuration
+	 *
+	 * @return The font
+	 */
+	private static Font createFont( TextCache.FontKey key ) {
 		Map<TextAttribute, Object> attr = new HashMap<TextAttribute, Object>();
 
 		attr.put( TextAttribute.FONT, DEFAULT_FONT_FAMILY );
@@ -1045,18 +1923,17 @@ public class BoxImage implements IBoxBinaryRepresentable {
 		attr.put( TextAttribute.STRIKETHROUGH, false );
 		attr.put( TextAttribute.UNDERLINE, false );
 
-		String family = fontConfig.getAsString( KeyDictionary.font );
-		if ( family != null ) {
-			attr.put( TextAttribute.FAMILY, family );
+		if ( key.family() != null ) {
+			attr.put( TextAttribute.FAMILY, key.family() );
 		}
 
-		String style = fontConfig.getAsString( KeyDictionary.style );
-		if ( style != null && !style.equalsIgnoreCase( "plain" ) ) {
-			if ( style.equalsIgnoreCase( "bold" ) ) {
+		String style = key.style();
+		if ( style != null && !style.equals( "plain" ) ) {
+			if ( style.equals( "bold" ) ) {
 				attr.put( TextAttribute.WEIGHT, TextAttribute.WEIGHT_BOLD );
-			} else if ( style.equalsIgnoreCase( "italic" ) ) {
+			} else if ( style.equals( "italic" ) ) {
 				attr.put( TextAttribute.POSTURE, TextAttribute.POSTURE_OBLIQUE );
-			} else if ( style.equalsIgnoreCase( "bolditalic" ) ) {
+			} else if ( style.equals( "bolditalic" ) ) {
 				attr.put( TextAttribute.WEIGHT, TextAttribute.WEIGHT_BOLD );
 				attr.put( TextAttribute.POSTURE, TextAttribute.POSTURE_OBLIQUE );
 			} else {
@@ -1064,53 +1941,90 @@ public class BoxImage implements IBoxBinaryRepresentable {
 			}
 		}
 
-		CastAttempt<Integer> size = IntegerCaster.attempt( fontConfig.get( KeyDictionary.size ) );
-		if ( size.wasSuccessful() ) {
-			attr.put( TextAttribute.SIZE, size.get() );
+		if ( key.size() != null ) {
+			attr.put( TextAttribute.SIZE, key.size() );
 		}
 
-		CastAttempt<Boolean> strikeThrough = BooleanCaster.attempt( fontConfig.get( KeyDictionary.strikeThrough ) );
-		if ( strikeThrough.wasSuccessful() ) {
-			attr.put( TextAttribute.STRIKETHROUGH, strikeThrough.get() );
+		if ( key.strikeThrough() != null ) {
+			attr.put( TextAttribute.STRIKETHROUGH, key.strikeThrough() );
 		}
 
-		CastAttempt<Boolean> underline = BooleanCaster.attempt( fontConfig.get( KeyDictionary.underline ) );
-		if ( underline.wasSuccessful() && underline.get() ) {
+		if ( key.underline() ) {
 			attr.put( TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_ON );
 		}
 
-		Font currentFont = new Font( attr );
+		return new Font( attr );
+	}
 
-		this.graphics.setFont( currentFont );
+	/**
+	 * Returns the cache of fonts and glyph runs of the image service, or a cache that caches nothing
+	 * when the image service is not available.
+	 *
+	 * @return The text cache
+	 */
+	private static TextCache getTextCache() {
+		ImageService imageService = ImageService.getInstance();
 
-		this.drawText( str, x, y );
+		return imageService == null ? TextCache.NONE : imageService.getTextCache();
+	}
 
-		this.graphics.setFont( null );
+	/**
+	 * Returns the pools of image readers and writers of the image service, or a pool that keeps no codecs when the module is not loaded.
+	 *
+	 * @return The codec pool
+	 */
+	private static ImageCodecPool getCodecPool() {
+		ImageService imageService = ImageService.getInstance();
 
-		return this;
+		return imageService == null ? ImageCodecPool.NONE : imageService.getCodecPool();
 	}
 
 	/**
 	 * Resizes the image to the specified dimensions.
 	 *
+	 * <p>
+	 * "bicubic", "bilinear" and "nearest" are drawn through {@code Graphics2D}. The resampling filters
+	 * "lanczos", "mitchell", "catmullrom" and "box" use the multithreaded {@link ResampleUtil} resampler,
+	 * which takes every source pixel into account and therefore does not alias on large downscales.
+	 * "fast-quality" first halves the image with 2x2 box averaging until it is within twice the target
+	 * size and then finishes with a single Mitchell resample, which is the fastest way to produce
+	 * good looking thumbnails from large images.
+	 * </p>
+	 *
 	 * @param width          The target width in pixels
 	 * @param height         The target height in pixels
-	 * @param interpolcation The interpolation method ("bicubic", "bilinear", "nearest")
-	 * @param blurFactor     The blur factor (currently unused, reserved for future use)
+	 * @param interpolcation The interpolation method ("bicubic", "bilinear", "nearest", "lanczos", "mitchell", "catmullrom", "box", "fast-quality")
+	 * @param blurFactor     The blur factor applied to the resampling filters: 1 is neutral, larger values blur and smaller values sharpen.
+	 *                       Values of 0 or below are treated as 1. Ignored by the {@code Graphics2D} interpolation methods.
 	 *
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage resize( int width, int height, String interpolcation, int blurFactor ) {
-		BufferedImage	resizedImage	= new BufferedImage( width, height, this.image.getBufferedImage().getType() );
+		if ( FAST_QUALITY_INTERPOLATION.equalsIgnoreCase( interpolcation ) ) {
+			this.setImage(
+			    ResampleUtil.downscaleProgressive( this.pixels(), width, height, ResampleUtil.Filter.MITCHELL, blurFactor > 0 ? blurFactor : 1 ),
+			    true );
+
+			return this;
+		}
+
+		ResampleUtil.Filter filter = EnumConverterUtil.getResampleFilter( interpolcation );
+
+		if ( filter != null ) {
+			this.setImage( ResampleUtil.resample( this.pixels(), width, height, filter, blurFactor > 0 ? blurFactor : 1 ), true );
+
+			return this;
+		}
+
+		BufferedImage	resizedImage	= borrowImage( width, height, RasterUtil.derivedType( this.pixels() ) );
 		Graphics2D		resizedGraphics	= resizedImage.createGraphics();
 
 		resizedGraphics.setRenderingHint( RenderingHints.KEY_INTERPOLATION, EnumConverterUtil.getInterpolation( interpolcation ) );
 
-		resizedGraphics.drawImage( this.image.getBufferedImage(), 0, 0, width, height, null );
+		resizedGraphics.drawImage( this.pixels(), 0, 0, width, height, null );
 		resizedGraphics.dispose();
 
-		this.image = new Image( resizedImage );
-		this.cacheGraphics();
+		this.setImage( resizedImage, true );
 
 		return this;
 	}
@@ -1127,10 +2041,12 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawOval( int x, int y, int width, int height, boolean filled ) {
+		Shape oval = new Ellipse2D.Double( x, y, width, height );
+
 		if ( filled ) {
-			this.graphics.fillOval( x, y, width, height );
+			this.paint( oval, false, g -> g.fillOval( x, y, width, height ) );
 		} else {
-			this.graphics.drawOval( x, y, width, height );
+			this.paint( oval, true, g -> g.drawOval( x, y, width, height ) );
 		}
 
 		return this;
@@ -1149,27 +2065,26 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawBeveledRect( int x, int y, int width, int height, boolean raised, boolean filled ) {
-
 		this.drawRect( x, y, width, height, filled );
 
 		Color	originalColor	= this.graphics.getColor();
 		Color	highlight		= originalColor.brighter().brighter();
 		Color	shadow			= originalColor.darker().darker();
 
-		this.graphics.setColor( raised ? highlight : shadow );
+		this.configure( g -> g.setColor( raised ? highlight : shadow ) );
 		// top
-		this.graphics.drawLine( x, y, x + width, y );
+		this.drawLine( x, y, x + width, y );
 		// left
-		this.graphics.drawLine( x, y, x, y + height );
+		this.drawLine( x, y, x, y + height );
 
-		this.graphics.setColor( raised ? shadow : highlight );
+		this.configure( g -> g.setColor( raised ? shadow : highlight ) );
 
 		// right
-		this.graphics.drawLine( x + width, y, x + width, y + height );
+		this.drawLine( x + width, y, x + width, y + height );
 		// bottom
-		this.graphics.drawLine( x, y + height, x + width, y + height );
+		this.drawLine( x, y + height, x + width, y + height );
 
-		this.graphics.setColor( originalColor );
+		this.configure( g -> g.setColor( originalColor ) );
 
 		return this;
 	}
@@ -1208,18 +2123,76 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawImage( BoxImage image, int x, int y ) {
-		this.graphics.drawImage( image.getBufferedImage(), new AffineTransform( 1f, 0f, 0f, 1f, x, y ), null );
+		AffineTransform	placement	= new AffineTransform( 1f, 0f, 0f, 1f, x, y );
+		BufferedImage	source		= image.pixels();
+
+		if ( this.displayList != null ) {
+			// Draw a snapshot, so later changes to the source do not leak into the recorded operation
+			BoxImage snapshot = image.snapshot();
+
+			this.displayList.onDiscard( snapshot::release );
+			// A captured drawing may never be discarded: it gets its own copy rather than keep the source shared
+			this.displayList.onCapture( snapshot::ensureWritable );
+			this.paint( new Rectangle2D.Double( x, y, source.getWidth(), source.getHeight() ), false,
+			    g -> g.drawImage( snapshot.image.getBufferedImage(), placement, null ) );
+			return this;
+		}
+
+		this.paint( null, false, g -> g.drawImage( source, placement, null ) );
+
+		return this;
+	}
+
+	/**
+	 * Draws many images onto this image in one pass, using the {@link BlendUtil} compositing engine.
+	 * This is much faster than one {@link #drawImage(BoxImage, int, int)} call per image for large
+	 * numbers of small images such as map markers, sprites or badges: every distinct image is
+	 * converted to premultiplied pixels only once, and the canvas is split into row bands that are
+	 * composited in parallel.
+	 *
+	 * @param items An array of structs with the keys {@code image} (a BoxImage), {@code x} and {@code y}
+	 *              (defaulting to 0) and {@code opacity} (0.0 to 1.0, defaulting to 1). Later items are drawn
+	 *              on top of earlier ones.
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage drawImages( Array items ) {
+		List<BlendUtil.Layer> layers = new ArrayList<>( items.size() );
+
+		for ( int i = 0; i < items.size(); i++ ) {
+			CastAttempt<IStruct> itemAttempt = StructCaster.attempt( items.get( i ) );
+
+			if ( !itemAttempt.wasSuccessful() || ! ( itemAttempt.get().get( KeyDictionary.image ) instanceof BoxImage source ) ) {
+				throw new BoxRuntimeException( "Item " + ( i + 1 ) + " must be a struct with an [image] key holding an image" );
+			}
+
+			IStruct	item	= itemAttempt.get();
+			Object	opacity	= item.get( KeyDictionary.opacity );
+
+			layers.add( new BlendUtil.Layer(
+			    source.pixels(),
+			    IntegerCaster.cast( item.getOrDefault( KeyDictionary.x, 0 ) ),
+			    IntegerCaster.cast( item.getOrDefault( KeyDictionary.y, 0 ) ),
+			    opacity == null ? 1.0 : DoubleCaster.cast( opacity )
+			) );
+		}
+
+		this.ensureWritable();
+
+		BlendUtil.compositeAll( this.pixels(), layers, BlendUtil.BlendMode.NORMAL );
 
 		return this;
 	}
 
 	/**
 	 * Gets the underlying Java BufferedImage.
+	 * Since the caller may keep a reference to it, its pixel buffer is never returned to the raster pool.
 	 *
 	 * @return The BufferedImage wrapped by this BoxImage
 	 */
 	public BufferedImage getBufferedImage() {
-		return this.image.getBufferedImage();
+		this.ownsRaster = false;
+		return this.pixels();
 	}
 
 	/**
@@ -1232,6 +2205,19 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @throws BoxRuntimeException If the image has no source path or cannot be saved
 	 */
 	public BoxImage write() {
+		return write( ( IStruct ) null );
+	}
+
+	/**
+	 * Writes the image back to its original source path, with encoder options.
+	 *
+	 * @param options The encoder options, see {@link ImageWriteOptions}, or null for the defaults of the format
+	 *
+	 * @return This BoxImage instance for method chaining
+	 *
+	 * @throws BoxRuntimeException If the image has no source path, an option is invalid or the image cannot be saved
+	 */
+	public BoxImage write( IStruct options ) {
 		if ( this.sourcePath == null || this.sourcePath.isEmpty() ) {
 			throw new BoxRuntimeException( "Cannot write image: no source path available. Use write(path) to specify a destination." );
 		}
@@ -1246,7 +2232,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 			}
 		}
 
-		return write( path );
+		return write( path, options );
 	}
 
 	/**
@@ -1261,6 +2247,22 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @throws BoxRuntimeException If the image cannot be saved
 	 */
 	public BoxImage write( String path ) {
+		return write( path, null );
+	}
+
+	/**
+	 * Writes the image to a file at the specified path, with encoder options.
+	 * Automatically creates parent directories if they don't exist.
+	 *
+	 * @param path    The file path where the image should be saved
+	 * @param options The encoder options, see {@link ImageWriteOptions}, or null for the defaults of the format
+	 *
+	 * @return This BoxImage instance for method chaining
+	 *
+	 * @throws BoxRuntimeException If an option is invalid or the image cannot be saved
+	 */
+	public BoxImage write( String path, IStruct options ) {
+		ImageWriteOptions writeOptions = ImageWriteOptions.of( options );
 		try {
 			File	targetFile	= new File( path );
 			File	parentDir	= targetFile.getParentFile();
@@ -1268,7 +2270,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 				FileSystemUtil.createDirectory( parentDir.getAbsolutePath() );
 			}
 			String format = getFormatFromPath( path );
-			if ( !ImageIO.write( prepareForFormat( this.image.getBufferedImage(), format ), format, targetFile ) ) {
+			if ( !getCodecPool().write( prepareForFormat( this.pixels(), format ), format, targetFile, writeOptions ) ) {
 				throw new BoxRuntimeException( "No suitable ImageIO writer found for format: " + format );
 			}
 		} catch ( BoxRuntimeException e ) {
@@ -1286,6 +2288,14 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	/**
 	 * Crops the image to the specified rectangular region.
 	 *
+	 * <p>
+	 * A region that lies within the image does not copy any pixels: the cropped image is a view of the
+	 * region that shares the pixel data of the original, so crops that are only encoded or resampled
+	 * afterwards cost nothing. When the original pixel data is shared with a {@link #snapshot()}, the
+	 * view keeps sharing it and only the cropped region is copied the first time it is drawn on.
+	 * Regions extending beyond the image are copied into a new image, padded with transparent pixels.
+	 * </p>
+	 *
 	 * @param x      The x-coordinate of the upper-left corner of the crop region
 	 * @param y      The y-coordinate of the upper-left corner of the crop region
 	 * @param width  The width of the crop region
@@ -1294,7 +2304,17 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage crop( int x, int y, int width, int height ) {
-		this.image.crop( x, y, width, height );
+		BufferedImage current = this.pixels();
+
+		if ( x >= 0 && y >= 0 && width > 0 && height > 0 && x + width <= current.getWidth() && y + height <= current.getHeight() ) {
+			this.image = new Image( current.getSubimage( x, y, width, height ) );
+		} else {
+			this.image.crop( x, y, width, height );
+			this.unshare();
+		}
+		// The parent buffer is still referenced by the view, so it can no longer be recycled
+		this.ownsRaster = false;
+		this.cacheGraphics();
 
 		return this;
 	}
@@ -1306,7 +2326,9 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage negative() {
-		BufferedImage bufferedImage = this.image.getBufferedImage();
+		this.ensureWritable();
+
+		BufferedImage bufferedImage = this.pixels();
 		// Convert to negative
 		for ( int y = 0; y < this.image.getHeight(); y++ ) {
 			for ( int x = 0; x < this.image.getWidth(); x++ ) {
@@ -1339,64 +2361,57 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage addBorder( int thickness, String color ) {
-		Image			next	= new Image( this.image.getWidth() + ( thickness * 2 ), this.image.getHeight() + ( thickness * 2 ) );
-		BufferedImage	bfImage	= next.getBufferedImage();
+		BufferedImage	bfImage	= borrowImage( this.image.getWidth() + ( thickness * 2 ), this.image.getHeight() + ( thickness * 2 ),
+		    BufferedImage.TYPE_INT_ARGB );
 		Graphics2D		g		= bfImage.createGraphics();
 
 		g.setColor( COLORS.get( color.toLowerCase() ) );
 		g.fillRect( 0, 0, bfImage.getWidth(), bfImage.getHeight() );
 
-		g.drawImage( this.image.getBufferedImage(), thickness, thickness, null );
+		g.drawImage( this.pixels(), thickness, thickness, null );
+		g.dispose();
 
-		this.image		= next;
-		this.graphics	= g;
+		this.setImage( bfImage, true );
 
 		return this;
 	}
 
 	/**
 	 * Transposes (flips or rotates) the image according to the specified operation.
+	 * The pixels are remapped directly without any resampling, so the result keeps the image type and is lossless.
 	 *
-	 * @param transpose The transpose operation ("90", "180", "270", "flipHorizontal", "flipVertical")
+	 * @param transpose The transpose operation ("horizontal", "vertical", "diagonal", "antidiagonal", "90", "180" or "270")
 	 *
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage transpose( String transpose ) {
 		// TODO transfer colors and strokes
-		if ( transpose.equalsIgnoreCase( "vertical" ) ) {
-			AffineTransform tx = AffineTransform.getScaleInstance( 1, -1 );
-			tx.translate( 0, -this.image.getHeight() );
-			AffineTransformOp op = new AffineTransformOp( tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR );
-			this.image = new Image( op.filter( this.image.getBufferedImage(), null ) );
-			this.cacheGraphics();
-		} else if ( transpose.equalsIgnoreCase( "horizontal" ) ) {
-			AffineTransform tx = AffineTransform.getScaleInstance( -1, 1 );
-			tx.translate( -this.image.getWidth(), 0 );
-			AffineTransformOp op = new AffineTransformOp( tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR );
-			this.image = new Image( op.filter( this.image.getBufferedImage(), null ) );
-			this.cacheGraphics();
-		} else if ( transpose.equalsIgnoreCase( "diagonal" ) ) {
-			transpose( "90" ).transpose( "horizontal" );
-		} else if ( transpose.equalsIgnoreCase( "antidiagonal" ) ) {
-			transpose( "270" ).transpose( "horizontal" );
-		} else if ( transpose.equalsIgnoreCase( "90" ) ) {
-			this.image.rotate( 90 );
-		} else if ( transpose.equalsIgnoreCase( "180" ) ) {
-			this.image.rotate( 180 );
-		} else if ( transpose.equalsIgnoreCase( "270" ) ) {
-			this.image.rotate( 270 );
+		TransposeUtil.Operation operation = EnumConverterUtil.getTransposeOperation( transpose );
+
+		if ( operation == null ) {
+			return this;
 		}
 
+		BufferedImage	source	= this.pixels();
+		int				width	= operation.swapsAxes() ? source.getHeight() : source.getWidth();
+		int				height	= operation.swapsAxes() ? source.getWidth() : source.getHeight();
+		// Palette and custom images keep their own color model, which a pooled image of their type would not have
+		BufferedImage	target	= RasterUtil.hasOwnColorModel( source )
+		    ? RasterUtil.createCompatible( source, width, height )
+		    : borrowImage( width, height, source.getType() );
+
+		this.setImage( TransposeUtil.transform( source, operation, target ), true );
+
 		return this;
 	}
 
 	/**
-	 * Gets the image data as a byte array.
+	 * Gets the image data as a byte array, encoded in the format of the source path or as a JPEG.
 	 *
 	 * @return A byte array containing the image data
 	 */
 	public byte[] getBytes() {
-		return this.image.getByteArray();
+		return toByteArray();
 	}
 
 	/**
@@ -1410,7 +2425,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage clearRect( int x, int y, int width, int height ) {
-		graphics.clearRect( x, y, width, height );
+		this.paint( new Rectangle2D.Double( x, y, width, height ), false, g -> g.clearRect( x, y, width, height ) );
 
 		return this;
 	}
@@ -1429,10 +2444,12 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawRoundRect( int x, int y, int width, int height, int arcWidth, int arcHeight, boolean filled ) {
+		Shape roundRect = new RoundRectangle2D.Double( x, y, width, height, arcWidth, arcHeight );
+
 		if ( filled ) {
-			graphics.fillRoundRect( x, y, width, height, arcWidth, arcHeight );
+			this.paint( roundRect, false, g -> g.fillRoundRect( x, y, width, height, arcWidth, arcHeight ) );
 		} else {
-			graphics.drawRoundRect( x, y, width, height, arcWidth, arcHeight );
+			this.paint( roundRect, true, g -> g.drawRoundRect( x, y, width, height, arcWidth, arcHeight ) );
 		}
 
 		return this;
@@ -1450,10 +2467,12 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage drawRect( int x, int y, int width, int height, boolean filled ) {
+		Rectangle2D bounds = new Rectangle2D.Double( x, y, width, height );
+
 		if ( filled ) {
-			graphics.fillRect( x, y, width, height );
+			this.paint( bounds, false, g -> g.fillRect( x, y, width, height ) );
 		} else {
-			graphics.drawRect( x, y, width, height );
+			this.paint( bounds, true, g -> g.drawRect( x, y, width, height ) );
 		}
 
 		return this;
@@ -1470,7 +2489,7 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage fillRect( int x, int y, int width, int height ) {
-		graphics.fillRect( x, y, width, height );
+		this.paint( new Rectangle2D.Double( x, y, width, height ), false, g -> g.fillRect( x, y, width, height ) );
 		return this;
 	}
 
@@ -1493,8 +2512,10 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	public BoxImage setDrawingColor( String color ) {
 		this.drawingColor = color;
 
-		if ( COLORS.containsKey( color.toLowerCase() ) ) {
-			graphics.setColor( COLORS.get( color.toLowerCase() ) );
+		Color namedColor = COLORS.get( color.toLowerCase() );
+
+		if ( namedColor != null ) {
+			this.configure( g -> g.setColor( namedColor ) );
 		}
 
 		return this;
@@ -1510,8 +2531,10 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	public BoxImage setBackgroundColor( String color ) {
 		this.backgroundColor = color;
 
-		if ( COLORS.containsKey( color.toLowerCase() ) ) {
-			graphics.setBackground( COLORS.get( color.toLowerCase() ) );
+		Color namedColor = COLORS.get( color.toLowerCase() );
+
+		if ( namedColor != null ) {
+			this.configure( g -> g.setBackground( namedColor ) );
 		}
 
 		return this;
@@ -1536,15 +2559,44 @@ public class BoxImage implements IBoxBinaryRepresentable {
 	}
 
 	/**
-	 * Applies a blur filter to the image.
+	 * Applies a blur filter to the image, using the default fast box-approximated Gaussian.
 	 *
 	 * @param radius The blur radius (higher values produce more blur)
 	 *
 	 * @return This BoxImage instance for method chaining
 	 */
 	public BoxImage blur( Integer radius ) {
+		return blur( radius, DEFAULT_BLUR_ALGORITHM );
+	}
 
-		this.image.blur( radius.floatValue() );
+	/**
+	 * Applies a blur filter to the image.
+	 *
+	 * @param radius    The blur radius (higher values produce more blur)
+	 * @param algorithm The blur algorithm:
+	 *                  <ul>
+	 *                  <li>"box" - Three successive box blurs approximating a Gaussian. Runs in constant time per pixel regardless of the radius (default)</li>
+	 *                  <li>"gaussian" - An exact Gaussian kernel, whose cost grows with the radius. Matches the output of earlier versions of this module</li>
+	 *                  </ul>
+	 *
+	 * @return This BoxImage instance for method chaining
+	 */
+	public BoxImage blur( Integer radius, String algorithm ) {
+		BufferedImage blurred;
+
+		switch ( algorithm.toLowerCase() ) {
+			case "box" :
+				blurred = ConvolutionUtil.boxBlur( this.pixels(), radius.floatValue(), ConvolutionUtil.EdgeMode.CLAMP );
+				break;
+			case "gaussian" :
+				float[] kernel = ConvolutionUtil.gaussianKernel( radius.floatValue() );
+				blurred = ConvolutionUtil.convolveSeparable( this.pixels(), kernel, kernel, ConvolutionUtil.EdgeMode.CLAMP );
+				break;
+			default :
+				throw new BoxRuntimeException( "Unsupported blur algorithm [" + algorithm + "]. Supported algorithms are [box, gaussian]" );
+		}
+
+		this.setImage( blurred, true );
 
 		return this;
 	}
@@ -1647,6 +2699,8 @@ public class BoxImage implements IBoxBinaryRepresentable {
 			for ( int col = 0; col < columns; col++ ) {
 				BufferedImage	subImage	= sourceImage.getSubimage( col * tileWidth, row * tileHeight, tileWidth, tileHeight );
 				BoxImage		tile		= new BoxImage( subImage );
+				// Tiles are views of this image: drawing on a tile (or on this image) copies the pixels first
+				tile.shareCount = this.share();
 				rowArray.push( tile );
 			}
 			result.push( rowArray );
@@ -1877,6 +2931,10 @@ public class BoxImage implements IBoxBinaryRepresentable {
 			g.dispose();
 			return rgb;
 		}
+		// Hand encoders straight alpha, which is what every image format stores
+		if ( image.isAlphaPremultiplied() ) {
+			return RasterUtil.convert( image, java.awt.image.BufferedImage.TYPE_INT_ARGB );
+		}
 		return image;
 	}
 
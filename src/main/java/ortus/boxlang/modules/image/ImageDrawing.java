@@ -0,0 +1,231 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import ortus.boxlang.modules.image.util.DisplayList;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.modules.image.util.ParallelUtil;
+import ortus.boxlang.runtime.dynamic.casters.CastAttempt;
+import ortus.boxlang.runtime.dynamic.casters.DoubleCaster;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StructCaster;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * A resolution-independent drawing: the drawing operations recorded on a {@link BoxImage} in display
+ * list mode, captured with {@link BoxImage#captureDrawing()}.
+ *
+ * <p>
+ * A drawing keeps the recorded lines, shapes, text and images as vector operations rather than
+ * pixels, so it can be rendered at any size, any number of times, without running the drawing code
+ * again: rendering a badge at five output sizes costs five rasterisations, not five script runs.
+ * Rendering at a different size than the canvas it was recorded on scales the drawing axis, so
+ * strokes, curves and text are rasterised at the target resolution rather than resampled. Several
+ * targets are rendered in parallel, and the device space bounds of the operations are kept per size,
+ * so rendering the same size again skips that step too.
+ * </p>
+ *
+ * <p>
+ * New images rendered from a drawing have the pixel type of the canvas it was recorded on and start
+ * out transparent, or black for types without an alpha channel, so drawings usually begin with a
+ * background fill. A drawing is immutable and can be rendered from several threads at once.
+ * </p>
+ */
+public class ImageDrawing {
+
+	private final DisplayList	displayList;
+	private final int			width;
+	private final int			height;
+	private final int			imageType;
+
+	/**
+	 * Creates a drawing from a recorded display list.
+	 *
+	 * @param displayList The recorded drawing operations
+	 * @param width       The width of the canvas the operations were recorded on
+	 * @param height      The height of the canvas the operations were recorded on
+	 * @param imageType   The {@link BufferedImage} type of new images rendered from the drawing
+	 */
+	ImageDrawing( DisplayList displayList, int width, int height, int imageType ) {
+		this.displayList	= displayList;
+		this.width			= width;
+		this.height			= height;
+		this.imageType		= imageType;
+	}
+
+	/**
+	 * Gets the width of the canvas the drawing was recorded on.
+	 *
+	 * @return The width in pixels
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Gets the height of the canvas the drawing was recorded on.
+	 *
+	 * @return The height in pixels
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Returns the number of drawing operations in the drawing.
+	 *
+	 * @return The number of drawing operations, not counting drawing state changes
+	 */
+	public int size() {
+		return this.displayList.size();
+	}
+
+	/**
+	 * Renders the drawing into a new image of the given size. The drawing is stretched when the aspect
+	 * ratio differs from the one of the canvas it was recorded on.
+	 *
+	 * @param width  The width of the new image
+	 * @param height The height of the new image
+	 *
+	 * @return The new image
+	 */
+	public BoxImage render( int width, int height ) {
+		if ( width <= 0 || height <= 0 ) {
+			throw new BoxRuntimeException( "Cannot render a drawing at " + width + "x" + height + ": the size must be positive." );
+		}
+
+		BoxImage image = new BoxImage( new BufferedImage( width, height, this.imageType ) );
+
+		image.renderDisplayList( this.displayList, scaleTo( width, height ) );
+
+		return image;
+	}
+
+	/**
+	 * Renders the drawing into a new image, scaled from the size of the canvas it was recorded on.
+	 *
+	 * @param scale The scale factor, 1 being the size of the canvas
+	 *
+	 * @return The new image
+	 */
+	public BoxImage render( double scale ) {
+		return render( ( int ) Math.max( 1, Math.round( this.width * scale ) ), ( int ) Math.max( 1, Math.round( this.height * scale ) ) );
+	}
+
+	/**
+	 * Renders the drawing on top of an existing image, stretched to its size.
+	 *
+	 * @param target The image to draw on
+	 *
+	 * @return The target image
+	 */
+	public BoxImage renderOnto( BoxImage target ) {
+		target.renderDisplayList( this.displayList, scaleTo( target.getWidth(), target.getHeight() ) );
+
+		return target;
+	}
+
+	/**
+	 * Renders the drawing for every target, in parallel.
+	 *
+	 * @param targets The targets, each of which is an existing {@link BoxImage} to draw on, a scale factor, or a
+	 *                struct with a {@code width} and/or a {@code height} (the missing dimension keeping the aspect ratio)
+	 *
+	 * @return The rendered images, in the order of the targets
+	 */
+	public List<BoxImage> renderAll( List<?> targets ) {
+		BoxImage[]		results		= new BoxImage[ targets.size() ];
+		Set<BoxImage>	existing	= Collections.newSetFromMap( new IdentityHashMap<>() );
+		boolean			distinct	= true;
+
+		for ( Object target : targets ) {
+			if ( target instanceof BoxImage image ) {
+				distinct &= existing.add( image );
+			}
+		}
+
+		if ( distinct ) {
+			ParallelUtil.forEachIndex( results.length, i -> results[ i ] = render( targets.get( i ) ) );
+		} else {
+			// The same image cannot be drawn on from several threads
+			for ( int i = 0; i < results.length; i++ ) {
+				results[ i ] = render( targets.get( i ) );
+			}
+		}
+
+		return Arrays.asList( results );
+	}
+
+	/**
+	 * Renders the drawing for a single target.
+	 *
+	 * @param target An existing {@link BoxImage} to draw on, a scale factor, or a struct with a {@code width} and/or a {@code height}
+	 *
+	 * @return The rendered image
+	 */
+	public BoxImage render( Object target ) {
+		if ( target instanceof BoxImage image ) {
+			return renderOnto( image );
+		}
+
+		CastAttempt<IStruct> size = StructCaster.attempt( target );
+		if ( size.wasSuccessful() ) {
+			Object	targetWidth		= size.get().get( KeyDictionary.width );
+			Object	targetHeight	= size.get().get( KeyDictionary.height );
+
+			if ( targetWidth == null && targetHeight == null ) {
+				throw new BoxRuntimeException( "A drawing size must have a [width] and/or a [height]." );
+			}
+			if ( targetHeight == null ) {
+				return render( IntegerCaster.cast( targetWidth ) / ( double ) this.width );
+			}
+			if ( targetWidth == null ) {
+				return render( IntegerCaster.cast( targetHeight ) / ( double ) this.height );
+			}
+			return render( IntegerCaster.cast( targetWidth ), IntegerCaster.cast( targetHeight ) );
+		}
+
+		CastAttempt<Double> scale = DoubleCaster.attempt( target );
+		if ( scale.wasSuccessful() ) {
+			return render( scale.get().doubleValue() );
+		}
+
+		throw new BoxRuntimeException( "Cannot render a drawing to [" + target + "]: expected an image, a scale factor or a struct with a width and/or a height." );
+	}
+
+	/**
+	 * Returns the transform scaling the canvas the drawing was recorded on to the given size.
+	 *
+	 * @param targetWidth  The width to scale to
+	 * @param targetHeight The height to scale to
+	 *
+	 * @return The scale transform
+	 */
+	private AffineTransform scaleTo( int targetWidth, int targetHeight ) {
+		return AffineTransform.getScaleInstance( targetWidth / ( double ) this.width, targetHeight / ( double ) this.height );
+	}
+}
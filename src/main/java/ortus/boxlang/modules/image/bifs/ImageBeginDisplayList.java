@@ -0,0 +1,53 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "beginDisplayList" )
+public class ImageBeginDisplayList extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageBeginDisplayList() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) )
+		};
+	}
+
+	/**
+	 * Starts recording the drawing operations of an image instead of applying them one at a time. The recorded
+	 * lines, shapes, text and images are rasterised together, in parallel tiles, by ImageEndDisplayList. Use it
+	 * around charts, maps and other drawings made of thousands of primitives. The result is identical to drawing
+	 * without a display list.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.name The image or name of variable that references an image to record drawing operations for.
+	 *
+	 * @return The BoxImage instance.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage theImage = arguments.get( KeyDictionary.name ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
+
+		theImage.beginDisplayList();
+
+		return theImage;
+	}
+
+}
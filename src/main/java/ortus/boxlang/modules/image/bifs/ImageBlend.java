@@ -0,0 +1,76 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.DoubleCaster;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "blend" )
+public class ImageBlend extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageBlend() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, "any", KeyDictionary.image1, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, "any", KeyDictionary.image2, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, "string", KeyDictionary.blendMode, "normal" ),
+		    new Argument( false, "numeric", KeyDictionary.x, 0 ),
+		    new Argument( false, "numeric", KeyDictionary.y, 0 ),
+		    new Argument( false, "numeric", KeyDictionary.opacity, 1 )
+		};
+	}
+
+	/**
+	 * Composites one image onto another with a blend mode, at the given position and opacity.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.image1 The destination image (or name of variable) to composite onto.
+	 *
+	 * @argument.image2 The source image (or name of variable) to composite.
+	 *
+	 * @argument.blendMode The blend mode: "normal", "multiply", "screen", "overlay", "hard-light", "soft-light", "darken", "lighten" or
+	 *                     "difference". Defaults to "normal".
+	 *
+	 * @argument.x The x coordinate of the source image, may be negative. Defaults to 0.
+	 *
+	 * @argument.y The y coordinate of the source image, may be negative. Defaults to 0.
+	 *
+	 * @argument.opacity The opacity of the source image (0.0 to 1.0). Defaults to 1.
+	 *
+	 * @return The BoxImage instance with the source image composited onto it.
+	 */
+	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage	theImage		= arguments.get( KeyDictionary.image1 ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.image1 )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.image1 ) );
+
+		BoxImage	theImageToDraw	= arguments.get( KeyDictionary.image2 ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.image2 )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.image2 ) );
+
+		return theImage.blend(
+		    theImageToDraw,
+		    arguments.getAsString( KeyDictionary.blendMode ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.x ) ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.y ) ),
+		    DoubleCaster.cast( arguments.get( KeyDictionary.opacity ) )
+		);
+	}
+
+}
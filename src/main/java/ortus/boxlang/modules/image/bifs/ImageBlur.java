@@ -25,7 +25,8 @@ public class ImageBlur extends BIF {
 		super();
 		declaredArguments = new Argument[] {
 		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) ),
-		    new Argument( true, "numeric", KeyDictionary.blurRadius, 3 )
+		    new Argument( true, "numeric", KeyDictionary.blurRadius, 3 ),
+		    new Argument( false, "string", KeyDictionary.algorithm, BoxImage.DEFAULT_BLUR_ALGORITHM )
 		};
 	}
 
@@ -39,6 +40,8 @@ public class ImageBlur extends BIF {
 	 *
 	 * @argument.blurRadius The amount to blur the image. Defaults to 3.
 	 *
+	 * @argument.algorithm The blur algorithm: "box" (a fast approximation of a Gaussian blur whose cost does not depend on the radius) or "gaussian" (an exact Gaussian kernel, matching the output of earlier versions). Defaults to "box".
+	 *
 	 * @return The BoxImage instance.
 	 */
 	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
@@ -46,7 +49,7 @@ public class ImageBlur extends BIF {
 		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
 		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
 
-		theImage.blur( IntegerCaster.cast( arguments.get( KeyDictionary.blurRadius ) ) );
+		theImage.blur( IntegerCaster.cast( arguments.get( KeyDictionary.blurRadius ) ), arguments.getAsString( KeyDictionary.algorithm ) );
 
 		return theImage;
 	}
@@ -0,0 +1,36 @@
+package ortus.boxlang.modules.image.bifs;
+
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.IStruct;
+
+@BoxBIF
+public class ImageCaptchaPoolStats extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageCaptchaPoolStats() {
+		super();
+	}
+
+	/**
+	 * Returns the statistics of the pool of pre-generated captchas used by ImageGenerateCaptcha() and the captcha action of the
+	 * image component when no text is given, sized by the {@code captchaPoolDepth} module setting.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @return A struct with the keys enabled, depth, refillRate, profiles, ready, hits, misses and generated.
+	 */
+	public IStruct _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		ImageService imageService = ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService );
+
+		return imageService.getCaptchaPool().getStats();
+	}
+
+}
@@ -0,0 +1,50 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "captureDrawing" )
+public class ImageCaptureDrawing extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageCaptureDrawing() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) )
+		};
+	}
+
+	/**
+	 * Ends display list mode on an image without rendering, and returns the drawing operations recorded since
+	 * ImageBeginDisplayList as a resolution-independent drawing. Render it at any number of sizes with
+	 * ImageDrawingRender, without running the drawing code again.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.name The image or name of variable that references an image to capture the drawing operations of.
+	 *
+	 * @return The captured drawing.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage theImage = arguments.get( KeyDictionary.name ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
+
+		return theImage.captureDrawing();
+	}
+
+}
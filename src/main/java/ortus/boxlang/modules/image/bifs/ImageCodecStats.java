@@ -0,0 +1,38 @@
+package ortus.boxlang.modules.image.bifs;
+
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.IStruct;
+
+@BoxBIF
+public class ImageCodecStats extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageCodecStats() {
+		super();
+	}
+
+	/**
+	 * Returns the statistics of the pooled ImageIO readers and writers images are decoded and encoded with, and of the streams
+	 * they read from and write to: {@code tempFiles} counts the streams buffered in temporary files when the {@code imageIOCache}
+	 * module setting is enabled, {@code memoryStreams} the ones buffered in memory.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @return A struct with the keys maxIdle, idleReaders, idleWriters, readerHits, readerMisses, writerHits, writerMisses, diskCache,
+	 *         memoryStreams and tempFiles.
+	 */
+	public IStruct _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		ImageService imageService = ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService );
+
+		return imageService.getCodecPool().getStats();
+	}
+
+}
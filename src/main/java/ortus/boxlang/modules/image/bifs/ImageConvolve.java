@@ -0,0 +1,53 @@
+package ortus.boxlang.modules.image.bifs;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "convolve" )
+public class ImageConvolve extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageConvolve() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.name ),
+		    new Argument( true, "array", KeyDictionary.kernel ),
+		    new Argument( false, "string", KeyDictionary.edgeMode, "clamp" )
+		};
+	}
+
+	/**
+	 * Convolves the image with an arbitrary kernel. Large images are processed in parallel.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.name The image or name of variable that references an image to convolve.
+	 *
+	 * @argument.kernel The kernel as an array of rows, each row an array of numeric weights, e.g. [ [ 0, -1, 0 ], [ -1, 5, -1 ], [ 0, -1, 0 ] ].
+	 *
+	 * @argument.edgeMode How pixels beyond the image edges are sampled: "clamp" (repeat the edge pixel), "wrap" (tile the image) or "zero" (transparent black). Defaults to "clamp".
+	 *
+	 * @return The BoxImage instance after convolution.
+	 */
+	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage theImage = arguments.get( KeyDictionary.name ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
+
+		theImage.convolve( arguments.getAsArray( KeyDictionary.kernel ), arguments.getAsString( KeyDictionary.edgeMode ) );
+
+		return theImage;
+	}
+
+}
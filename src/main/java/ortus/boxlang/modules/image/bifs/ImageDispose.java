@@ -0,0 +1,52 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "dispose" )
+public class ImageDispose extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageDispose() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) )
+		};
+	}
+
+	/**
+	 * Releases all resources held by the image: its drawing context, its pixel data (which is returned to the
+	 * raster pool for reuse) and its metadata. Use it in loops that process many images to free memory right away
+	 * instead of waiting for garbage collection. The image cannot be used after it has been disposed.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.name The image or name of variable that references an image to dispose.
+	 *
+	 * @return null
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage theImage = arguments.get( KeyDictionary.name ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
+
+		theImage.close();
+
+		return null;
+	}
+
+}
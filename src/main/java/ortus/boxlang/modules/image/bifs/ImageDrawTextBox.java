@@ -0,0 +1,85 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "drawTextBox" )
+public class ImageDrawTextBox extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageDrawTextBox() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) ),
+		    new Argument( true, "string", KeyDictionary.text, Set.of( Validator.REQUIRED ) ),
+		    new Argument( true, "numeric", KeyDictionary.x, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) ),
+		    new Argument( true, "numeric", KeyDictionary.y, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) ),
+		    new Argument( true, "numeric", KeyDictionary.width, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) ),
+		    new Argument( true, "numeric", KeyDictionary.height, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) ),
+		    new Argument( false, "struct", KeyDictionary.fontConfig ),
+		    new Argument( false, "string", KeyDictionary.align, "left" )
+		};
+	}
+
+	/**
+	 * Draws text wrapped in a box. The lines are broken at the line breaks of the text and wherever needed to fit the
+	 * width of the box, and drawn from the top of the box down. When the text does not fit the height of the box, the
+	 * last line that does ends with an ellipsis. The text is clipped to the box.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.name The image or name of variable that references an image to operate on.
+	 *
+	 * @argument.text The text to draw.
+	 *
+	 * @argument.x The x coordinate of the left edge of the box.
+	 *
+	 * @argument.y The y coordinate of the top edge of the box.
+	 *
+	 * @argument.width The width of the box.
+	 *
+	 * @argument.height The height of the box.
+	 *
+	 * @argument.fontConfig The font properties, as accepted by ImageDrawText (font, style, size, strikeThrough, underline).
+	 *
+	 * @argument.align The horizontal alignment of the lines: left (default), center or right.
+	 *
+	 * @return The BoxImage instance.
+	 */
+	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage	theImage	= arguments.get( KeyDictionary.name ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
+
+		IStruct		fontConfig	= arguments.getAsStruct( KeyDictionary.fontConfig );
+
+		return theImage.drawTextBox(
+		    StringCaster.cast( arguments.get( KeyDictionary.text ) ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.x ) ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.y ) ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.width ) ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.height ) ),
+		    fontConfig == null ? new Struct() : fontConfig,
+		    arguments.getAsString( KeyDictionary.align )
+		);
+	}
+
+}
@@ -0,0 +1,62 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.ImageDrawing;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = ImageDrawing.class, name = "render" )
+public class ImageDrawingRender extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageDrawingRender() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.drawing, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, "any", KeyDictionary.targets, 1 )
+		};
+	}
+
+	/**
+	 * Renders a drawing captured with ImageCaptureDrawing. Each target is either an existing image to draw on (the
+	 * drawing is stretched to its size), a scale factor relative to the canvas the drawing was recorded on, or a
+	 * struct with a width and/or a height for a new image. When an array of targets is passed, they are rendered in
+	 * parallel and an array of images is returned.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.drawing The drawing to render.
+	 *
+	 * @argument.targets An image, a scale factor, a struct with a width and/or a height, or an array of those. Defaults to 1.
+	 *
+	 * @return The rendered image, or an array of images when an array of targets is passed.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		if ( ! ( arguments.get( KeyDictionary.drawing ) instanceof ImageDrawing drawing ) ) {
+			throw new BoxRuntimeException( "The drawing argument must be a drawing returned by ImageCaptureDrawing()." );
+		}
+
+		Object targets = arguments.get( KeyDictionary.targets );
+
+		if ( targets instanceof Array targetArray ) {
+			return Array.fromList( drawing.renderAll( targetArray ) );
+		}
+
+		return drawing.render( targets );
+	}
+
+}
@@ -0,0 +1,52 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "endDisplayList" )
+public class ImageEndDisplayList extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageEndDisplayList() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) )
+		};
+	}
+
+	/**
+	 * Rasterises the drawing operations recorded since ImageBeginDisplayList onto the image and returns to
+	 * applying drawing operations immediately. Large display lists are rendered in parallel on horizontal tiles
+	 * of the image.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.name The image or name of variable that references an image whose display list should be rendered.
+	 *
+	 * @return The BoxImage instance.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage theImage = arguments.get( KeyDictionary.name ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
+
+		theImage.endDisplayList();
+
+		return theImage;
+	}
+
+}
@@ -17,9 +17,11 @@
  */
 package ortus.boxlang.modules.image.bifs;
 
-import java.util.Set;
+import java.util.List;
 
 import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.services.CaptchaPool;
+import ortus.boxlang.modules.image.services.ImageService;
 import ortus.boxlang.modules.image.util.KeyDictionary;
 import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
@@ -27,10 +29,10 @@ import ortus.boxlang.runtime.context.IBoxContext;
 import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
 import ortus.boxlang.runtime.dynamic.casters.StringCaster;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.Argument;
 import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
 import ortus.boxlang.runtime.util.FileSystemUtil;
-import ortus.boxlang.runtime.validation.Validator;
 
 /**
  * Generates a CAPTCHA image with distorted text designed to be human-readable but
@@ -52,6 +54,11 @@ import ortus.boxlang.runtime.validation.Validator;
  * captcha = ImageGenerateCaptcha( 35, 400, "loner" );
  * captcha = ImageGenerateCaptcha( 35, 400, "loner", "high" );
  * captcha = ImageGenerateCaptcha( 35, 400, "loner", "high", "serif,sansserif", 24 );
+ *
+ * // Random answer stored in a variable, taken from the captcha pool when the captchaPoolDepth module setting is set
+ * captcha = ImageGenerateCaptcha( height = 75, width = 200, difficulty = "medium", textVariable = "captchaAnswer" );
+ * session.captchaAnswer = captchaAnswer;
+ * ImageWrite( captcha, "/path/to/captcha.png" );
  * </pre>
  */
 @BoxBIF
@@ -62,12 +69,13 @@ public class ImageGenerateCaptcha extends BIF {
 		declaredArguments = new Argument[] {
 		    new Argument( false, "numeric", KeyDictionary.height, 75 ),
 		    new Argument( false, "numeric", KeyDictionary.width, 200 ),
-		    new Argument( true, "string", KeyDictionary.text, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) ),
+		    new Argument( false, "string", KeyDictionary.text, "" ),
 		    new Argument( false, "string", KeyDictionary.difficulty, "low" ),
 		    new Argument( false, "string", KeyDictionary.fonts, "" ),
 		    new Argument( false, "numeric", KeyDictionary.fontSize, 24 ),
 		    new Argument( false, "string", KeyDictionary.destination, "" ),
 		    new Argument( false, "boolean", KeyDictionary.overwrite, false ),
+		    new Argument( false, "string", KeyDictionary.textVariable, "" ),
 		};
 	}
 
@@ -81,8 +89,8 @@ public class ImageGenerateCaptcha extends BIF {
 	 *
 	 * @argument.width Width of the generated image in pixels. Defaults to 200.
 	 *
-	 * @argument.text The text string to render in the CAPTCHA image. Required. Uppercase letters
-	 *                and digits are recommended for readability.
+	 * @argument.text The text string to render in the CAPTCHA image. Uppercase letters and digits are
+	 *                recommended for readability. Either {@code text} or {@code textVariable} is required.
 	 *
 	 * @argument.difficulty Controls the level of visual distortion applied to the image.
 	 *                      One of {@code low} (minimal rotation, clean background),
@@ -101,17 +109,27 @@ public class ImageGenerateCaptcha extends BIF {
 	 * @argument.overwrite When {@code true}, overwrites an existing file at {@code destination}.
 	 *                     Defaults to {@code false}.
 	 *
+	 * @argument.textVariable Variable name in which to store the random answer of a captcha generated without
+	 *                        {@code text}. Such captchas are taken from the captcha pool, or generated on the spot if
+	 *                        none is ready.
+	 *
 	 * @return The generated CAPTCHA as a BoxImage.
 	 */
 	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
-		int		height		= IntegerCaster.cast( arguments.get( KeyDictionary.height ) );
-		int		width		= IntegerCaster.cast( arguments.get( KeyDictionary.width ) );
-		String	text		= arguments.getAsString( KeyDictionary.text );
-		String	difficulty	= arguments.getAsString( KeyDictionary.difficulty );
-		String	fontsArg	= StringCaster.cast( arguments.get( KeyDictionary.fonts ) );
-		int		fontSize	= IntegerCaster.cast( arguments.get( KeyDictionary.fontSize ) );
-		String	destination	= StringCaster.cast( arguments.get( KeyDictionary.destination ) );
-		boolean	overwrite	= ( boolean ) arguments.get( KeyDictionary.overwrite );
+		int		height			= IntegerCaster.cast( arguments.get( KeyDictionary.height ) );
+		int		width			= IntegerCaster.cast( arguments.get( KeyDictionary.width ) );
+		String	text			= arguments.getAsString( KeyDictionary.text );
+		String	difficulty		= arguments.getAsString( KeyDictionary.difficulty );
+		String	fontsArg		= StringCaster.cast( arguments.get( KeyDictionary.fonts ) );
+		int		fontSize		= IntegerCaster.cast( arguments.get( KeyDictionary.fontSize ) );
+		String	destination		= StringCaster.cast( arguments.get( KeyDictionary.destination ) );
+		boolean	overwrite		= ( boolean ) arguments.get( KeyDictionary.overwrite );
+		String	textVariable	= arguments.getAsString( KeyDictionary.textVariable );
+		boolean	pooled			= text == null || text.isEmpty();
+
+		if ( pooled && ( textVariable == null || textVariable.isEmpty() ) ) {
+			throw new BoxRuntimeException( "The text or textVariable argument is required to generate a captcha" );
+		}
 
 		if ( difficulty == null || difficulty.isEmpty() ) {
 			difficulty = "low";
@@ -121,7 +139,16 @@ public class ImageGenerateCaptcha extends BIF {
 		    ? new String[ 0 ]
 		    : fontsArg.split( "\\s*,\\s*" );
 
-		BoxImage	captcha		= BoxImage.generateCaptcha( text, width, height, fontSize, difficulty, fontList );
+		BoxImage captcha;
+		if ( pooled ) {
+			ImageService		imageService	= ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService );
+			CaptchaPool.Captcha	taken			= imageService.getCaptchaPool()
+			    .take( new CaptchaPool.Profile( width, height, fontSize, difficulty.toLowerCase(), List.of( fontList ) ) );
+			captcha = taken.image();
+			context.getDefaultAssignmentScope().assign( context, Key.of( textVariable ), taken.text() );
+		} else {
+			captcha = BoxImage.generateCaptcha( text, width, height, fontSize, difficulty, fontList );
+		}
 
 		if ( destination != null && !destination.isEmpty() ) {
 			String resolvedPath = FileSystemUtil.expandPath( context, destination ).absolutePath().toString();
@@ -9,6 +9,7 @@ import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.bifs.BoxMember;
 import ortus.boxlang.runtime.context.IBoxContext;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.Argument;
 import ortus.boxlang.runtime.types.BoxLangType;
 import ortus.boxlang.runtime.validation.Validator;
@@ -23,18 +24,26 @@ public class ImageGetBlob extends BIF {
 	public ImageGetBlob() {
 		super();
 		declaredArguments = new Argument[] {
-		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) )
+		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, "string", Key.format, Set.of( Validator.NON_EMPTY ) ),
+		    new Argument( false, "struct", KeyDictionary.options )
 		};
 	}
 
 	/**
-	 * Returns the image as a byte array in the PNG format.
+	 * Returns the image as a byte array, in the format of its source file, or JPEG, unless another format is given.
 	 *
 	 * @param context   The context in which the BIF is being invoked.
 	 * @param arguments Argument scope for the BIF.
 	 *
 	 * @argument.name The image or name of variable that references an image to operate on.
 	 *
+	 * @argument.format The image format (e.g., "png", "jpg", "gif"). Defaults to the format of the source
+	 *                  file, or "jpg" for an image without one.
+	 *
+	 * @argument.options A struct of encoder options: quality (0-1), progressive (boolean), chromaSubsampling ("4:4:4", "4:2:2"
+	 *                   or "4:2:0") and optimizeHuffman (boolean). Options the format does not support are ignored.
+	 *
 	 * @return The image as a byte array.
 	 */
 	public byte[] _invoke( IBoxContext context, ArgumentsScope arguments ) {
@@ -42,7 +51,9 @@ public class ImageGetBlob extends BIF {
 		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
 		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
 
-		return theImage.getBytes();
+		String format = arguments.getAsString( Key.format );
+
+		return theImage.toByteArray( format == null ? theImage.getFormat() : format, arguments.getAsStruct( KeyDictionary.options ) );
 	}
 
 }
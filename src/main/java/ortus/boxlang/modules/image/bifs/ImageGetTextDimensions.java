@@ -0,0 +1,67 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class ImageGetTextDimensions extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageGetTextDimensions() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "string", KeyDictionary.text, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, "struct", KeyDictionary.fontConfig ),
+		    new Argument( false, "numeric", KeyDictionary.width ),
+		    new Argument( false, "numeric", KeyDictionary.height )
+		};
+	}
+
+	/**
+	 * Measures text as ImageDrawText would draw it on a new image, without drawing it. Line breaks in the text start
+	 * new lines, and when a width is given the lines are also wrapped to fit it. When a height is given too, the text
+	 * is fitted in the box: the largest font size (up to the configured size, or the height of the box) at which the
+	 * wrapped text fits is found and the text is measured at that size.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.text The text to measure.
+	 *
+	 * @argument.fontConfig The font properties, as accepted by ImageDrawText (font, style, size, strikeThrough, underline).
+	 *
+	 * @argument.width The width to wrap the lines at.
+	 *
+	 * @argument.height The height of the box to fit the text in.
+	 *
+	 * @return A struct with the keys width, height, ascent, descent, leading, lineHeight, size, fits and lines (an array of
+	 *         structs with the text and the width of each line).
+	 */
+	public IStruct _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		IStruct	fontConfig	= arguments.getAsStruct( KeyDictionary.fontConfig );
+		Object	width		= arguments.get( KeyDictionary.width );
+		Object	height		= arguments.get( KeyDictionary.height );
+
+		return BoxImage.getTextDimensions(
+		    StringCaster.cast( arguments.get( KeyDictionary.text ) ),
+		    fontConfig == null ? new Struct() : fontConfig,
+		    width == null ? null : IntegerCaster.cast( width ),
+		    height == null ? null : IntegerCaster.cast( height )
+		);
+	}
+
+}
@@ -80,7 +80,7 @@ public class ImageNew extends BIF {
 		if ( source instanceof BufferedImage sourceBufferedImage ) {
 			return new BoxImage( sourceBufferedImage );
 		} else if ( source instanceof BoxImage sourceBoxImage ) {
-			return sourceBoxImage.copy();
+			return sourceBoxImage.snapshot();
 		}
 
 		CastAttempt<String> castAttempt = StringCaster.attempt( source );
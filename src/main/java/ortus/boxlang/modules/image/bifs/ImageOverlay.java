@@ -8,6 +8,7 @@ import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.bifs.BoxMember;
 import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
 import ortus.boxlang.runtime.types.Argument;
 import ortus.boxlang.runtime.types.BoxLangType;
@@ -27,7 +28,9 @@ public class ImageOverlay extends BIF {
 		    new Argument( false, "any", KeyDictionary.image1, Set.of( Validator.REQUIRED ) ),
 		    new Argument( false, "any", KeyDictionary.image2, Set.of( Validator.REQUIRED ) ),
 		    new Argument( false, "string", KeyDictionary.rule, "SRC_OVER" ),
-		    new Argument( false, "numeric", KeyDictionary.transparency, .25 )
+		    new Argument( false, "numeric", KeyDictionary.transparency, .25 ),
+		    new Argument( false, "numeric", KeyDictionary.x, 0 ),
+		    new Argument( false, "numeric", KeyDictionary.y, 0 )
 		};
 	}
 
@@ -41,10 +44,16 @@ public class ImageOverlay extends BIF {
 	 *
 	 * @argument.image2 The image (or name of variable) to overlay on top.
 	 *
-	 * @argument.rule The compositing rule. Defaults to "SRC_OVER".
+	 * @argument.rule The compositing rule. Either a Porter-Duff rule ("SRC", "SRC_OVER", "SRC_IN", "SRC_OUT", "DST_IN", "DST_OUT", "DST_OVER")
+	 *                or a blend mode ("normal", "multiply", "screen", "overlay", "hard-light", "soft-light", "darken", "lighten", "difference").
+	 *                Defaults to "SRC_OVER".
 	 *
 	 * @argument.transparency The transparency level for the overlay (0.0 to 1.0). Defaults to 0.25.
 	 *
+	 * @argument.x The x coordinate of the overlay. Defaults to 0.
+	 *
+	 * @argument.y The y coordinate of the overlay. Defaults to 0.
+	 *
 	 * @return The BoxImage instance with the overlay applied.
 	 */
 	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
@@ -56,7 +65,13 @@ public class ImageOverlay extends BIF {
 		    ? ( BoxImage ) arguments.get( KeyDictionary.image2 )
 		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.image2 ) );
 
-		theImage.overlay( theImageToDraw, arguments.getAsString( KeyDictionary.rule ), arguments.getAsDouble( KeyDictionary.transparency ) );
+		theImage.overlay(
+		    theImageToDraw,
+		    arguments.getAsString( KeyDictionary.rule ),
+		    arguments.getAsDouble( KeyDictionary.transparency ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.x ) ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.y ) )
+		);
 		return theImage;
 	}
 
@@ -8,6 +8,7 @@ import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.bifs.BoxMember;
 import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.DoubleCaster;
 import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
 import ortus.boxlang.runtime.types.Argument;
@@ -30,7 +31,9 @@ public class ImagePaste extends BIF {
 		    new Argument( false, "any", KeyDictionary.image1, Set.of( Validator.REQUIRED ) ),
 		    new Argument( false, "any", KeyDictionary.image2, Set.of( Validator.REQUIRED ) ),
 		    new Argument( false, "numeric", KeyDictionary.x ),
-		    new Argument( false, "numeric", KeyDictionary.y )
+		    new Argument( false, "numeric", KeyDictionary.y ),
+		    new Argument( false, "numeric", KeyDictionary.opacity, 1 ),
+		    new Argument( false, "string", KeyDictionary.blendMode, "normal" )
 		};
 	}
 
@@ -48,6 +51,11 @@ public class ImagePaste extends BIF {
 	 *
 	 * @argument.y The y coordinate at which to paste the source image.
 	 *
+	 * @argument.opacity The opacity of the pasted image (0.0 to 1.0). Defaults to 1.
+	 *
+	 * @argument.blendMode The blend mode: "normal", "multiply", "screen", "overlay", "hard-light", "soft-light", "darken", "lighten" or
+	 *                     "difference". Defaults to "normal".
+	 *
 	 * @return The BoxImage instance with the pasted image.
 	 */
 	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
@@ -59,7 +67,16 @@ public class ImagePaste extends BIF {
 		    ? ( BoxImage ) arguments.get( KeyDictionary.image2 )
 		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.image2 ) );
 
-		theImage.drawImage( theImageToDraw, IntegerCaster.cast( arguments.get( KeyDictionary.x ) ), IntegerCaster.cast( arguments.get( KeyDictionary.x ) ) );
+		int		x			= IntegerCaster.cast( arguments.get( KeyDictionary.x ) );
+		int		y			= IntegerCaster.cast( arguments.get( KeyDictionary.y ) );
+		double	opacity		= DoubleCaster.cast( arguments.get( KeyDictionary.opacity ) );
+		String	blendMode	= arguments.getAsString( KeyDictionary.blendMode );
+
+		if ( opacity >= 1 && "normal".equalsIgnoreCase( blendMode ) ) {
+			theImage.drawImage( theImageToDraw, x, y );
+		} else {
+			theImage.blend( theImageToDraw, blendMode, x, y, opacity );
+		}
 		return theImage;
 	}
 
@@ -0,0 +1,55 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.bifs.BoxMember;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.BoxLangType;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "pasteMany" )
+@BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "drawImages" )
+public class ImagePasteMany extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImagePasteMany() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.canvas, Set.of( Validator.REQUIRED ) ),
+		    new Argument( true, "array", KeyDictionary.items )
+		};
+	}
+
+	/**
+	 * Pastes many images onto a canvas in a single call. Every distinct image is converted once and the
+	 * canvas is composited in parallel bands, which is much faster than calling ImagePaste() for each of
+	 * hundreds of map markers, sprites or badges.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.canvas The image (or name of variable) to paste onto.
+	 *
+	 * @argument.items An array of structs with the keys image (the image to paste), x and y (defaulting to 0) and
+	 *                 opacity (0.0 to 1.0, defaulting to 1). Later items are pasted on top of earlier ones.
+	 *
+	 * @return The BoxImage instance with the images pasted onto it.
+	 */
+	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BoxImage theImage = arguments.get( KeyDictionary.canvas ) instanceof BoxImage
+		    ? ( BoxImage ) arguments.get( KeyDictionary.canvas )
+		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.canvas ) );
+
+		return theImage.drawImages( arguments.getAsArray( KeyDictionary.items ) );
+	}
+
+}
@@ -3,6 +3,8 @@ package ortus.boxlang.modules.image.bifs;
 import java.util.Set;
 
 import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.util.KeyDictionary;
 import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.context.IBoxContext;
@@ -28,6 +30,8 @@ public class ImageRead extends BIF {
 
 	/**
 	 * Reads an image from a file path or URL and returns a BoxImage object.
+	 * When the {@code decodedImageCache} module setting is enabled, local files are decoded once and later
+	 * reads return a copy-on-write copy of the cached image.
 	 *
 	 * @param context   The context in which the BIF is being invoked.
 	 * @param arguments Argument scope for the BIF.
@@ -41,7 +45,7 @@ public class ImageRead extends BIF {
 		String	imagePath		= providedPath.substring( 0, 4 ).equalsIgnoreCase( "http" ) ? providedPath
 		    : FileSystemUtil.expandPath( context, providedPath ).absolutePath().toString();
 		try {
-			return new BoxImage( imagePath );
+			return ( ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService ) ).readImage( imagePath );
 		} catch ( Exception e ) {
 			throw new BoxRuntimeException( "Unable to load image: " + arguments.getAsString( Key.path ), e );
 		}
@@ -0,0 +1,52 @@
+package ortus.boxlang.modules.image.bifs;
+
+import java.nio.file.Path;
+
+import ortus.boxlang.modules.image.services.DecodedImageCache;
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.util.FileSystemUtil;
+
+@BoxBIF
+public class ImageReadCacheClear extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageReadCacheClear() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, "String", Key.path )
+		};
+	}
+
+	/**
+	 * Removes images from the decoded image cache used by imageRead(), so the next read decodes them from disk again.
+	 * Files that change on disk are detected automatically; use this to free memory or after replacing files in a way
+	 * that keeps their modification time and size.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.path The file path of a single image to remove from the cache. When omitted, the whole cache is cleared.
+	 *
+	 * @return The number of images removed from the cache.
+	 */
+	public Integer _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		DecodedImageCache	cache	= ( ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService ) ).getDecodedImageCache();
+		String				path	= arguments.getAsString( Key.path );
+
+		if ( path == null || path.isBlank() ) {
+			return cache.clear();
+		}
+
+		return cache.invalidate( Path.of( FileSystemUtil.expandPath( context, path ).absolutePath().toString() ) ) ? 1 : 0;
+	}
+
+}
@@ -0,0 +1,39 @@
+package ortus.boxlang.modules.image.bifs;
+
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.IStruct;
+
+@BoxBIF
+public class ImageReadCacheStats extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageReadCacheStats() {
+		super();
+	}
+
+	/**
+	 * Returns the statistics of the decoded image cache used by imageRead() when the {@code decodedImageCache}
+	 * module setting is enabled.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @return A struct with the keys enabled, entries, bytes, maxBytes, hits, misses and evictions.
+	 */
+	public IStruct _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		ImageService	imageService	= ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService );
+		IStruct			stats			= imageService.getDecodedImageCache().getStats();
+
+		stats.put( "enabled", imageService.isDecodedImageCacheEnabled() );
+
+		return stats;
+	}
+
+}
@@ -18,7 +18,6 @@ import ortus.boxlang.runtime.validation.Validator;
 @BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "resize" )
 public class ImageResize extends BIF {
 
-	// TODO finish filling out interpolation options
 	// TODO add member annotation
 	/**
 	 * Constructor
@@ -46,9 +45,9 @@ public class ImageResize extends BIF {
 	 *
 	 * @argument.height The new height in pixels.
 	 *
-	 * @argument.interpolation The interpolation algorithm. One of "bilinear", "bicubic", or "nearest". Defaults to "bilinear".
+	 * @argument.interpolation The interpolation algorithm. One of "bilinear", "bicubic" or "nearest", or one of the resampling filters "lanczos", "mitchell", "catmullrom" or "box", which give better results for large downscales, or "fast-quality" for fast thumbnails of large images (repeated halving followed by a single Mitchell resample). Defaults to "bilinear".
 	 *
-	 * @argument.blurFactor The blur factor applied during resizing. Defaults to 1.
+	 * @argument.blurFactor The blur factor applied to the resampling filters. 1 is neutral, larger values blur and smaller values sharpen. Defaults to 1.
 	 *
 	 * @return The BoxImage instance after resizing.
 	 */
@@ -7,6 +7,7 @@ import ortus.boxlang.modules.image.util.KeyDictionary;
 import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.DoubleCaster;
 import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
 import ortus.boxlang.runtime.types.Argument;
@@ -26,18 +27,29 @@ public class ImageRotate extends BIF {
 		declaredArguments = new Argument[] {
 		    new Argument( true, "any", KeyDictionary.name ),
 		    new Argument( true, "numeric", KeyDictionary.angle, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) ),
+		    new Argument( false, "string", KeyDictionary.interpolation )
 		};
 	}
 
 	/**
 	 * Rotates the image by the specified angle in degrees.
 	 *
+	 * <p>
+	 * Whole angles without an interpolation keep the original rotation, which draws the image onto a
+	 * white canvas. Fractional angles, or an explicit interpolation, use the multithreaded rotation
+	 * engine instead: it computes the exact bounds of the rotated image, blends its edges into the
+	 * background color (or transparency, for images with an alpha channel) and defaults to bilinear
+	 * interpolation. This is the one to use for deskewing scanned documents.
+	 * </p>
+	 *
 	 * @param context   The context in which the BIF is being invoked.
 	 * @param arguments Argument scope for the BIF.
 	 *
 	 * @argument.name The image or name of variable that references an image to rotate.
 	 *
-	 * @argument.angle The angle of rotation in degrees.
+	 * @argument.angle The angle of rotation in degrees, may be fractional.
+	 *
+	 * @argument.interpolation The interpolation method: "nearest", "bilinear" or "bicubic".
 	 *
 	 * @return The BoxImage instance after rotation.
 	 */
@@ -46,9 +58,14 @@ public class ImageRotate extends BIF {
 		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
 		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
 
-		theImage.rotate(
-		    IntegerCaster.cast( arguments.get( KeyDictionary.angle ) )
-		);
+		double	angle			= DoubleCaster.cast( arguments.get( KeyDictionary.angle ) );
+		String	interpolation	= arguments.getAsString( KeyDictionary.interpolation );
+
+		if ( interpolation == null && angle == Math.rint( angle ) ) {
+			theImage.rotate( IntegerCaster.cast( arguments.get( KeyDictionary.angle ) ) );
+		} else {
+			theImage.rotate( angle, interpolation == null ? "bilinear" : interpolation );
+		}
 
 		return theImage;
 	}
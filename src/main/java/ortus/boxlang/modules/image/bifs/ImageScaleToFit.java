@@ -16,7 +16,6 @@ import ortus.boxlang.runtime.types.BoxLangType;
 @BoxMember( type = BoxLangType.CUSTOM, customType = BoxImage.class, name = "scaleToFit" )
 public class ImageScaleToFit extends BIF {
 
-	// TODO finish filling out interpolation options
 	// TODO add blur factor
 
 	/**
@@ -47,7 +46,7 @@ public class ImageScaleToFit extends BIF {
 	 *
 	 * @argument.height The target height. Omit or pass null to scale based on width only.
 	 *
-	 * @argument.interpolation The interpolation algorithm. One of "bilinear", "bicubic", or "nearest". Defaults to "bilinear".
+	 * @argument.interpolation The interpolation algorithm. One of "bilinear", "bicubic" or "nearest", or one of the resampling filters "lanczos", "mitchell", "catmullrom" or "box", which give better results for large downscales, or "fast-quality" for fast thumbnails of large images (repeated halving followed by a single Mitchell resample). Defaults to "bilinear".
 	 *
 	 * @return The BoxImage instance after scaling.
 	 */
@@ -0,0 +1,40 @@
+package ortus.boxlang.modules.image.bifs;
+
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.IStruct;
+
+@BoxBIF
+public class ImageTextCacheStats extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public ImageTextCacheStats() {
+		super();
+	}
+
+	/**
+	 * Returns the statistics of the cache of fonts, laid out strings and measured texts used by drawText() and
+	 * ImageGetTextDimensions(), sized by the {@code textCacheSize} module setting.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @return A struct with the keys enabled, fonts, glyphRuns, textBlocks, maxEntries, fontHits, fontMisses, glyphHits, glyphMisses,
+	 *         measureHits, measureMisses and evictions.
+	 */
+	public IStruct _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		ImageService	imageService	= ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService );
+		IStruct			stats			= imageService.getTextCache().getStats();
+
+		stats.put( "enabled", ( Integer ) stats.get( "maxEntries" ) > 0 );
+
+		return stats;
+	}
+
+}
@@ -10,6 +10,7 @@ import ortus.boxlang.runtime.context.IBoxContext;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
 import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.IStruct;
 import ortus.boxlang.runtime.util.FileSystemUtil;
 import ortus.boxlang.runtime.validation.Validator;
 
@@ -23,12 +24,14 @@ public class ImageWrite extends BIF {
 		super();
 		declaredArguments = new Argument[] {
 		    new Argument( true, "any", KeyDictionary.name, Set.of( Validator.REQUIRED ) ),
-		    new Argument( false, "String", Key.path, Set.of( Validator.NON_EMPTY ) )
+		    new Argument( false, "String", Key.path, Set.of( Validator.NON_EMPTY ) ),
+		    new Argument( false, "struct", KeyDictionary.options )
 		};
 	}
 
 	/**
 	 * Writes an image to a file. If no path is provided, writes to the original source path.
+	 * The format is determined from the file extension, and encoded with the optional encoder options.
 	 *
 	 * @param context   The context in which the BIF is being invoked.
 	 * @param arguments Argument scope for the BIF.
@@ -37,6 +40,9 @@ public class ImageWrite extends BIF {
 	 *
 	 * @argument.path The file path to write to. If omitted, writes to the original source path.
 	 *
+	 * @argument.options A struct of encoder options: quality (0-1), progressive (boolean), chromaSubsampling ("4:4:4", "4:2:2"
+	 *                   or "4:2:0") and optimizeHuffman (boolean). Options the format does not support are ignored.
+	 *
 	 * @return The BoxImage instance.
 	 */
 	public BoxImage _invoke( IBoxContext context, ArgumentsScope arguments ) {
@@ -46,12 +52,13 @@ public class ImageWrite extends BIF {
 
 		// If no path provided, write to original source path
 		String		providedPath	= arguments.getAsString( Key.path );
+		IStruct		options			= arguments.getAsStruct( KeyDictionary.options );
 		if ( providedPath == null || providedPath.isEmpty() ) {
-			theImage.write();
+			theImage.write( options );
 		} else {
 			String imagePath = providedPath.substring( 0, 4 ).equalsIgnoreCase( "http" ) ? providedPath
 			    : FileSystemUtil.expandPath( context, providedPath ).absolutePath().toString();
-			theImage.write( imagePath );
+			theImage.write( imagePath, options );
 		}
 
 		return theImage;
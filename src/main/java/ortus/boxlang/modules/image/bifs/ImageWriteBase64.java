@@ -23,7 +23,8 @@ public class ImageWriteBase64 extends BIF {
 		super();
 		declaredArguments = new Argument[] {
 		    new Argument( true, "any", KeyDictionary.name ),
-		    new Argument( true, "String", Key.format, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) )
+		    new Argument( true, "String", Key.format, Set.of( Validator.REQUIRED, Validator.NON_EMPTY ) ),
+		    new Argument( false, "struct", KeyDictionary.options )
 		};
 	}
 
@@ -37,6 +38,9 @@ public class ImageWriteBase64 extends BIF {
 	 *
 	 * @argument.format The image format (e.g., "png", "jpg", "gif").
 	 *
+	 * @argument.options A struct of encoder options: quality (0-1), progressive (boolean), chromaSubsampling ("4:4:4", "4:2:2"
+	 *                   or "4:2:0") and optimizeHuffman (boolean). Options the format does not support are ignored.
+	 *
 	 * @return A Base64-encoded string representation of the image.
 	 */
 	public String _invoke( IBoxContext context, ArgumentsScope arguments ) {
@@ -44,7 +48,9 @@ public class ImageWriteBase64 extends BIF {
 		    ? ( BoxImage ) arguments.get( KeyDictionary.name )
 		    : ( BoxImage ) context.getDefaultAssignmentScope().get( arguments.getAsString( KeyDictionary.name ) );
 		try {
-			return theImage.toBase64String( arguments.getAsString( Key.format ) );
+			return theImage.toBase64String( arguments.getAsString( Key.format ), arguments.getAsStruct( KeyDictionary.options ) );
+		} catch ( BoxRuntimeException e ) {
+			throw e;
 		} catch ( Exception e ) {
 			throw new BoxRuntimeException( "Unable to create baes64 string", e );
 		}
@@ -1,12 +1,15 @@
 package ortus.boxlang.modules.image.bifs;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Set;
 
 import javax.imageio.ImageIO;
 
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.modules.image.util.KeyDictionary;
 import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.context.IBoxContext;
@@ -55,7 +58,11 @@ public class IsImageFile extends BIF {
 			    && scheme != null
 			    && ( scheme.equals( "http" )
 			        || scheme.equals( "https" ) ) ) {
-				return ImageIO.read( path.toURL() ) != null;
+				// Buffered like every other stream read, rather than through ImageIO's temporary files
+				ImageService imageService = ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService );
+				try ( InputStream input = path.toURL().openStream() ) {
+					return imageService.getCodecPool().read( input ) != null;
+				}
 			}
 		} catch ( URISyntaxException e ) {
 			// pass
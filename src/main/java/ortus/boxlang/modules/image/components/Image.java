@@ -17,12 +17,14 @@
  */
 package ortus.boxlang.modules.image.components;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import ortus.boxlang.modules.image.BoxImage;
 import ortus.boxlang.modules.image.ImageEvents;
+import ortus.boxlang.modules.image.services.CaptchaPool;
 import ortus.boxlang.modules.image.services.ImageService;
 import ortus.boxlang.modules.image.util.KeyDictionary;
 import ortus.boxlang.runtime.components.Attribute;
@@ -87,6 +89,7 @@ public class Image extends Component {
 		    new Attribute( KeyDictionary.source, "any" ),
 		    new Attribute( KeyDictionary.structName, "string" ),
 		    new Attribute( KeyDictionary.text, "string" ),
+		    new Attribute( KeyDictionary.textVariable, "string" ),
 		    new Attribute( KeyDictionary.thickness, "string" ),
 		    new Attribute( KeyDictionary.width, "numeric" ),
 		    new Attribute( KeyDictionary.fonts, "string" ),
@@ -135,8 +138,12 @@ public class Image extends Component {
 	 *
 	 * @attribute.thickness Border thickness in pixels. Used by {@code border}.
 	 *
-	 * @attribute.text The text string to render in the CAPTCHA image.
-	 *                 Required for {@code captcha} action.
+	 * @attribute.text The text string to render in the CAPTCHA image. Used by {@code captcha}.
+	 *                 When omitted, a captcha with a random answer is taken from the captcha pool
+	 *                 and {@code textVariable} is required.
+	 *
+	 * @attribute.textVariable Variable name in which to store the random answer of a captcha
+	 *                         generated without {@code text}. Used by {@code captcha}.
 	 *
 	 * @attribute.difficulty CAPTCHA distortion level: {@code low}, {@code medium}, or {@code high}.
 	 *                       Defaults to {@code low}. Used by {@code captcha}.
@@ -154,7 +161,8 @@ public class Image extends Component {
 	 *                   Used by {@code convert} and {@code writeToBrowser}.
 	 *
 	 * @attribute.quality Output quality (0–1) for lossy formats such as JPEG.
-	 *                    Used by {@code write} and {@code writeToBrowser}.
+	 *                    Used by {@code convert}, {@code rotate}, {@code write} and {@code writeToBrowser}
+	 *                    with {@code writeType="base64"}.
 	 *
 	 * @attribute.isBase64 When {@code true}, treats the {@code source} value as a Base64-encoded
 	 *                     image string. Used by {@code read}.
@@ -181,9 +189,11 @@ public class Image extends Component {
 
 				break;
 			case "captcha" : {
-				String captchaText = attributes.getAsString( KeyDictionary.text );
-				if ( captchaText == null || captchaText.isEmpty() ) {
-					throw new BoxRuntimeException( "The text attribute is required for the captcha action" );
+				String	captchaText		= attributes.getAsString( KeyDictionary.text );
+				String	textVariable	= attributes.getAsString( KeyDictionary.textVariable );
+				boolean	pooled			= captchaText == null || captchaText.isEmpty();
+				if ( pooled && ( textVariable == null || textVariable.isEmpty() ) ) {
+					throw new BoxRuntimeException( "The text or textVariable attribute is required for the captcha action" );
 				}
 				int		captchaWidth		= attributes.get( KeyDictionary.width ) != null
 				    ? IntegerCaster.cast( attributes.get( KeyDictionary.width ) )
@@ -202,7 +212,17 @@ public class Image extends Component {
 				    ? new String[ 0 ]
 				    : fontsAttr.split( "\\s*,\\s*" );
 
-				image = BoxImage.generateCaptcha( captchaText, captchaWidth, captchaHeight, captchaFontSize, captchaDifficulty, captchaFonts );
+				String captchaBase64 = null;
+				if ( pooled ) {
+					CaptchaPool.Captcha captcha = imageService.getCaptchaPool().take(
+					    new CaptchaPool.Profile( captchaWidth, captchaHeight, captchaFontSize, captchaDifficulty.toLowerCase(), List.of( captchaFonts ) )
+					);
+					image			= captcha.image();
+					captchaBase64	= captcha.base64();
+					context.getDefaultAssignmentScope().assign( context, Key.of( textVariable ), captcha.text() );
+				} else {
+					image = BoxImage.generateCaptcha( captchaText, captchaWidth, captchaHeight, captchaFontSize, captchaDifficulty, captchaFonts );
+				}
 
 				String captchaDest = attributes.getAsString( KeyDictionary.destination );
 				if ( captchaDest != null && !captchaDest.isEmpty() ) {
@@ -220,7 +240,7 @@ public class Image extends Component {
 				boolean	hasCaptchaOutput	= ( captchaDest != null && !captchaDest.isEmpty() )
 				    || ( captchaName != null && !captchaName.isEmpty() );
 				if ( !hasCaptchaOutput ) {
-					imageService.writeToBrowser( context, image, attributes );
+					imageService.writeToBrowser( context, image, attributes, captchaBase64 );
 				}
 				break;
 			}
@@ -269,7 +289,7 @@ public class Image extends Component {
 			case "write" :
 				// Handle write action
 				image = getImageFromContext( context, attributes );
-				image.write( StringCaster.cast( attributes.get( KeyDictionary.destination ) ) );
+				image.write( StringCaster.cast( attributes.get( KeyDictionary.destination ) ), ImageService.writeOptions( attributes ) );
 				break;
 			case "writetobrowser" :
 
@@ -326,7 +346,7 @@ public class Image extends Component {
 			throw new BoxRuntimeException( String.format( "Unable to write image, destination exists: {}", destination ) );
 		}
 
-		image.write( destination );
+		image.write( destination, ImageService.writeOptions( attributes ) );
 	}
 
 	/**
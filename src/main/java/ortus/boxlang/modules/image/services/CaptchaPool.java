@@ -0,0 +1,342 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.services;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.logging.BoxLangLogger;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * A pool of pre-generated CAPTCHA images with random answers, so pages that show a captcha on every
+ * view take a ready one instead of rendering and encoding it on the request thread.
+ *
+ * <p>
+ * Captchas are pooled per {@link Profile} (size, font size, difficulty and fonts). A profile is
+ * registered once a captcha has been generated for it on the calling thread, and a background worker
+ * then keeps its queue filled up to the pool depth, generating at most the configured number of
+ * captchas per second across all profiles. Every pooled captcha is handed out once, already encoded
+ * as a PNG. When the queue of a profile is empty, or the pool depth is 0, the captcha is generated on
+ * the calling thread instead.
+ * </p>
+ *
+ * <p>
+ * Profiles no captcha has been taken for in a while are dropped, and the least recently used one
+ * makes room for a new profile once the maximum is reached. A profile the worker fails to generate
+ * captchas for is dropped too.
+ * </p>
+ *
+ * @see ImageService#getCaptchaPool()
+ */
+public class CaptchaPool {
+
+	/**
+	 * The characters of the random answers, without the ones that are easily mistaken for others (0, O, 1, I).
+	 */
+	private static final String			ALPHABET		= "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+	/**
+	 * The maximum number of profiles kept filled. The least recently used profile is dropped to make room for a new one.
+	 */
+	private static final int			MAX_PROFILES	= 32;
+
+	/**
+	 * How often the background worker refills the pool, in milliseconds.
+	 */
+	private static final long			REFILL_PERIOD	= 100;
+
+	/**
+	 * How long a profile is kept filled after a captcha was last taken for it, in nanoseconds.
+	 */
+	private static final long			PROFILE_TTL		= TimeUnit.MINUTES.toNanos( 10 );
+
+	/**
+	 * The size, font and difficulty of a captcha.
+	 *
+	 * @param width      The width of the image in pixels
+	 * @param height     The height of the image in pixels
+	 * @param fontSize   The font size in points
+	 * @param difficulty The lower cased difficulty: low, medium or high
+	 * @param fonts      The font families picked from per character, empty for the default font
+	 */
+	public record Profile( int width, int height, int fontSize, String difficulty, List<String> fonts ) {
+	}
+
+	/**
+	 * The ready captchas of a profile.
+	 */
+	private static final class Slot {
+
+		private final BlockingQueue<Captcha>	queue;
+
+		/**
+		 * When a captcha was last taken for the profile, from {@link System#nanoTime()}.
+		 */
+		private volatile long					lastTaken	= System.nanoTime();
+
+		private Slot( int depth ) {
+			this.queue = new LinkedBlockingQueue<>( depth );
+		}
+	}
+
+	/**
+	 * A generated captcha.
+	 *
+	 * @param text   The answer
+	 * @param image  The image
+	 * @param base64 The image encoded as a Base64 PNG, or null for captchas generated on demand
+	 */
+	public record Captcha( String text, BoxImage image, String base64 ) {
+	}
+
+	/**
+	 * The number of captchas kept ready per profile, 0 if pooling is disabled.
+	 */
+	private final int					depth;
+
+	/**
+	 * The maximum number of captchas generated per second by the background worker.
+	 */
+	private final int					refillRate;
+
+	/**
+	 * The number of characters of the random answers.
+	 */
+	private final int					textLength;
+
+	/**
+	 * The encoder options of the pooled captcha PNGs.
+	 */
+	private final IStruct				pngOptions;
+
+	private final BoxLangLogger			logger;
+
+	/**
+	 * The ready captchas of each profile.
+	 */
+	private final Map<Profile, Slot>	slots			= new ConcurrentHashMap<>();
+
+	private final SecureRandom			random			= new SecureRandom();
+
+	private final AtomicLong			hits			= new AtomicLong();
+	private final AtomicLong			misses			= new AtomicLong();
+	private final AtomicLong			generated		= new AtomicLong();
+
+	/**
+	 * The background worker, started when the first profile is registered.
+	 */
+	private ScheduledExecutorService	worker;
+
+	/**
+	 * The fraction of a captcha the worker may generate on top of its whole budget, carried over between refills.
+	 */
+	private double						credit;
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param depth      The number of captchas kept ready per profile, 0 to disable pooling
+	 * @param refillRate The maximum number of captchas generated per second by the background worker
+	 * @param textLength The number of characters of the random answers
+	 * @param pngOptions The encoder options of the pooled captcha PNGs, see {@link ortus.boxlang.modules.image.util.ImageWriteOptions}
+	 * @param logger     The logger refill failures are reported to
+	 */
+	public CaptchaPool( int depth, int refillRate, int textLength, IStruct pngOptions, BoxLangLogger logger ) {
+		this.depth		= Math.max( 0, depth );
+		this.refillRate	= Math.max( 1, refillRate );
+		this.textLength	= Math.max( 1, textLength );
+		this.pngOptions	= pngOptions;
+		this.logger		= logger;
+	}
+
+	/**
+	 * Takes a captcha with a random answer, from the pool if one is ready and generated on the calling thread otherwise.
+	 * Once a captcha has been generated for a new profile, the profile is registered so that the pool is kept filled for it.
+	 *
+	 * @param profile The size, font and difficulty of the captcha
+	 *
+	 * @return The captcha, never handed out again
+	 */
+	public Captcha take( Profile profile ) {
+		Slot slot = this.slots.get( profile );
+
+		if ( slot != null ) {
+			slot.lastTaken = System.nanoTime();
+			Captcha captcha = slot.queue.poll();
+			if ( captcha != null ) {
+				this.hits.incrementAndGet();
+				return captcha;
+			}
+		}
+
+		this.misses.incrementAndGet();
+		// Generating first keeps profiles that cannot be rendered, such as an empty size, out of the pool
+		Captcha captcha = generate( profile, false );
+		if ( slot == null ) {
+			register( profile );
+		}
+		return captcha;
+	}
+
+	/**
+	 * Returns the usage statistics of the pool.
+	 *
+	 * @return A struct with the keys {@code enabled}, {@code depth}, {@code refillRate}, {@code profiles}, {@code ready},
+	 *         {@code hits}, {@code misses} and {@code generated}
+	 */
+	public IStruct getStats() {
+		IStruct stats = new Struct();
+
+		stats.put( "enabled", this.depth > 0 );
+		stats.put( "depth", this.depth );
+		stats.put( "refillRate", this.refillRate );
+		stats.put( "profiles", this.slots.size() );
+		stats.put( "ready", this.slots.values().stream().mapToInt( slot -> slot.queue.size() ).sum() );
+		stats.put( "hits", this.hits.get() );
+		stats.put( "misses", this.misses.get() );
+		stats.put( "generated", this.generated.get() );
+
+		return stats;
+	}
+
+	/**
+	 * Stops the background worker and drops the ready captchas.
+	 */
+	public synchronized void shutdown() {
+		if ( this.worker != null ) {
+			this.worker.shutdownNow();
+			this.worker = null;
+		}
+		this.slots.clear();
+	}
+
+	/**
+	 * Registers a profile so that the pool is kept filled for it, making room by dropping the least recently used
+	 * profile when the maximum is reached, and starts the background worker if needed.
+	 *
+	 * @param profile The profile
+	 */
+	private void register( Profile profile ) {
+		if ( this.depth == 0 ) {
+			return;
+		}
+
+		synchronized ( this ) {
+			if ( this.slots.containsKey( profile ) ) {
+				return;
+			}
+			if ( this.slots.size() >= MAX_PROFILES ) {
+				this.slots.entrySet().stream()
+				    .min( Comparator.comparingLong( entry -> entry.getValue().lastTaken ) )
+				    .ifPresent( entry -> this.slots.remove( entry.getKey() ) );
+			}
+			this.slots.put( profile, new Slot( this.depth ) );
+
+			if ( this.worker == null ) {
+				this.worker = Executors.newSingleThreadScheduledExecutor( runnable -> {
+					Thread thread = new Thread( runnable, "bx-image-captcha-pool" );
+					thread.setDaemon( true );
+					thread.setPriority( Thread.MIN_PRIORITY );
+					return thread;
+				} );
+				this.worker.scheduleWithFixedDelay( this::refill, 0, REFILL_PERIOD, TimeUnit.MILLISECONDS );
+			}
+		}
+	}
+
+	/**
+	 * Drops the profiles no captcha was taken for within the time to live, then generates captchas for the profiles
+	 * whose queue is not full, within the refill rate. A profile that fails to generate is dropped. Runs on the
+	 * background worker.
+	 */
+	private void refill() {
+		long now = System.nanoTime();
+		this.slots.values().removeIf( slot -> now - slot.lastTaken > PROFILE_TTL );
+
+		this.credit += this.refillRate * REFILL_PERIOD / 1000.0;
+
+		boolean filling = true;
+		while ( this.credit >= 1 && filling ) {
+			filling = false;
+			for ( Map.Entry<Profile, Slot> entry : this.slots.entrySet() ) {
+				if ( this.credit >= 1 && entry.getValue().queue.remainingCapacity() > 0 ) {
+					this.credit--;
+					try {
+						entry.getValue().queue.offer( generate( entry.getKey(), true ) );
+						filling = true;
+					} catch ( RuntimeException e ) {
+						this.slots.remove( entry.getKey() );
+						this.logger.error( "Unable to refill the captcha pool for {}, dropping it from the pool", entry.getKey(), e );
+					}
+				}
+			}
+		}
+
+		// Do not save up budget while every queue is full
+		this.credit = Math.min( this.credit, 1 );
+	}
+
+	/**
+	 * Generates a captcha with a random answer.
+	 *
+	 * @param profile The size, font and difficulty of the captcha
+	 * @param encode  Whether to encode the image as a PNG too
+	 *
+	 * @return The captcha
+	 */
+	private Captcha generate( Profile profile, boolean encode ) {
+		StringBuilder text = new StringBuilder( this.textLength );
+		for ( int i = 0; i < this.textLength; i++ ) {
+			text.append( ALPHABET.charAt( this.random.nextInt( ALPHABET.length() ) ) );
+		}
+
+		BoxImage image = BoxImage.generateCaptcha(
+		    text.toString(),
+		    profile.width(),
+		    profile.height(),
+		    profile.fontSize(),
+		    profile.difficulty(),
+		    profile.fonts().toArray( String[]::new )
+		);
+
+		this.generated.incrementAndGet();
+		if ( !encode ) {
+			return new Captcha( text.toString(), image, null );
+		}
+
+		try {
+			return new Captcha( text.toString(), image, image.toBase64String( "png", this.pngOptions ) );
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Unable to encode the captcha image: " + e.getMessage(), e );
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.services;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.drew.imaging.ImageProcessingException;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A cache of decoded images read from local files, so templates that read the same watermarks,
+ * frames or logos on every request only decode them once.
+ *
+ * <p>
+ * Entries are keyed by the canonical path of the file and validated against its last modified
+ * time and size on every lookup, so a file that changes on disk is decoded again. The cache is
+ * bounded by the total size of the decoded pixel data and evicts the least recently used entries
+ * first. Images larger than the whole cache are never cached.
+ * </p>
+ *
+ * <p>
+ * The cached images are never handed out directly: every lookup returns a copy-on-write
+ * {@link BoxImage#snapshot() snapshot}, which callers can modify without affecting the cache.
+ * </p>
+ *
+ * @see ImageService#readImage(String)
+ */
+public class DecodedImageCache {
+
+	/**
+	 * A cached image along with the file attributes it was decoded from.
+	 *
+	 * @param image        The decoded image, never modified
+	 * @param lastModified The last modified time of the file, in milliseconds
+	 * @param size         The size of the file in bytes
+	 * @param footprint    The size of the decoded pixel data in bytes
+	 */
+	private record Entry( BoxImage image, long lastModified, long size, long footprint ) {
+	}
+
+	/**
+	 * The maximum total size of the decoded pixel data held by the cache.
+	 */
+	private final long					maxBytes;
+
+	/**
+	 * The cached images by canonical path, in least recently used order.
+	 */
+	private final Map<String, Entry>	entries	= new LinkedHashMap<>( 16, 0.75f, true );
+
+	private long						bytes;
+	private long						hits;
+	private long						misses;
+	private long						evictions;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxBytes The maximum total size of the decoded pixel data held by the cache
+	 */
+	public DecodedImageCache( long maxBytes ) {
+		this.maxBytes = Math.max( 0, maxBytes );
+	}
+
+	/**
+	 * Returns a snapshot of the decoded image of a local file, decoding and caching it first if it is
+	 * not cached yet or has changed on disk since it was cached.
+	 *
+	 * @param file The path of the image file
+	 *
+	 * @return A copy-on-write snapshot of the decoded image
+	 *
+	 * @throws IOException              If the file cannot be read
+	 * @throws ImageProcessingException If metadata extraction fails
+	 * @throws URISyntaxException       If the path cannot be converted to a URI
+	 */
+	public BoxImage get( Path file ) throws IOException, ImageProcessingException, URISyntaxException {
+		Path				canonical	= file.toRealPath();
+		BasicFileAttributes	attributes	= Files.readAttributes( canonical, BasicFileAttributes.class );
+		long				modified	= attributes.lastModifiedTime().toMillis();
+		String				key			= canonical.toString();
+
+		synchronized ( this ) {
+			Entry entry = this.entries.get( key );
+
+			if ( entry != null && entry.lastModified() == modified && entry.size() == attributes.size() ) {
+				this.hits++;
+				return entry.image().snapshot();
+			}
+
+			this.misses++;
+			if ( entry != null ) {
+				remove( key );
+			}
+		}
+
+		// Decode outside of the lock, concurrent misses for the same file simply decode it twice
+		BoxImage	image		= new BoxImage( file.toString() );
+		long		footprint	= image.getMemoryFootprint();
+
+		if ( footprint > this.maxBytes ) {
+			return image;
+		}
+
+		synchronized ( this ) {
+			Entry previous = this.entries.put( key, new Entry( image, modified, attributes.size(), footprint ) );
+
+			if ( previous != null ) {
+				this.bytes -= previous.footprint();
+			}
+			this.bytes += footprint;
+			evict();
+
+			return image.snapshot();
+		}
+	}
+
+	/**
+	 * Removes the cached image of a file, if any.
+	 *
+	 * @param file The path of the image file
+	 *
+	 * @return true if an image was removed from the cache
+	 */
+	public synchronized boolean invalidate( Path file ) {
+		Path canonical;
+		try {
+			canonical = file.toRealPath();
+		} catch ( IOException e ) {
+			// The file is gone, it can only have been cached under its absolute path
+			canonical = file.toAbsolutePath().normalize();
+		}
+		return remove( canonical.toString() );
+	}
+
+	/**
+	 * Removes all cached images.
+	 *
+	 * @return The number of images removed from the cache
+	 */
+	public synchronized int clear() {
+		int count = this.entries.size();
+
+		this.entries.clear();
+		this.bytes = 0;
+
+		return count;
+	}
+
+	/**
+	 * Returns the usage statistics of the cache.
+	 *
+	 * @return A struct with the keys {@code entries}, {@code bytes}, {@code maxBytes}, {@code hits}, {@code misses} and {@code evictions}
+	 */
+	public synchronized IStruct getStats() {
+		IStruct stats = new Struct();
+
+		stats.put( "entries", this.entries.size() );
+		stats.put( "bytes", this.bytes );
+		stats.put( "maxBytes", this.maxBytes );
+		stats.put( "hits", this.hits );
+		stats.put( "misses", this.misses );
+		stats.put( "evictions", this.evictions );
+
+		return stats;
+	}
+
+	/**
+	 * Removes an entry and accounts for its size.
+	 *
+	 * @param key The canonical path of the entry
+	 *
+	 * @return true if an entry was removed
+	 */
+	private boolean remove( String key ) {
+		Entry entry = this.entries.remove( key );
+
+		if ( entry == null ) {
+			return false;
+		}
+		this.bytes -= entry.footprint();
+		return true;
+	}
+
+	/**
+	 * Evicts the least recently used entries until the cache fits in its maximum size.
+	 */
+	private void evict() {
+		Iterator<Entry> iterator = this.entries.values().iterator();
+
+		while ( this.bytes > this.maxBytes && iterator.hasNext() ) {
+			this.bytes -= iterator.next().footprint();
+			iterator.remove();
+			this.evictions++;
+		}
+	}
+}
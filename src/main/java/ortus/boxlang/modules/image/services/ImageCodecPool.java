@@ -0,0 +1,488 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.services;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.FileCacheImageInputStream;
+import javax.imageio.stream.FileCacheImageOutputStream;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import ortus.boxlang.modules.image.util.ImageWriteOptions;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Pools of {@link ImageReader} and {@link ImageWriter} instances per codec, so encoding and decoding
+ * small images does not pay for the service registry lookup and for creating a new codec, with its
+ * native state, on every call the way {@link ImageIO#read(InputStream)} and
+ * {@link ImageIO#write(RenderedImage, String, java.io.OutputStream)} do.
+ *
+ * <p>
+ * Codecs are selected exactly like {@link ImageIO} selects them: the first registered writer of the
+ * format that can encode the image, and the first registered reader that recognises the input. A
+ * codec is borrowed for a single call, {@link ImageWriter#reset() reset} and handed back afterwards,
+ * and disposed instead if the call failed or the pool of its provider is full. The providers of each
+ * format are looked up once.
+ * </p>
+ *
+ * <p>
+ * Streams are buffered in memory, with {@link MemoryCacheImageInputStream} and
+ * {@link MemoryCacheImageOutputStream}, rather than through the temporary files ImageIO uses by
+ * default. Buffering in temporary files can be turned back on per pool, and the number of temporary
+ * files created is reported in the statistics.
+ * </p>
+ *
+ * @see ImageService#getCodecPool()
+ */
+public class ImageCodecPool {
+
+	/**
+	 * A pool that keeps no idle codecs, used when the module is not loaded.
+	 */
+	public static final ImageCodecPool								NONE			= new ImageCodecPool( 0, false, null );
+
+	/**
+	 * The maximum number of idle codecs kept per provider.
+	 */
+	private final int												maxIdle;
+
+	/**
+	 * Whether streams are buffered in temporary files rather than in memory.
+	 */
+	private final boolean											diskCache;
+
+	/**
+	 * The directory of the temporary files, or null for the default temporary directory.
+	 */
+	private final File												cacheDirectory;
+
+	private final Map<ImageReaderSpi, BlockingQueue<ImageReader>>	readers			= new ConcurrentHashMap<>();
+	private final Map<ImageWriterSpi, BlockingQueue<ImageWriter>>	writers			= new ConcurrentHashMap<>();
+
+	/**
+	 * The writer providers of each format, in registration order.
+	 */
+	private final Map<String, List<ImageWriterSpi>>					writerSpis		= new ConcurrentHashMap<>();
+
+	/**
+	 * All reader providers, in registration order, or null until they are first needed.
+	 */
+	private volatile List<ImageReaderSpi>							readerSpis;
+
+	private final AtomicLong										readerHits		= new AtomicLong();
+	private final AtomicLong										readerMisses	= new AtomicLong();
+	private final AtomicLong										writerHits		= new AtomicLong();
+	private final AtomicLong										writerMisses	= new AtomicLong();
+	private final AtomicLong										memoryStreams	= new AtomicLong();
+	private final AtomicLong										tempFiles		= new AtomicLong();
+
+	/**
+	 * The number of images written by the PNG encoder of the encoder options instead of an ImageIO writer.
+	 */
+	private final AtomicLong										pngEncodes		= new AtomicLong();
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param maxIdle        The maximum number of idle codecs kept per provider, 0 to create a new codec for every call
+	 * @param diskCache      Whether to buffer streams in temporary files rather than in memory
+	 * @param cacheDirectory The directory of the temporary files, or null for the default temporary directory
+	 */
+	public ImageCodecPool( int maxIdle, boolean diskCache, File cacheDirectory ) {
+		this.maxIdle		= Math.max( 0, maxIdle );
+		this.diskCache		= diskCache;
+		this.cacheDirectory	= cacheDirectory;
+	}
+
+	/**
+	 * Decodes the first image of a stream, like {@link ImageIO#read(InputStream)}. The stream is not closed.
+	 *
+	 * @param input The encoded image
+	 *
+	 * @return The image, or null if no registered reader recognises the input
+	 *
+	 * @throws IOException If the image cannot be read
+	 */
+	public BufferedImage read( InputStream input ) throws IOException {
+		try ( ImageInputStream stream = createInputStream( input ) ) {
+			ImageReaderSpi provider = findReader( stream );
+			if ( provider == null ) {
+				return null;
+			}
+
+			ImageReader	reader	= borrow( this.readers, provider, ImageReaderSpi::createReaderInstance, this.readerHits, this.readerMisses );
+			boolean		reuse	= false;
+			try {
+				reader.setInput( stream, true, true );
+				BufferedImage image = reader.read( 0, reader.getDefaultReadParam() );
+				reuse = true;
+				return image;
+			} finally {
+				release( this.readers, provider, reader, reuse );
+			}
+		}
+	}
+
+	/**
+	 * Encodes an image, like {@link ImageIO#write(RenderedImage, String, File)} and its stream variant. A file output is
+	 * replaced.
+	 *
+	 * @param image  The image
+	 * @param format The informal name of the format, e.g. {@code png}
+	 * @param output A {@link File} or an {@link java.io.OutputStream}, which is not closed
+	 *
+	 * @return false if no registered writer of the format can encode the image
+	 *
+	 * @throws IOException If the image cannot be written
+	 */
+	public boolean write( RenderedImage image, String format, Object output ) throws IOException {
+		return write( image, format, output, ImageWriteOptions.DEFAULT );
+	}
+
+	/**
+	 * Encodes an image with encoder options, such as the compression quality. A file output is replaced.
+	 *
+	 * @param image   The image
+	 * @param format  The informal name of the format, e.g. {@code jpg}
+	 * @param output  A {@link File} or an {@link java.io.OutputStream}, which is not closed
+	 * @param options The encoder options, options the writer does not support are ignored
+	 *
+	 * @return false if no registered writer of the format can encode the image
+	 *
+	 * @throws IOException If the image cannot be written
+	 */
+	public boolean write( RenderedImage image, String format, Object output, ImageWriteOptions options ) throws IOException {
+		if ( options.usesPngEncoder( format, image ) ) {
+			writePng( ( BufferedImage ) image, output, options );
+			return true;
+		}
+
+		ImageTypeSpecifier	type		= ImageTypeSpecifier.createFromRenderedImage( image );
+		ImageWriterSpi		provider	= findWriter( format, type );
+		if ( provider == null ) {
+			return false;
+		}
+
+		if ( output instanceof File file ) {
+			file.delete();
+		}
+
+		try ( ImageOutputStream stream = createOutputStream( output ) ) {
+			ImageWriter	writer	= borrow( this.writers, provider, ImageWriterSpi::createWriterInstance, this.writerHits, this.writerMisses );
+			boolean		reuse	= false;
+			try {
+				writer.setOutput( stream );
+				ImageWriteParam param = options.createWriteParam( writer );
+				writer.write( null, new IIOImage( image, null, options.createImageMetadata( writer, type, param ) ), param );
+				reuse = true;
+			} finally {
+				release( this.writers, provider, writer, reuse );
+			}
+			stream.flush();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the usage statistics of the pool.
+	 *
+	 * @return A struct with the keys {@code maxIdle}, {@code idleReaders}, {@code idleWriters}, {@code readerHits},
+	 *         {@code readerMisses}, {@code writerHits}, {@code writerMisses}, {@code diskCache}, {@code memoryStreams},
+	 *         {@code tempFiles} and {@code pngEncodes}
+	 */
+	public IStruct getStats() {
+		IStruct stats = new Struct();
+
+		stats.put( "maxIdle", this.maxIdle );
+		stats.put( "idleReaders", this.readers.values().stream().mapToInt( BlockingQueue::size ).sum() );
+		stats.put( "idleWriters", this.writers.values().stream().mapToInt( BlockingQueue::size ).sum() );
+		stats.put( "readerHits", this.readerHits.get() );
+		stats.put( "readerMisses", this.readerMisses.get() );
+		stats.put( "writerHits", this.writerHits.get() );
+		stats.put( "writerMisses", this.writerMisses.get() );
+		stats.put( "diskCache", this.diskCache );
+		stats.put( "memoryStreams", this.memoryStreams.get() );
+		stats.put( "tempFiles", this.tempFiles.get() );
+		stats.put( "pngEncodes", this.pngEncodes.get() );
+
+		return stats;
+	}
+
+	/**
+	 * Disposes the idle codecs and forgets the providers, so plugins registered since are picked up.
+	 */
+	public void clear() {
+		this.readerSpis = null;
+		this.writerSpis.clear();
+		drain( this.readers );
+		drain( this.writers );
+	}
+
+	/**
+	 * Encodes an image with the PNG encoder of the options, which writes to the output directly.
+	 *
+	 * @param image   The image
+	 * @param output  A {@link File}, which is replaced, or an {@link OutputStream}, which is not closed
+	 * @param options The encoder options
+	 *
+	 * @throws IOException If the image cannot be written
+	 */
+	private void writePng( BufferedImage image, Object output, ImageWriteOptions options ) throws IOException {
+		if ( output instanceof File file ) {
+			file.delete();
+			try ( OutputStream stream = new BufferedOutputStream( new FileOutputStream( file ) ) ) {
+				options.writePng( image, stream );
+			}
+		} else if ( output instanceof OutputStream stream ) {
+			options.writePng( image, stream );
+		} else {
+			throw new IIOException( "Can't create an ImageOutputStream!" );
+		}
+		this.pngEncodes.incrementAndGet();
+	}
+
+	/**
+	 * Wraps an encoded image in a stream the readers can seek in, buffered in memory or in a temporary file.
+	 *
+	 * @param input The encoded image
+	 *
+	 * @return The stream
+	 *
+	 * @throws IOException If the temporary file cannot be created
+	 */
+	private ImageInputStream createInputStream( InputStream input ) throws IOException {
+		if ( this.diskCache ) {
+			this.tempFiles.incrementAndGet();
+			return new FileCacheImageInputStream( input, this.cacheDirectory );
+		}
+		this.memoryStreams.incrementAndGet();
+		return new MemoryCacheImageInputStream( input );
+	}
+
+	/**
+	 * Wraps an output in a stream the writers can seek in. Files are written in place, other outputs are buffered in memory
+	 * or in a temporary file.
+	 *
+	 * @param output A {@link File} or an {@link OutputStream}
+	 *
+	 * @return The stream
+	 *
+	 * @throws IOException If the file or the temporary file cannot be created
+	 */
+	private ImageOutputStream createOutputStream( Object output ) throws IOException {
+		if ( output instanceof File file ) {
+			return new FileImageOutputStream( file );
+		}
+		if ( ! ( output instanceof OutputStream stream ) ) {
+			throw new IIOException( "Can't create an ImageOutputStream!" );
+		}
+		if ( this.diskCache ) {
+			this.tempFiles.incrementAndGet();
+			return new FileCacheImageOutputStream( stream, this.cacheDirectory );
+		}
+		this.memoryStreams.incrementAndGet();
+		return new MemoryCacheImageOutputStream( stream );
+	}
+
+	/**
+	 * Returns the first writer provider of a format that can encode an image type.
+	 *
+	 * @param format The informal name of the format
+	 * @param type   The image type
+	 *
+	 * @return The provider, or null if there is none
+	 */
+	private ImageWriterSpi findWriter( String format, ImageTypeSpecifier type ) {
+		List<ImageWriterSpi> providers = this.writerSpis.get( format );
+
+		if ( providers == null ) {
+			providers = new ArrayList<>();
+			Iterator<ImageWriterSpi> iterator = IIORegistry.getDefaultInstance().getServiceProviders( ImageWriterSpi.class, true );
+			while ( iterator.hasNext() ) {
+				ImageWriterSpi provider = iterator.next();
+				if ( Arrays.asList( provider.getFormatNames() ).contains( format ) ) {
+					providers.add( provider );
+				}
+			}
+			// Formats without a writer are looked up again, in case their plugin is registered later
+			if ( !providers.isEmpty() ) {
+				this.writerSpis.put( format, providers );
+			}
+		}
+
+		for ( ImageWriterSpi provider : providers ) {
+			if ( provider.canEncodeImage( type ) ) {
+				return provider;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first reader provider that recognises the input.
+	 *
+	 * @param stream The input, left at its current position
+	 *
+	 * @return The provider, or null if there is none
+	 *
+	 * @throws IOException If the input cannot be read
+	 */
+	private ImageReaderSpi findReader( ImageInputStream stream ) throws IOException {
+		List<ImageReaderSpi> providers = this.readerSpis;
+
+		if ( providers == null ) {
+			providers = new ArrayList<>();
+			Iterator<ImageReaderSpi> iterator = IIORegistry.getDefaultInstance().getServiceProviders( ImageReaderSpi.class, true );
+			while ( iterator.hasNext() ) {
+				providers.add( iterator.next() );
+			}
+			this.readerSpis = providers;
+		}
+
+		for ( ImageReaderSpi provider : providers ) {
+			stream.mark();
+			try {
+				if ( provider.canDecodeInput( stream ) ) {
+					return provider;
+				}
+			} catch ( IOException e ) {
+				// Like ImageIO, a provider that fails to probe the input does not recognise it
+			} finally {
+				stream.reset();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Takes an idle codec of a provider, or creates one.
+	 *
+	 * @param pool     The idle codecs per provider
+	 * @param provider The provider
+	 * @param factory  Creates a codec of the provider
+	 * @param hits     The counter of reused codecs
+	 * @param misses   The counter of created codecs
+	 *
+	 * @return The codec
+	 *
+	 * @throws IOException If the provider cannot create a codec
+	 */
+	private <S, T> T borrow( Map<S, BlockingQueue<T>> pool, S provider, CodecFactory<S, T> factory, AtomicLong hits, AtomicLong misses )
+	    throws IOException {
+		BlockingQueue<T> idle = pool.get( provider );
+
+		T codec = idle == null ? null : idle.poll();
+		if ( codec != null ) {
+			hits.incrementAndGet();
+			return codec;
+		}
+
+		misses.incrementAndGet();
+		return factory.create( provider );
+	}
+
+	/**
+	 * Hands a borrowed codec back to the pool of its provider, or disposes it.
+	 *
+	 * @param pool     The idle codecs per provider
+	 * @param provider The provider
+	 * @param codec    The codec
+	 * @param reuse    Whether the codec completed its call and can be reused
+	 */
+	private <S, T> void release( Map<S, BlockingQueue<T>> pool, S provider, T codec, boolean reuse ) {
+		if ( reuse && this.maxIdle > 0 ) {
+			reset( codec );
+			if ( pool.computeIfAbsent( provider, key -> new ArrayBlockingQueue<>( this.maxIdle ) ).offer( codec ) ) {
+				return;
+			}
+		}
+		dispose( codec );
+	}
+
+	/**
+	 * Disposes every idle codec of a pool.
+	 *
+	 * @param pool The idle codecs per provider
+	 */
+	private static <S, T> void drain( Map<S, BlockingQueue<T>> pool ) {
+		for ( BlockingQueue<T> idle : pool.values() ) {
+			T codec;
+			while ( ( codec = idle.poll() ) != null ) {
+				dispose( codec );
+			}
+		}
+		pool.clear();
+	}
+
+	private static void reset( Object codec ) {
+		if ( codec instanceof ImageReader reader ) {
+			reader.reset();
+		} else {
+			( ( ImageWriter ) codec ).reset();
+		}
+	}
+
+	private static void dispose( Object codec ) {
+		if ( codec instanceof ImageReader reader ) {
+			reader.dispose();
+		} else {
+			( ( ImageWriter ) codec ).dispose();
+		}
+	}
+
+	/**
+	 * Creates a codec of a provider.
+	 */
+	@FunctionalInterface
+	private interface CodecFactory<S, T> {
+
+		T create( S provider ) throws IOException;
+	}
+}
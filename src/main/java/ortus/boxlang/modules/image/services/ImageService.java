@@ -17,7 +17,9 @@
  */
 package ortus.boxlang.modules.image.services;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -25,13 +27,18 @@ import java.util.stream.Collectors;
 
 import ortus.boxlang.modules.image.BoxImage;
 import ortus.boxlang.modules.image.util.KeyDictionary;
+import ortus.boxlang.modules.image.util.RasterPool;
 import ortus.boxlang.runtime.BoxRuntime;
 import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.LongCaster;
 import ortus.boxlang.runtime.dynamic.casters.StringCaster;
 import ortus.boxlang.runtime.logging.BoxLangLogger;
 import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.services.BaseService;
 import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
 import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
 
 /**
@@ -66,13 +73,85 @@ public class ImageService extends BaseService {
 
 	BoxLangLogger								logger;
 
-	private static final String					MODULE_PUBLIC_PATH	= "/bxModules/bximage/public/index.bxm";
+	private static final String					MODULE_PUBLIC_PATH			= "/bxModules/bximage/public/index.bxm";
+
+	/**
+	 * The default size of the raster pool in megabytes, used when the {@code rasterPoolSize} setting is missing.
+	 */
+	private static final long					DEFAULT_RASTER_POOL_SIZE	= 64;
+
+	/**
+	 * The default size of the decoded image cache in megabytes, used when the {@code decodedImageCacheSize} setting is missing.
+	 */
+	private static final long					DEFAULT_DECODED_CACHE_SIZE	= 128;
+
+	/**
+	 * The default number of fonts and glyph runs kept by the text cache, used when the {@code textCacheSize} setting is missing.
+	 */
+	private static final int					DEFAULT_TEXT_CACHE_SIZE		= 1024;
+
+	/**
+	 * The default number of captchas generated per second to refill the captcha pool, used when the
+	 * {@code captchaPoolRefillRate} setting is missing.
+	 */
+	private static final int					DEFAULT_CAPTCHA_REFILL_RATE	= 20;
+
+	/**
+	 * The default number of characters of pooled captcha answers, used when the {@code captchaTextLength} setting is missing.
+	 */
+	private static final int					DEFAULT_CAPTCHA_TEXT_LENGTH	= 6;
+
+	/**
+	 * The default number of idle image readers and writers kept per codec, used when the {@code codecPoolSize} setting is missing.
+	 */
+	private static final int					DEFAULT_CODEC_POOL_SIZE		= 4;
+
+	/**
+	 * The default deflate level of the PNGs written to the browser, used when the {@code browserPngLevel} setting
+	 * is missing. Level 4 compresses about as well as the ImageIO writer.
+	 */
+	private static final int					DEFAULT_BROWSER_PNG_LEVEL	= 4;
 
 	/**
 	 * A cache for images that have been processed and are ready to be served.
 	 * The key is the image ID, and the value is the image data in Base64 format.
 	 */
-	private final ConcurrentMap<String, String>	cachedImages		= new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, String>	cachedImages				= new ConcurrentHashMap<>();
+
+	/**
+	 * The {@code normalizeDecodedImages} setting, read on first use.
+	 */
+	private volatile Boolean					normalizeDecodedImages;
+
+	/**
+	 * The pool of reusable pixel arrays for intermediate images, created on first use.
+	 */
+	private volatile RasterPool					rasterPool;
+
+	/**
+	 * The cache of decoded image files read by {@link #readImage(String)}, created on first use.
+	 */
+	private volatile DecodedImageCache			decodedImageCache;
+
+	/**
+	 * The {@code decodedImageCache} setting, read when the decoded image cache is created.
+	 */
+	private volatile boolean					decodedImageCacheEnabled;
+
+	/**
+	 * The cache of fonts and glyph runs used by drawText(), created on first use.
+	 */
+	private volatile TextCache					textCache;
+
+	/**
+	 * The pool of pre-generated captchas, created on first use.
+	 */
+	private volatile CaptchaPool				captchaPool;
+
+	/**
+	 * The pools of reusable image readers and writers, created on first use.
+	 */
+	private volatile ImageCodecPool				codecPool;
 
 	/**
 	 * Creates a new ImageService instance using the singleton BoxRuntime instance.
@@ -92,6 +171,236 @@ public class ImageService extends BaseService {
 		super( runtime, KeyDictionary.imageService );
 	}
 
+	/**
+	 * Returns the ImageService registered with the running BoxLang runtime, if any.
+	 *
+	 * @return The registered ImageService, or null if the module is not loaded
+	 */
+	public static ImageService getInstance() {
+		BoxRuntime runtime = BoxRuntime.getInstance();
+
+		if ( runtime == null ) {
+			return null;
+		}
+
+		return ( ImageService ) runtime.getGlobalService( KeyDictionary.imageService );
+	}
+
+	/**
+	 * Returns the settings of the bx-image module, as configured in {@code ModuleConfig.bx} and
+	 * overridden by the runtime configuration.
+	 *
+	 * @return The module settings, or an empty struct if the module is not registered
+	 */
+	public IStruct getModuleSettings() {
+		try {
+			IStruct settings = runtime.getModuleService().getModuleSettings( KeyDictionary.bximage );
+			if ( settings != null ) {
+				return settings;
+			}
+		} catch ( BoxRuntimeException e ) {
+			getLogger().debug( "Unable to read the bximage module settings, using defaults", e );
+		}
+		return new Struct();
+	}
+
+	/**
+	 * Whether decoded images should be converted to their canonical pixel layout
+	 * ({@code TYPE_INT_ARGB_PRE}, {@code TYPE_INT_RGB} or {@code TYPE_BYTE_GRAY}).
+	 * Controlled by the {@code normalizeDecodedImages} module setting, disabled by default, which is read once
+	 * since this is checked on every decode.
+	 *
+	 * @return true if decoded images should be normalized
+	 */
+	public boolean isNormalizeDecodedImages() {
+		Boolean normalize = this.normalizeDecodedImages;
+		if ( normalize == null ) {
+			normalize					= BooleanCaster.attempt( getModuleSettings().get( KeyDictionary.normalizeDecodedImages ) ).orElse( false );
+			this.normalizeDecodedImages	= normalize;
+		}
+		return normalize;
+	}
+
+	/**
+	 * Overrides the {@code normalizeDecodedImages} module setting.
+	 *
+	 * @param normalize Whether decoded images should be normalized
+	 */
+	public void setNormalizeDecodedImages( boolean normalize ) {
+		this.normalizeDecodedImages = normalize;
+	}
+
+	/**
+	 * Returns the pool of reusable pixel arrays that image transforms allocate their results from.
+	 * The pool is sized by the {@code rasterPoolSize} module setting (in megabytes, 0 disables pooling)
+	 * and created on first use.
+	 *
+	 * @return The raster pool
+	 */
+	public RasterPool getRasterPool() {
+		if ( this.rasterPool == null ) {
+			synchronized ( this ) {
+				if ( this.rasterPool == null ) {
+					long megabytes = LongCaster.attempt( getModuleSettings().get( KeyDictionary.rasterPoolSize ) ).orElse( DEFAULT_RASTER_POOL_SIZE );
+					this.rasterPool = new RasterPool( megabytes * 1024 * 1024 );
+				}
+			}
+		}
+		return this.rasterPool;
+	}
+
+	/**
+	 * Whether images read from local files should be served from the decoded image cache.
+	 * Controlled by the {@code decodedImageCache} module setting, disabled by default, which is read once
+	 * when the cache is created.
+	 *
+	 * @return true if the decoded image cache is enabled
+	 */
+	public boolean isDecodedImageCacheEnabled() {
+		getDecodedImageCache();
+		return this.decodedImageCacheEnabled;
+	}
+
+	/**
+	 * Overrides the {@code decodedImageCache} module setting.
+	 *
+	 * @param enabled Whether images read from local files should be served from the decoded image cache
+	 */
+	public void setDecodedImageCacheEnabled( boolean enabled ) {
+		getDecodedImageCache();
+		this.decodedImageCacheEnabled = enabled;
+	}
+
+	/**
+	 * Returns the cache of decoded image files. The cache is sized by the {@code decodedImageCacheSize}
+	 * module setting (in megabytes of decoded pixel data) and created on first use.
+	 *
+	 * @return The decoded image cache
+	 */
+	public DecodedImageCache getDecodedImageCache() {
+		if ( this.decodedImageCache == null ) {
+			synchronized ( this ) {
+				if ( this.decodedImageCache == null ) {
+					IStruct	settings	= getModuleSettings();
+					long	megabytes	= LongCaster.attempt( settings.get( KeyDictionary.decodedImageCacheSize ) ).orElse( DEFAULT_DECODED_CACHE_SIZE );
+					this.decodedImageCacheEnabled	= BooleanCaster.attempt( settings.get( KeyDictionary.decodedImageCache ) ).orElse( false );
+					this.decodedImageCache			= new DecodedImageCache( megabytes * 1024 * 1024 );
+				}
+			}
+		}
+		return this.decodedImageCache;
+	}
+
+	/**
+	 * Returns the cache of the fonts and glyph runs drawn by drawText(). The cache is sized by the
+	 * {@code textCacheSize} module setting (in entries, 0 disables caching) and created on first use.
+	 *
+	 * @return The text cache
+	 */
+	public TextCache getTextCache() {
+		if ( this.textCache == null ) {
+			synchronized ( this ) {
+				if ( this.textCache == null ) {
+					int entries = IntegerCaster.attempt( getModuleSettings().get( KeyDictionary.textCacheSize ) ).orElse( DEFAULT_TEXT_CACHE_SIZE );
+					this.textCache = new TextCache( entries );
+				}
+			}
+		}
+		return this.textCache;
+	}
+
+	/**
+	 * Returns the pools of image readers and writers that images are decoded and encoded with. Up to
+	 * {@code codecPoolSize} idle readers and writers are kept per codec (0 disables pooling). Streams are
+	 * buffered in memory unless the {@code imageIOCache} setting is enabled, in which case they are
+	 * buffered in temporary files in {@code imageIOCacheDirectory}. The pools are created on first use.
+	 *
+	 * @return The codec pool
+	 */
+	public ImageCodecPool getCodecPool() {
+		if ( this.codecPool == null ) {
+			synchronized ( this ) {
+				if ( this.codecPool == null ) {
+					IStruct	settings		= getModuleSettings();
+					String	directory		= StringCaster.attempt( settings.get( KeyDictionary.imageIOCacheDirectory ) ).orElse( "" );
+					File	cacheDirectory	= directory.isBlank() ? null : new File( directory );
+
+					if ( cacheDirectory != null && !cacheDirectory.isDirectory() ) {
+						getLogger().warn( "The imageIOCacheDirectory [{}] is not a directory, using the default temporary directory", directory );
+						cacheDirectory = null;
+					}
+
+					this.codecPool = new ImageCodecPool(
+					    IntegerCaster.attempt( settings.get( KeyDictionary.codecPoolSize ) ).orElse( DEFAULT_CODEC_POOL_SIZE ),
+					    BooleanCaster.attempt( settings.get( KeyDictionary.imageIOCache ) ).orElse( false ),
+					    cacheDirectory
+					);
+				}
+			}
+		}
+		return this.codecPool;
+	}
+
+	/**
+	 * Returns the encoder options of the PNGs written to the browser by {@link #writeToBrowser(IBoxContext, BoxImage, IStruct)},
+	 * which cannot be passed per call: the {@code browserPngLevel} (4 by default) and {@code browserPngFilter}
+	 * ({@code adaptive} by default) settings.
+	 *
+	 * @return The encoder options, see {@link ortus.boxlang.modules.image.util.ImageWriteOptions}
+	 */
+	public IStruct getBrowserPngOptions() {
+		IStruct settings = getModuleSettings();
+		return Struct.of(
+		    KeyDictionary.compressionLevel,
+		    IntegerCaster.attempt( settings.get( KeyDictionary.browserPngLevel ) ).orElse( DEFAULT_BROWSER_PNG_LEVEL ),
+		    KeyDictionary.filter,
+		    StringCaster.attempt( settings.get( KeyDictionary.browserPngFilter ) ).orElse( "adaptive" )
+		);
+	}
+
+	/**
+	 * Returns the pool of pre-generated captchas with random answers. The pool keeps {@code captchaPoolDepth}
+	 * captchas ready per size and difficulty (0, the default, disables pooling) and refills them in the background
+	 * at up to {@code captchaPoolRefillRate} captchas per second. It is created on first use.
+	 *
+	 * @return The captcha pool
+	 */
+	public CaptchaPool getCaptchaPool() {
+		if ( this.captchaPool == null ) {
+			synchronized ( this ) {
+				if ( this.captchaPool == null ) {
+					IStruct settings = getModuleSettings();
+					this.captchaPool = new CaptchaPool(
+					    IntegerCaster.attempt( settings.get( KeyDictionary.captchaPoolDepth ) ).orElse( 0 ),
+					    IntegerCaster.attempt( settings.get( KeyDictionary.captchaPoolRefillRate ) ).orElse( DEFAULT_CAPTCHA_REFILL_RATE ),
+					    IntegerCaster.attempt( settings.get( KeyDictionary.captchaTextLength ) ).orElse( DEFAULT_CAPTCHA_TEXT_LENGTH ),
+					    getBrowserPngOptions(),
+					    getLogger()
+					);
+				}
+			}
+		}
+		return this.captchaPool;
+	}
+
+	/**
+	 * Reads an image from a local file path or a URL. When the decoded image cache is enabled, local
+	 * files are decoded once and every read returns a copy-on-write snapshot of the cached image.
+	 *
+	 * @param path The absolute path or URL of the image
+	 *
+	 * @return The image
+	 *
+	 * @throws Exception If the image cannot be read or decoded
+	 */
+	public BoxImage readImage( String path ) throws Exception {
+		DecodedImageCache cache = getDecodedImageCache();
+		if ( path.regionMatches( true, 0, "http", 0, 4 ) || !this.decodedImageCacheEnabled ) {
+			return new BoxImage( path );
+		}
+		return cache.get( Path.of( path ) );
+	}
+
 	/**
 	 * Called when the service configuration is loaded.
 	 * Currently unused by the ImageService as no additional configuration is required.
@@ -110,15 +419,41 @@ public class ImageService extends BaseService {
 	@Override
 	public void onShutdown( Boolean arg0 ) {
 		getLogger().debug( "+ Image Service shutdown requested" );
+		if ( this.rasterPool != null ) {
+			this.rasterPool.clear();
+		}
+		if ( this.decodedImageCache != null ) {
+			this.decodedImageCache.clear();
+		}
+		if ( this.textCache != null ) {
+			this.textCache.clear();
+		}
+		if ( this.captchaPool != null ) {
+			this.captchaPool.shutdown();
+		}
+		if ( this.codecPool != null ) {
+			this.codecPool.clear();
+		}
 	}
 
 	/**
 	 * Called when the BoxLang runtime has started and the service is being initialized.
-	 * Logs the startup event for monitoring and debugging purposes.
+	 * Logs the startup event for monitoring and debugging purposes, and starts the {@link ImageWarmUp}
+	 * on a background thread unless the {@code warmUp} module setting is false, so the first image
+	 * requests do not pay for the ImageIO plugin scan, codec, font and Java2D initialisation.
 	 */
 	@Override
 	public void onStartup() {
 		getLogger().debug( "+ Image Service started" );
+
+		if ( BooleanCaster.attempt( getModuleSettings().get( KeyDictionary.warmUp ) ).orElse( true ) ) {
+			Thread thread = new Thread( new ImageWarmUp( getLogger(), getCodecPool() ), "bx-image-warm-up" );
+			// Let the plugin scan find the codecs bundled with the module
+			thread.setContextClassLoader( ImageService.class.getClassLoader() );
+			thread.setDaemon( true );
+			thread.setPriority( Thread.MIN_PRIORITY );
+			thread.start();
+		}
 	}
 
 	/**
@@ -149,6 +484,21 @@ public class ImageService extends BaseService {
 	 * @throws BoxRuntimeException if an invalid writeType is specified or if an error occurs during image encoding
 	 */
 	public void writeToBrowser( IBoxContext context, BoxImage image, IStruct attributes ) {
+		writeToBrowser( context, image, attributes, null );
+	}
+
+	/**
+	 * Writes an image to the browser as an HTML img tag, reusing an existing PNG encoding of the image, such as the one
+	 * of a pooled captcha, instead of encoding it again whenever the image is written as a PNG.
+	 *
+	 * @param context    The BoxLang execution context where the HTML will be written
+	 * @param image      The BoxImage to write to the browser
+	 * @param attributes The writeType and the additional HTML attributes, see {@link #writeToBrowser(IBoxContext, BoxImage, IStruct)}
+	 * @param pngBase64  The image already encoded as a Base64 PNG, or null to encode it
+	 *
+	 * @throws BoxRuntimeException if an invalid writeType is specified or if an error occurs during image encoding
+	 */
+	public void writeToBrowser( IBoxContext context, BoxImage image, IStruct attributes, String pngBase64 ) {
 		getLogger().debug( "Writing image to browser with attributes: {}", attributes );
 
 		String	writeType	= StringCaster.attempt( attributes.get( KeyDictionary.writeType ) )
@@ -159,11 +509,18 @@ public class ImageService extends BaseService {
 		    .orElse( image.getFormat() );
 
 		if ( writeType.equals( "url" ) ) {
-			String imageId = cachceImage( image );
+			String imageId = cachceImage( image, pngBase64 );
 			src = MODULE_PUBLIC_PATH + "?id=" + imageId;
 		} else if ( writeType.equals( "base64" ) ) {
 			try {
-				src = "data:image/" + format + ";base64," + image.toBase64String( format );
+				IStruct	options	= writeOptions( attributes );
+				String	encoded;
+				if ( options == null && "png".equalsIgnoreCase( format ) ) {
+					encoded = pngBase64 != null ? pngBase64 : image.toBase64String( format, getBrowserPngOptions() );
+				} else {
+					encoded = image.toBase64String( format, options );
+				}
+				src = "data:image/" + format + ";base64," + encoded;
 			} catch ( IOException e ) {
 				getLogger().error( "Error writing image to browser", e );
 			}
@@ -179,6 +536,21 @@ public class ImageService extends BaseService {
 		context.getBuffer().append( "<img src=\"" + src + "\" " + htmlAttributes + ">" );
 	}
 
+	/**
+	 * Returns the encoder options set by the attributes of the Image component: the quality attribute.
+	 *
+	 * @param attributes The component attributes
+	 *
+	 * @return The encoder options, or null if the attributes set none
+	 */
+	public static IStruct writeOptions( IStruct attributes ) {
+		Object quality = attributes.get( KeyDictionary.quality );
+		if ( quality == null || quality.toString().isBlank() ) {
+			return null;
+		}
+		return Struct.of( KeyDictionary.quality, quality );
+	}
+
 	/**
 	 * Determines whether an attribute key should be excluded from the HTML img tag output.
 	 * Excluded attributes are those used internally by the image module for processing
@@ -204,6 +576,7 @@ public class ImageService extends BaseService {
 		    || key.equals( KeyDictionary.structName )
 		    || key.equals( KeyDictionary.interpolation )
 		    || key.equals( KeyDictionary.text )
+		    || key.equals( KeyDictionary.textVariable )
 		    || key.equals( KeyDictionary.difficulty )
 		    || key.equals( KeyDictionary.fonts )
 		    || key.equals( KeyDictionary.fontSize );
@@ -286,16 +659,17 @@ public class ImageService extends BaseService {
 	 * for consistency with the existing codebase.
 	 * </p>
 	 *
-	 * @param image The BoxImage to cache
+	 * @param image     The BoxImage to cache
+	 * @param pngBase64 The image already encoded as a Base64 PNG, or null to encode it
 	 *
 	 * @return A unique identifier (UUID) that can be used to retrieve the cached image
 	 *
 	 * @throws BoxRuntimeException if an error occurs during Base64 encoding of the image
 	 */
-	private String cachceImage( BoxImage image ) {
+	private String cachceImage( BoxImage image, String pngBase64 ) {
 		String imageId = UUID.randomUUID().toString();
 		try {
-			this.cachedImages.put( imageId, image.toBase64String( "png" ) );
+			this.cachedImages.put( imageId, pngBase64 != null ? pngBase64 : image.toBase64String( "png", getBrowserPngOptions() ) );
 		} catch ( IOException e ) {
 			getLogger().error( "Error caching image", e );
 			throw new BoxRuntimeException( "Error caching image: " + e.getMessage(), e );
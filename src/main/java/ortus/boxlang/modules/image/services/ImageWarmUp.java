@@ -0,0 +1,293 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.services;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.logging.BoxLangLogger;
+
+/**
+ * Runs the one-time initialisation the image stack otherwise performs lazily on the first requests
+ * after a start: the ImageIO plugin scan, the loading of codec native libraries (WebP), the headless
+ * AWT and font configuration set up, and the generation of the Java2D loops for the common pixel
+ * layouts. Each writable format is encoded and decoded once with a tiny synthetic image, through the
+ * same code paths as {@link BoxImage#toByteArray(String)} and reading an image from a file, which also
+ * fills the codec pool.
+ *
+ * <p>
+ * Every step is independent: a step that fails, such as a codec whose native library is not
+ * available on the platform, is logged and the warm-up moves on.
+ * </p>
+ *
+ * @see ImageService#onStartup()
+ */
+public class ImageWarmUp implements Runnable {
+
+	/**
+	 * The pixel layouts images are decoded to, normalized to and drawn on.
+	 */
+	private static final int[]		IMAGE_TYPES		= {
+	    BufferedImage.TYPE_INT_RGB,
+	    BufferedImage.TYPE_INT_ARGB,
+	    BufferedImage.TYPE_INT_ARGB_PRE,
+	    BufferedImage.TYPE_3BYTE_BGR,
+	    BufferedImage.TYPE_4BYTE_ABGR,
+	    BufferedImage.TYPE_BYTE_GRAY
+	};
+
+	/**
+	 * The logical font families, always available.
+	 */
+	private static final String[]	FONT_FAMILIES	= { Font.SANS_SERIF, Font.SERIF, Font.MONOSPACED, Font.DIALOG };
+
+	/**
+	 * The size of the synthetic images, in pixels.
+	 */
+	private static final int		SIZE			= 16;
+
+	private final BoxLangLogger		logger;
+
+	/**
+	 * The codec pool to refresh once the plugins are registered.
+	 */
+	private final ImageCodecPool	codecPool;
+
+	/**
+	 * Creates a new warm-up.
+	 *
+	 * @param logger    The logger the durations and failures of the steps are reported to
+	 * @param codecPool The codec pool to refresh once the plugins are registered
+	 */
+	public ImageWarmUp( BoxLangLogger logger, ImageCodecPool codecPool ) {
+		this.logger		= logger;
+		this.codecPool	= codecPool;
+	}
+
+	/**
+	 * Runs every step of the warm-up and logs the total duration.
+	 */
+	@Override
+	public void run() {
+		long start = System.nanoTime();
+
+		step( "ImageIO plugins", () -> {
+			ImageIO.scanForPlugins();
+			this.codecPool.clear();
+		} );
+		step( "AWT", this::warmUpAwt );
+		step( "fonts", this::warmUpFonts );
+		step( "Java2D loops", this::warmUpLoops );
+
+		int formats = 0;
+		for ( String format : writableFormats() ) {
+			if ( step( "format " + format, () -> warmUpFormat( format ) ) ) {
+				formats++;
+			}
+		}
+
+		this.logger.info( "Image module warm-up finished in {} ms ({} formats)", ( System.nanoTime() - start ) / 1_000_000, formats );
+	}
+
+	/**
+	 * Runs a step of the warm-up, logging its duration or its failure.
+	 *
+	 * @param name The name of the step
+	 * @param step The step
+	 *
+	 * @return Whether the step succeeded
+	 */
+	private boolean step( String name, WarmUpStep step ) {
+		long start = System.nanoTime();
+		try {
+			step.run();
+			this.logger.debug( "Image warm-up of {} took {} ms", name, ( System.nanoTime() - start ) / 1_000_000 );
+			return true;
+		} catch ( Exception | LinkageError e ) {
+			this.logger.debug( "Image warm-up of {} failed: {}", name, e.toString() );
+			return false;
+		}
+	}
+
+	/**
+	 * Initialises the local graphics environment, headless or not.
+	 */
+	private void warmUpAwt() {
+		GraphicsEnvironment environment = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		if ( !GraphicsEnvironment.isHeadless() ) {
+			environment.getDefaultScreenDevice().getDefaultConfiguration();
+		}
+	}
+
+	/**
+	 * Loads the font configuration and the installed font families, and rasterises text with the logical fonts.
+	 */
+	private void warmUpFonts() {
+		GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+
+		BufferedImage	image		= new BufferedImage( SIZE * 8, SIZE * 2, BufferedImage.TYPE_INT_ARGB );
+		Graphics2D		graphics	= image.createGraphics();
+		try {
+			for ( String family : FONT_FAMILIES ) {
+				for ( int style : new int[] { Font.PLAIN, Font.BOLD, Font.ITALIC } ) {
+					graphics.setFont( new Font( family, style, 24 ) );
+					graphics.setRenderingHint( RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON );
+					graphics.drawString( "Ag9", 0, SIZE );
+					graphics.setRenderingHint( RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF );
+					graphics.drawString( "Ag9", 0, SIZE );
+				}
+			}
+		} finally {
+			graphics.dispose();
+		}
+	}
+
+	/**
+	 * Draws shapes, text and images on every common pixel layout so Java2D generates its rendering loops.
+	 */
+	private void warmUpLoops() {
+		BufferedImage source = syntheticImage( BufferedImage.TYPE_INT_ARGB );
+
+		for ( int type : IMAGE_TYPES ) {
+			BufferedImage	image		= syntheticImage( type );
+			Graphics2D		graphics	= image.createGraphics();
+			try {
+				graphics.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR );
+				graphics.drawImage( source, 0, 0, SIZE / 2, SIZE / 2, null );
+				graphics.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC );
+				graphics.drawImage( source, 0, 0, SIZE * 2, SIZE * 2, null );
+				graphics.setComposite( AlphaComposite.getInstance( AlphaComposite.SRC_OVER, 0.5f ) );
+				graphics.drawImage( source, 0, 0, null );
+				graphics.fillRect( 0, 0, SIZE / 2, SIZE / 2 );
+			} finally {
+				graphics.dispose();
+			}
+
+			BufferedImage	target		= new BufferedImage( SIZE, SIZE, BufferedImage.TYPE_INT_ARGB_PRE );
+			Graphics2D		blit		= target.createGraphics();
+			try {
+				blit.drawImage( image, 0, 0, null );
+			} finally {
+				blit.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Encodes a synthetic image in a format and, if the format is also readable, reads it back from a temporary file.
+	 *
+	 * @param format The format
+	 *
+	 * @throws Exception If the image cannot be encoded or decoded
+	 */
+	private void warmUpFormat( String format ) throws Exception {
+		byte[] data;
+		try ( BoxImage image = new BoxImage( syntheticImage( BufferedImage.TYPE_INT_ARGB ) ) ) {
+			data = image.toByteArray( format );
+		}
+
+		if ( data.length == 0 || !ImageIO.getImageReadersByFormatName( format ).hasNext() ) {
+			return;
+		}
+
+		Path file = Files.createTempFile( "bx-image-warm-up", "." + format );
+		try {
+			Files.write( file, data );
+			try ( BoxImage image = new BoxImage( file.toUri() ) ) {
+				image.getWidth();
+			}
+		} finally {
+			Files.deleteIfExists( file );
+		}
+	}
+
+	/**
+	 * Returns one format name per registered image writer.
+	 *
+	 * @return The lower cased format names
+	 */
+	private static Collection<String> writableFormats() {
+		Map<Class<?>, String> providers = new LinkedHashMap<>();
+
+		for ( String name : ImageIO.getWriterFormatNames() ) {
+			String					format	= name.toLowerCase( Locale.ROOT );
+			Iterator<ImageWriter>	writers	= ImageIO.getImageWritersByFormatName( format );
+			if ( writers.hasNext() ) {
+				providers.putIfAbsent( writers.next().getOriginatingProvider().getClass(), format );
+			}
+		}
+
+		return providers.values();
+	}
+
+	/**
+	 * Creates a small image with a gradient of opaque and translucent pixels, shapes and text.
+	 *
+	 * @param type The {@link BufferedImage} type
+	 *
+	 * @return The image
+	 */
+	private static BufferedImage syntheticImage( int type ) {
+		BufferedImage	image		= new BufferedImage( SIZE, SIZE, type );
+		Graphics2D		graphics	= image.createGraphics();
+		try {
+			for ( int y = 0; y < SIZE; y++ ) {
+				for ( int x = 0; x < SIZE; x++ ) {
+					image.setRGB( x, y, ( ( x * 16 ) << 24 ) | ( ( x * 16 ) << 16 ) | ( ( y * 16 ) << 8 ) | 0x80 );
+				}
+			}
+			graphics.setColor( Color.RED );
+			graphics.fillRect( 2, 2, 4, 4 );
+			graphics.setRenderingHint( RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON );
+			graphics.setStroke( new BasicStroke( 2 ) );
+			graphics.drawOval( 4, 4, 8, 8 );
+			graphics.drawLine( 0, SIZE, SIZE, 0 );
+			graphics.setFont( new Font( BoxImage.DEFAULT_FONT_FAMILY, Font.PLAIN, 10 ) );
+			graphics.drawString( "Ag", 2, SIZE - 2 );
+		} finally {
+			graphics.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * A step of the warm-up.
+	 */
+	@FunctionalInterface
+	private interface WarmUpStep {
+
+		void run() throws Exception;
+	}
+}
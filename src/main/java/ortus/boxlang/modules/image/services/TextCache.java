@@ -0,0 +1,505 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.services;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.LineMetrics;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A least recently used cache of the fonts built from drawText() font configurations, of the
+ * shaped glyph runs of the strings drawn with them and of measured texts, so watermarks and labels
+ * stamped on many images are only laid out once.
+ *
+ * <p>
+ * Glyph runs are keyed by the text, the font and the {@link FontRenderContext} of the graphics
+ * context (its transform, antialiasing and fractional metrics), and hold what
+ * {@link Graphics2D#drawString(String, float, float)} would have built for that string: a
+ * {@link TextLayout} for fonts with layout attributes (underline, strikethrough, ...) and text that
+ * requires complex layout, and a {@link GlyphVector} otherwise. Drawing a cached run is
+ * pixel-identical to drawing the string. Text large enough for Java2D to fill the outlines of its
+ * glyphs is drawn directly, as the cost of filling the outlines outweighs the cost of the layout.
+ * </p>
+ *
+ * <p>
+ * Runs are fully laid out before they are cached, and are only read afterwards, so the same run can
+ * be drawn from several threads, such as the tiles of a display list.
+ * </p>
+ *
+ * @see ImageService#getTextCache()
+ */
+public class TextCache {
+
+	/**
+	 * A cache that caches nothing, used when the image service is not available.
+	 */
+	public static final TextCache			NONE			= new TextCache( 0 );
+
+	/**
+	 * Strings longer than this are drawn without being cached.
+	 */
+	private static final int				MAX_TEXT_LENGTH	= 512;
+
+	/**
+	 * The pixel height above which Java2D fills the outlines of the glyphs instead of drawing them from its glyph cache.
+	 */
+	private static final int				OUTLINE_HEIGHT	= 100;
+
+	/**
+	 * The font configuration a font is built from.
+	 *
+	 * @param family        The font family, or null for the default family
+	 * @param style         The lower cased font style, or null for plain
+	 * @param size          The font size in points, or null for the default size
+	 * @param strikeThrough Whether the text is struck through, or null for the default
+	 * @param underline     Whether the text is underlined
+	 */
+	public record FontKey( String family, String style, Integer size, Boolean strikeThrough, boolean underline ) {
+
+		/**
+		 * Returns the same font configuration with another size.
+		 *
+		 * @param newSize The font size in points
+		 *
+		 * @return The font configuration
+		 */
+		public FontKey withSize( int newSize ) {
+			return new FontKey( this.family, this.style, newSize, this.strikeThrough, this.underline );
+		}
+	}
+
+	/**
+	 * A line of a measured text.
+	 *
+	 * @param text   The characters of the line, without the line break
+	 * @param layout The laid out line, or null for an empty line
+	 * @param width  The advance of the line, without the whitespace a wrapped line ends with
+	 */
+	public record TextLine( String text, TextLayout layout, float width ) {
+	}
+
+	/**
+	 * A measured text, broken into lines at its line breaks and, optionally, to fit a width.
+	 *
+	 * @param lines   The lines of the text
+	 * @param width   The width of the widest line
+	 * @param height  The height of the lines, from the ascent of the first one to the descent of the last one
+	 * @param ascent  The ascent of the font
+	 * @param descent The descent of the font
+	 * @param leading The space between the descent of a line and the ascent of the next one
+	 */
+	public record TextBlock( List<TextLine> lines, float width, float height, float ascent, float descent, float leading ) {
+
+		/**
+		 * Returns the distance between the baselines of two consecutive lines.
+		 *
+		 * @return The line height
+		 */
+		public float lineHeight() {
+			return this.ascent + this.descent + this.leading;
+		}
+	}
+
+	/**
+	 * The key of a glyph run.
+	 *
+	 * @param text    The drawn string
+	 * @param font    The font it is drawn with
+	 * @param context The font render context of the graphics context it is drawn on
+	 */
+	private record RunKey( String text, Font font, FontRenderContext context ) {
+	}
+
+	/**
+	 * The key of a measured text.
+	 *
+	 * @param text      The text
+	 * @param font      The font it is measured with
+	 * @param context   The font render context it is measured in
+	 * @param wrapWidth The width the lines are broken to fit, or 0 to only break them at line breaks
+	 */
+	private record BlockKey( String text, Font font, FontRenderContext context, float wrapWidth ) {
+	}
+
+	/**
+	 * A laid out string, either as a text layout or as a glyph vector.
+	 *
+	 * @param layout The text layout, or null
+	 * @param glyphs The glyph vector, or null
+	 */
+	private record Run( TextLayout layout, GlyphVector glyphs ) {
+
+		void draw( Graphics2D graphics, float x, float y ) {
+			if ( this.layout != null ) {
+				this.layout.draw( graphics, x, y );
+			} else {
+				graphics.drawGlyphVector( this.glyphs, x, y );
+			}
+		}
+	}
+
+	/**
+	 * The maximum number of fonts, of glyph runs and of measured texts, each, held by the cache.
+	 */
+	private final int						maxEntries;
+
+	/**
+	 * The cached fonts, in least recently used order.
+	 */
+	private final Map<FontKey, Font>		fonts			= new LinkedHashMap<>( 16, 0.75f, true );
+
+	/**
+	 * The cached glyph runs, in least recently used order.
+	 */
+	private final Map<RunKey, Run>			runs			= new LinkedHashMap<>( 16, 0.75f, true );
+
+	/**
+	 * The cached measured texts, in least recently used order.
+	 */
+	private final Map<BlockKey, TextBlock>	blocks			= new LinkedHashMap<>( 16, 0.75f, true );
+
+	private long							fontHits;
+	private long							fontMisses;
+	private long							glyphHits;
+	private long							glyphMisses;
+	private long							measureHits;
+	private long							measureMisses;
+	private long							evictions;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxEntries The maximum number of fonts, of glyph runs and of measured texts, each, held by the cache. 0 disables caching.
+	 */
+	public TextCache( int maxEntries ) {
+		this.maxEntries = Math.max( 0, maxEntries );
+	}
+
+	/**
+	 * Returns the font built from a font configuration, building and caching it first if needed.
+	 *
+	 * @param key     The font configuration
+	 * @param factory Builds the font of a configuration it is not cached yet
+	 *
+	 * @return The font
+	 */
+	public Font getFont( FontKey key, Function<FontKey, Font> factory ) {
+		if ( this.maxEntries == 0 ) {
+			return factory.apply( key );
+		}
+
+		synchronized ( this ) {
+			Font font = this.fonts.get( key );
+			if ( font != null ) {
+				this.fontHits++;
+				return font;
+			}
+			this.fontMisses++;
+		}
+
+		Font font = factory.apply( key );
+
+		synchronized ( this ) {
+			this.fonts.put( key, font );
+			evict( this.fonts );
+		}
+
+		return font;
+	}
+
+	/**
+	 * Draws a string with the current font of a graphics context, reusing its glyph run if it was drawn
+	 * with the same font and render context before.
+	 *
+	 * @param graphics The graphics context to draw on
+	 * @param text     The string to draw
+	 * @param x        The x-coordinate of the baseline of the text
+	 * @param y        The y-coordinate of the baseline of the text
+	 */
+	public void drawString( Graphics2D graphics, String text, float x, float y ) {
+		if ( this.maxEntries == 0 || text.isEmpty() || text.length() > MAX_TEXT_LENGTH ) {
+			graphics.drawString( text, x, y );
+			return;
+		}
+
+		RunKey key = new RunKey( text, graphics.getFont(), graphics.getFontRenderContext() );
+
+		// Large text is filled as an outline, which drawString() builds differently from a glyph run
+		if ( isOutlined( key ) ) {
+			graphics.drawString( text, x, y );
+			return;
+		}
+
+		Run run;
+
+		synchronized ( this ) {
+			run = this.runs.get( key );
+			if ( run != null ) {
+				this.glyphHits++;
+			} else {
+				this.glyphMisses++;
+			}
+		}
+
+		if ( run == null ) {
+			run = layout( key );
+			synchronized ( this ) {
+				this.runs.put( key, run );
+				evict( this.runs );
+			}
+		}
+
+		run.draw( graphics, x, y );
+	}
+
+	/**
+	 * Measures a text, broken into lines at its line breaks and, when a wrap width is given, wherever
+	 * needed to fit that width, reusing the measurement of the same text, font and render context.
+	 *
+	 * @param text      The text to measure
+	 * @param font      The font to measure it with
+	 * @param context   The font render context of the graphics context the text would be drawn on
+	 * @param wrapWidth The width to fit the lines in, or 0 to only break them at line breaks
+	 *
+	 * @return The measured text
+	 */
+	public TextBlock measure( String text, Font font, FontRenderContext context, float wrapWidth ) {
+		BlockKey key = new BlockKey( text, font, context, Math.max( 0, wrapWidth ) );
+
+		if ( this.maxEntries == 0 || text.length() > MAX_TEXT_LENGTH ) {
+			return breakLines( key );
+		}
+
+		TextBlock block;
+
+		synchronized ( this ) {
+			block = this.blocks.get( key );
+			if ( block != null ) {
+				this.measureHits++;
+				return block;
+			}
+			this.measureMisses++;
+		}
+
+		block = breakLines( key );
+
+		synchronized ( this ) {
+			this.blocks.put( key, block );
+			evict( this.blocks );
+		}
+
+		return block;
+	}
+
+	/**
+	 * Shortens a line so that it fits a width with an ellipsis appended, to mark that the text goes on.
+	 *
+	 * @param line    The line to shorten
+	 * @param font    The font of the line
+	 * @param context The font render context the line was laid out in
+	 * @param width   The width the shortened line must fit in
+	 *
+	 * @return The longest start of the line, followed by an ellipsis, that fits the width. Only the ellipsis is left if none does.
+	 */
+	public static TextLine ellipsize( TextLine line, Font font, FontRenderContext context, float width ) {
+		String	ellipsis	= font.canDisplay( '\u2026' ) ? "\u2026" : "...";
+		String	text		= line.text().stripTrailing();
+		int		low			= 0;
+		int		high		= text.codePointCount( 0, text.length() );
+
+		while ( low < high ) {
+			int middle = ( low + high + 1 ) >>> 1;
+
+			if ( new TextLayout( shorten( text, middle ) + ellipsis, font, context ).getAdvance() <= width ) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		String		shortened	= shorten( text, low ) + ellipsis;
+		TextLayout	layout		= new TextLayout( shortened, font, context );
+
+		layout.getPixelBounds( context, 0, 0 );
+		return new TextLine( shortened, layout, layout.getAdvance() );
+	}
+
+	/**
+	 * Removes all cached fonts, glyph runs and measured texts.
+	 *
+	 * @return The number of entries removed from the cache
+	 */
+	public synchronized int clear() {
+		int count = this.fonts.size() + this.runs.size() + this.blocks.size();
+
+		this.fonts.clear();
+		this.runs.clear();
+		this.blocks.clear();
+
+		return count;
+	}
+
+	/**
+	 * Returns the usage statistics of the cache.
+	 *
+	 * @return A struct with the keys {@code fonts}, {@code glyphRuns}, {@code textBlocks}, {@code maxEntries}, {@code fontHits},
+	 *         {@code fontMisses}, {@code glyphHits}, {@code glyphMisses}, {@code measureHits}, {@code measureMisses} and {@code evictions}
+	 */
+	public synchronized IStruct getStats() {
+		IStruct stats = new Struct();
+
+		stats.put( "fonts", this.fonts.size() );
+		stats.put( "glyphRuns", this.runs.size() );
+		stats.put( "textBlocks", this.blocks.size() );
+		stats.put( "maxEntries", this.maxEntries );
+		stats.put( "fontHits", this.fontHits );
+		stats.put( "fontMisses", this.fontMisses );
+		stats.put( "glyphHits", this.glyphHits );
+		stats.put( "glyphMisses", this.glyphMisses );
+		stats.put( "measureHits", this.measureHits );
+		stats.put( "measureMisses", this.measureMisses );
+		stats.put( "evictions", this.evictions );
+
+		return stats;
+	}
+
+	/**
+	 * Lays out a string the way {@link Graphics2D#drawString(String, float, float)} does, and computes
+	 * the lazily initialised state of the result so it can be shared between threads.
+	 *
+	 * @param key The string, font and render context
+	 *
+	 * @return The laid out string
+	 */
+	private static Run layout( RunKey key ) {
+		char[] chars = key.text().toCharArray();
+
+		if ( key.font().hasLayoutAttributes() || Font.textRequiresLayout( chars, 0, chars.length ) ) {
+			TextLayout layout = new TextLayout( key.text(), key.font(), key.context() );
+			layout.getPixelBounds( key.context(), 0, 0 );
+			return new Run( layout, null );
+		}
+
+		GlyphVector glyphs = key.font().createGlyphVector( key.context(), chars );
+		glyphs.getGlyphPositions( 0, glyphs.getNumGlyphs(), null );
+		glyphs.getPixelBounds( key.context(), 0, 0 );
+		return new Run( null, glyphs );
+	}
+
+	/**
+	 * Breaks a text into laid out lines, at its line breaks and wherever needed to fit the wrap width.
+	 *
+	 * @param key The text, font, render context and wrap width
+	 *
+	 * @return The measured text
+	 */
+	private static TextBlock breakLines( BlockKey key ) {
+		LineMetrics		metrics		= key.font().getLineMetrics( key.text(), key.context() );
+		float			wrapWidth	= key.wrapWidth() > 0 ? key.wrapWidth() : Float.MAX_VALUE;
+		List<TextLine>	lines		= new ArrayList<>();
+		float			width		= 0;
+
+		for ( String paragraph : key.text().split( "\\r\\n|\\r|\\n", -1 ) ) {
+			if ( paragraph.isEmpty() ) {
+				lines.add( new TextLine( paragraph, null, 0 ) );
+				continue;
+			}
+
+			AttributedString attributed = new AttributedString( paragraph );
+			attributed.addAttribute( TextAttribute.FONT, key.font() );
+
+			LineBreakMeasurer measurer = new LineBreakMeasurer( attributed.getIterator(), key.context() );
+			while ( measurer.getPosition() < paragraph.length() ) {
+				int			start		= measurer.getPosition();
+				TextLayout	layout		= measurer.nextLayout( wrapWidth );
+				boolean		wrapped		= measurer.getPosition() < paragraph.length();
+				float		lineWidth	= wrapped ? layout.getVisibleAdvance() : layout.getAdvance();
+
+				layout.getPixelBounds( key.context(), 0, 0 );
+				lines.add( new TextLine( paragraph.substring( start, measurer.getPosition() ), layout, lineWidth ) );
+				width = Math.max( width, lineWidth );
+			}
+		}
+
+		float height = lines.size() * ( metrics.getAscent() + metrics.getDescent() ) + ( lines.size() - 1 ) * metrics.getLeading();
+
+		return new TextBlock( List.copyOf( lines ), width, height, metrics.getAscent(), metrics.getDescent(), metrics.getLeading() );
+	}
+
+	/**
+	 * Returns the first code points of a text, without trailing whitespace.
+	 *
+	 * @param text   The text
+	 * @param length The number of code points to keep
+	 *
+	 * @return The start of the text
+	 */
+	private static String shorten( String text, int length ) {
+		return text.substring( 0, text.offsetByCodePoints( 0, length ) ).stripTrailing();
+	}
+
+	/**
+	 * Whether Java2D draws a string with the given font and render context by filling its outline, which it does
+	 * for glyphs taller than {@link #OUTLINE_HEIGHT} pixels on the device.
+	 *
+	 * @param key The string, font and render context
+	 *
+	 * @return true if the glyphs are filled as outlines
+	 */
+	private static boolean isOutlined( RunKey key ) {
+		AffineTransform glyphTransform = key.context().getTransform();
+
+		glyphTransform.concatenate( key.font().getTransform() );
+		glyphTransform.scale( key.font().getSize2D(), key.font().getSize2D() );
+
+		double pixelHeight = Math.hypot( glyphTransform.getShearX(), glyphTransform.getScaleY() );
+
+		return ( int ) ( pixelHeight + 0.5 ) > OUTLINE_HEIGHT;
+	}
+
+	/**
+	 * Evicts the least recently used entries of a map until it fits in the maximum number of entries.
+	 *
+	 * @param entries The map to trim
+	 */
+	private void evict( Map<?, ?> entries ) {
+		Iterator<?> iterator = entries.values().iterator();
+
+		while ( entries.size() > this.maxEntries && iterator.hasNext() ) {
+			iterator.next();
+			iterator.remove();
+			this.evictions++;
+		}
+	}
+}
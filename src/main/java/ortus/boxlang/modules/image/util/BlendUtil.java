@@ -0,0 +1,595 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multithreaded compositing of one image onto another with the separable blend modes of the W3C
+ * Compositing and Blending specification.
+ *
+ * <p>
+ * The source is composited in place onto the destination at an offset, with an opacity, using the
+ * source-over Porter-Duff operator and the chosen blend mode. All of the math happens on
+ * premultiplied 8 bit ARGB values, where every blend mode reduces to a few integer multiplications
+ * per channel, and the plain source-over and opacity steps scale two channels per multiplication by
+ * packing them into the halves of an int. Images with a packed integer layout ({@code TYPE_INT_RGB}, {@code TYPE_INT_ARGB} and
+ * {@code TYPE_INT_ARGB_PRE}, including sub-images of them) are read and written directly on their
+ * backing arrays, in row bands that run in parallel via {@link ParallelUtil}. Destinations of any
+ * other type are processed row by row through {@link BufferedImage#getRGB} and keep their type.
+ * </p>
+ */
+public class BlendUtil {
+
+	/**
+	 * The blend modes supported by the compositing engine.
+	 */
+	public enum BlendMode {
+		/** The source color replaces the destination color */
+		NORMAL,
+		/** Multiplies the colors: the result is always at least as dark as either layer */
+		MULTIPLY,
+		/** Multiplies the complements of the colors: the result is always at least as light as either layer */
+		SCREEN,
+		/** Multiplies or screens depending on the destination color, increasing contrast */
+		OVERLAY,
+		/** Multiplies or screens depending on the source color */
+		HARD_LIGHT,
+		/** Darkens or lightens depending on the source color, like a diffused spot light */
+		SOFT_LIGHT,
+		/** Keeps the darker of the two colors */
+		DARKEN,
+		/** Keeps the lighter of the two colors */
+		LIGHTEN,
+		/** Subtracts the darker of the two colors from the lighter one */
+		DIFFERENCE
+	}
+
+	/**
+	 * An image to composite with {@link BlendUtil#compositeAll(BufferedImage, List, BlendMode)}.
+	 *
+	 * @param image   The image to composite
+	 * @param x       The x coordinate of the image in the destination, may be negative
+	 * @param y       The y coordinate of the image in the destination, may be negative
+	 * @param opacity The opacity of the image, from 0.0 to 1.0
+	 */
+	public record Layer( BufferedImage image, int x, int y, double opacity ) {
+	}
+
+	/**
+	 * The soft-light blend function {@code B( Cs, Cd )} for every pair of 8 bit straight colors,
+	 * indexed by {@code Cs << 8 | Cd} and scaled to 0-255.
+	 */
+	private static final short[] SOFT_LIGHT = new short[ 256 * 256 ];
+
+	static {
+		for ( int cs = 0; cs < 256; cs++ ) {
+			for ( int cd = 0; cd < 256; cd++ ) {
+				double	source		= cs / 255.0;
+				double	backdrop	= cd / 255.0;
+				double	result;
+
+				if ( source <= 0.5 ) {
+					result = backdrop - ( 1 - 2 * source ) * backdrop * ( 1 - backdrop );
+				} else {
+					double curve = backdrop <= 0.25 ? ( ( 16 * backdrop - 12 ) * backdrop + 4 ) * backdrop : Math.sqrt( backdrop );
+					result = backdrop + ( 2 * source - 1 ) * ( curve - backdrop );
+				}
+
+				SOFT_LIGHT[ ( cs << 8 ) | cd ] = ( short ) Math.round( result * 255 );
+			}
+		}
+	}
+
+	/**
+	 * Composites an image onto another, in place.
+	 *
+	 * @param destination The image to composite onto. Its pixels are modified.
+	 * @param source      The image to composite. It is not modified.
+	 * @param x           The x coordinate of the source in the destination, may be negative
+	 * @param y           The y coordinate of the source in the destination, may be negative
+	 * @param mode        The blend mode
+	 * @param opacity     The opacity of the source, from 0.0 to 1.0
+	 */
+	public static void composite( BufferedImage destination, BufferedImage source, int x, int y, BlendMode mode, double opacity ) {
+		int	startX	= Math.max( 0, x );
+		int	startY	= Math.max( 0, y );
+		int	endX	= Math.min( destination.getWidth(), x + source.getWidth() );
+		int	endY	= Math.min( destination.getHeight(), y + source.getHeight() );
+		int	alpha	= ( int ) Math.round( Math.max( 0.0, Math.min( 1.0, opacity ) ) * 255 );
+
+		if ( startX >= endX || startY >= endY || alpha == 0 ) {
+			return;
+		}
+
+		// A source sharing the pixels of the destination, such as the image itself or a sub-image of it, would be
+		// read by some bands after others blended it: composite a copy of the covered region instead
+		if ( sharesPixels( source, destination ) ) {
+			BufferedImage region = source.getSubimage( startX - x, startY - y, endX - startX, endY - startY );
+			composite( destination, RasterUtil.copy( region ), startX, startY, mode, opacity );
+			return;
+		}
+
+		BufferedImage	working			= RasterUtil.toIntImage( source );
+		int[]			srcPixels		= RasterUtil.getPixels( working );
+		int				srcWidth		= working.getWidth();
+		int				srcType			= working.getType();
+		int				width			= endX - startX;
+		int				height			= endY - startY;
+
+		WritableRaster	raster			= destination.getRaster();
+		int				dstType			= destination.getType();
+		boolean			packed			= isPacked( destination );
+		int[]			dstPixels		= packed ? ( ( DataBufferInt ) raster.getDataBuffer() ).getData() : null;
+		int				dstStride		= packed ? ( ( SinglePixelPackedSampleModel ) raster.getSampleModel() ).getScanlineStride() : 0;
+		int				dstOrigin		= packed ? origin( raster, dstStride ) : 0;
+
+		ParallelUtil.BandTask task = ( startRow, endRow ) -> {
+			int[]	src	= new int[ width ];
+			int[]	dst	= new int[ width ];
+
+			for ( int row = startRow; row < endRow; row++ ) {
+				int	dy			= startY + row;
+				int	srcOffset	= ( dy - y ) * srcWidth + ( startX - x );
+				int	dstOffset	= dstOrigin + dy * dstStride + startX;
+
+				loadSource( srcPixels, srcOffset, srcType, src, width, alpha );
+
+				if ( packed ) {
+					loadDestination( dstPixels, dstOffset, dstType, dst, width );
+				} else {
+					destination.getRGB( startX, dy, width, 1, dst, 0, width );
+					RasterUtil.premultiply( dst, dst, 0, width );
+				}
+
+				blend( src, dst, width, mode );
+
+				if ( packed ) {
+					storeDestination( dst, dstPixels, dstOffset, dstType, width );
+				} else {
+					RasterUtil.unpremultiply( dst, dst, 0, width );
+					destination.setRGB( startX, dy, width, 1, dst, 0, width );
+				}
+			}
+		};
+
+		if ( packed ) {
+			ParallelUtil.forEachBand( width, height, task );
+		} else {
+			// The color models behind getRGB / setRGB are not guaranteed to be thread-safe
+			task.run( 0, height );
+		}
+	}
+
+	/**
+	 * Composites many images onto a destination in one pass, in place. The layers are composited in
+	 * order, so later layers end up on top of earlier ones.
+	 *
+	 * <p>
+	 * Every distinct source image is converted to premultiplied pixels only once, however many layers
+	 * use it. The destination is split into disjoint row bands that run in parallel via
+	 * {@link ParallelUtil}; each band composites, in order, the part of every layer that overlaps it.
+	 * Destinations without a packed integer layout are composited one layer at a time with
+	 * {@link #composite(BufferedImage, BufferedImage, int, int, BlendMode, double)}.
+	 * </p>
+	 *
+	 * @param destination The image to composite onto. Its pixels are modified.
+	 * @param layers      The images to composite, in order
+	 * @param mode        The blend mode
+	 */
+	public static void compositeAll( BufferedImage destination, List<Layer> layers, BlendMode mode ) {
+		if ( !isPacked( destination ) ) {
+			for ( Layer layer : layers ) {
+				composite( destination, layer.image(), layer.x(), layer.y(), mode, layer.opacity() );
+			}
+			return;
+		}
+
+		Map<BufferedImage, int[]>	converted	= new IdentityHashMap<>();
+		int							maxWidth	= 0;
+
+		for ( Layer layer : layers ) {
+			converted.computeIfAbsent( layer.image(), image -> premultipliedPixels( sharesPixels( image, destination ) ? RasterUtil.copy( image ) : image ) );
+			maxWidth = Math.max( maxWidth, layer.image().getWidth() );
+		}
+
+		WritableRaster	raster		= destination.getRaster();
+		int				dstType		= destination.getType();
+		int[]			dstPixels	= ( ( DataBufferInt ) raster.getDataBuffer() ).getData();
+		int				dstStride	= ( ( SinglePixelPackedSampleModel ) raster.getSampleModel() ).getScanlineStride();
+		int				dstOrigin	= origin( raster, dstStride );
+		int				dstWidth	= destination.getWidth();
+		int				bufferWidth	= maxWidth;
+
+		ParallelUtil.forEachBand( dstWidth, destination.getHeight(), ( startRow, endRow ) -> {
+			int[]	src	= new int[ bufferWidth ];
+			int[]	dst	= new int[ bufferWidth ];
+
+			for ( Layer layer : layers ) {
+				int	srcWidth	= layer.image().getWidth();
+				int	startX		= Math.max( 0, layer.x() );
+				int	endX		= Math.min( dstWidth, layer.x() + srcWidth );
+				int	startY		= Math.max( startRow, layer.y() );
+				int	endY		= Math.min( endRow, layer.y() + layer.image().getHeight() );
+				int	alpha		= ( int ) Math.round( Math.max( 0.0, Math.min( 1.0, layer.opacity() ) ) * 255 );
+				int	width		= endX - startX;
+
+				if ( width <= 0 || startY >= endY || alpha == 0 ) {
+					continue;
+				}
+
+				int[] pixels = converted.get( layer.image() );
+
+				for ( int dy = startY; dy < endY; dy++ ) {
+					int	srcOffset	= ( dy - layer.y() ) * srcWidth + ( startX - layer.x() );
+					int	dstOffset	= dstOrigin + dy * dstStride + startX;
+
+					if ( mode == BlendMode.NORMAL && dstType != BufferedImage.TYPE_INT_ARGB ) {
+						sourceOver( pixels, srcOffset, dstPixels, dstOffset, width, alpha, dstType == BufferedImage.TYPE_INT_RGB );
+						continue;
+					}
+
+					loadSource( pixels, srcOffset, BufferedImage.TYPE_INT_ARGB_PRE, src, width, alpha );
+					loadDestination( dstPixels, dstOffset, dstType, dst, width );
+					blend( src, dst, width, mode );
+					storeDestination( dst, dstPixels, dstOffset, dstType, width );
+				}
+			}
+		} );
+	}
+
+	/**
+	 * Composites premultiplied source pixels over an opaque {@code TYPE_INT_RGB} or premultiplied
+	 * {@code TYPE_INT_ARGB_PRE} destination directly in its backing array, which spares the row copies
+	 * of the general path. This is the common case of pasting sprites and badges.
+	 */
+	private static void sourceOver( int[] src, int srcOffset, int[] dst, int dstOffset, int width, int opacity, boolean opaque ) {
+		int alphaMask = opaque ? 0xff000000 : 0;
+
+		for ( int i = 0; i < width; i++ ) {
+			int s = src[ srcOffset + i ];
+
+			if ( opacity < 255 ) {
+				s = scale( s, opacity );
+			}
+
+			int sa = s >>> 24;
+
+			if ( sa == 255 ) {
+				dst[ dstOffset + i ] = s;
+			} else if ( sa != 0 ) {
+				dst[ dstOffset + i ] = s + scale( dst[ dstOffset + i ] | alphaMask, 255 - sa );
+			}
+		}
+	}
+
+	/**
+	 * Returns the pixels of an image as compact, premultiplied ARGB values.
+	 */
+	private static int[] premultipliedPixels( BufferedImage image ) {
+		BufferedImage	working	= RasterUtil.toIntImage( image );
+		int[]			pixels	= RasterUtil.getPixels( working );
+		int				length	= working.getWidth() * working.getHeight();
+
+		if ( working.getType() == BufferedImage.TYPE_INT_ARGB_PRE ) {
+			return pixels;
+		}
+
+		int[] premultiplied = new int[ length ];
+		if ( working.getColorModel().hasAlpha() ) {
+			RasterUtil.premultiply( pixels, premultiplied, 0, length );
+		} else {
+			for ( int i = 0; i < length; i++ ) {
+				premultiplied[ i ] = pixels[ i ] | 0xff000000;
+			}
+		}
+		return premultiplied;
+	}
+
+	/**
+	 * Determines whether two images are backed by the same pixel data, as an image and its sub-images are.
+	 */
+	private static boolean sharesPixels( BufferedImage image, BufferedImage other ) {
+		DataBuffer	buffer		= image.getRaster().getDataBuffer();
+		DataBuffer	otherBuffer	= other.getRaster().getDataBuffer();
+
+		if ( buffer == otherBuffer ) {
+			return true;
+		}
+		return buffer instanceof DataBufferInt ints && otherBuffer instanceof DataBufferInt otherInts && ints.getData() == otherInts.getData();
+	}
+
+	/**
+	 * Determines whether the pixels of an image are packed integers that the engine can blend in place.
+	 */
+	private static boolean isPacked( BufferedImage image ) {
+		int				type	= image.getType();
+		WritableRaster	raster	= image.getRaster();
+
+		return ( type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE )
+		    && raster.getDataBuffer() instanceof DataBufferInt
+		    && raster.getSampleModel() instanceof SinglePixelPackedSampleModel;
+	}
+
+	/**
+	 * Returns the index of the pixel at (0, 0) of a packed raster in its data array, which is not 0 for sub-images.
+	 */
+	private static int origin( WritableRaster raster, int scanlineStride ) {
+		return raster.getDataBuffer().getOffset() - raster.getSampleModelTranslateY() * scanlineStride - raster.getSampleModelTranslateX();
+	}
+
+	/**
+	 * Reads a row of source pixels as premultiplied ARGB, applying the opacity.
+	 */
+	private static void loadSource( int[] pixels, int offset, int type, int[] row, int width, int opacity ) {
+		if ( type == BufferedImage.TYPE_INT_RGB ) {
+			for ( int i = 0; i < width; i++ ) {
+				row[ i ] = pixels[ offset + i ] | 0xff000000;
+			}
+		} else if ( type == BufferedImage.TYPE_INT_ARGB_PRE ) {
+			System.arraycopy( pixels, offset, row, 0, width );
+		} else {
+			System.arraycopy( pixels, offset, row, 0, width );
+			RasterUtil.premultiply( row, row, 0, width );
+		}
+
+		if ( opacity < 255 ) {
+			for ( int i = 0; i < width; i++ ) {
+				row[ i ] = scale( row[ i ], opacity );
+			}
+		}
+	}
+
+	/**
+	 * Reads a row of packed destination pixels as premultiplied ARGB.
+	 */
+	private static void loadDestination( int[] pixels, int offset, int type, int[] row, int width ) {
+		switch ( type ) {
+			case BufferedImage.TYPE_INT_RGB -> {
+				for ( int i = 0; i < width; i++ ) {
+					row[ i ] = pixels[ offset + i ] | 0xff000000;
+				}
+			}
+			case BufferedImage.TYPE_INT_ARGB -> {
+				System.arraycopy( pixels, offset, row, 0, width );
+				RasterUtil.premultiply( row, row, 0, width );
+			}
+			default -> System.arraycopy( pixels, offset, row, 0, width );
+		}
+	}
+
+	/**
+	 * Writes a row of premultiplied ARGB pixels back to a packed destination.
+	 */
+	private static void storeDestination( int[] row, int[] pixels, int offset, int type, int width ) {
+		switch ( type ) {
+			case BufferedImage.TYPE_INT_RGB -> {
+				for ( int i = 0; i < width; i++ ) {
+					pixels[ offset + i ] = row[ i ] & 0x00ffffff;
+				}
+			}
+			case BufferedImage.TYPE_INT_ARGB -> {
+				RasterUtil.unpremultiply( row, row, 0, width );
+				System.arraycopy( row, 0, pixels, offset, width );
+			}
+			default -> System.arraycopy( row, 0, pixels, offset, width );
+		}
+	}
+
+	/**
+	 * Composites a row of premultiplied source pixels over a row of premultiplied destination pixels.
+	 * Every mode has its own loop so the JIT can inline the channel math instead of dispatching on the
+	 * mode for every channel.
+	 */
+	private static void blend( int[] src, int[] dst, int width, BlendMode mode ) {
+		switch ( mode ) {
+			case NORMAL -> {
+				// Plain source-over: Rc = s + d * ( 1 - Sa )
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	sa	= s >>> 24;
+
+					if ( sa == 255 ) {
+						dst[ i ] = s;
+					} else if ( sa != 0 ) {
+						dst[ i ] = s + scale( dst[ i ], 255 - sa );
+					}
+				}
+			}
+			case MULTIPLY -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						dst[ i ] = pack( s, d, multiply( s, d, 16 ), multiply( s, d, 8 ), multiply( s, d, 0 ) );
+					}
+				}
+			}
+			case SCREEN -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						dst[ i ] = pack( s, d, screen( s, d, 16 ), screen( s, d, 8 ), screen( s, d, 0 ) );
+					}
+				}
+			}
+			case OVERLAY -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						// Overlay is hard-light with the layers swapped
+						dst[ i ] = pack( s, d, hardLight( d, s, 16 ), hardLight( d, s, 8 ), hardLight( d, s, 0 ) );
+					}
+				}
+			}
+			case HARD_LIGHT -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						dst[ i ] = pack( s, d, hardLight( s, d, 16 ), hardLight( s, d, 8 ), hardLight( s, d, 0 ) );
+					}
+				}
+			}
+			case SOFT_LIGHT -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						dst[ i ] = pack( s, d, softLight( s, d, 16 ), softLight( s, d, 8 ), softLight( s, d, 0 ) );
+					}
+				}
+			}
+			case DARKEN -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						dst[ i ] = pack( s, d, darken( s, d, 16 ), darken( s, d, 8 ), darken( s, d, 0 ) );
+					}
+				}
+			}
+			case LIGHTEN -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						dst[ i ] = pack( s, d, lighten( s, d, 16 ), lighten( s, d, 8 ), lighten( s, d, 0 ) );
+					}
+				}
+			}
+			case DIFFERENCE -> {
+				for ( int i = 0; i < width; i++ ) {
+					int	s	= src[ i ];
+					int	d	= dst[ i ];
+					if ( s >>> 24 != 0 ) {
+						dst[ i ] = pack( s, d, difference( s, d, 16 ), difference( s, d, 8 ), difference( s, d, 0 ) );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assembles a premultiplied result pixel. Each channel is {@code s * ( 1 - Da ) + d * ( 1 - Sa ) + Sa * Da * B( Cs, Cd )},
+	 * where the blend term {@code Sa * Da * B( Cs, Cd )} is given scaled by 255 for the red, green and blue channels.
+	 */
+	private static int pack( int s, int d, int red, int green, int blue ) {
+		int	sa	= s >>> 24;
+		int	da	= d >>> 24;
+		int	ra	= sa + da - div255( sa * da );
+
+		return ( ra << 24 )
+		    | ( channel( ( s >> 16 ) & 0xff, ( d >> 16 ) & 0xff, sa, da, ra, red ) << 16 )
+		    | ( channel( ( s >> 8 ) & 0xff, ( d >> 8 ) & 0xff, sa, da, ra, green ) << 8 )
+		    | channel( s & 0xff, d & 0xff, sa, da, ra, blue );
+	}
+
+	private static int channel( int s, int d, int sa, int da, int ra, int term ) {
+		return Math.max( 0, Math.min( ra, div255( s * ( 255 - da ) + d * ( 255 - sa ) + term ) ) );
+	}
+
+	// The blend terms below take whole premultiplied pixels and the shift of the channel to blend
+
+	private static int multiply( int s, int d, int shift ) {
+		return ( ( s >> shift ) & 0xff ) * ( ( d >> shift ) & 0xff );
+	}
+
+	private static int screen( int s, int d, int shift ) {
+		int	sc	= ( s >> shift ) & 0xff;
+		int	dc	= ( d >> shift ) & 0xff;
+		return sc * ( d >>> 24 ) + dc * ( s >>> 24 ) - sc * dc;
+	}
+
+	private static int hardLight( int s, int d, int shift ) {
+		int	sc	= ( s >> shift ) & 0xff;
+		int	dc	= ( d >> shift ) & 0xff;
+		int	sa	= s >>> 24;
+		int	da	= d >>> 24;
+		return 2 * sc <= sa ? 2 * sc * dc : sa * da - 2 * ( da - dc ) * ( sa - sc );
+	}
+
+	private static int darken( int s, int d, int shift ) {
+		return Math.min( ( ( s >> shift ) & 0xff ) * ( d >>> 24 ), ( ( d >> shift ) & 0xff ) * ( s >>> 24 ) );
+	}
+
+	private static int lighten( int s, int d, int shift ) {
+		return Math.max( ( ( s >> shift ) & 0xff ) * ( d >>> 24 ), ( ( d >> shift ) & 0xff ) * ( s >>> 24 ) );
+	}
+
+	private static int difference( int s, int d, int shift ) {
+		return Math.abs( ( ( s >> shift ) & 0xff ) * ( d >>> 24 ) - ( ( d >> shift ) & 0xff ) * ( s >>> 24 ) );
+	}
+
+	/**
+	 * The soft-light term, which needs the straight colors: opaque pixels already are, the others are
+	 * divided by their alpha.
+	 */
+	private static int softLight( int s, int d, int shift ) {
+		int	sa	= s >>> 24;
+		int	da	= d >>> 24;
+
+		if ( da == 0 ) {
+			return 0;
+		}
+
+		int	cs	= ( s >> shift ) & 0xff;
+		int	cd	= ( d >> shift ) & 0xff;
+
+		if ( sa != 255 ) {
+			cs = Math.min( 255, ( cs * 255 + ( sa >> 1 ) ) / sa );
+		}
+		if ( da != 255 ) {
+			cd = Math.min( 255, ( cd * 255 + ( da >> 1 ) ) / da );
+		}
+
+		return ( sa * da * SOFT_LIGHT[ ( cs << 8 ) | cd ] + 127 ) / 255;
+	}
+
+	/**
+	 * Multiplies all four channels of a pixel by {@code factor / 255} with rounding, two channels at a
+	 * time: each pair of channels is spread over the two 16 bit halves of an int, which cannot overflow
+	 * into each other since 255 * 255 + 255 still fits in 16 bits.
+	 */
+	private static int scale( int pixel, int factor ) {
+		int	rb	= ( pixel & 0x00ff00ff ) * factor + 0x00800080;
+		int	ag	= ( ( pixel >>> 8 ) & 0x00ff00ff ) * factor + 0x00800080;
+
+		rb	= ( ( rb + ( ( rb >>> 8 ) & 0x00ff00ff ) ) >>> 8 ) & 0x00ff00ff;
+		ag	= ( ag + ( ( ag >>> 8 ) & 0x00ff00ff ) ) & 0xff00ff00;
+
+		return ag | rb;
+	}
+
+	/**
+	 * Divides by 255 with rounding, exactly for every value from 0 to 65535.
+	 */
+	private static int div255( int value ) {
+		value += 128;
+		return ( value + ( value >> 8 ) ) >> 8;
+	}
+}
@@ -0,0 +1,514 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Kernel;
+
+/**
+ * Multithreaded convolution engine operating directly on packed integer rasters.
+ *
+ * <p>
+ * Unlike {@link java.awt.image.ConvolveOp}, which runs on a single thread and can only zero-fill
+ * or copy the pixels it cannot reach at the image edges, this engine:
+ * </p>
+ * <ul>
+ * <li>Splits the destination into row bands that are processed in parallel via {@link ParallelUtil}.
+ * Each band reads whatever source rows the kernel needs, so neighbouring bands overlap on the read side.</li>
+ * <li>Samples outside of the image according to an explicit {@link EdgeMode}.</li>
+ * <li>Convolves images with an alpha channel in premultiplied space, so transparent pixels do not bleed
+ * their (invisible) color into their neighbours.</li>
+ * <li>Supports separable kernels as two one-dimensional passes, which keeps large blurs proportional to
+ * the kernel width instead of its area.</li>
+ * <li>Approximates Gaussian blurs with successive running-sum box blurs, whose cost does not depend on the
+ * radius at all.</li>
+ * </ul>
+ *
+ * <p>
+ * Like {@code ConvolveOp}, kernels are applied as a true convolution (rotated by 180 degrees around
+ * the kernel origin at {@link Kernel#getXOrigin()}, {@link Kernel#getYOrigin()}), so existing
+ * {@code ConvolveOp} kernels produce the same results.
+ * </p>
+ */
+public class ConvolutionUtil {
+
+	/**
+	 * How pixels outside of the image are sampled when the kernel overlaps an edge.
+	 */
+	public enum EdgeMode {
+		/** Repeat the nearest edge pixel */
+		CLAMP,
+		/** Wrap around to the opposite edge, treating the image as a tile */
+		WRAP,
+		/** Treat pixels outside of the image as transparent black */
+		ZERO
+	}
+
+	/**
+	 * Convolves an image with a two-dimensional kernel.
+	 *
+	 * @param source   The image to convolve. It is not modified.
+	 * @param kernel   The kernel to apply
+	 * @param edgeMode How to sample pixels beyond the image edges
+	 *
+	 * @return A new image containing the convolved pixels
+	 */
+	public static BufferedImage convolve( BufferedImage source, Kernel kernel, EdgeMode edgeMode ) {
+		Pass pass = new KernelPass( kernel, edgeMode );
+
+		return run( source, pass );
+	}
+
+	/**
+	 * Convolves an image with a separable kernel, expressed as a horizontal and a vertical
+	 * one-dimensional kernel applied one after the other.
+	 *
+	 * @param source           The image to convolve. It is not modified.
+	 * @param horizontalKernel The weights applied along each row, centered on the pixel
+	 * @param verticalKernel   The weights applied along each column, centered on the pixel
+	 * @param edgeMode         How to sample pixels beyond the image edges
+	 *
+	 * @return A new image containing the convolved pixels
+	 */
+	public static BufferedImage convolveSeparable( BufferedImage source, float[] horizontalKernel, float[] verticalKernel, EdgeMode edgeMode ) {
+		Pass	horizontal	= new KernelPass( new Kernel( horizontalKernel.length, 1, horizontalKernel ), edgeMode );
+		Pass	vertical	= new KernelPass( new Kernel( 1, verticalKernel.length, verticalKernel ), edgeMode );
+
+		return run( source, horizontal, vertical );
+	}
+
+	/**
+	 * Builds a normalized one-dimensional Gaussian kernel for the given blur radius, using a
+	 * standard deviation of a third of the radius so the kernel covers three sigmas.
+	 *
+	 * @param radius The blur radius in pixels
+	 *
+	 * @return The kernel weights, {@code 2 * ceil( radius ) + 1} entries that sum to 1
+	 */
+	public static float[] gaussianKernel( float radius ) {
+		int		r			= ( int ) Math.ceil( radius );
+		float[]	weights		= new float[ r * 2 + 1 ];
+		double	sigma		= Math.max( radius / 3.0, 1e-3 );
+		double	twoSigmaSq	= 2.0 * sigma * sigma;
+		double	total		= 0;
+
+		for ( int i = -r; i <= r; i++ ) {
+			double weight = Math.exp( - ( i * i ) / twoSigmaSq );
+			weights[ i + r ]	= ( float ) weight;
+			total				+= weight;
+		}
+
+		for ( int i = 0; i < weights.length; i++ ) {
+			weights[ i ] = ( float ) ( weights[ i ] / total );
+		}
+
+		return weights;
+	}
+
+	/**
+	 * Blurs an image with an approximation of a Gaussian blur, built from three successive box
+	 * blurs in each direction. Each box blur is computed with a running sum, so the cost per
+	 * pixel is constant no matter how large the radius is.
+	 *
+	 * <p>
+	 * The box sizes are chosen so that the combined filter has the same standard deviation as
+	 * {@link #gaussianKernel(float)} for the same radius.
+	 * </p>
+	 *
+	 * @param source   The image to blur. It is not modified.
+	 * @param radius   The blur radius in pixels
+	 * @param edgeMode How to sample pixels beyond the image edges
+	 *
+	 * @return A new image containing the blurred pixels
+	 */
+	public static BufferedImage boxBlur( BufferedImage source, float radius, EdgeMode edgeMode ) {
+		int[]	boxRadii	= boxRadiiForGaussian( radius / 3.0, 3 );
+		Pass[]	passes		= new Pass[ boxRadii.length * 2 ];
+
+		for ( int i = 0; i < boxRadii.length; i++ ) {
+			passes[ i ]						= new BoxPass( boxRadii[ i ], true, edgeMode );
+			passes[ i + boxRadii.length ]	= new BoxPass( boxRadii[ i ], false, edgeMode );
+		}
+
+		return run( source, passes );
+	}
+
+	/**
+	 * Computes the radii of {@code count} successive box blurs whose combined variance is as close
+	 * as possible to that of a Gaussian with the given standard deviation.
+	 *
+	 * @param sigma The standard deviation of the Gaussian to approximate
+	 * @param count The number of box blurs
+	 *
+	 * @return The radius of each box blur
+	 */
+	private static int[] boxRadiiForGaussian( double sigma, int count ) {
+		double	variance	= 12.0 * sigma * sigma;
+		int		lower		= ( int ) Math.floor( Math.sqrt( variance / count + 1 ) );
+
+		if ( lower % 2 == 0 ) {
+			lower--;
+		}
+
+		int		upper		= lower + 2;
+		long	lowerCount	= Math.round( ( variance - count * lower * lower - 4.0 * count * lower - 3.0 * count ) / ( -4.0 * lower - 4.0 ) );
+		int[]	radii		= new int[ count ];
+
+		for ( int i = 0; i < count; i++ ) {
+			radii[ i ] = ( ( i < lowerCount ? lower : upper ) - 1 ) / 2;
+		}
+
+		return radii;
+	}
+
+	/**
+	 * Runs one or more convolution passes over an image.
+	 *
+	 * @param source The image to convolve
+	 * @param passes The passes to apply, in order
+	 *
+	 * @return A new image containing the result of the last pass
+	 */
+	private static BufferedImage run( BufferedImage source, Pass... passes ) {
+		BufferedImage	working		= RasterUtil.toIntImage( source );
+		int				width		= working.getWidth();
+		int				height		= working.getHeight();
+		boolean			hasAlpha	= working.getColorModel().hasAlpha();
+		boolean			straight	= hasAlpha && !working.isAlphaPremultiplied();
+		int[]			pixels		= RasterUtil.getPixels( working );
+		BufferedImage	result		= new BufferedImage( width, height, working.getType() );
+		int[]			output		= RasterUtil.getPixels( result );
+		int[]			input		= straight ? new int[ width * height ] : pixels;
+
+		if ( straight ) {
+			ParallelUtil.forEachBand( width, height,
+			    ( start, end ) -> RasterUtil.premultiply( pixels, input, start * width, end * width ) );
+		}
+
+		// Intermediate passes alternate between two scratch buffers so a pass never reads what it writes
+		int[][] buffers = { passes.length > 1 ? new int[ width * height ] : null, passes.length > 2 ? new int[ width * height ] : null };
+
+		for ( int i = 0; i < passes.length; i++ ) {
+			int[]	passInput	= i == 0 ? input : buffers[ ( i - 1 ) % 2 ];
+			int[]	passOutput	= i == passes.length - 1 ? output : buffers[ i % 2 ];
+			Pass	pass		= passes[ i ];
+
+			ParallelUtil.forEachBand( width, height,
+			    ( start, end ) -> pass.apply( passInput, passOutput, width, height, hasAlpha, start, end ) );
+		}
+
+		if ( straight ) {
+			ParallelUtil.forEachBand( width, height,
+			    ( start, end ) -> RasterUtil.unpremultiply( output, output, start * width, end * width ) );
+		}
+
+		return RasterUtil.restoreType( result, source.getType() );
+	}
+
+	/**
+	 * Returns the index to sample for a coordinate that may fall outside of {@code [0, size)},
+	 * or -1 if the sample should be treated as transparent black.
+	 */
+	private static int edgeIndex( int coordinate, int size, EdgeMode edgeMode ) {
+		if ( coordinate >= 0 && coordinate < size ) {
+			return coordinate;
+		}
+
+		return switch ( edgeMode ) {
+			case CLAMP -> coordinate < 0 ? 0 : size - 1;
+			case WRAP -> Math.floorMod( coordinate, size );
+			case ZERO -> -1;
+		};
+	}
+
+	/**
+	 * A single pass over the image, reading from one pixel array and writing into another.
+	 */
+	private interface Pass {
+
+		/**
+		 * Processes the rows {@code [startRow, endRow)} of the input into the output.
+		 */
+		void apply( int[] input, int[] output, int width, int height, boolean hasAlpha, int startRow, int endRow );
+	}
+
+	/**
+	 * A single convolution pass with a fixed kernel.
+	 */
+	private static class KernelPass implements Pass {
+
+		private final float[]	weights;
+		private final int		kernelWidth;
+		private final int		kernelHeight;
+		private final int		xOrigin;
+		private final int		yOrigin;
+		private final EdgeMode	edgeMode;
+
+		KernelPass( Kernel kernel, EdgeMode edgeMode ) {
+			float[] data = kernel.getKernelData( null );
+
+			// Rotate the kernel once up front so the inner loops can walk it as a correlation
+			this.weights = new float[ data.length ];
+			for ( int i = 0; i < data.length; i++ ) {
+				this.weights[ i ] = data[ data.length - 1 - i ];
+			}
+
+			this.kernelWidth	= kernel.getWidth();
+			this.kernelHeight	= kernel.getHeight();
+			this.xOrigin		= kernelWidth - 1 - kernel.getXOrigin();
+			this.yOrigin		= kernelHeight - 1 - kernel.getYOrigin();
+			this.edgeMode		= edgeMode;
+		}
+
+		/**
+		 * Convolves the rows {@code [startRow, endRow)} of the input into the output.
+		 * Pixels whose kernel footprint lies entirely inside the image take a fast path without
+		 * any bounds handling; the remaining edge pixels go through {@link ConvolutionUtil#edgeIndex}.
+		 */
+		@Override
+		public void apply( int[] input, int[] output, int width, int height, boolean hasAlpha, int startRow, int endRow ) {
+			int	interiorLeft	= xOrigin;
+			int	interiorRight	= width - ( kernelWidth - 1 - xOrigin );
+			int	interiorTop		= yOrigin;
+			int	interiorBottom	= height - ( kernelHeight - 1 - yOrigin );
+
+			for ( int y = startRow; y < endRow; y++ ) {
+				int		rowOffset		= y * width;
+				boolean	interiorRow		= y >= interiorTop && y < interiorBottom;
+				int		fastStart		= interiorRow ? Math.max( interiorLeft, 0 ) : width;
+				int		fastEnd			= interiorRow ? Math.min( interiorRight, width ) : width;
+
+				for ( int x = 0; x < width; x++ ) {
+					if ( x == fastStart && fastStart < fastEnd ) {
+						convolveInterior( input, output, width, hasAlpha, y, fastStart, fastEnd );
+						x = fastEnd - 1;
+						continue;
+					}
+					output[ rowOffset + x ] = convolveEdge( input, width, height, hasAlpha, x, y );
+				}
+			}
+		}
+
+		private void convolveInterior( int[] input, int[] output, int width, boolean hasAlpha, int y, int startX, int endX ) {
+			int firstRow = ( y - yOrigin ) * width - xOrigin;
+
+			for ( int x = startX; x < endX; x++ ) {
+				float	a		= 0;
+				float	r		= 0;
+				float	g		= 0;
+				float	b		= 0;
+				int		k		= 0;
+				int		rowBase	= firstRow + x;
+
+				for ( int ky = 0; ky < kernelHeight; ky++ ) {
+					for ( int kx = 0; kx < kernelWidth; kx++ ) {
+						float	weight	= weights[ k++ ];
+						int		p		= input[ rowBase + kx ];
+						a	+= ( p >>> 24 ) * weight;
+						r	+= ( ( p >> 16 ) & 0xff ) * weight;
+						g	+= ( ( p >> 8 ) & 0xff ) * weight;
+						b	+= ( p & 0xff ) * weight;
+					}
+					rowBase += width;
+				}
+
+				output[ y * width + x ] = pack( a, r, g, b, hasAlpha );
+			}
+		}
+
+		private int convolveEdge( int[] input, int width, int height, boolean hasAlpha, int x, int y ) {
+			float	a	= 0;
+			float	r	= 0;
+			float	g	= 0;
+			float	b	= 0;
+			int		k	= 0;
+
+			for ( int ky = 0; ky < kernelHeight; ky++ ) {
+				int sy = edgeIndex( y + ky - yOrigin, height, edgeMode );
+
+				for ( int kx = 0; kx < kernelWidth; kx++ ) {
+					float	weight	= weights[ k++ ];
+					int		sx		= edgeIndex( x + kx - xOrigin, width, edgeMode );
+
+					if ( sx < 0 || sy < 0 ) {
+						continue;
+					}
+
+					int p = input[ sy * width + sx ];
+					a	+= ( p >>> 24 ) * weight;
+					r	+= ( ( p >> 16 ) & 0xff ) * weight;
+					g	+= ( ( p >> 8 ) & 0xff ) * weight;
+					b	+= ( p & 0xff ) * weight;
+				}
+			}
+
+			return pack( a, r, g, b, hasAlpha );
+		}
+
+		/**
+		 * Rounds and clamps the accumulated channels into a packed pixel. With an alpha channel the
+		 * color channels are premultiplied, so they are additionally clamped to the alpha value.
+		 */
+		private static int pack( float a, float r, float g, float b, boolean hasAlpha ) {
+			int	alpha	= hasAlpha ? clamp( a, 255 ) : 255;
+			int	red		= clamp( r, alpha );
+			int	green	= clamp( g, alpha );
+			int	blue	= clamp( b, alpha );
+
+			return ( alpha << 24 ) | ( red << 16 ) | ( green << 8 ) | blue;
+		}
+
+		private static int clamp( float value, int max ) {
+			int rounded = ( int ) ( value + 0.5f );
+			return rounded < 0 ? 0 : ( rounded > max ? max : rounded );
+		}
+	}
+
+	/**
+	 * A box blur pass along rows or columns, computed with a running sum. Each output pixel is
+	 * the rounded average of the {@code 2 * radius + 1} input pixels centered on it.
+	 */
+	private static class BoxPass implements Pass {
+
+		private final int		radius;
+		private final boolean	horizontal;
+		private final EdgeMode	edgeMode;
+
+		BoxPass( int radius, boolean horizontal, EdgeMode edgeMode ) {
+			this.radius		= radius;
+			this.horizontal	= horizontal;
+			this.edgeMode	= edgeMode;
+		}
+
+		@Override
+		public void apply( int[] input, int[] output, int width, int height, boolean hasAlpha, int startRow, int endRow ) {
+			if ( radius == 0 ) {
+				System.arraycopy( input, startRow * width, output, startRow * width, ( endRow - startRow ) * width );
+				return;
+			}
+
+			if ( horizontal ) {
+				applyHorizontal( input, output, width, startRow, endRow );
+			} else {
+				applyVertical( input, output, width, height, startRow, endRow );
+			}
+		}
+
+		private void applyHorizontal( int[] input, int[] output, int width, int startRow, int endRow ) {
+			int	size	= radius * 2 + 1;
+			int	half	= size / 2;
+
+			for ( int y = startRow; y < endRow; y++ ) {
+				int	rowOffset	= y * width;
+				int	a			= 0;
+				int	r			= 0;
+				int	g			= 0;
+				int	b			= 0;
+
+				for ( int k = -radius; k <= radius; k++ ) {
+					int sx = edgeIndex( k, width, edgeMode );
+					if ( sx >= 0 ) {
+						int p = input[ rowOffset + sx ];
+						a	+= p >>> 24;
+						r	+= ( p >> 16 ) & 0xff;
+						g	+= ( p >> 8 ) & 0xff;
+						b	+= p & 0xff;
+					}
+				}
+
+				for ( int x = 0; x < width; x++ ) {
+					output[ rowOffset + x ] = ( ( a + half ) / size << 24 )
+					    | ( ( r + half ) / size << 16 )
+					    | ( ( g + half ) / size << 8 )
+					    | ( ( b + half ) / size );
+
+					int	addX	= edgeIndex( x + radius + 1, width, edgeMode );
+					int	dropX	= edgeIndex( x - radius, width, edgeMode );
+
+					if ( addX >= 0 ) {
+						int p = input[ rowOffset + addX ];
+						a	+= p >>> 24;
+						r	+= ( p >> 16 ) & 0xff;
+						g	+= ( p >> 8 ) & 0xff;
+						b	+= p & 0xff;
+					}
+					if ( dropX >= 0 ) {
+						int p = input[ rowOffset + dropX ];
+						a	-= p >>> 24;
+						r	-= ( p >> 16 ) & 0xff;
+						g	-= ( p >> 8 ) & 0xff;
+						b	-= p & 0xff;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Blurs along columns while still walking the rasters row by row: one running sum per
+		 * column is kept for the band and slid down a row at a time.
+		 */
+		private void applyVertical( int[] input, int[] output, int width, int height, int startRow, int endRow ) {
+			int		size	= radius * 2 + 1;
+			int		half	= size / 2;
+			int[]	a		= new int[ width ];
+			int[]	r		= new int[ width ];
+			int[]	g		= new int[ width ];
+			int[]	b		= new int[ width ];
+
+			for ( int k = -radius; k <= radius; k++ ) {
+				addRow( input, edgeIndex( startRow + k, height, edgeMode ), width, 1, a, r, g, b );
+			}
+
+			for ( int y = startRow; y < endRow; y++ ) {
+				int rowOffset = y * width;
+
+				for ( int x = 0; x < width; x++ ) {
+					output[ rowOffset + x ] = ( ( a[ x ] + half ) / size << 24 )
+					    | ( ( r[ x ] + half ) / size << 16 )
+					    | ( ( g[ x ] + half ) / size << 8 )
+					    | ( ( b[ x ] + half ) / size );
+				}
+
+				if ( y + 1 < endRow ) {
+					addRow( input, edgeIndex( y + radius + 1, height, edgeMode ), width, 1, a, r, g, b );
+					addRow( input, edgeIndex( y - radius, height, edgeMode ), width, -1, a, r, g, b );
+				}
+			}
+		}
+
+		/**
+		 * Adds ({@code sign} 1) or subtracts ({@code sign} -1) a row of pixels to the per-column sums.
+		 * A row index of -1 (a transparent black edge sample) leaves the sums untouched.
+		 */
+		private static void addRow( int[] input, int row, int width, int sign, int[] a, int[] r, int[] g, int[] b ) {
+			if ( row < 0 ) {
+				return;
+			}
+
+			int rowOffset = row * width;
+
+			for ( int x = 0; x < width; x++ ) {
+				int p = input[ rowOffset + x ];
+				a[ x ]	+= sign * ( p >>> 24 );
+				r[ x ]	+= sign * ( ( p >> 16 ) & 0xff );
+				g[ x ]	+= sign * ( ( p >> 8 ) & 0xff );
+				b[ x ]	+= sign * ( p & 0xff );
+			}
+		}
+	}
+}
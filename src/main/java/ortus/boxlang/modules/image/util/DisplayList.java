@@ -0,0 +1,508 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * A recorded sequence of {@code Graphics2D} drawing operations, rasterised later in parallel.
+ *
+ * <p>
+ * Drawing operations and the state changes between them (color, stroke, transform, composite, font,
+ * rendering hints) are recorded in order, starting from the state of the graphics context the list was
+ * created from. {@link #render(BufferedImage)} splits large targets into horizontal tiles and replays
+ * the list on one {@code Graphics2D} per tile, clipped to the tile, with the tiles running in parallel.
+ * Drawing operations are recorded with the device space bounds of what they paint, and a tile skips
+ * the operations it does not intersect, so each primitive is only rasterised by the tiles it covers.
+ * Operations without bounds (text, for example) and state changes are replayed by every tile.
+ * </p>
+ *
+ * <p>
+ * A list can be rendered any number of times, onto images of any size: {@link #render(BufferedImage, AffineTransform)}
+ * applies a base transform, such as a scale, under every recorded transform, so the recorded lines,
+ * shapes and text are rasterised at the target resolution rather than resampled.
+ * </p>
+ *
+ * <p>
+ * The result is pixel-identical to replaying the list on a single unclipped graphics context. Java2D
+ * computes the coverage of straight edges, text and images independently of the clip, but subdivides
+ * curves differently when they cross it, so a curved shape that spans several tiles acts as a barrier:
+ * the tiles render everything recorded before it, then it is drawn once on an unclipped context, then
+ * the tiles resume.
+ * </p>
+ */
+public class DisplayList {
+
+	/**
+	 * Lists with fewer drawing operations than this are replayed on a single graphics context.
+	 */
+	public static final int		PARALLEL_THRESHOLD	= 64;
+
+	/**
+	 * The number of tiles created per available worker.
+	 */
+	private static final int	TILES_PER_WORKER	= 2;
+
+	/**
+	 * The minimum height of a tile in rows, so thin tiles do not multiply the per-tile replay cost.
+	 */
+	private static final int	MIN_TILE_HEIGHT		= 64;
+
+	/**
+	 * Margin added around the bounds of every drawing operation, covering anti-aliasing and the
+	 * rounding of coordinates to pixels.
+	 */
+	private static final int	BOUNDS_MARGIN		= 2;
+
+	/**
+	 * The maximum number of base transforms whose device bounds are kept by {@link #boundsFor(AffineTransform)}.
+	 */
+	private static final int	MAX_CACHED_BOUNDS	= 16;
+
+	/**
+	 * A recorded operation.
+	 *
+	 * @param action    The operation to replay on a graphics context, or null for a transform change
+	 * @param transform The transform set by the operation, which replaces the transform under the base transform
+	 * @param drawing   Whether the operation paints pixels, as opposed to changing the graphics state
+	 * @param bounds    The device space bounds of the pixels the operation may paint, or null if they are unknown
+	 * @param curved    Whether the operation draws a shape with curved segments
+	 */
+	private record Operation( Consumer<Graphics2D> action, AffineTransform transform, boolean drawing, Rectangle bounds, boolean curved ) {
+	}
+
+	private final List<Operation>					operations		= new ArrayList<>();
+
+	private final List<Runnable>					onDiscard		= new ArrayList<>();
+
+	private final List<Runnable>					onCapture		= new ArrayList<>();
+
+	/**
+	 * The device space bounds of the operations under each base transform the list was rendered with
+	 */
+	private final Map<AffineTransform, Rectangle[]>	boundsCache		= new ConcurrentHashMap<>();
+
+	private final AffineTransform					transform;
+	private final Shape								clip;
+	private final RenderingHints					hints;
+	private final Composite							composite;
+	private final Stroke							stroke;
+	private final Paint								paint;
+	private final Font								font;
+	private final Color								background;
+
+	private int										drawCount;
+
+	/**
+	 * Creates an empty display list starting from the current state of a graphics context.
+	 *
+	 * @param graphics The graphics context whose state the recorded operations start from
+	 */
+	public DisplayList( Graphics2D graphics ) {
+		this.transform	= graphics.getTransform();
+		this.clip		= graphics.getClip();
+		this.hints		= ( RenderingHints ) graphics.getRenderingHints().clone();
+		this.composite	= graphics.getComposite();
+		this.stroke		= graphics.getStroke();
+		this.paint		= graphics.getPaint();
+		this.font		= graphics.getFont();
+		this.background	= graphics.getBackground();
+	}
+
+	/**
+	 * Records a change of the graphics state, replayed by every tile.
+	 *
+	 * @param change The state change
+	 */
+	public void configure( Consumer<Graphics2D> change ) {
+		this.operations.add( new Operation( change, null, false, null, false ) );
+	}
+
+	/**
+	 * Records a change of the transform. Unlike a {@link #configure(Consumer) state change} calling
+	 * {@link Graphics2D#setTransform(AffineTransform)}, the transform is applied under the base transform
+	 * the list is rendered with.
+	 *
+	 * @param transform The new transform
+	 */
+	public void setTransform( AffineTransform transform ) {
+		this.operations.add( new Operation( null, new AffineTransform( transform ), false, null, false ) );
+	}
+
+	/**
+	 * Records a drawing operation whose extent is unknown, such as text, replayed by every tile.
+	 *
+	 * @param operation The drawing operation
+	 */
+	public void draw( Consumer<Graphics2D> operation ) {
+		this.operations.add( new Operation( operation, null, true, null, false ) );
+		this.drawCount++;
+	}
+
+	/**
+	 * Records a drawing operation that draws or fills a shape, so tiles that do not intersect it can skip it.
+	 *
+	 * @param state     The graphics context holding the current state: its transform and stroke are used to map the shape to device space
+	 * @param shape     The shape that is drawn or filled, in user space
+	 * @param stroked   Whether the outline of the shape is stroked, which can paint beyond its bounds
+	 * @param operation The drawing operation
+	 */
+	public void draw( Graphics2D state, Shape shape, boolean stroked, Consumer<Graphics2D> operation ) {
+		boolean curved = ! ( shape instanceof Rectangle2D || shape instanceof Line2D || shape instanceof Polygon );
+
+		this.operations.add( new Operation( operation, null, true, deviceBounds( state, shape.getBounds2D(), stroked ), curved ) );
+		this.drawCount++;
+	}
+
+	/**
+	 * Registers an action to run when the list is {@link #discard() discarded}, for example to release
+	 * resources the recorded operations hold on to.
+	 *
+	 * @param action The action to run
+	 */
+	public void onDiscard( Runnable action ) {
+		this.onDiscard.add( action );
+	}
+
+	/**
+	 * Registers an action to run when the list is {@link #capture() captured}, for example to stop sharing
+	 * resources with the image the operations were recorded on.
+	 *
+	 * @param action The action to run
+	 */
+	public void onCapture( Runnable action ) {
+		this.onCapture.add( action );
+	}
+
+	/**
+	 * Prepares the list to outlive the image it was recorded on, running the actions registered with
+	 * {@link #onCapture(Runnable)}.
+	 */
+	public void capture() {
+		this.onCapture.forEach( Runnable::run );
+		this.onCapture.clear();
+	}
+
+	/**
+	 * Releases the resources held by the recorded operations. The list must not be rendered afterwards.
+	 */
+	public void discard() {
+		this.onDiscard.forEach( Runnable::run );
+		this.onDiscard.clear();
+		this.onCapture.clear();
+		this.operations.clear();
+		this.boundsCache.clear();
+		this.drawCount = 0;
+	}
+
+	/**
+	 * Whether no drawing operation has been recorded.
+	 *
+	 * @return true if rendering the list would not paint anything
+	 */
+	public boolean isEmpty() {
+		return this.drawCount == 0;
+	}
+
+	/**
+	 * Returns the number of recorded drawing operations.
+	 *
+	 * @return The number of drawing operations, not counting state changes
+	 */
+	public int size() {
+		return this.drawCount;
+	}
+
+	/**
+	 * Rasterises the recorded operations onto an image. Large lists are replayed in parallel on
+	 * horizontal tiles of the image.
+	 *
+	 * @param target The image to draw on
+	 */
+	public void render( BufferedImage target ) {
+		render( target, new AffineTransform() );
+	}
+
+	/**
+	 * Rasterises the recorded operations onto an image, under a base transform. Rendering a list that
+	 * was recorded on a 100x50 canvas with a 2x scale, for example, fills a 200x50 image at twice the
+	 * resolution. Several threads may render the same list at once.
+	 *
+	 * @param target The image to draw on
+	 * @param base   The transform applied under the recorded transforms
+	 */
+	public void render( BufferedImage target, AffineTransform base ) {
+		int			width		= target.getWidth();
+		int			height		= target.getHeight();
+		int			tileCount	= Math.min( ForkJoinPool.getCommonPoolParallelism() * TILES_PER_WORKER, height / MIN_TILE_HEIGHT );
+		Rectangle[]	bounds		= boundsFor( base );
+
+		if ( tileCount <= 1 || this.drawCount < PARALLEL_THRESHOLD || ( long ) width * height < ParallelUtil.PARALLEL_THRESHOLD ) {
+			Graphics2D g = createGraphics( target, null, base );
+			try {
+				replay( g, null, bounds, base, 0, this.operations.size(), true );
+			} finally {
+				g.dispose();
+			}
+		} else {
+			renderTiles( target, base, bounds, tileCount );
+		}
+	}
+
+	/**
+	 * Replays the recorded operations on parallel tiles of the target, drawing curved shapes that span
+	 * several tiles on an unclipped graphics context in between.
+	 *
+	 * @param target    The image to draw on
+	 * @param base      The transform applied under the recorded transforms
+	 * @param bounds    The device space bounds of the operations under the base transform
+	 * @param tileCount The number of tiles to split the image into
+	 */
+	private void renderTiles( BufferedImage target, AffineTransform base, Rectangle[] bounds, int tileCount ) {
+		int				width		= target.getWidth();
+		int				height		= target.getHeight();
+		int				tileHeight	= ( height + tileCount - 1 ) / tileCount;
+		Rectangle[]		tiles		= new Rectangle[ tileCount ];
+		Graphics2D[]	contexts	= new Graphics2D[ tileCount ];
+		Graphics2D		unclipped	= createGraphics( target, null, base );
+
+		try {
+			for ( int i = 0; i < tileCount; i++ ) {
+				int startRow = Math.min( height, i * tileHeight );
+
+				tiles[ i ]		= new Rectangle( 0, startRow, width, Math.min( height, startRow + tileHeight ) - startRow );
+				contexts[ i ]	= createGraphics( target, tiles[ i ], base );
+			}
+
+			int	start	= 0;
+			int	count	= this.operations.size();
+
+			while ( start < count ) {
+				int end = start;
+
+				while ( end < count && !spansTiles( this.operations.get( end ), bounds[ end ], tileHeight, height ) ) {
+					end++;
+				}
+
+				if ( end > start ) {
+					int	segmentStart	= start;
+					int	segmentEnd		= end;
+					ParallelUtil.forEachIndex( tileCount, i -> replay( contexts[ i ], tiles[ i ], bounds, base, segmentStart, segmentEnd, true ) );
+				}
+
+				// The unclipped context keeps up with the state changes, and draws the barrier operation
+				replay( unclipped, null, bounds, base, start, end, false );
+				if ( end < count ) {
+					this.operations.get( end ).action().accept( unclipped );
+				}
+
+				start = end + 1;
+			}
+		} finally {
+			unclipped.dispose();
+			for ( Graphics2D context : contexts ) {
+				if ( context != null ) {
+					context.dispose();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Whether an operation is a curved shape that may cross the boundary between two tiles.
+	 *
+	 * @param operation  The operation
+	 * @param bounds     The device space bounds of the operation
+	 * @param tileHeight The height of the tiles
+	 * @param height     The height of the image, whose top and bottom edges are shared with the first and last tile
+	 *
+	 * @return true if the operation must be drawn on an unclipped graphics context
+	 */
+	private static boolean spansTiles( Operation operation, Rectangle bounds, int tileHeight, int height ) {
+		if ( !operation.curved() ) {
+			return false;
+		}
+
+		if ( bounds == null ) {
+			return true;
+		}
+
+		int	top		= Math.max( 0, bounds.y );
+		int	bottom	= Math.min( height - 1, bounds.y + bounds.height );
+
+		return top <= bottom && top / tileHeight != bottom / tileHeight;
+	}
+
+	/**
+	 * Creates a graphics context for the target in the initial state of the display list.
+	 *
+	 * @param target The image to draw on
+	 * @param tile   The device space region to clip to, or null to draw on the whole image
+	 * @param base   The transform applied under the recorded transforms
+	 *
+	 * @return The graphics context
+	 */
+	private Graphics2D createGraphics( BufferedImage target, Rectangle tile, AffineTransform base ) {
+		Graphics2D g = target.createGraphics();
+
+		// The tile clip is set in device space, before the recorded transform applies
+		if ( tile != null ) {
+			g.clipRect( tile.x, tile.y, tile.width, tile.height );
+		}
+		g.setTransform( concatenate( base, this.transform ) );
+		if ( this.clip != null ) {
+			g.clip( this.clip );
+		}
+		g.setRenderingHints( this.hints );
+		g.setComposite( this.composite );
+		g.setStroke( this.stroke );
+		g.setPaint( this.paint );
+		g.setFont( this.font );
+		g.setBackground( this.background );
+
+		return g;
+	}
+
+	/**
+	 * Replays a range of the recorded operations.
+	 *
+	 * @param g       The graphics context to replay on
+	 * @param tile    The tile the context is clipped to, used to skip operations outside of it, or null
+	 * @param bounds  The device space bounds of the operations
+	 * @param base    The transform applied under the recorded transforms
+	 * @param start   The index of the first operation (inclusive)
+	 * @param end     The index of the last operation (exclusive)
+	 * @param drawing Whether to replay drawing operations, or only the state changes
+	 */
+	private void replay( Graphics2D g, Rectangle tile, Rectangle[] bounds, AffineTransform base, int start, int end, boolean drawing ) {
+		for ( int i = start; i < end; i++ ) {
+			Operation operation = this.operations.get( i );
+
+			if ( operation.transform() != null ) {
+				g.setTransform( concatenate( base, operation.transform() ) );
+				continue;
+			}
+			if ( operation.drawing() && ( !drawing || tile != null && bounds[ i ] != null && !bounds[ i ].intersects( tile ) ) ) {
+				continue;
+			}
+			operation.action().accept( g );
+		}
+	}
+
+	/**
+	 * Returns the device space bounds of every operation under a base transform, computing them the
+	 * first time the list is rendered with that transform.
+	 *
+	 * @param base The transform applied under the recorded transforms
+	 *
+	 * @return The bounds of the operations, indexed like the operations, with null for unknown bounds
+	 */
+	private Rectangle[] boundsFor( AffineTransform base ) {
+		Rectangle[] cached = this.boundsCache.get( base );
+
+		if ( cached != null && cached.length == this.operations.size() ) {
+			return cached;
+		}
+
+		Rectangle[] bounds = new Rectangle[ this.operations.size() ];
+
+		for ( int i = 0; i < bounds.length; i++ ) {
+			Rectangle recorded = this.operations.get( i ).bounds();
+
+			if ( recorded != null ) {
+				bounds[ i ] = base.isIdentity() ? recorded : base.createTransformedShape( recorded ).getBounds();
+				if ( !base.isIdentity() ) {
+					bounds[ i ].grow( BOUNDS_MARGIN, BOUNDS_MARGIN );
+				}
+			}
+		}
+
+		if ( this.boundsCache.size() >= MAX_CACHED_BOUNDS ) {
+			this.boundsCache.clear();
+		}
+		this.boundsCache.put( new AffineTransform( base ), bounds );
+
+		return bounds;
+	}
+
+	/**
+	 * Returns the transform applying a recorded transform under a base transform.
+	 *
+	 * @param base      The base transform
+	 * @param transform The recorded transform
+	 *
+	 * @return A new transform equivalent to {@code base} followed by {@code transform}
+	 */
+	private static AffineTransform concatenate( AffineTransform base, AffineTransform transform ) {
+		AffineTransform result = new AffineTransform( base );
+
+		result.concatenate( transform );
+
+		return result;
+	}
+
+	/**
+	 * Computes conservative device space bounds for a drawing operation.
+	 *
+	 * @param state   The graphics context holding the current transform and stroke
+	 * @param bounds  The user space bounds of the shape
+	 * @param stroked Whether the outline of the shape is stroked
+	 *
+	 * @return The device space bounds, or null if the stroke is not a {@link BasicStroke} and its extent cannot be known
+	 */
+	private static Rectangle deviceBounds( Graphics2D state, Rectangle2D bounds, boolean stroked ) {
+		double margin = 0;
+
+		if ( stroked ) {
+			if ( ! ( state.getStroke() instanceof BasicStroke basicStroke ) ) {
+				return null;
+			}
+			// Miter joins reach furthest, square caps are covered by the full line width
+			margin = basicStroke.getLineWidth() * Math.max( basicStroke.getMiterLimit(), 1f ) / 2 + basicStroke.getLineWidth();
+		}
+
+		Rectangle2D		user		= new Rectangle2D.Double( bounds.getX() - margin, bounds.getY() - margin,
+		    bounds.getWidth() + margin * 2, bounds.getHeight() + margin * 2 );
+		AffineTransform	transform	= state.getTransform();
+		Rectangle		device		= transform.isIdentity() ? user.getBounds() : transform.createTransformedShape( user ).getBounds();
+
+		device.grow( BOUNDS_MARGIN, BOUNDS_MARGIN );
+
+		return device;
+	}
+}
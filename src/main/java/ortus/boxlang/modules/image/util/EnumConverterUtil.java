@@ -110,6 +110,61 @@ public class EnumConverterUtil {
 		return RenderingHints.VALUE_INTERPOLATION_BICUBIC;
 	}
 
+	/**
+	 * Converts a string-based interpolation method to the interpolation used by {@link RotateUtil}.
+	 *
+	 * @param interpolation The interpolation method as a string. Supported values (case-insensitive):
+	 *                      <ul>
+	 *                      <li>"BILINEAR" - Bilinear interpolation, providing a balance between speed and quality</li>
+	 *                      <li>"NEAREST" - Nearest-neighbor interpolation, fastest but lowest quality</li>
+	 *                      <li>Any other value - Defaults to BICUBIC, the highest quality but slowest method</li>
+	 *                      </ul>
+	 *
+	 * @return The corresponding rotation interpolation. Defaults to BICUBIC if the value is unrecognized.
+	 */
+	public static RotateUtil.Interpolation getRotateInterpolation( String interpolation ) {
+		switch ( interpolation.toUpperCase() ) {
+			case "BILINEAR" :
+				return RotateUtil.Interpolation.BILINEAR;
+			case "NEAREST" :
+				return RotateUtil.Interpolation.NEAREST;
+		}
+
+		return RotateUtil.Interpolation.BICUBIC;
+	}
+
+	/**
+	 * Converts a string-based interpolation method to the resampling filter it names, if any.
+	 * Interpolation methods that name one of these filters are handled by {@link ResampleUtil}
+	 * instead of {@code Graphics2D}.
+	 *
+	 * @param interpolation The interpolation method as a string. Supported values (case-insensitive):
+	 *                      <ul>
+	 *                      <li>"LANCZOS" or "LANCZOS3" - Lanczos windowed sinc with three lobes</li>
+	 *                      <li>"MITCHELL" - Mitchell-Netravali cubic</li>
+	 *                      <li>"CATMULLROM" or "CATMULL-ROM" - Catmull-Rom cubic</li>
+	 *                      <li>"BOX" - Box filter</li>
+	 *                      </ul>
+	 *
+	 * @return The corresponding resampling filter, or null if the value does not name a resampling filter.
+	 */
+	public static ResampleUtil.Filter getResampleFilter( String interpolation ) {
+		switch ( interpolation.toUpperCase() ) {
+			case "LANCZOS" :
+			case "LANCZOS3" :
+				return ResampleUtil.Filter.LANCZOS3;
+			case "MITCHELL" :
+				return ResampleUtil.Filter.MITCHELL;
+			case "CATMULLROM" :
+			case "CATMULL-ROM" :
+				return ResampleUtil.Filter.CATMULL_ROM;
+			case "BOX" :
+				return ResampleUtil.Filter.BOX;
+		}
+
+		return null;
+	}
+
 	/**
 	 * Converts a string-based overlay (composite) rule to its corresponding AlphaComposite constant.
 	 * Overlay rules define how source and destination pixels are combined during image compositing operations.
@@ -148,6 +203,111 @@ public class EnumConverterUtil {
 		return AlphaComposite.SRC;
 	}
 
+	/**
+	 * Converts a string-based blend mode to the blend mode it names, if any. Blend modes are handled by
+	 * {@link BlendUtil} instead of the Porter-Duff rules of {@link #getOveralyRule(String)}.
+	 *
+	 * @param blendMode The blend mode as a string. Supported values (case-insensitive):
+	 *                  <ul>
+	 *                  <li>"NORMAL" - The source color replaces the destination color</li>
+	 *                  <li>"MULTIPLY" - Multiplies the colors, darkening the image</li>
+	 *                  <li>"SCREEN" - Multiplies the complements of the colors, lightening the image</li>
+	 *                  <li>"OVERLAY" - Multiplies or screens depending on the destination color</li>
+	 *                  <li>"HARD-LIGHT" or "HARDLIGHT" - Multiplies or screens depending on the source color</li>
+	 *                  <li>"SOFT-LIGHT" or "SOFTLIGHT" - Darkens or lightens depending on the source color</li>
+	 *                  <li>"DARKEN" - Keeps the darker of the two colors</li>
+	 *                  <li>"LIGHTEN" - Keeps the lighter of the two colors</li>
+	 *                  <li>"DIFFERENCE" - Subtracts the darker of the two colors from the lighter one</li>
+	 *                  </ul>
+	 *
+	 * @return The corresponding blend mode, or null if the value does not name a blend mode.
+	 */
+	public static BlendUtil.BlendMode getBlendMode( String blendMode ) {
+		switch ( blendMode.toUpperCase().replace( '_', '-' ) ) {
+			case "NORMAL" :
+				return BlendUtil.BlendMode.NORMAL;
+			case "MULTIPLY" :
+				return BlendUtil.BlendMode.MULTIPLY;
+			case "SCREEN" :
+				return BlendUtil.BlendMode.SCREEN;
+			case "OVERLAY" :
+				return BlendUtil.BlendMode.OVERLAY;
+			case "HARD-LIGHT" :
+			case "HARDLIGHT" :
+				return BlendUtil.BlendMode.HARD_LIGHT;
+			case "SOFT-LIGHT" :
+			case "SOFTLIGHT" :
+				return BlendUtil.BlendMode.SOFT_LIGHT;
+			case "DARKEN" :
+				return BlendUtil.BlendMode.DARKEN;
+			case "LIGHTEN" :
+				return BlendUtil.BlendMode.LIGHTEN;
+			case "DIFFERENCE" :
+				return BlendUtil.BlendMode.DIFFERENCE;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Converts a string-based transpose operation, as accepted by {@code ImageFlip()}, to the flip or rotation it names.
+	 *
+	 * @param transpose The transpose operation as a string. Supported values (case-insensitive):
+	 *                  <ul>
+	 *                  <li>"HORIZONTAL" - Mirror left to right</li>
+	 *                  <li>"VERTICAL" - Mirror top to bottom</li>
+	 *                  <li>"DIAGONAL" - Mirror along the main diagonal</li>
+	 *                  <li>"ANTIDIAGONAL" - Mirror along the anti-diagonal</li>
+	 *                  <li>"90", "180", "270" - Rotate clockwise by that many degrees</li>
+	 *                  </ul>
+	 *
+	 * @return The corresponding operation, or null if the value does not name one.
+	 */
+	public static TransposeUtil.Operation getTransposeOperation( String transpose ) {
+		switch ( transpose.toUpperCase() ) {
+			case "HORIZONTAL" :
+				return TransposeUtil.Operation.HORIZONTAL;
+			case "VERTICAL" :
+				return TransposeUtil.Operation.VERTICAL;
+			case "DIAGONAL" :
+				return TransposeUtil.Operation.DIAGONAL;
+			case "ANTIDIAGONAL" :
+				return TransposeUtil.Operation.ANTIDIAGONAL;
+			case "90" :
+				return TransposeUtil.Operation.ROTATE_90;
+			case "180" :
+				return TransposeUtil.Operation.ROTATE_180;
+			case "270" :
+				return TransposeUtil.Operation.ROTATE_270;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Converts a string-based edge mode to its corresponding convolution edge mode.
+	 * The edge mode defines how pixels beyond the image edges are sampled when a kernel overlaps them.
+	 *
+	 * @param edgeMode The edge mode as a string. Supported values (case-insensitive):
+	 *                 <ul>
+	 *                 <li>"WRAP" - Samples wrap around to the opposite edge of the image</li>
+	 *                 <li>"ZERO" - Samples outside of the image are transparent black</li>
+	 *                 <li>Any other value - Defaults to CLAMP, which repeats the nearest edge pixel</li>
+	 *                 </ul>
+	 *
+	 * @return The corresponding edge mode. Defaults to EdgeMode.CLAMP if the value is unrecognized.
+	 */
+	public static ConvolutionUtil.EdgeMode getEdgeMode( String edgeMode ) {
+		switch ( edgeMode.toUpperCase() ) {
+			case "WRAP" :
+				return ConvolutionUtil.EdgeMode.WRAP;
+			case "ZERO" :
+				return ConvolutionUtil.EdgeMode.ZERO;
+		}
+
+		return ConvolutionUtil.EdgeMode.CLAMP;
+	}
+
 	/**
 	 * Converts a Java AWT transparency type constant to a human-readable string description.
 	 * This is useful for reporting image information back to BoxLang code.
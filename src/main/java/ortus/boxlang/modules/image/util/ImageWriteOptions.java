@@ -0,0 +1,317 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+
+import org.w3c.dom.NodeList;
+
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.DoubleCaster;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * The encoder settings used when an image is written, parsed from the {@code options} struct of
+ * {@code ImageWrite}, {@code ImageGetBlob} and {@code ImageWriteBase64}.
+ *
+ * <p>
+ * Supported options:
+ * </p>
+ * <ul>
+ * <li>{@code quality} - The compression quality, from 0 (smallest) to 1 (best), for the formats with a
+ * compression quality setting such as JPEG</li>
+ * <li>{@code progressive} - Whether to write a progressive JPEG or an interlaced PNG or GIF</li>
+ * <li>{@code chromaSubsampling} - The JPEG chroma subsampling of color images: {@code 4:4:4},
+ * {@code 4:2:2} or {@code 4:2:0}</li>
+ * <li>{@code optimizeHuffman} - Whether to compute optimal JPEG Huffman tables for the image instead of
+ * using the standard ones</li>
+ * <li>{@code compressionLevel} - The PNG deflate level, from 0 (fastest, no compression) to 9 (smallest)</li>
+ * <li>{@code filter} - The PNG row filter: {@code none}, {@code sub}, {@code up}, {@code average},
+ * {@code paeth} or {@code adaptive}, which picks the best filter per row</li>
+ * </ul>
+ *
+ * <p>
+ * PNG images written with a compression level or a filter are encoded by {@link PngEncoder}, which
+ * compresses large images on several cores, unless they are interlaced or use a palette: those are
+ * written by the ImageIO writer with the compression level.
+ * </p>
+ *
+ * <p>
+ * An option the writer of the format does not support is ignored. Without any option, images are
+ * written with the default settings of the writer.
+ * </p>
+ */
+public final class ImageWriteOptions {
+
+	/**
+	 * The encoder options, when no option is set.
+	 */
+	public static final ImageWriteOptions	DEFAULT					= new ImageWriteOptions( null, null, null, null, null, null );
+
+	/**
+	 * The native metadata format of the JPEG writer of the JDK.
+	 */
+	private static final String				JPEG_METADATA_FORMAT	= "javax_imageio_jpeg_image_1.0";
+
+	private final Double					quality;
+	private final Boolean					progressive;
+
+	/**
+	 * The horizontal and vertical sampling factors of the luma component, or null for the default of the writer.
+	 */
+	private final int[]						lumaSampling;
+
+	private final Boolean					optimizeHuffman;
+
+	/**
+	 * The PNG deflate level, or null for the default.
+	 */
+	private final Integer					compressionLevel;
+
+	/**
+	 * The PNG filter, one of the {@link PngEncoder} filter constants, or null for the default.
+	 */
+	private final Integer					filter;
+
+	private ImageWriteOptions( Double quality, Boolean progressive, int[] lumaSampling, Boolean optimizeHuffman, Integer compressionLevel,
+	    Integer filter ) {
+		this.quality			= quality;
+		this.progressive		= progressive;
+		this.lumaSampling		= lumaSampling;
+		this.optimizeHuffman	= optimizeHuffman;
+		this.compressionLevel	= compressionLevel;
+		this.filter				= filter;
+	}
+
+	/**
+	 * Parses the encoder options of a struct.
+	 *
+	 * @param options The options, may be null or empty
+	 *
+	 * @return The options, {@link #DEFAULT} if none is set
+	 *
+	 * @throws BoxRuntimeException If an option is unknown or its value is invalid
+	 */
+	public static ImageWriteOptions of( IStruct options ) {
+		if ( options == null || options.isEmpty() ) {
+			return DEFAULT;
+		}
+
+		for ( Key key : options.keySet() ) {
+			if ( !key.equals( KeyDictionary.quality ) && !key.equals( KeyDictionary.progressive )
+			    && !key.equals( KeyDictionary.chromaSubsampling ) && !key.equals( KeyDictionary.optimizeHuffman )
+			    && !key.equals( KeyDictionary.compressionLevel ) && !key.equals( KeyDictionary.filter ) ) {
+				throw new BoxRuntimeException(
+				    "Unknown image write option [" + key.getName()
+				        + "]: must be one of quality, progressive, chromaSubsampling, optimizeHuffman, compressionLevel or filter"
+				);
+			}
+		}
+
+		Double quality = null;
+		if ( options.get( KeyDictionary.quality ) != null ) {
+			quality = DoubleCaster.cast( options.get( KeyDictionary.quality ) );
+			if ( quality < 0 || quality > 1 ) {
+				throw new BoxRuntimeException( "Invalid image quality [" + quality + "]: must be between 0 and 1" );
+			}
+		}
+
+		int[] lumaSampling = null;
+		if ( options.get( KeyDictionary.chromaSubsampling ) != null ) {
+			String subsampling = StringCaster.cast( options.get( KeyDictionary.chromaSubsampling ) ).trim();
+			lumaSampling = switch ( subsampling ) {
+				case "4:4:4" -> new int[] { 1, 1 };
+				case "4:2:2" -> new int[] { 2, 1 };
+				case "4:2:0" -> new int[] { 2, 2 };
+				default -> throw new BoxRuntimeException(
+				    "Invalid chroma subsampling [" + subsampling + "]: must be one of 4:4:4, 4:2:2 or 4:2:0"
+				);
+			};
+		}
+
+		Integer compressionLevel = null;
+		if ( options.get( KeyDictionary.compressionLevel ) != null ) {
+			compressionLevel = IntegerCaster.cast( options.get( KeyDictionary.compressionLevel ) );
+			if ( compressionLevel < 0 || compressionLevel > 9 ) {
+				throw new BoxRuntimeException( "Invalid compression level [" + compressionLevel + "]: must be between 0 and 9" );
+			}
+		}
+
+		return new ImageWriteOptions(
+		    quality,
+		    options.get( KeyDictionary.progressive ) == null ? null : BooleanCaster.cast( options.get( KeyDictionary.progressive ) ),
+		    lumaSampling,
+		    options.get( KeyDictionary.optimizeHuffman ) == null ? null : BooleanCaster.cast( options.get( KeyDictionary.optimizeHuffman ) ),
+		    compressionLevel,
+		    options.get( KeyDictionary.filter ) == null ? null : PngEncoder.filterOf( StringCaster.cast( options.get( KeyDictionary.filter ) ) )
+		);
+	}
+
+	/**
+	 * Whether no option is set, so the writer is used with its default settings.
+	 *
+	 * @return true if no option is set
+	 */
+	public boolean isDefault() {
+		return this.quality == null && this.progressive == null && this.lumaSampling == null && this.optimizeHuffman == null
+		    && this.compressionLevel == null && this.filter == null;
+	}
+
+	/**
+	 * Whether an image is written by {@link PngEncoder} rather than by an ImageIO writer: a PNG that is not interlaced,
+	 * written with a compression level or a filter, and that the encoder supports.
+	 *
+	 * @param format The informal name of the format
+	 * @param image  The image
+	 *
+	 * @return true if the image is written by {@link #writePng(BufferedImage, OutputStream)}
+	 */
+	public boolean usesPngEncoder( String format, RenderedImage image ) {
+		return ( this.compressionLevel != null || this.filter != null )
+		    && "png".equalsIgnoreCase( format )
+		    && !Boolean.TRUE.equals( this.progressive )
+		    && PngEncoder.canEncode( image );
+	}
+
+	/**
+	 * Writes an image with {@link PngEncoder}, with the compression level and the filter of these options, deflate level
+	 * 6 and the adaptive filter by default.
+	 *
+	 * @param image  The image, see {@link #usesPngEncoder(String, RenderedImage)}
+	 * @param output The output, which is not closed
+	 *
+	 * @throws IOException If the output cannot be written
+	 */
+	public void writePng( BufferedImage image, OutputStream output ) throws IOException {
+		PngEncoder.write(
+		    image,
+		    output,
+		    this.compressionLevel == null ? PngEncoder.DEFAULT_LEVEL : this.compressionLevel,
+		    this.filter == null ? PngEncoder.FILTER_ADAPTIVE : this.filter
+		);
+	}
+
+	/**
+	 * Creates the write parameters of a writer for these options.
+	 *
+	 * @param writer The writer
+	 *
+	 * @return The parameters, or null if no option is set
+	 */
+	public ImageWriteParam createWriteParam( ImageWriter writer ) {
+		if ( isDefault() ) {
+			return null;
+		}
+
+		ImageWriteParam param = writer.getDefaultWriteParam();
+
+		if ( this.quality != null && param.canWriteCompressed() ) {
+			param.setCompressionMode( ImageWriteParam.MODE_EXPLICIT );
+			// Formats with several compression types, such as TIFF, have no default one to tune the quality of
+			String[] types = param.getCompressionTypes();
+			if ( param.getCompressionType() == null && types != null && types.length == 1 ) {
+				param.setCompressionType( types[ 0 ] );
+			}
+			if ( param.getCompressionType() != null ) {
+				param.setCompressionQuality( this.quality.floatValue() );
+			} else {
+				param.setCompressionMode( ImageWriteParam.MODE_COPY_FROM_METADATA );
+			}
+		}
+
+		// The PNG writer of the JDK derives its deflate level from the quality, as (int) ( 9 * ( 1 - quality ) )
+		if ( this.quality == null && this.compressionLevel != null && param.canWriteCompressed() ) {
+			int mode = param.getCompressionMode();
+			param.setCompressionMode( ImageWriteParam.MODE_EXPLICIT );
+			if ( "Deflate".equals( param.getCompressionType() ) ) {
+				param.setCompressionQuality( Math.max( 0f, 1f - ( this.compressionLevel + 0.5f ) / 9f ) );
+			} else {
+				param.setCompressionMode( mode );
+			}
+		}
+
+		if ( this.progressive != null && param.canWriteProgressive() ) {
+			param.setProgressiveMode( this.progressive ? ImageWriteParam.MODE_DEFAULT : ImageWriteParam.MODE_DISABLED );
+		}
+
+		if ( this.optimizeHuffman != null && param instanceof JPEGImageWriteParam jpegParam ) {
+			jpegParam.setOptimizeHuffmanTables( this.optimizeHuffman );
+		}
+
+		return param;
+	}
+
+	/**
+	 * Creates the image metadata of a writer for these options. Only the chroma subsampling is set through the metadata,
+	 * for the JPEG writer of the JDK and images with three color components.
+	 *
+	 * @param writer The writer
+	 * @param type   The type of the image
+	 * @param param  The write parameters, as created by {@link #createWriteParam(ImageWriter)}
+	 *
+	 * @return The metadata, or null to let the writer use its default metadata
+	 *
+	 * @throws BoxRuntimeException If the metadata cannot be updated
+	 */
+	public IIOMetadata createImageMetadata( ImageWriter writer, ImageTypeSpecifier type, ImageWriteParam param ) {
+		if ( this.lumaSampling == null ) {
+			return null;
+		}
+
+		IIOMetadata metadata = writer.getDefaultImageMetadata( type, param );
+		if ( metadata == null || !JPEG_METADATA_FORMAT.equals( metadata.getNativeMetadataFormatName() ) ) {
+			return null;
+		}
+
+		IIOMetadataNode	root		= ( IIOMetadataNode ) metadata.getAsTree( JPEG_METADATA_FORMAT );
+		NodeList		components	= root.getElementsByTagName( "componentSpec" );
+		if ( components.getLength() != 3 ) {
+			return null;
+		}
+
+		for ( int i = 0; i < components.getLength(); i++ ) {
+			IIOMetadataNode component = ( IIOMetadataNode ) components.item( i );
+			// The chroma components are sampled relative to the luma component
+			component.setAttribute( "HsamplingFactor", Integer.toString( i == 0 ? this.lumaSampling[ 0 ] : 1 ) );
+			component.setAttribute( "VsamplingFactor", Integer.toString( i == 0 ? this.lumaSampling[ 1 ] : 1 ) );
+		}
+
+		try {
+			metadata.setFromTree( JPEG_METADATA_FORMAT, root );
+		} catch ( IIOInvalidTreeException e ) {
+			throw new BoxRuntimeException( "Unable to set the chroma subsampling: " + e.getMessage(), e );
+		}
+
+		return metadata;
+	}
+}
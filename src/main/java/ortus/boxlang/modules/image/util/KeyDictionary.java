@@ -21,77 +21,109 @@ import ortus.boxlang.runtime.scopes.Key;
 
 public class KeyDictionary {
 
-	public static final Key	action				= Key.of( "action" );
-	public static final Key	amount				= Key.of( "amount" );
-	public static final Key	angle				= Key.of( "angle" );
-	public static final Key	antialias			= Key.of( "antialias" );
-	public static final Key	archAngle			= Key.of( "archAngle" );
-	public static final Key	arcHeight			= Key.of( "arcHeight" );
-	public static final Key	arcWidth			= Key.of( "arcWidth" );
-	public static final Key	attributeCollection	= Key.of( "attributeCollection" );
-	public static final Key	blurFactor			= Key.of( "blurFactor" );
-	public static final Key	blurRadius			= Key.of( "blurRadius" );
-	public static final Key	borderType			= Key.of( "borderType" );
-	public static final Key	bximage				= Key.of( "bximage" );
-	public static final Key	color				= Key.of( "color" );
-	public static final Key	ctrlx1				= Key.of( "ctrlx1" );
-	public static final Key	ctrlx2				= Key.of( "ctrlx2" );
-	public static final Key	ctrly1				= Key.of( "ctrly1" );
-	public static final Key	ctrly2				= Key.of( "ctrly2" );
-	public static final Key	dashArray			= Key.of( "dashArray" );
-	public static final Key	dashPhase			= Key.of( "dashPhase" );
-	public static final Key	destination			= Key.of( "destination" );
-	public static final Key	difficulty			= Key.of( "difficulty" );
-	public static final Key	direction			= Key.of( "direction" );
-	public static final Key	dx					= Key.of( "dx" );
-	public static final Key	dy					= Key.of( "dy" );
-	public static final Key	endCaps				= Key.of( "endCaps" );
-	public static final Key	filled				= Key.of( "filled" );
-	public static final Key	font				= Key.of( "font" );
-	public static final Key	fonts				= Key.of( "fonts" );
-	public static final Key	fontSize			= Key.of( "fontSize" );
-	public static final Key	format				= Key.of( "format" );
-	public static final Key	gain				= Key.of( "gain" );
-	public static final Key	height				= Key.of( "height" );
-	public static final Key	image				= Key.of( "image" );
-	public static final Key	image1				= Key.of( "image1" );
-	public static final Key	image2				= Key.of( "image2" );
-	public static final Key	imageService		= Key.of( "imageService" );
-	public static final Key	imageType			= Key.of( "imageType" );
-	public static final Key	interpolation		= Key.of( "interpolation" );
-	public static final Key	isBase64			= Key.of( "isBase64" );
-	public static final Key	isPolygon			= Key.of( "isPolygon" );
-	public static final Key	lineJoins			= Key.of( "lineJoins" );
-	public static final Key	miterLimit			= Key.of( "miterLimit" );
-	public static final Key	name				= Key.of( "name" );
-	public static final Key	overwrite			= Key.of( "overwrite" );
-	public static final Key	percent				= Key.of( "percent" );
-	public static final Key	quality				= Key.of( "quality" );
-	public static final Key	raised				= Key.of( "raised" );
-	public static final Key	rule				= Key.of( "rule" );
-	public static final Key	size				= Key.of( "size" );
-	public static final Key	source				= Key.of( "source" );
-	public static final Key	startAngle			= Key.of( "startAngle" );
-	public static final Key	str					= Key.of( "str" );
-	public static final Key	strikeThrough		= Key.of( "strikeThrough" );
-	public static final Key	structName			= Key.of( "structName" );
-	public static final Key	style				= Key.of( "style" );
-	public static final Key	tagName				= Key.of( "tagName" );
-	public static final Key	text				= Key.of( "text" );
-	public static final Key	thickness			= Key.of( "thickness" );
-	public static final Key	transparency		= Key.of( "transparency" );
-	public static final Key	transpose			= Key.of( "transpose" );
-	public static final Key	underline			= Key.of( "underline" );
-	public static final Key	width				= Key.of( "width" );
-	public static final Key	writeType			= Key.of( "writeType" );
-	public static final Key	x					= Key.of( "x" );
-	public static final Key	x1					= Key.of( "x1" );
-	public static final Key	x2					= Key.of( "x2" );
-	public static final Key	xCoords				= Key.of( "xCoords" );
-	public static final Key	y					= Key.of( "y" );
-	public static final Key	y1					= Key.of( "y1" );
-	public static final Key	y2					= Key.of( "y2" );
-	public static final Key	yCoords				= Key.of( "yCoords" );
-	public static final Key	rows				= Key.of( "rows" );
-	public static final Key	columns				= Key.of( "columns" );
+	public static final Key	action					= Key.of( "action" );
+	public static final Key	algorithm				= Key.of( "algorithm" );
+	public static final Key	align					= Key.of( "align" );
+	public static final Key	amount					= Key.of( "amount" );
+	public static final Key	angle					= Key.of( "angle" );
+	public static final Key	antialias				= Key.of( "antialias" );
+	public static final Key	archAngle				= Key.of( "archAngle" );
+	public static final Key	arcHeight				= Key.of( "arcHeight" );
+	public static final Key	arcWidth				= Key.of( "arcWidth" );
+	public static final Key	attributeCollection		= Key.of( "attributeCollection" );
+	public static final Key	blendMode				= Key.of( "blendMode" );
+	public static final Key	blurFactor				= Key.of( "blurFactor" );
+	public static final Key	blurRadius				= Key.of( "blurRadius" );
+	public static final Key	borderType				= Key.of( "borderType" );
+	public static final Key	browserPngFilter		= Key.of( "browserPngFilter" );
+	public static final Key	browserPngLevel			= Key.of( "browserPngLevel" );
+	public static final Key	bximage					= Key.of( "bximage" );
+	public static final Key	canvas					= Key.of( "canvas" );
+	public static final Key	captchaPoolDepth		= Key.of( "captchaPoolDepth" );
+	public static final Key	captchaPoolRefillRate	= Key.of( "captchaPoolRefillRate" );
+	public static final Key	captchaTextLength		= Key.of( "captchaTextLength" );
+	public static final Key	chromaSubsampling		= Key.of( "chromaSubsampling" );
+	public static final Key	codecPoolSize			= Key.of( "codecPoolSize" );
+	public static final Key	color					= Key.of( "color" );
+	public static final Key	compressionLevel		= Key.of( "compressionLevel" );
+	public static final Key	ctrlx1					= Key.of( "ctrlx1" );
+	public static final Key	ctrlx2					= Key.of( "ctrlx2" );
+	public static final Key	ctrly1					= Key.of( "ctrly1" );
+	public static final Key	ctrly2					= Key.of( "ctrly2" );
+	public static final Key	dashArray				= Key.of( "dashArray" );
+	public static final Key	dashPhase				= Key.of( "dashPhase" );
+	public static final Key	decodedImageCache		= Key.of( "decodedImageCache" );
+	public static final Key	decodedImageCacheSize	= Key.of( "decodedImageCacheSize" );
+	public static final Key	destination				= Key.of( "destination" );
+	public static final Key	difficulty				= Key.of( "difficulty" );
+	public static final Key	direction				= Key.of( "direction" );
+	public static final Key	drawing					= Key.of( "drawing" );
+	public static final Key	dx						= Key.of( "dx" );
+	public static final Key	dy						= Key.of( "dy" );
+	public static final Key	edgeMode				= Key.of( "edgeMode" );
+	public static final Key	endCaps					= Key.of( "endCaps" );
+	public static final Key	filled					= Key.of( "filled" );
+	public static final Key	filter					= Key.of( "filter" );
+	public static final Key	font					= Key.of( "font" );
+	public static final Key	fontConfig				= Key.of( "fontConfig" );
+	public static final Key	fonts					= Key.of( "fonts" );
+	public static final Key	fontSize				= Key.of( "fontSize" );
+	public static final Key	format					= Key.of( "format" );
+	public static final Key	gain					= Key.of( "gain" );
+	public static final Key	height					= Key.of( "height" );
+	public static final Key	image					= Key.of( "image" );
+	public static final Key	image1					= Key.of( "image1" );
+	public static final Key	image2					= Key.of( "image2" );
+	public static final Key	imageIOCache			= Key.of( "imageIOCache" );
+	public static final Key	imageIOCacheDirectory	= Key.of( "imageIOCacheDirectory" );
+	public static final Key	imageService			= Key.of( "imageService" );
+	public static final Key	imageType				= Key.of( "imageType" );
+	public static final Key	interpolation			= Key.of( "interpolation" );
+	public static final Key	isBase64				= Key.of( "isBase64" );
+	public static final Key	isPolygon				= Key.of( "isPolygon" );
+	public static final Key	items					= Key.of( "items" );
+	public static final Key	kernel					= Key.of( "kernel" );
+	public static final Key	lineJoins				= Key.of( "lineJoins" );
+	public static final Key	miterLimit				= Key.of( "miterLimit" );
+	public static final Key	name					= Key.of( "name" );
+	public static final Key	normalizeDecodedImages	= Key.of( "normalizeDecodedImages" );
+	public static final Key	opacity					= Key.of( "opacity" );
+	public static final Key	optimizeHuffman			= Key.of( "optimizeHuffman" );
+	public static final Key	options					= Key.of( "options" );
+	public static final Key	overwrite				= Key.of( "overwrite" );
+	public static final Key	percent					= Key.of( "percent" );
+	public static final Key	progressive				= Key.of( "progressive" );
+	public static final Key	quality					= Key.of( "quality" );
+	public static final Key	raised					= Key.of( "raised" );
+	public static final Key	rasterPoolSize			= Key.of( "rasterPoolSize" );
+	public static final Key	rule					= Key.of( "rule" );
+	public static final Key	size					= Key.of( "size" );
+	public static final Key	source					= Key.of( "source" );
+	public static final Key	startAngle				= Key.of( "startAngle" );
+	public static final Key	str						= Key.of( "str" );
+	public static final Key	strikeThrough			= Key.of( "strikeThrough" );
+	public static final Key	structName				= Key.of( "structName" );
+	public static final Key	style					= Key.of( "style" );
+	public static final Key	tagName					= Key.of( "tagName" );
+	public static final Key	targets					= Key.of( "targets" );
+	public static final Key	text					= Key.of( "text" );
+	public static final Key	textCacheSize			= Key.of( "textCacheSize" );
+	public static final Key	textVariable			= Key.of( "textVariable" );
+	public static final Key	thickness				= Key.of( "thickness" );
+	public static final Key	transparency			= Key.of( "transparency" );
+	public static final Key	transpose				= Key.of( "transpose" );
+	public static final Key	underline				= Key.of( "underline" );
+	public static final Key	warmUp					= Key.of( "warmUp" );
+	public static final Key	width					= Key.of( "width" );
+	public static final Key	writeType				= Key.of( "writeType" );
+	public static final Key	x						= Key.of( "x" );
+	public static final Key	x1						= Key.of( "x1" );
+	public static final Key	x2						= Key.of( "x2" );
+	public static final Key	xCoords					= Key.of( "xCoords" );
+	public static final Key	y						= Key.of( "y" );
+	public static final Key	y1						= Key.of( "y1" );
+	public static final Key	y2						= Key.of( "y2" );
+	public static final Key	yCoords					= Key.of( "yCoords" );
+	public static final Key	rows					= Key.of( "rows" );
+	public static final Key	columns					= Key.of( "columns" );
 }
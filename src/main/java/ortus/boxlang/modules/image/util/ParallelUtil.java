@@ -0,0 +1,140 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Utility class for splitting per-pixel work into horizontal row bands and processing them
+ * in parallel on the common {@link ForkJoinPool}.
+ *
+ * <p>
+ * Pixel operations in this module read from a source raster and write into a separate
+ * destination raster, so bands never share writable state. A band is free to read rows
+ * outside of its own range (for example the neighbouring rows a convolution kernel needs),
+ * which means the bands effectively overlap on the read side without any copying.
+ * </p>
+ *
+ * <p>
+ * Small images are processed on the calling thread, where the cost of forking would
+ * outweigh the benefit.
+ * </p>
+ */
+public class ParallelUtil {
+
+	/**
+	 * Images with fewer pixels than this are processed on the calling thread.
+	 */
+	public static final long PARALLEL_THRESHOLD = 1L << 16;
+
+	/**
+	 * The number of bands created per available worker. Using more bands than workers
+	 * lets the pool balance uneven work (for example edge rows that take the slow path).
+	 */
+	private static final int BANDS_PER_WORKER = 4;
+
+	/**
+	 * A unit of work operating on a contiguous range of rows.
+	 */
+	@FunctionalInterface
+	public interface BandTask {
+
+		/**
+		 * Processes the rows in the given range.
+		 *
+		 * @param startRow The first row to process (inclusive)
+		 * @param endRow   The last row to process (exclusive)
+		 */
+		void run( int startRow, int endRow );
+	}
+
+	/**
+	 * Runs the given task over all rows of an image, splitting the rows into bands that are
+	 * processed in parallel when the image is large enough.
+	 *
+	 * @param width  The width of the image in pixels, used to decide whether to parallelize
+	 * @param height The number of rows to process
+	 * @param task   The task to run for each band
+	 */
+	public static void forEachBand( int width, int height, BandTask task ) {
+		int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+		if ( height <= 1 || parallelism <= 1 || ( long ) width * height < PARALLEL_THRESHOLD ) {
+			task.run( 0, height );
+			return;
+		}
+
+		int rowsPerBand = Math.max( 1, ( int ) Math.ceil( ( double ) height / ( parallelism * BANDS_PER_WORKER ) ) );
+		ForkJoinPool.commonPool().invoke( new BandAction( task, 0, height, rowsPerBand ) );
+	}
+
+	/**
+	 * Runs a task once for every index in {@code [0, count)}, in parallel on the common pool. Used
+	 * when the work is already split into a fixed number of units, such as the tiles of a display list.
+	 *
+	 * @param count The number of units
+	 * @param task  The task to run for each unit index
+	 */
+	public static void forEachIndex( int count, IntConsumer task ) {
+		if ( count <= 1 || ForkJoinPool.getCommonPoolParallelism() <= 1 ) {
+			for ( int i = 0; i < count; i++ ) {
+				task.accept( i );
+			}
+			return;
+		}
+
+		IntStream.range( 0, count ).parallel().forEach( task );
+	}
+
+	/**
+	 * Recursively splits a row range in half until it is no larger than the band size.
+	 */
+	private static class BandAction extends RecursiveAction {
+
+		private static final long	serialVersionUID	= 1L;
+
+		private final BandTask		task;
+		private final int			startRow;
+		private final int			endRow;
+		private final int			rowsPerBand;
+
+		BandAction( BandTask task, int startRow, int endRow, int rowsPerBand ) {
+			this.task			= task;
+			this.startRow		= startRow;
+			this.endRow			= endRow;
+			this.rowsPerBand	= rowsPerBand;
+		}
+
+		@Override
+		protected void compute() {
+			if ( endRow - startRow <= rowsPerBand ) {
+				task.run( startRow, endRow );
+				return;
+			}
+
+			int middle = ( startRow + endRow ) >>> 1;
+			invokeAll(
+			    new BandAction( task, startRow, middle, rowsPerBand ),
+			    new BandAction( task, middle, endRow, rowsPerBand )
+			);
+		}
+	}
+}
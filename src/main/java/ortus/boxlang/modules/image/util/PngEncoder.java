@@ -0,0 +1,465 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.RenderedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * A PNG encoder for 8 bit grayscale, RGB and RGBA images with a selectable deflate level and row
+ * filter, that compresses large images on several cores.
+ *
+ * <p>
+ * The rows are split in blocks of about {@link #BLOCK_SIZE} bytes that are filtered and deflated in
+ * parallel. Each block is compressed as an independent part of a single zlib stream, primed with the
+ * last 32 KiB of the previous block as preset dictionary and ended with a sync flush, so the blocks
+ * lose almost nothing in compression and the output does not depend on the number of cores.
+ * </p>
+ *
+ * <p>
+ * With the {@link #FILTER_ADAPTIVE adaptive} filter, every row is filtered with the filter type that
+ * yields the smallest sum of absolute differences, the heuristic recommended by the PNG
+ * specification for truecolor and grayscale images. The other filters apply the same type to every
+ * row, which is faster to compute.
+ * </p>
+ *
+ * <p>
+ * Palette images and images with more than 8 bits per sample are not supported: see
+ * {@link #canEncode(RenderedImage)}.
+ * </p>
+ */
+public final class PngEncoder {
+
+	/**
+	 * The filter types of the PNG specification, then the per row selection.
+	 */
+	public static final int		FILTER_NONE		= 0;
+	public static final int		FILTER_SUB		= 1;
+	public static final int		FILTER_UP		= 2;
+	public static final int		FILTER_AVERAGE	= 3;
+	public static final int		FILTER_PAETH	= 4;
+	public static final int		FILTER_ADAPTIVE	= 5;
+
+	/**
+	 * The deflate level used by default, the zlib default.
+	 */
+	public static final int		DEFAULT_LEVEL	= 6;
+
+	/**
+	 * The number of filtered bytes compressed per block.
+	 */
+	public static final int		BLOCK_SIZE		= 1 << 18;
+
+	private static final byte[]	SIGNATURE		= { ( byte ) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+	/**
+	 * The size of the deflate window, and of the dictionary each block is primed with.
+	 */
+	private static final int	WINDOW_SIZE		= 1 << 15;
+
+	/**
+	 * The maximum length of an IDAT chunk.
+	 */
+	private static final int	CHUNK_SIZE		= 1 << 18;
+
+	private static final int	COLOR_GRAY		= 0;
+	private static final int	COLOR_RGB		= 2;
+	private static final int	COLOR_RGBA		= 6;
+
+	private PngEncoder() {
+	}
+
+	/**
+	 * Parses the name of a filter.
+	 *
+	 * @param name One of none, sub, up, average, paeth or adaptive
+	 *
+	 * @return The filter constant
+	 *
+	 * @throws BoxRuntimeException If the name is not a filter
+	 */
+	public static int filterOf( String name ) {
+		return switch ( name.trim().toLowerCase( Locale.ROOT ) ) {
+			case "none" -> FILTER_NONE;
+			case "sub" -> FILTER_SUB;
+			case "up" -> FILTER_UP;
+			case "average" -> FILTER_AVERAGE;
+			case "paeth" -> FILTER_PAETH;
+			case "adaptive" -> FILTER_ADAPTIVE;
+			default -> throw new BoxRuntimeException(
+			    "Invalid PNG filter [" + name + "]: must be one of none, sub, up, average, paeth or adaptive"
+			);
+		};
+	}
+
+	/**
+	 * Whether an image can be encoded: a {@link BufferedImage} with one gray, three color or four color and alpha
+	 * samples of at most 8 bits, without a palette.
+	 *
+	 * @param image The image
+	 *
+	 * @return true if the image can be encoded
+	 */
+	public static boolean canEncode( RenderedImage image ) {
+		if ( ! ( image instanceof BufferedImage ) ) {
+			return false;
+		}
+
+		ColorModel colorModel = image.getColorModel();
+		if ( colorModel instanceof IndexColorModel ) {
+			return false;
+		}
+		for ( int size : colorModel.getComponentSize() ) {
+			if ( size > 8 ) {
+				return false;
+			}
+		}
+
+		int components = colorModel.getNumComponents();
+		return components == 1 || components == 3 || ( components == 4 && colorModel.hasAlpha() );
+	}
+
+	/**
+	 * Encodes an image as a PNG.
+	 *
+	 * @param image  The image, see {@link #canEncode(RenderedImage)}
+	 * @param output The output, which is not closed
+	 * @param level  The deflate level, from 0 (no compression) to 9 (smallest)
+	 * @param filter The filter, one of the {@code FILTER_} constants
+	 *
+	 * @throws IOException If the output cannot be written
+	 */
+	public static void write( BufferedImage image, OutputStream output, int level, int filter ) throws IOException {
+		int	width		= image.getWidth();
+		int	height		= image.getHeight();
+		int	colorType	= image.getColorModel().getNumComponents() == 1 ? COLOR_GRAY
+		    : image.getColorModel().hasAlpha() ? COLOR_RGBA : COLOR_RGB;
+		int	channels	= colorType == COLOR_GRAY ? 1 : colorType == COLOR_RGBA ? 4 : 3;
+		int	rowBytes	= width * channels;
+
+		int	rowsPerBlock	= Math.max( 1, BLOCK_SIZE / ( rowBytes + 1 ) );
+		int	blockCount		= ( height + rowsPerBlock - 1 ) / rowsPerBlock;
+
+		byte[][] filtered = new byte[ blockCount ][];
+		ParallelUtil.forEachIndex( blockCount, i -> {
+			int start = i * rowsPerBlock;
+			filtered[ i ] = filterRows( image, start, Math.min( height, start + rowsPerBlock ), channels, filter );
+		} );
+
+		byte[][]	compressed	= new byte[ blockCount ][];
+		long[]		checksums	= new long[ blockCount ];
+		ParallelUtil.forEachIndex( blockCount, i -> {
+			compressed[ i ]	= deflate( filtered[ i ], i == 0 ? null : filtered[ i - 1 ], level, i == blockCount - 1 );
+			Adler32 adler = new Adler32();
+			adler.update( filtered[ i ] );
+			checksums[ i ] = adler.getValue();
+		} );
+
+		long checksum = checksums[ 0 ];
+		for ( int i = 1; i < blockCount; i++ ) {
+			checksum = combineAdler32( checksum, checksums[ i ], filtered[ i ].length );
+		}
+
+		output.write( SIGNATURE );
+
+		byte[] header = new byte[ 13 ];
+		putInt( header, 0, width );
+		putInt( header, 4, height );
+		header[ 8 ]	= 8;
+		header[ 9 ]	= ( byte ) colorType;
+		writeChunk( output, "IHDR", header, 0, header.length );
+
+		// The zlib stream: header, the deflated blocks, and the Adler-32 of the filtered rows
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		stream.write( zlibHeader( level ) );
+		for ( byte[] block : compressed ) {
+			stream.write( block );
+		}
+		byte[] trailer = new byte[ 4 ];
+		putInt( trailer, 0, ( int ) checksum );
+		stream.write( trailer );
+
+		byte[] data = stream.toByteArray();
+		for ( int offset = 0; offset < data.length; offset += CHUNK_SIZE ) {
+			writeChunk( output, "IDAT", data, offset, Math.min( CHUNK_SIZE, data.length - offset ) );
+		}
+		writeChunk( output, "IEND", new byte[ 0 ], 0, 0 );
+	}
+
+	/**
+	 * Filters a range of rows, each preceded by its filter type.
+	 *
+	 * @param image    The image
+	 * @param start    The first row (inclusive)
+	 * @param end      The last row (exclusive)
+	 * @param channels The number of samples per pixel
+	 * @param filter   The filter
+	 *
+	 * @return The filtered rows
+	 */
+	private static byte[] filterRows( BufferedImage image, int start, int end, int channels, int filter ) {
+		int			width		= image.getWidth();
+		int			rowBytes	= width * channels;
+		byte[]		result		= new byte[ ( end - start ) * ( rowBytes + 1 ) ];
+		int[]		pixels		= new int[ width ];
+		byte[]		previous	= new byte[ rowBytes ];
+		byte[]		current		= new byte[ rowBytes ];
+		byte[][]	candidates	= filter == FILTER_ADAPTIVE ? new byte[ FILTER_PAETH + 1 ][ rowBytes ] : null;
+
+		if ( start > 0 ) {
+			readRow( image, start - 1, channels, pixels, previous );
+		}
+
+		int offset = 0;
+		for ( int y = start; y < end; y++ ) {
+			readRow( image, y, channels, pixels, current );
+
+			if ( filter == FILTER_ADAPTIVE ) {
+				int		best	= FILTER_NONE;
+				long	bestSum	= Long.MAX_VALUE;
+				for ( int type = FILTER_NONE; type <= FILTER_PAETH; type++ ) {
+					long sum = filterRow( type, current, previous, channels, candidates[ type ], 0 );
+					if ( sum < bestSum ) {
+						best	= type;
+						bestSum	= sum;
+					}
+				}
+				result[ offset ] = ( byte ) best;
+				System.arraycopy( candidates[ best ], 0, result, offset + 1, rowBytes );
+			} else {
+				result[ offset ] = ( byte ) filter;
+				filterRow( filter, current, previous, channels, result, offset + 1 );
+			}
+			offset += rowBytes + 1;
+
+			byte[] swap = previous;
+			previous	= current;
+			current		= swap;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Filters a row.
+	 *
+	 * @param type     The filter type
+	 * @param current  The samples of the row
+	 * @param previous The samples of the row above, zeros for the first row
+	 * @param bpp      The number of bytes per pixel
+	 * @param target   The array the filtered row is written to
+	 * @param offset   The offset of the filtered row in the target
+	 *
+	 * @return The sum of the absolute values of the filtered bytes, taken as signed
+	 */
+	private static long filterRow( int type, byte[] current, byte[] previous, int bpp, byte[] target, int offset ) {
+		long sum = 0;
+		for ( int i = 0; i < current.length; i++ ) {
+			int	x	= current[ i ] & 0xff;
+			int	a	= i >= bpp ? current[ i - bpp ] & 0xff : 0;
+			int	b	= previous[ i ] & 0xff;
+			int	c	= i >= bpp ? previous[ i - bpp ] & 0xff : 0;
+
+			int predictor = switch ( type ) {
+				case FILTER_SUB -> a;
+				case FILTER_UP -> b;
+				case FILTER_AVERAGE -> ( a + b ) >>> 1;
+				case FILTER_PAETH -> paeth( a, b, c );
+				default -> 0;
+			};
+
+			byte value = ( byte ) ( x - predictor );
+			target[ offset + i ]	= value;
+			sum						+= Math.abs( value );
+		}
+		return sum;
+	}
+
+	private static int paeth( int a, int b, int c ) {
+		int	p	= a + b - c;
+		int	pa	= Math.abs( p - a );
+		int	pb	= Math.abs( p - b );
+		int	pc	= Math.abs( p - c );
+		if ( pa <= pb && pa <= pc ) {
+			return a;
+		}
+		return pb <= pc ? b : c;
+	}
+
+	/**
+	 * Reads the samples of a row in PNG order: gray, or red, green, blue and alpha when the image has alpha. Color
+	 * samples are not premultiplied.
+	 *
+	 * @param image    The image
+	 * @param y        The row
+	 * @param channels The number of samples per pixel
+	 * @param pixels   A scratch array of one int per pixel
+	 * @param row      The array the samples are written to
+	 */
+	private static void readRow( BufferedImage image, int y, int channels, int[] pixels, byte[] row ) {
+		int width = image.getWidth();
+
+		if ( channels == 1 ) {
+			image.getRaster().getSamples( 0, y, width, 1, 0, pixels );
+			for ( int x = 0; x < width; x++ ) {
+				row[ x ] = ( byte ) pixels[ x ];
+			}
+			return;
+		}
+
+		// The packed layouts store the samples as is, the others go through the color model
+		if ( image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB ) {
+			image.getRaster().getDataElements( 0, y, width, 1, pixels );
+		} else {
+			image.getRGB( 0, y, width, 1, pixels, 0, width );
+		}
+
+		int i = 0;
+		for ( int x = 0; x < width; x++ ) {
+			int pixel = pixels[ x ];
+			row[ i++ ]	= ( byte ) ( pixel >> 16 );
+			row[ i++ ]	= ( byte ) ( pixel >> 8 );
+			row[ i++ ]	= ( byte ) pixel;
+			if ( channels == 4 ) {
+				row[ i++ ] = ( byte ) ( pixel >>> 24 );
+			}
+		}
+	}
+
+	/**
+	 * Deflates a block of filtered rows as a part of a zlib stream.
+	 *
+	 * @param data       The filtered rows
+	 * @param dictionary The filtered rows of the previous block, or null for the first block
+	 * @param level      The deflate level
+	 * @param last       Whether this is the last block, which ends the stream
+	 *
+	 * @return The raw deflate data
+	 */
+	private static byte[] deflate( byte[] data, byte[] dictionary, int level, boolean last ) {
+		Deflater deflater = new Deflater( level, true );
+		try {
+			if ( dictionary != null ) {
+				int length = Math.min( WINDOW_SIZE, dictionary.length );
+				deflater.setDictionary( dictionary, dictionary.length - length, length );
+			}
+			deflater.setInput( data );
+
+			ByteArrayOutputStream	output	= new ByteArrayOutputStream( data.length / 2 + 64 );
+			byte[]					buffer	= new byte[ 1 << 16 ];
+			if ( last ) {
+				deflater.finish();
+				while ( !deflater.finished() ) {
+					output.write( buffer, 0, deflater.deflate( buffer ) );
+				}
+			} else {
+				// A sync flush ends the block on a byte boundary, so the next block can be appended to it
+				int length;
+				do {
+					length = deflater.deflate( buffer, 0, buffer.length, Deflater.SYNC_FLUSH );
+					output.write( buffer, 0, length );
+				} while ( length == buffer.length );
+			}
+			return output.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Returns the two byte zlib header of a deflate stream without preset dictionary.
+	 *
+	 * @param level The deflate level, reported as a hint in the header
+	 *
+	 * @return The header
+	 */
+	private static byte[] zlibHeader( int level ) {
+		int	method	= 0x78;
+		int	flags	= ( level <= 1 ? 0 : level <= 5 ? 1 : level == 6 ? 2 : 3 ) << 6;
+		flags += 31 - ( ( method << 8 ) + flags ) % 31;
+		return new byte[] { ( byte ) method, ( byte ) flags };
+	}
+
+	/**
+	 * Combines the Adler-32 checksums of two consecutive byte sequences, like zlib's {@code adler32_combine}.
+	 *
+	 * @param first        The checksum of the first sequence
+	 * @param second       The checksum of the second sequence
+	 * @param secondLength The length of the second sequence
+	 *
+	 * @return The checksum of the concatenation
+	 */
+	private static long combineAdler32( long first, long second, long secondLength ) {
+		final long	base		= 65521;
+		long		remainder	= secondLength % base;
+		long		sum1		= first & 0xffff;
+		long		sum2		= ( remainder * sum1 ) % base;
+
+		sum1	+= ( second & 0xffff ) + base - 1;
+		sum2	+= ( ( first >>> 16 ) & 0xffff ) + ( ( second >>> 16 ) & 0xffff ) + base - remainder;
+		if ( sum1 >= base ) {
+			sum1 -= base;
+		}
+		if ( sum1 >= base ) {
+			sum1 -= base;
+		}
+		if ( sum2 >= ( base << 1 ) ) {
+			sum2 -= ( base << 1 );
+		}
+		if ( sum2 >= base ) {
+			sum2 -= base;
+		}
+		return sum1 | ( sum2 << 16 );
+	}
+
+	private static void writeChunk( OutputStream output, String type, byte[] data, int offset, int length ) throws IOException {
+		byte[] header = new byte[ 8 ];
+		putInt( header, 0, length );
+		System.arraycopy( type.getBytes( StandardCharsets.US_ASCII ), 0, header, 4, 4 );
+
+		CRC32 crc = new CRC32();
+		crc.update( header, 4, 4 );
+		crc.update( data, offset, length );
+
+		byte[] trailer = new byte[ 4 ];
+		putInt( trailer, 0, ( int ) crc.getValue() );
+
+		output.write( header );
+		output.write( data, offset, length );
+		output.write( trailer );
+	}
+
+	private static void putInt( byte[] target, int offset, int value ) {
+		target[ offset ]		= ( byte ) ( value >>> 24 );
+		target[ offset + 1 ]	= ( byte ) ( value >>> 16 );
+		target[ offset + 2 ]	= ( byte ) ( value >>> 8 );
+		target[ offset + 3 ]	= ( byte ) value;
+	}
+}
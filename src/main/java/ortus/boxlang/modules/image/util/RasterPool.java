@@ -0,0 +1,336 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A pool of reusable pixel arrays for the intermediate images created by image transforms.
+ *
+ * <p>
+ * Every transform that produces a new image (translate, rotate, resize, ...) needs a pixel array
+ * as large as the image itself. For photos these arrays are several megabytes each, which the G1
+ * collector allocates as humongous objects outside of the young generation, so batch jobs that
+ * transform many images put a lot of pressure on the old generation. The pool keeps released
+ * arrays around and hands them out again to later transforms of a similar size.
+ * </p>
+ *
+ * <p>
+ * Arrays are grouped in size classes spaced a quarter of a power of two apart, so a borrowed
+ * array is at most 25% larger than requested. Arrays smaller than {@link #MIN_POOLED_LENGTH}
+ * are cheap to allocate and are never pooled. The total size of the retained arrays is bounded;
+ * arrays released while the pool is full are left to the garbage collector.
+ * </p>
+ *
+ * <p>
+ * Only the {@code TYPE_INT_RGB}, {@code TYPE_INT_ARGB}, {@code TYPE_INT_ARGB_PRE} and
+ * {@code TYPE_BYTE_GRAY} layouts are pooled; images of any other type are allocated normally.
+ * </p>
+ */
+public class RasterPool {
+
+	/**
+	 * Arrays with fewer elements than this are always allocated and never retained.
+	 */
+	public static final int							MIN_POOLED_LENGTH	= 1 << 14;
+
+	/**
+	 * The color models of the pooled image types, used to wrap borrowed arrays.
+	 */
+	private static final Map<Integer, ColorModel>	COLOR_MODELS		= new ConcurrentHashMap<>();
+
+	/**
+	 * The maximum number of bytes retained by the pool. Zero disables pooling.
+	 */
+	private final long								maxBytes;
+
+	/**
+	 * Released {@code int[]} arrays by size class.
+	 */
+	private final Map<Integer, Deque<int[]>>		intArrays			= new ConcurrentHashMap<>();
+
+	/**
+	 * Released {@code byte[]} arrays by size class.
+	 */
+	private final Map<Integer, Deque<byte[]>>		byteArrays			= new ConcurrentHashMap<>();
+
+	private final AtomicLong						retainedBytes		= new AtomicLong();
+	private final AtomicLong						borrowed			= new AtomicLong();
+	private final AtomicLong						reused				= new AtomicLong();
+	private final AtomicLong						released			= new AtomicLong();
+	private final AtomicLong						discarded			= new AtomicLong();
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param maxBytes The maximum number of bytes of pixel arrays the pool may retain. Zero or less disables pooling.
+	 */
+	public RasterPool( long maxBytes ) {
+		this.maxBytes = Math.max( 0, maxBytes );
+	}
+
+	/**
+	 * Creates a blank (all zero) image of the given size and type, backed by a pooled pixel array
+	 * when one of a suitable size is available.
+	 *
+	 * @param width  The width of the image
+	 * @param height The height of the image
+	 * @param type   The {@link BufferedImage} type of the image
+	 *
+	 * @return A new blank image
+	 */
+	public BufferedImage borrowImage( int width, int height, int type ) {
+		long pixelCount = ( long ) width * height;
+
+		if ( this.maxBytes == 0 || pixelCount < MIN_POOLED_LENGTH || pixelCount > Integer.MAX_VALUE ) {
+			return new BufferedImage( width, height, type );
+		}
+
+		int				size	= ( int ) pixelCount;
+		WritableRaster	raster;
+		switch ( type ) {
+			case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE -> {
+				int[] masks = ( ( DirectColorModel ) colorModel( type ) ).getMasks();
+				raster = Raster.createPackedRaster( new DataBufferInt( borrowInts( size ), size ), width, height, width, masks, null );
+			}
+			case BufferedImage.TYPE_BYTE_GRAY -> {
+				raster = Raster.createInterleavedRaster( new DataBufferByte( borrowBytes( size ), size ), width, height, width, 1, new int[] { 0 },
+				    null );
+			}
+			default -> {
+				return new BufferedImage( width, height, type );
+			}
+		}
+
+		ColorModel colorModel = colorModel( type );
+		return new BufferedImage( colorModel, raster, colorModel.isAlphaPremultiplied(), null );
+	}
+
+	/**
+	 * Returns the pixel array of an image to the pool. The caller must own the image: neither the
+	 * image nor any image sharing its raster may be used after this call. Sub-images and images
+	 * with a layout the pool does not handle are ignored.
+	 *
+	 * @param image The image whose pixel array can be reused
+	 *
+	 * @return true if the array was retained by the pool
+	 */
+	public boolean release( BufferedImage image ) {
+		if ( image == null ) {
+			return false;
+		}
+
+		WritableRaster	raster	= image.getRaster();
+		DataBuffer		buffer	= raster.getDataBuffer();
+
+		if ( raster.getParent() != null || buffer.getNumBanks() != 1 || buffer.getOffset() != 0 ) {
+			return false;
+		}
+		if ( buffer instanceof DataBufferInt intBuffer ) {
+			return release( intBuffer.getData() );
+		}
+		if ( buffer instanceof DataBufferByte byteBuffer ) {
+			return release( byteBuffer.getData() );
+		}
+		return false;
+	}
+
+	/**
+	 * Borrows a zeroed {@code int[]} with at least the given number of elements.
+	 *
+	 * @param length The minimum length of the array
+	 *
+	 * @return A zeroed array, which may be longer than requested
+	 */
+	public int[] borrowInts( int length ) {
+		this.borrowed.incrementAndGet();
+
+		if ( this.maxBytes > 0 && length >= MIN_POOLED_LENGTH ) {
+			int				sizeClass	= ceilSizeClass( length );
+			Deque<int[]>	arrays		= this.intArrays.get( sizeClass );
+			int[]			array		= arrays == null ? null : arrays.pollFirst();
+
+			if ( array != null ) {
+				this.retainedBytes.addAndGet( -4L * array.length );
+				this.reused.incrementAndGet();
+				Arrays.fill( array, 0, length, 0 );
+				return array;
+			}
+			return new int[ sizeClass ];
+		}
+
+		return new int[ length ];
+	}
+
+	/**
+	 * Borrows a zeroed {@code byte[]} with at least the given number of elements.
+	 *
+	 * @param length The minimum length of the array
+	 *
+	 * @return A zeroed array, which may be longer than requested
+	 */
+	public byte[] borrowBytes( int length ) {
+		this.borrowed.incrementAndGet();
+
+		if ( this.maxBytes > 0 && length >= MIN_POOLED_LENGTH ) {
+			int				sizeClass	= ceilSizeClass( length );
+			Deque<byte[]>	arrays		= this.byteArrays.get( sizeClass );
+			byte[]			array		= arrays == null ? null : arrays.pollFirst();
+
+			if ( array != null ) {
+				this.retainedBytes.addAndGet( -array.length );
+				this.reused.incrementAndGet();
+				Arrays.fill( array, 0, length, ( byte ) 0 );
+				return array;
+			}
+			return new byte[ sizeClass ];
+		}
+
+		return new byte[ length ];
+	}
+
+	/**
+	 * Returns an {@code int[]} to the pool. The caller must not use the array afterwards.
+	 *
+	 * @param array The array to release
+	 *
+	 * @return true if the array was retained by the pool
+	 */
+	public boolean release( int[] array ) {
+		if ( array == null || array.length < MIN_POOLED_LENGTH || !reserve( 4L * array.length ) ) {
+			return false;
+		}
+		this.intArrays.computeIfAbsent( floorSizeClass( array.length ), key -> new ConcurrentLinkedDeque<>() ).offerFirst( array );
+		return true;
+	}
+
+	/**
+	 * Returns a {@code byte[]} to the pool. The caller must not use the array afterwards.
+	 *
+	 * @param array The array to release
+	 *
+	 * @return true if the array was retained by the pool
+	 */
+	public boolean release( byte[] array ) {
+		if ( array == null || array.length < MIN_POOLED_LENGTH || !reserve( array.length ) ) {
+			return false;
+		}
+		this.byteArrays.computeIfAbsent( floorSizeClass( array.length ), key -> new ConcurrentLinkedDeque<>() ).offerFirst( array );
+		return true;
+	}
+
+	/**
+	 * Drops all retained arrays.
+	 */
+	public void clear() {
+		this.intArrays.clear();
+		this.byteArrays.clear();
+		this.retainedBytes.set( 0 );
+	}
+
+	/**
+	 * Returns the usage statistics of the pool.
+	 *
+	 * @return A struct with the keys {@code borrowed}, {@code reused}, {@code released}, {@code discarded},
+	 *         {@code retainedBytes} and {@code maxBytes}
+	 */
+	public IStruct getStats() {
+		IStruct stats = new Struct();
+
+		stats.put( "borrowed", this.borrowed.get() );
+		stats.put( "reused", this.reused.get() );
+		stats.put( "released", this.released.get() );
+		stats.put( "discarded", this.discarded.get() );
+		stats.put( "retainedBytes", this.retainedBytes.get() );
+		stats.put( "maxBytes", this.maxBytes );
+
+		return stats;
+	}
+
+	/**
+	 * Accounts for an array about to be retained, if it fits in the pool.
+	 *
+	 * @param bytes The size of the array in bytes
+	 *
+	 * @return true if the array may be retained
+	 */
+	private boolean reserve( long bytes ) {
+		long current;
+		do {
+			current = this.retainedBytes.get();
+			if ( current + bytes > this.maxBytes ) {
+				this.discarded.incrementAndGet();
+				return false;
+			}
+		} while ( !this.retainedBytes.compareAndSet( current, current + bytes ) );
+
+		this.released.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Returns the smallest size class that can hold the given number of elements.
+	 *
+	 * @param length The number of elements
+	 *
+	 * @return The size class
+	 */
+	private static int ceilSizeClass( int length ) {
+		int step = Math.max( 1, Integer.highestOneBit( length ) >> 2 );
+		return ( int ) Math.min( Integer.MAX_VALUE - 8, ( ( long ) length + step - 1 ) / step * step );
+	}
+
+	/**
+	 * Returns the largest size class that fits in an array of the given length.
+	 *
+	 * @param length The length of the array
+	 *
+	 * @return The size class
+	 */
+	private static int floorSizeClass( int length ) {
+		int step = Math.max( 1, Integer.highestOneBit( length ) >> 2 );
+		return length / step * step;
+	}
+
+	/**
+	 * Returns the color model shared by all images of the given type.
+	 *
+	 * @param type The {@link BufferedImage} type
+	 *
+	 * @return The color model of that type
+	 */
+	private static ColorModel colorModel( int type ) {
+		return COLOR_MODELS.computeIfAbsent( type, key -> new BufferedImage( 1, 1, key ).getColorModel() );
+	}
+}
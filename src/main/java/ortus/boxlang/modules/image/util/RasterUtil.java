@@ -0,0 +1,331 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Utility class for direct access to packed integer pixel data.
+ *
+ * <p>
+ * The pixel engines in this module (convolution, resampling, compositing, ...) operate on
+ * {@code int[]} arrays holding one packed ARGB or RGB value per pixel. This class converts
+ * arbitrary {@link BufferedImage}s into that layout, exposes the backing arrays, and converts
+ * between straight and premultiplied alpha.
+ * </p>
+ */
+public class RasterUtil {
+
+	/**
+	 * Returns a {@link BufferedImage} of type {@code TYPE_INT_ARGB} (when the source has an alpha
+	 * channel) or {@code TYPE_INT_RGB} (when it does not) whose pixel array can be accessed directly
+	 * via {@link #getPixels(BufferedImage)}.
+	 *
+	 * <p>
+	 * When the source already has a compact packed integer layout (including premultiplied
+	 * {@code TYPE_INT_ARGB_PRE}) it is returned as-is, otherwise the pixels are copied into a new image.
+	 * Callers must check {@link BufferedImage#isAlphaPremultiplied()} on the result.
+	 * </p>
+	 *
+	 * @param source The image to convert
+	 *
+	 * @return The source image, or a packed integer copy of it
+	 */
+	public static BufferedImage toIntImage( BufferedImage source ) {
+		int targetType = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+		// Premultiplied images are used as-is, which spares the engines their own premultiply step
+		if ( ( source.getType() == targetType || source.getType() == BufferedImage.TYPE_INT_ARGB_PRE ) && isCompact( source ) ) {
+			return source;
+		}
+
+		return convert( source, targetType );
+	}
+
+	/**
+	 * Returns the canonical pixel layout for an image: {@code TYPE_BYTE_GRAY} for opaque grayscale
+	 * images, {@code TYPE_INT_ARGB_PRE} for images with an alpha channel and {@code TYPE_INT_RGB}
+	 * for everything else. These are the layouts Java2D has dedicated loops for, and that the pixel
+	 * engines in this module can process without any conversion.
+	 *
+	 * @param image The image to inspect
+	 *
+	 * @return The {@link BufferedImage} type of the canonical layout for the image
+	 */
+	public static int canonicalType( BufferedImage image ) {
+		ColorModel colorModel = image.getColorModel();
+
+		if ( colorModel.hasAlpha() ) {
+			return BufferedImage.TYPE_INT_ARGB_PRE;
+		}
+		if ( colorModel.getColorSpace().getType() == ColorSpace.TYPE_GRAY && colorModel.getNumComponents() == 1 ) {
+			return BufferedImage.TYPE_BYTE_GRAY;
+		}
+		return BufferedImage.TYPE_INT_RGB;
+	}
+
+	/**
+	 * Converts an image to its {@link #canonicalType(BufferedImage) canonical pixel layout}, if it is
+	 * not in it already.
+	 *
+	 * @param image The image to normalize
+	 *
+	 * @return The image itself when it already has the canonical layout, otherwise a converted copy
+	 */
+	public static BufferedImage normalize( BufferedImage image ) {
+		int type = canonicalType( image );
+
+		if ( image.getType() == type ) {
+			return image;
+		}
+
+		return convert( image, type );
+	}
+
+	/**
+	 * Returns the type to use for a new image derived from the given one. This is the type of the
+	 * image itself, except for {@code TYPE_CUSTOM} images (as produced by some decoders), which
+	 * cannot be instantiated by type and would otherwise fail or take Java2D's slow generic loops.
+	 *
+	 * @param image The image the new image is derived from
+	 *
+	 * @return A {@link BufferedImage} type that can be passed to {@link BufferedImage#BufferedImage(int, int, int)}
+	 */
+	public static int derivedType( BufferedImage image ) {
+		if ( image.getType() != BufferedImage.TYPE_CUSTOM ) {
+			return image.getType();
+		}
+		return image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+	}
+
+	/**
+	 * Whether an image's pixel values only have a meaning with its own color model: palette images
+	 * ({@code TYPE_BYTE_INDEXED}, {@code TYPE_BYTE_BINARY} or a custom palette) and {@code TYPE_CUSTOM}
+	 * images. Creating a new image of their type would get a default palette or a different layout.
+	 *
+	 * @param image The image
+	 *
+	 * @return true if images derived from this one should be created with {@link #createCompatible(BufferedImage, int, int)}
+	 */
+	public static boolean hasOwnColorModel( BufferedImage image ) {
+		return image.getType() == BufferedImage.TYPE_CUSTOM || image.getColorModel() instanceof IndexColorModel;
+	}
+
+	/**
+	 * Creates a blank image with the color model of the given image, and so the same palette and pixel layout.
+	 *
+	 * @param image  The image whose color model to use
+	 * @param width  The width of the new image
+	 * @param height The height of the new image
+	 *
+	 * @return A new blank image
+	 */
+	public static BufferedImage createCompatible( BufferedImage image, int width, int height ) {
+		ColorModel colorModel = image.getColorModel();
+		return new BufferedImage( colorModel, colorModel.createCompatibleWritableRaster( width, height ), colorModel.isAlphaPremultiplied(), null );
+	}
+
+	/**
+	 * Copies the source image into a new image of the given type.
+	 *
+	 * @param source The image to copy
+	 * @param type   The {@link BufferedImage} type of the copy
+	 *
+	 * @return A new image of the requested type containing the source pixels
+	 */
+	public static BufferedImage convert( BufferedImage source, int type ) {
+		BufferedImage	target	= new BufferedImage( source.getWidth(), source.getHeight(), type );
+		Graphics2D		g		= target.createGraphics();
+
+		g.setComposite( AlphaComposite.Src );
+		g.drawImage( source, 0, 0, null );
+		g.dispose();
+
+		return target;
+	}
+
+	/**
+	 * Creates an independent copy of an image with the same type, color model and pixels.
+	 *
+	 * <p>
+	 * Images backed by a single, unshared data array (every image created through
+	 * {@link BufferedImage#BufferedImage(int, int, int)} or decoded by ImageIO) are copied with a
+	 * direct array copy, which is many times faster than repainting them through {@link Graphics2D}.
+	 * Other images, such as sub-images created by {@link BufferedImage#getSubimage(int, int, int, int)},
+	 * are copied row by row into a compact raster holding only their own pixels.
+	 * </p>
+	 *
+	 * @param source The image to copy
+	 *
+	 * @return A new image that does not share any pixel data with the source
+	 */
+	public static BufferedImage copy( BufferedImage source ) {
+		ColorModel		colorModel	= source.getColorModel();
+		WritableRaster	raster		= source.getRaster();
+		DataBuffer		buffer		= raster.getDataBuffer();
+		DataBuffer		copy		= null;
+
+		if ( raster.getParent() == null && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+		    && buffer.getNumBanks() == 1 && buffer.getOffset() == 0 ) {
+			if ( buffer instanceof DataBufferInt intBuffer ) {
+				copy = new DataBufferInt( Arrays.copyOf( intBuffer.getData(), buffer.getSize() ), buffer.getSize() );
+			} else if ( buffer instanceof DataBufferByte byteBuffer ) {
+				copy = new DataBufferByte( Arrays.copyOf( byteBuffer.getData(), buffer.getSize() ), buffer.getSize() );
+			} else if ( buffer instanceof DataBufferUShort shortBuffer ) {
+				copy = new DataBufferUShort( Arrays.copyOf( shortBuffer.getData(), buffer.getSize() ), buffer.getSize() );
+			}
+		}
+
+		WritableRaster copiedRaster;
+		if ( copy != null ) {
+			copiedRaster = Raster.createWritableRaster( raster.getSampleModel(), copy, null );
+		} else {
+			// copyData( null ) would allocate a raster as large as the parent of a sub-image
+			copiedRaster = raster.createCompatibleWritableRaster( source.getWidth(), source.getHeight() );
+			copiedRaster.setDataElements( 0, 0, raster );
+		}
+
+		return new BufferedImage( colorModel, copiedRaster, colorModel.isAlphaPremultiplied(), null );
+	}
+
+	/**
+	 * Converts an image produced by one of the pixel engines back to the type of the image it
+	 * was produced from, for the few types whose identity matters to callers (currently only
+	 * grayscale). Every other type is left in its packed integer form.
+	 *
+	 * @param result       The image produced by a pixel engine
+	 * @param originalType The {@link BufferedImage} type of the original image
+	 *
+	 * @return The result, converted back to grayscale when the original was grayscale
+	 */
+	public static BufferedImage restoreType( BufferedImage result, int originalType ) {
+		if ( originalType == BufferedImage.TYPE_BYTE_GRAY && result.getType() != BufferedImage.TYPE_BYTE_GRAY ) {
+			return convert( result, BufferedImage.TYPE_BYTE_GRAY );
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the backing pixel array of a compact packed integer image, as returned by
+	 * {@link #toIntImage(BufferedImage)}. Writes to the array are visible in the image.
+	 *
+	 * @param image A compact {@code TYPE_INT_*} image
+	 *
+	 * @return The backing pixel array, one packed value per pixel in row-major order. Images backed by
+	 *         pooled buffers may have a longer array than their pixel count.
+	 */
+	public static int[] getPixels( BufferedImage image ) {
+		return ( ( DataBufferInt ) image.getRaster().getDataBuffer() ).getData();
+	}
+
+	/**
+	 * Determines whether the image is backed by a single int array that holds exactly its own
+	 * pixels in row-major order, with no offsets or padding (which is not the case for
+	 * sub-images created by {@link BufferedImage#getSubimage(int, int, int, int)}).
+	 *
+	 * @param image The image to check
+	 *
+	 * @return true if the backing array can be indexed as {@code y * width + x}
+	 */
+	public static boolean isCompact( BufferedImage image ) {
+		WritableRaster raster = image.getRaster();
+
+		if ( ! ( raster.getDataBuffer() instanceof DataBufferInt buffer )
+		    || ! ( raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel ) ) {
+			return false;
+		}
+
+		return raster.getSampleModelTranslateX() == 0
+		    && raster.getSampleModelTranslateY() == 0
+		    && raster.getParent() == null
+		    && buffer.getNumBanks() == 1
+		    && buffer.getOffset() == 0
+		    && buffer.getSize() == image.getWidth() * image.getHeight()
+		    && sampleModel.getScanlineStride() == image.getWidth();
+	}
+
+	/**
+	 * Converts a range of straight (non-premultiplied) ARGB pixels to premultiplied ARGB.
+	 *
+	 * @param source The straight ARGB pixels
+	 * @param target The array receiving the premultiplied pixels (may be the source array)
+	 * @param from   The first index to convert (inclusive)
+	 * @param to     The last index to convert (exclusive)
+	 */
+	public static void premultiply( int[] source, int[] target, int from, int to ) {
+		for ( int i = from; i < to; i++ ) {
+			int	p	= source[ i ];
+			int	a	= p >>> 24;
+
+			if ( a == 255 ) {
+				target[ i ] = p;
+			} else if ( a == 0 ) {
+				target[ i ] = 0;
+			} else {
+				int	r	= ( ( p >> 16 ) & 0xff ) * a + 128;
+				int	g	= ( ( p >> 8 ) & 0xff ) * a + 128;
+				int	b	= ( p & 0xff ) * a + 128;
+				// ( v + ( v >> 8 ) ) >> 8 is an exact integer division by 255 for this range
+				target[ i ] = ( a << 24 )
+				    | ( ( ( r + ( r >> 8 ) ) >> 8 ) << 16 )
+				    | ( ( ( g + ( g >> 8 ) ) >> 8 ) << 8 )
+				    | ( ( b + ( b >> 8 ) ) >> 8 );
+			}
+		}
+	}
+
+	/**
+	 * Converts a range of premultiplied ARGB pixels back to straight (non-premultiplied) ARGB.
+	 *
+	 * @param source The premultiplied ARGB pixels
+	 * @param target The array receiving the straight pixels (may be the source array)
+	 * @param from   The first index to convert (inclusive)
+	 * @param to     The last index to convert (exclusive)
+	 */
+	public static void unpremultiply( int[] source, int[] target, int from, int to ) {
+		for ( int i = from; i < to; i++ ) {
+			int	p	= source[ i ];
+			int	a	= p >>> 24;
+
+			if ( a == 255 ) {
+				target[ i ] = p;
+			} else if ( a == 0 ) {
+				target[ i ] = 0;
+			} else {
+				int	half	= a >> 1;
+				int	r		= Math.min( 255, ( ( ( p >> 16 ) & 0xff ) * 255 + half ) / a );
+				int	g		= Math.min( 255, ( ( ( p >> 8 ) & 0xff ) * 255 + half ) / a );
+				int	b		= Math.min( 255, ( ( p & 0xff ) * 255 + half ) / a );
+				target[ i ] = ( a << 24 ) | ( r << 16 ) | ( g << 8 ) | b;
+			}
+		}
+	}
+}
@@ -0,0 +1,392 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Multithreaded, separable image resampler.
+ *
+ * <p>
+ * {@code Graphics2D.drawImage} only ever looks at the 1, 4 or 16 source pixels nearest to each
+ * destination pixel, so large downscales skip most of the source and alias badly. This resampler
+ * instead widens its filter by the downscale factor so that every source pixel contributes,
+ * which is what makes Lanczos and friends worth using.
+ * </p>
+ *
+ * <p>
+ * The image is resampled in two passes, first along rows and then along columns. The weights for
+ * each axis are computed once into a {@link WeightTable} and then reused for every row or column.
+ * Both passes are split into row bands that run in parallel via {@link ParallelUtil}, and images
+ * with an alpha channel are resampled in premultiplied space.
+ * </p>
+ */
+public class ResampleUtil {
+
+	/**
+	 * The reconstruction filters supported by the resampler.
+	 */
+	public enum Filter {
+
+		/** Box filter: averages the covered source pixels. Crisp, but blocky when upscaling */
+		BOX( 0.5 ) {
+
+			@Override
+			double weight( double x ) {
+				return x >= -0.5 && x < 0.5 ? 1.0 : 0.0;
+			}
+		},
+
+		/** Mitchell-Netravali cubic (B = 1/3, C = 1/3): a good balance of sharpness, ringing and blur */
+		MITCHELL( 2.0 ) {
+
+			@Override
+			double weight( double x ) {
+				return cubic( x, 1.0 / 3.0, 1.0 / 3.0 );
+			}
+		},
+
+		/** Catmull-Rom cubic (B = 0, C = 1/2): sharper than Mitchell, with slight ringing */
+		CATMULL_ROM( 2.0 ) {
+
+			@Override
+			double weight( double x ) {
+				return cubic( x, 0.0, 0.5 );
+			}
+		},
+
+		/** Lanczos windowed sinc with three lobes: the sharpest filter, with the most ringing */
+		LANCZOS3( 3.0 ) {
+
+			@Override
+			double weight( double x ) {
+				if ( x <= -3.0 || x >= 3.0 ) {
+					return 0.0;
+				}
+				return sinc( x ) * sinc( x / 3.0 );
+			}
+		};
+
+		private final double support;
+
+		Filter( double support ) {
+			this.support = support;
+		}
+
+		/**
+		 * The weight of a sample at distance {@code x} (in source pixels, at a scale of 1) from the sample center.
+		 */
+		abstract double weight( double x );
+
+		private static double sinc( double x ) {
+			if ( x == 0.0 ) {
+				return 1.0;
+			}
+			x *= Math.PI;
+			return Math.sin( x ) / x;
+		}
+
+		private static double cubic( double x, double b, double c ) {
+			x = Math.abs( x );
+			if ( x < 1.0 ) {
+				return ( ( 12 - 9 * b - 6 * c ) * x * x * x + ( -18 + 12 * b + 6 * c ) * x * x + ( 6 - 2 * b ) ) / 6.0;
+			}
+			if ( x < 2.0 ) {
+				return ( ( -b - 6 * c ) * x * x * x + ( 6 * b + 30 * c ) * x * x + ( -12 * b - 48 * c ) * x + ( 8 * b + 24 * c ) ) / 6.0;
+			}
+			return 0.0;
+		}
+	}
+
+	/**
+	 * Resamples an image to the given size.
+	 *
+	 * @param source     The image to resample. It is not modified.
+	 * @param width      The target width in pixels
+	 * @param height     The target height in pixels
+	 * @param filter     The reconstruction filter
+	 * @param blurFactor Multiplier applied to the filter width. 1 is the natural width of the filter, larger values blur and smaller values sharpen.
+	 *
+	 * @return A new image of the requested size
+	 */
+	public static BufferedImage resample( BufferedImage source, int width, int height, Filter filter, double blurFactor ) {
+		return resample( source, width, height, filter, blurFactor, false );
+	}
+
+	/**
+	 * Downscales an image progressively: the image is halved with cheap 2x2 box averaging until it
+	 * is within twice the target size, and only that much smaller image goes through the final
+	 * resample with the given filter. This is much faster than resampling a large image in one go
+	 * (the cost of the filter grows with the downscale factor), while still averaging every source pixel.
+	 *
+	 * <p>
+	 * Axes that are being upscaled, or downscaled by less than half, are not halved.
+	 * </p>
+	 *
+	 * @param source     The image to downscale. It is not modified.
+	 * @param width      The target width in pixels
+	 * @param height     The target height in pixels
+	 * @param filter     The reconstruction filter for the final resample
+	 * @param blurFactor Multiplier applied to the filter width of the final resample
+	 *
+	 * @return A new image of the requested size
+	 */
+	public static BufferedImage downscaleProgressive( BufferedImage source, int width, int height, Filter filter, double blurFactor ) {
+		return resample( source, width, height, filter, blurFactor, true );
+	}
+
+	private static BufferedImage resample( BufferedImage source, int width, int height, Filter filter, double blurFactor, boolean progressive ) {
+		BufferedImage	working		= RasterUtil.toIntImage( source );
+		int				srcWidth	= working.getWidth();
+		int				srcHeight	= working.getHeight();
+		boolean			hasAlpha	= working.getColorModel().hasAlpha();
+		boolean			straight	= hasAlpha && !working.isAlphaPremultiplied();
+		int[]			pixels		= RasterUtil.getPixels( working );
+		int[]			input		= straight ? new int[ srcWidth * srcHeight ] : pixels;
+
+		if ( straight ) {
+			ParallelUtil.forEachBand( srcWidth, srcHeight,
+			    ( start, end ) -> RasterUtil.premultiply( pixels, input, start * srcWidth, end * srcWidth ) );
+		}
+
+		int[]	current			= input;
+		int		currentWidth	= srcWidth;
+		int		currentHeight	= srcHeight;
+
+		while ( progressive && ( currentWidth >= width * 2 || currentHeight >= height * 2 ) ) {
+			int		fromWidth	= currentWidth;
+			int[]	from		= current;
+			boolean	halveX		= currentWidth >= width * 2;
+			boolean	halveY		= currentHeight >= height * 2;
+			int		toWidth		= halveX ? currentWidth / 2 : currentWidth;
+			int		toHeight	= halveY ? currentHeight / 2 : currentHeight;
+			int[]	to			= new int[ toWidth * toHeight ];
+
+			ParallelUtil.forEachBand( toWidth, toHeight,
+			    ( start, end ) -> halve( from, to, fromWidth, toWidth, halveX, halveY, start, end ) );
+
+			current			= to;
+			currentWidth	= toWidth;
+			currentHeight	= toHeight;
+		}
+
+		int[]			resampleInput	= current;
+		int				resampleWidth	= currentWidth;
+		WeightTable		horizontal		= new WeightTable( currentWidth, width, filter, blurFactor );
+		WeightTable		vertical		= new WeightTable( currentHeight, height, filter, blurFactor );
+		int[]			intermediate	= new int[ width * currentHeight ];
+		BufferedImage	result			= new BufferedImage( width, height, working.getType() );
+		int[]			output			= RasterUtil.getPixels( result );
+
+		ParallelUtil.forEachBand( width, currentHeight,
+		    ( start, end ) -> resampleRows( resampleInput, intermediate, resampleWidth, width, horizontal, hasAlpha, start, end ) );
+		ParallelUtil.forEachBand( width, height,
+		    ( start, end ) -> resampleColumns( intermediate, output, width, vertical, hasAlpha, start, end ) );
+
+		if ( straight ) {
+			ParallelUtil.forEachBand( width, height,
+			    ( start, end ) -> RasterUtil.unpremultiply( output, output, start * width, end * width ) );
+		}
+
+		return RasterUtil.restoreType( result, source.getType() );
+	}
+
+	/**
+	 * Halves the output rows {@code [startRow, endRow)} by averaging 2x2 (or 2x1 / 1x2 when only one
+	 * axis is halved) blocks of source pixels. A trailing odd row or column is dropped.
+	 */
+	private static void halve( int[] input, int[] output, int srcWidth, int width, boolean halveX, boolean halveY, int startRow, int endRow ) {
+		boolean	both	= halveX && halveY;
+		int		next	= halveX ? 1 : srcWidth;
+		int		shift	= both ? 2 : 1;
+		int		round	= both ? 2 : 1;
+
+		for ( int y = startRow; y < endRow; y++ ) {
+			int	srcOffset	= ( halveY ? y * 2 : y ) * srcWidth;
+			int	dstOffset	= y * width;
+
+			for ( int x = 0; x < width; x++ ) {
+				int	i	= srcOffset + ( halveX ? x * 2 : x );
+				int	p0	= input[ i ];
+				int	p1	= input[ i + next ];
+				int	a	= ( p0 >>> 24 ) + ( p1 >>> 24 );
+				int	r	= ( ( p0 >> 16 ) & 0xff ) + ( ( p1 >> 16 ) & 0xff );
+				int	g	= ( ( p0 >> 8 ) & 0xff ) + ( ( p1 >> 8 ) & 0xff );
+				int	b	= ( p0 & 0xff ) + ( p1 & 0xff );
+
+				if ( both ) {
+					int	p2	= input[ i + srcWidth ];
+					int	p3	= input[ i + srcWidth + 1 ];
+					a	+= ( p2 >>> 24 ) + ( p3 >>> 24 );
+					r	+= ( ( p2 >> 16 ) & 0xff ) + ( ( p3 >> 16 ) & 0xff );
+					g	+= ( ( p2 >> 8 ) & 0xff ) + ( ( p3 >> 8 ) & 0xff );
+					b	+= ( p2 & 0xff ) + ( p3 & 0xff );
+				}
+
+				output[ dstOffset + x ] = ( ( ( a + round ) >> shift ) << 24 )
+				    | ( ( ( r + round ) >> shift ) << 16 )
+				    | ( ( ( g + round ) >> shift ) << 8 )
+				    | ( ( b + round ) >> shift );
+			}
+		}
+	}
+
+	/**
+	 * Resamples the rows {@code [startRow, endRow)} horizontally.
+	 */
+	private static void resampleRows( int[] input, int[] output, int srcWidth, int width, WeightTable table, boolean hasAlpha, int startRow, int endRow ) {
+		for ( int y = startRow; y < endRow; y++ ) {
+			int	srcOffset	= y * srcWidth;
+			int	dstOffset	= y * width;
+
+			for ( int x = 0; x < width; x++ ) {
+				int		first	= table.first[ x ];
+				int		count	= table.count[ x ];
+				int		w		= x * table.stride;
+				float	a		= 0;
+				float	r		= 0;
+				float	g		= 0;
+				float	b		= 0;
+
+				for ( int i = 0; i < count; i++ ) {
+					float	weight	= table.weights[ w + i ];
+					int		p		= input[ srcOffset + first + i ];
+					a	+= ( p >>> 24 ) * weight;
+					r	+= ( ( p >> 16 ) & 0xff ) * weight;
+					g	+= ( ( p >> 8 ) & 0xff ) * weight;
+					b	+= ( p & 0xff ) * weight;
+				}
+
+				output[ dstOffset + x ] = pack( a, r, g, b, hasAlpha );
+			}
+		}
+	}
+
+	/**
+	 * Resamples the output rows {@code [startRow, endRow)} vertically, walking the source row by row
+	 * so both arrays are read and written sequentially.
+	 */
+	private static void resampleColumns( int[] input, int[] output, int width, WeightTable table, boolean hasAlpha, int startRow, int endRow ) {
+		float[]	a	= new float[ width ];
+		float[]	r	= new float[ width ];
+		float[]	g	= new float[ width ];
+		float[]	b	= new float[ width ];
+
+		for ( int y = startRow; y < endRow; y++ ) {
+			int	first	= table.first[ y ];
+			int	count	= table.count[ y ];
+			int	w		= y * table.stride;
+
+			Arrays.fill( a, 0 );
+			Arrays.fill( r, 0 );
+			Arrays.fill( g, 0 );
+			Arrays.fill( b, 0 );
+
+			for ( int i = 0; i < count; i++ ) {
+				float	weight		= table.weights[ w + i ];
+				int		srcOffset	= ( first + i ) * width;
+
+				for ( int x = 0; x < width; x++ ) {
+					int p = input[ srcOffset + x ];
+					a[ x ]	+= ( p >>> 24 ) * weight;
+					r[ x ]	+= ( ( p >> 16 ) & 0xff ) * weight;
+					g[ x ]	+= ( ( p >> 8 ) & 0xff ) * weight;
+					b[ x ]	+= ( p & 0xff ) * weight;
+				}
+			}
+
+			int dstOffset = y * width;
+			for ( int x = 0; x < width; x++ ) {
+				output[ dstOffset + x ] = pack( a[ x ], r[ x ], g[ x ], b[ x ], hasAlpha );
+			}
+		}
+	}
+
+	/**
+	 * Rounds and clamps the accumulated channels into a packed pixel. Filters with negative lobes
+	 * can overshoot, so every channel is clamped, and premultiplied colors are clamped to the alpha.
+	 */
+	private static int pack( float a, float r, float g, float b, boolean hasAlpha ) {
+		int	alpha	= hasAlpha ? clamp( a, 255 ) : 255;
+		int	red		= clamp( r, alpha );
+		int	green	= clamp( g, alpha );
+		int	blue	= clamp( b, alpha );
+
+		return ( alpha << 24 ) | ( red << 16 ) | ( green << 8 ) | blue;
+	}
+
+	private static int clamp( float value, int max ) {
+		int rounded = ( int ) ( value + 0.5f );
+		return rounded < 0 ? 0 : ( rounded > max ? max : rounded );
+	}
+
+	/**
+	 * Precomputed, normalized filter weights for resampling one axis. Output sample {@code i} is the
+	 * weighted sum of the {@code count[ i ]} source samples starting at {@code first[ i ]}, using the
+	 * weights starting at {@code weights[ i * stride ]}.
+	 */
+	private static class WeightTable {
+
+		private final int[]		first;
+		private final int[]		count;
+		private final float[]	weights;
+		private final int		stride;
+
+		WeightTable( int srcSize, int dstSize, Filter filter, double blurFactor ) {
+			double	scale		= ( double ) dstSize / srcSize;
+			// When downscaling, stretch the filter so it covers every source pixel
+			double	filterScale	= Math.max( 1.0, 1.0 / scale ) * blurFactor;
+			double	support		= filter.support * filterScale;
+
+			this.stride		= ( int ) Math.ceil( support ) * 2 + 1;
+			this.first		= new int[ dstSize ];
+			this.count		= new int[ dstSize ];
+			this.weights	= new float[ dstSize * stride ];
+
+			for ( int i = 0; i < dstSize; i++ ) {
+				double	center	= ( i + 0.5 ) / scale;
+				int		left	= Math.max( 0, ( int ) Math.floor( center - support ) );
+				int		right	= Math.min( srcSize, ( int ) Math.ceil( center + support ) );
+				int		n		= Math.min( right - left, stride );
+				double	total	= 0;
+
+				for ( int j = 0; j < n; j++ ) {
+					double weight = filter.weight( ( left + j + 0.5 - center ) / filterScale );
+					weights[ i * stride + j ]	= ( float ) weight;
+					total						+= weight;
+				}
+
+				if ( total == 0.0 ) {
+					// The filter fell between samples (a very narrow box): take the nearest one
+					left	= Math.min( srcSize - 1, Math.max( 0, ( int ) center ) );
+					n		= 1;
+					weights[ i * stride ]	= 1f;
+					total					= 1.0;
+				}
+
+				for ( int j = 0; j < n; j++ ) {
+					weights[ i * stride + j ] = ( float ) ( weights[ i * stride + j ] / total );
+				}
+
+				first[ i ]	= left;
+				count[ i ]	= n;
+			}
+		}
+	}
+}
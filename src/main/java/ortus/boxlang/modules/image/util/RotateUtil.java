@@ -0,0 +1,334 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Multithreaded rotation of images by arbitrary, fractional angles.
+ *
+ * <p>
+ * The rotated image is computed by inverse mapping: every destination pixel center is rotated back
+ * into the source image and the source is sampled there with the requested interpolation. Taps
+ * that fall outside of the source read the background color instead, so the edges of the rotated
+ * image are blended smoothly into the background rather than being cut off.
+ * </p>
+ *
+ * <p>
+ * The destination is exactly as large as the bounding box of the rotated image, rounded up to
+ * whole pixels. Angles that are (within floating point precision) multiples of 90 degrees map
+ * every destination pixel onto exactly one source pixel, so they never blur the image.
+ * </p>
+ *
+ * <p>
+ * The destination rows are split into bands that run in parallel via {@link ParallelUtil}, and
+ * each band is walked in square tiles so that the source rows read by the steep, diagonal sample
+ * lines of large angles stay in the CPU cache. Sampling is done in premultiplied space.
+ * </p>
+ */
+public class RotateUtil {
+
+	/**
+	 * The interpolation methods supported by the rotation engine.
+	 */
+	public enum Interpolation {
+		/** Picks the nearest source pixel. Fastest, but produces jagged edges */
+		NEAREST,
+		/** Blends the 2x2 nearest source pixels */
+		BILINEAR,
+		/** Catmull-Rom cubic over the 4x4 nearest source pixels. Sharpest, best for text */
+		BICUBIC
+	}
+
+	/**
+	 * The edge length of the square tiles each band is processed in.
+	 */
+	private static final int		TILE_SIZE	= 64;
+
+	/**
+	 * Sines and cosines closer than this to 0 or 1 are snapped, so right angles map exactly.
+	 */
+	private static final double		EPSILON		= 1e-10;
+
+	/**
+	 * Sample positions are stepped in 32.32 fixed point.
+	 */
+	private static final double		ONE			= 4294967296.0;
+
+	/**
+	 * The Catmull-Rom weights of the four taps around a sample, for each of the 256 subpixel
+	 * positions, in 8 bit fixed point. Each set of weights sums to exactly 256.
+	 */
+	private static final int[][]	CUBIC		= new int[ 256 ][ 4 ];
+
+	static {
+		for ( int i = 0; i < 256; i++ ) {
+			double	t	= i / 256.0;
+			double	t2	= t * t;
+			double	t3	= t2 * t;
+			int[]	w	= CUBIC[ i ];
+
+			w[ 0 ]	= ( int ) Math.round( 256 * ( -0.5 * t3 + t2 - 0.5 * t ) );
+			w[ 2 ]	= ( int ) Math.round( 256 * ( -1.5 * t3 + 2 * t2 + 0.5 * t ) );
+			w[ 3 ]	= ( int ) Math.round( 256 * ( 0.5 * t3 - 0.5 * t2 ) );
+			w[ 1 ]	= 256 - w[ 0 ] - w[ 2 ] - w[ 3 ];
+		}
+	}
+
+	/**
+	 * Rotates an image clockwise around its center.
+	 *
+	 * @param source        The image to rotate. It is not modified.
+	 * @param angle         The rotation angle in degrees, positive for clockwise
+	 * @param interpolation The interpolation used to sample the source
+	 * @param background    The straight (non-premultiplied) ARGB color of the area not covered by the
+	 *                      source. The result only has an alpha channel if the source has one or this color is not opaque.
+	 *
+	 * @return A new image as large as the bounding box of the rotated source
+	 */
+	public static BufferedImage rotate( BufferedImage source, double angle, Interpolation interpolation, int background ) {
+		double	radians	= Math.toRadians( angle );
+		double	cos		= snap( Math.cos( radians ) );
+		double	sin		= snap( Math.sin( radians ) );
+
+		// Right angles do not uncover any background, they are a plain remapping of the pixels
+		if ( sin == 0.0 ) {
+			return cos > 0 ? RasterUtil.copy( source ) : TransposeUtil.transform( source, TransposeUtil.Operation.ROTATE_180 );
+		}
+		if ( cos == 0.0 ) {
+			return TransposeUtil.transform( source, sin > 0 ? TransposeUtil.Operation.ROTATE_90 : TransposeUtil.Operation.ROTATE_270 );
+		}
+
+		int				srcWidth	= source.getWidth();
+		int				srcHeight	= source.getHeight();
+		int				width		= extent( Math.abs( srcWidth * cos ) + Math.abs( srcHeight * sin ) );
+		int				height		= extent( Math.abs( srcWidth * sin ) + Math.abs( srcHeight * cos ) );
+
+		BufferedImage	working		= RasterUtil.toIntImage( source );
+		int[]			pixels		= RasterUtil.getPixels( working );
+		boolean			hasAlpha	= working.getColorModel().hasAlpha();
+		int[]			input;
+
+		if ( hasAlpha && !working.isAlphaPremultiplied() ) {
+			int[] premultiplied = new int[ srcWidth * srcHeight ];
+			ParallelUtil.forEachBand( srcWidth, srcHeight,
+			    ( start, end ) -> RasterUtil.premultiply( pixels, premultiplied, start * srcWidth, end * srcWidth ) );
+			input = premultiplied;
+		} else {
+			input = pixels;
+		}
+
+		int[] backgroundPixel = new int[] { background };
+		RasterUtil.premultiply( backgroundPixel, backgroundPixel, 0, 1 );
+
+		boolean			outputAlpha	= hasAlpha || ( background >>> 24 ) != 255;
+		BufferedImage	result		= new BufferedImage( width, height, outputAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB );
+		Sampler			sampler		= new Sampler( input, srcWidth, srcHeight, hasAlpha ? 0 : 0xff000000, backgroundPixel[ 0 ] );
+		int[]			output		= RasterUtil.getPixels( result );
+
+		// Destination pixel centers relative to the destination center, mapped back to source pixel centers
+		double			originX		= 0.5 - width / 2.0;
+		double			sourceX		= srcWidth / 2.0 - 0.5;
+		double			sourceY		= srcHeight / 2.0 - 0.5;
+		long			stepX		= Math.round( cos * ONE );
+		long			stepY		= Math.round( -sin * ONE );
+
+		ParallelUtil.forEachBand( width, height, ( startRow, endRow ) -> {
+			for ( int tileY = startRow; tileY < endRow; tileY += TILE_SIZE ) {
+				int tileEndY = Math.min( endRow, tileY + TILE_SIZE );
+
+				for ( int tileX = 0; tileX < width; tileX += TILE_SIZE ) {
+					int tileEndX = Math.min( width, tileX + TILE_SIZE );
+
+					for ( int y = tileY; y < tileEndY; y++ ) {
+						double	dx	= originX + tileX;
+						double	dy	= y + 0.5 - height / 2.0;
+						long	u	= Math.round( ( cos * dx + sin * dy + sourceX ) * ONE );
+						long	v	= Math.round( ( -sin * dx + cos * dy + sourceY ) * ONE );
+						int		end	= y * width + tileEndX;
+
+						switch ( interpolation ) {
+							case NEAREST -> {
+								for ( int i = y * width + tileX; i < end; i++, u += stepX, v += stepY ) {
+									output[ i ] = sampler.nearest( u, v );
+								}
+							}
+							case BILINEAR -> {
+								for ( int i = y * width + tileX; i < end; i++, u += stepX, v += stepY ) {
+									output[ i ] = sampler.bilinear( u, v );
+								}
+							}
+							case BICUBIC -> {
+								for ( int i = y * width + tileX; i < end; i++, u += stepX, v += stepY ) {
+									output[ i ] = sampler.bicubic( u, v );
+								}
+							}
+						}
+					}
+				}
+			}
+
+			if ( outputAlpha ) {
+				RasterUtil.unpremultiply( output, output, startRow * width, endRow * width );
+			}
+		} );
+
+		return outputAlpha ? result : RasterUtil.restoreType( result, source.getType() );
+	}
+
+	/**
+	 * Snaps values that are within floating point noise of 0, 1 or -1.
+	 */
+	private static double snap( double value ) {
+		if ( Math.abs( value ) < EPSILON ) {
+			return 0.0;
+		}
+		if ( Math.abs( Math.abs( value ) - 1.0 ) < EPSILON ) {
+			return Math.signum( value );
+		}
+		return value;
+	}
+
+	/**
+	 * Rounds an exact extent up to whole pixels, ignoring floating point noise.
+	 */
+	private static int extent( double size ) {
+		return Math.max( 1, ( int ) Math.ceil( size - 1e-6 ) );
+	}
+
+	/**
+	 * Samples premultiplied ARGB source pixels at 32.32 fixed point positions, reading the
+	 * background for any tap outside of the source.
+	 */
+	private static final class Sampler {
+
+		private final int[]	pixels;
+		private final int	width;
+		private final int	height;
+		private final int	alphaMask;
+		private final int	background;
+
+		Sampler( int[] pixels, int width, int height, int alphaMask, int background ) {
+			this.pixels		= pixels;
+			this.width		= width;
+			this.height		= height;
+			this.alphaMask	= alphaMask;
+			this.background	= background;
+		}
+
+		/**
+		 * Returns the pixel at integer coordinates, or the background when they are outside of the source.
+		 */
+		int pixel( int x, int y ) {
+			if ( x < 0 || y < 0 || x >= this.width || y >= this.height ) {
+				return this.background;
+			}
+			return this.pixels[ y * this.width + x ] | this.alphaMask;
+		}
+
+		int nearest( long u, long v ) {
+			return pixel( ( int ) ( ( u + ( 1L << 31 ) ) >> 32 ), ( int ) ( ( v + ( 1L << 31 ) ) >> 32 ) );
+		}
+
+		int bilinear( long u, long v ) {
+			int x0 = ( int ) ( u >> 32 );
+			int y0 = ( int ) ( v >> 32 );
+
+			if ( x0 < -1 || y0 < -1 || x0 >= this.width || y0 >= this.height ) {
+				return this.background;
+			}
+
+			int	fx	= ( int ) ( u >>> 24 ) & 0xff;
+			int	fy	= ( int ) ( v >>> 24 ) & 0xff;
+			int	p00, p10, p01, p11;
+
+			if ( x0 >= 0 && y0 >= 0 && x0 + 1 < this.width && y0 + 1 < this.height ) {
+				int index = y0 * this.width + x0;
+				p00	= this.pixels[ index ] | this.alphaMask;
+				p10	= this.pixels[ index + 1 ] | this.alphaMask;
+				p01	= this.pixels[ index + this.width ] | this.alphaMask;
+				p11	= this.pixels[ index + this.width + 1 ] | this.alphaMask;
+			} else {
+				p00	= pixel( x0, y0 );
+				p10	= pixel( x0 + 1, y0 );
+				p01	= pixel( x0, y0 + 1 );
+				p11	= pixel( x0 + 1, y0 + 1 );
+			}
+
+			// Two channels at a time: alpha and green in one int, red and blue in the other
+			return ( lerp( lerp( p00 >>> 8, p10 >>> 8, fx ), lerp( p01 >>> 8, p11 >>> 8, fx ), fy ) << 8 )
+			    | lerp( lerp( p00, p10, fx ), lerp( p01, p11, fx ), fy );
+		}
+
+		/**
+		 * Interpolates the two channels in bits 0-7 and 16-23 of two values, with a weight out of 256.
+		 */
+		private static int lerp( int a, int b, int weight ) {
+			a	&= 0x00ff00ff;
+			b	&= 0x00ff00ff;
+			return ( ( a * ( 256 - weight ) + b * weight + 0x00800080 ) >>> 8 ) & 0x00ff00ff;
+		}
+
+		int bicubic( long u, long v ) {
+			int x0 = ( int ) ( u >> 32 );
+			int y0 = ( int ) ( v >> 32 );
+
+			if ( x0 < -2 || y0 < -2 || x0 > this.width || y0 > this.height ) {
+				return this.background;
+			}
+
+			int[]	wx		= CUBIC[ ( int ) ( u >>> 24 ) & 0xff ];
+			int[]	wy		= CUBIC[ ( int ) ( v >>> 24 ) & 0xff ];
+			boolean	inside	= x0 >= 1 && y0 >= 1 && x0 + 2 < this.width && y0 + 2 < this.height;
+			int		a		= 0, r = 0, g = 0, b = 0;
+
+			for ( int j = 0; j < 4; j++ ) {
+				int	y	= y0 - 1 + j;
+				int	ra	= 0, rr = 0, rg = 0, rb = 0;
+
+				for ( int i = 0; i < 4; i++ ) {
+					int	x	= x0 - 1 + i;
+					int	p	= inside ? this.pixels[ y * this.width + x ] | this.alphaMask : pixel( x, y );
+					int	w	= wx[ i ];
+
+					ra	+= ( p >>> 24 ) * w;
+					rr	+= ( ( p >> 16 ) & 0xff ) * w;
+					rg	+= ( ( p >> 8 ) & 0xff ) * w;
+					rb	+= ( p & 0xff ) * w;
+				}
+
+				int w = wy[ j ];
+				a	+= ra * w;
+				r	+= rr * w;
+				g	+= rg * w;
+				b	+= rb * w;
+			}
+
+			// The negative lobes can overshoot, premultiplied colors must stay within their alpha
+			int alpha = clamp( a, 255 );
+			return ( alpha << 24 ) | ( clamp( r, alpha ) << 16 ) | ( clamp( g, alpha ) << 8 ) | clamp( b, alpha );
+		}
+
+		/**
+		 * Rounds a sum of 16 bit fixed point weighted samples and clamps it to {@code [0, max]}.
+		 */
+		private static int clamp( int value, int max ) {
+			return Math.max( 0, Math.min( max, ( value + 32768 ) >> 16 ) );
+		}
+	}
+}
@@ -0,0 +1,369 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2024] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.modules.image.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Lossless flips and right-angle rotations performed by remapping pixel indices directly on the
+ * backing data arrays, without any resampling.
+ *
+ * <p>
+ * Every operation is a pure permutation of the pixels: each destination pixel is copied from
+ * exactly one source pixel, whose index is an affine function of the destination coordinates.
+ * Flips and the 180 degree rotation walk whole rows. The operations that swap the axes (90 and 270
+ * degree rotations, diagonal and anti-diagonal transposes) walk the destination in square tiles, so
+ * the column-wise reads from the source stay within the CPU cache instead of touching a new cache
+ * line for every pixel. Diagonal and anti-diagonal transposes are done in a single pass.
+ * </p>
+ *
+ * <p>
+ * Rows are split into bands processed in parallel via {@link ParallelUtil}. Packed integer,
+ * 16-bit and interleaved byte layouts (which covers every standard {@link BufferedImage} type
+ * except the 1, 2 and 4 bit packed ones) are remapped element by element, including sub-images.
+ * Other layouts fall back to copying one pixel at a time through the raster.
+ * </p>
+ */
+public class TransposeUtil {
+
+	/**
+	 * The edge length, in pixels, of the square tiles used by the operations that swap the axes.
+	 */
+	private static final int TILE_SIZE = 64;
+
+	/**
+	 * A flip or right-angle rotation. Each operation maps the destination pixel {@code (dx, dy)} to
+	 * the source pixel {@code (sx, sy)} with {@code sx = xx * dx + xy * dy} and {@code sy = yx * dx + yy * dy},
+	 * offset so that negative factors count from the opposite edge.
+	 */
+	public enum Operation {
+
+		/** Mirror left to right */
+		HORIZONTAL( -1, 0, 0, 1 ),
+		/** Mirror top to bottom */
+		VERTICAL( 1, 0, 0, -1 ),
+		/** Rotate 90 degrees clockwise */
+		ROTATE_90( 0, 1, -1, 0 ),
+		/** Rotate 180 degrees */
+		ROTATE_180( -1, 0, 0, -1 ),
+		/** Rotate 270 degrees clockwise (90 degrees counter-clockwise) */
+		ROTATE_270( 0, -1, 1, 0 ),
+		/** Mirror along the main diagonal, equivalent to a 90 degree rotation followed by a horizontal flip */
+		DIAGONAL( 0, 1, 1, 0 ),
+		/** Mirror along the anti-diagonal, equivalent to a 270 degree rotation followed by a horizontal flip */
+		ANTIDIAGONAL( 0, -1, -1, 0 );
+
+		private final int	xx;
+		private final int	xy;
+		private final int	yx;
+		private final int	yy;
+
+		Operation( int xx, int xy, int yx, int yy ) {
+			this.xx	= xx;
+			this.xy	= xy;
+			this.yx	= yx;
+			this.yy	= yy;
+		}
+
+		/**
+		 * Whether the operation swaps the width and the height of the image.
+		 *
+		 * @return true for rotations by 90 or 270 degrees and the diagonal transposes
+		 */
+		public boolean swapsAxes() {
+			return this.xx == 0;
+		}
+	}
+
+	/**
+	 * Applies a flip or rotation to an image, creating a new image of the same type, or with the same color model
+	 * for palette and {@code TYPE_CUSTOM} images.
+	 *
+	 * @param source    The image to transform. It is not modified.
+	 * @param operation The operation to apply
+	 *
+	 * @return A new image holding the transformed pixels
+	 */
+	public static BufferedImage transform( BufferedImage source, Operation operation ) {
+		int	width	= operation.swapsAxes() ? source.getHeight() : source.getWidth();
+		int	height	= operation.swapsAxes() ? source.getWidth() : source.getHeight();
+
+		if ( RasterUtil.hasOwnColorModel( source ) ) {
+			return transform( source, operation, RasterUtil.createCompatible( source, width, height ) );
+		}
+		return transform( source, operation, new BufferedImage( width, height, source.getType() ) );
+	}
+
+	/**
+	 * Applies a flip or rotation to an image, writing the result into the given target image.
+	 *
+	 * @param source    The image to transform. It is not modified.
+	 * @param operation The operation to apply
+	 * @param target    The image receiving the result. It must have the transformed dimensions and,
+	 *                  for the fast path, the same pixel layout as the source.
+	 *
+	 * @return The target image
+	 */
+	public static BufferedImage transform( BufferedImage source, Operation operation, BufferedImage target ) {
+		WritableRaster	src		= source.getRaster();
+		WritableRaster	dst		= target.getRaster();
+		int				width	= source.getWidth();
+		int				height	= source.getHeight();
+		int				dstW	= target.getWidth();
+		int				dstH	= target.getHeight();
+
+		if ( dstW != ( operation.swapsAxes() ? height : width ) || dstH != ( operation.swapsAxes() ? width : height ) ) {
+			throw new IllegalArgumentException( "The target image does not have the dimensions of the transformed image" );
+		}
+
+		// Pixels of the same color model can be copied as raw data elements, others are converted through ARGB
+		boolean	sameColorModel	= source.getColorModel().equals( target.getColorModel() );
+		int		pixelStride		= sameColorModel ? compatiblePixelStride( src, dst ) : 0;
+
+		// The source pixel of the destination pixel (0, 0), counting negative factors from the far edge
+		int		originX			= operation.xx < 0 || operation.xy < 0 ? width - 1 : 0;
+		int		originY			= operation.yx < 0 || operation.yy < 0 ? height - 1 : 0;
+
+		if ( pixelStride == 0 ) {
+			ParallelUtil.forEachBand( dstW, dstH, ( startRow, endRow ) -> {
+				Object pixel = null;
+				for ( int dy = startRow; dy < endRow; dy++ ) {
+					for ( int dx = 0; dx < dstW; dx++ ) {
+						int	sx	= originX + operation.xx * dx + operation.xy * dy;
+						int	sy	= originY + operation.yx * dx + operation.yy * dy;
+						if ( sameColorModel ) {
+							pixel = src.getDataElements( sx, sy, pixel );
+							dst.setDataElements( dx, dy, pixel );
+						} else {
+							target.setRGB( dx, dy, source.getRGB( sx, sy ) );
+						}
+					}
+				}
+			} );
+			return target;
+		}
+
+		int		srcStride	= scanlineStride( src.getSampleModel() );
+		int		dstStride	= scanlineStride( dst.getSampleModel() );
+		int		srcOrigin	= elementOrigin( src, srcStride, pixelStride );
+		int		dstOrigin	= elementOrigin( dst, dstStride, pixelStride );
+		Object	srcData		= data( src.getDataBuffer() );
+		Object	dstData		= data( dst.getDataBuffer() );
+
+		// Element offsets in the source array: of the pixel mapped to (0, 0), and per step along dx and dy
+		int		start		= srcOrigin + originY * srcStride + originX * pixelStride;
+		int		stepX		= operation.yx * srcStride + operation.xx * pixelStride;
+		int		stepY		= operation.yy * srcStride + operation.xy * pixelStride;
+
+		ParallelUtil.forEachBand( dstW, dstH, ( startRow, endRow ) -> {
+			if ( !operation.swapsAxes() ) {
+				for ( int dy = startRow; dy < endRow; dy++ ) {
+					copyRun( srcData, start + dy * stepY, stepX, dstData, dstOrigin + dy * dstStride, dstW, pixelStride );
+				}
+				return;
+			}
+
+			// Walk the band in square tiles so the strided source reads hit the same cache lines
+			for ( int tileY = startRow; tileY < endRow; tileY += TILE_SIZE ) {
+				int tileEndY = Math.min( endRow, tileY + TILE_SIZE );
+				for ( int tileX = 0; tileX < dstW; tileX += TILE_SIZE ) {
+					int count = Math.min( TILE_SIZE, dstW - tileX );
+					for ( int dy = tileY; dy < tileEndY; dy++ ) {
+						copyRun( srcData, start + dy * stepY + tileX * stepX, stepX, dstData, dstOrigin + dy * dstStride + tileX * pixelStride, count,
+						    pixelStride );
+					}
+				}
+			}
+		} );
+
+		return target;
+	}
+
+	/**
+	 * Copies a run of pixels into consecutive destination pixels.
+	 *
+	 * @param src         The source data array
+	 * @param srcIndex    The index of the first element of the first source pixel
+	 * @param srcStep     The distance in elements between consecutive source pixels
+	 * @param dst         The destination data array, of the same type as the source
+	 * @param dstIndex    The index of the first element of the first destination pixel
+	 * @param count       The number of pixels to copy
+	 * @param pixelStride The number of elements per pixel
+	 */
+	private static void copyRun( Object src, int srcIndex, int srcStep, Object dst, int dstIndex, int count, int pixelStride ) {
+		if ( srcStep == pixelStride ) {
+			System.arraycopy( src, srcIndex, dst, dstIndex, count * pixelStride );
+			return;
+		}
+
+		if ( src instanceof int[] s ) {
+			int[] d = ( int[] ) dst;
+			if ( pixelStride == 1 ) {
+				for ( int i = 0; i < count; i++, srcIndex += srcStep ) {
+					d[ dstIndex + i ] = s[ srcIndex ];
+				}
+			} else {
+				for ( int i = 0; i < count; i++, srcIndex += srcStep, dstIndex += pixelStride ) {
+					for ( int k = 0; k < pixelStride; k++ ) {
+						d[ dstIndex + k ] = s[ srcIndex + k ];
+					}
+				}
+			}
+		} else if ( src instanceof short[] s ) {
+			short[] d = ( short[] ) dst;
+			if ( pixelStride == 1 ) {
+				for ( int i = 0; i < count; i++, srcIndex += srcStep ) {
+					d[ dstIndex + i ] = s[ srcIndex ];
+				}
+			} else {
+				// Multi-band 16-bit images, such as 48-bit RGB PNGs
+				for ( int i = 0; i < count; i++, srcIndex += srcStep, dstIndex += pixelStride ) {
+					for ( int k = 0; k < pixelStride; k++ ) {
+						d[ dstIndex + k ] = s[ srcIndex + k ];
+					}
+				}
+			}
+		} else {
+			byte[]	s	= ( byte[] ) src;
+			byte[]	d	= ( byte[] ) dst;
+			if ( pixelStride == 1 ) {
+				for ( int i = 0; i < count; i++, srcIndex += srcStep ) {
+					d[ dstIndex + i ] = s[ srcIndex ];
+				}
+			} else if ( pixelStride == 3 ) {
+				// Unrolled for the BGR layout of decoded JPEGs
+				for ( int i = 0; i < count; i++, srcIndex += srcStep, dstIndex += 3 ) {
+					d[ dstIndex ]		= s[ srcIndex ];
+					d[ dstIndex + 1 ]	= s[ srcIndex + 1 ];
+					d[ dstIndex + 2 ]	= s[ srcIndex + 2 ];
+				}
+			} else if ( pixelStride == 4 ) {
+				for ( int i = 0; i < count; i++, srcIndex += srcStep, dstIndex += 4 ) {
+					d[ dstIndex ]		= s[ srcIndex ];
+					d[ dstIndex + 1 ]	= s[ srcIndex + 1 ];
+					d[ dstIndex + 2 ]	= s[ srcIndex + 2 ];
+					d[ dstIndex + 3 ]	= s[ srcIndex + 3 ];
+				}
+			} else {
+				for ( int i = 0; i < count; i++, srcIndex += srcStep, dstIndex += pixelStride ) {
+					for ( int k = 0; k < pixelStride; k++ ) {
+						d[ dstIndex + k ] = s[ srcIndex + k ];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines whether two rasters store their pixels in the same layout, with every pixel held in a
+	 * fixed number of consecutive elements of a single data array.
+	 *
+	 * @param src The source raster
+	 * @param dst The destination raster
+	 *
+	 * @return The number of elements per pixel, or 0 if the rasters cannot be remapped element by element
+	 */
+	private static int compatiblePixelStride( WritableRaster src, WritableRaster dst ) {
+		DataBuffer	srcBuffer	= src.getDataBuffer();
+		DataBuffer	dstBuffer	= dst.getDataBuffer();
+		SampleModel	srcModel	= src.getSampleModel();
+		SampleModel	dstModel	= dst.getSampleModel();
+
+		if ( srcBuffer.getClass() != dstBuffer.getClass() || srcBuffer.getNumBanks() != 1 || dstBuffer.getNumBanks() != 1
+		    || data( srcBuffer ) == null ) {
+			return 0;
+		}
+
+		if ( srcModel instanceof SinglePixelPackedSampleModel srcPacked && dstModel instanceof SinglePixelPackedSampleModel dstPacked ) {
+			return Arrays.equals( srcPacked.getBitMasks(), dstPacked.getBitMasks() ) ? 1 : 0;
+		}
+
+		if ( srcModel instanceof ComponentSampleModel srcComponents && dstModel instanceof ComponentSampleModel dstComponents ) {
+			int		pixelStride	= srcComponents.getPixelStride();
+			int[]	bandOffsets	= srcComponents.getBandOffsets();
+
+			if ( pixelStride != dstComponents.getPixelStride() || !Arrays.equals( bandOffsets, dstComponents.getBandOffsets() )
+			    || Arrays.stream( srcComponents.getBankIndices() ).anyMatch( bank -> bank != 0 ) ) {
+				return 0;
+			}
+			// Every band must lie within the pixel, so copying the pixel's elements copies all of its samples
+			return Arrays.stream( bandOffsets ).allMatch( offset -> offset >= 0 && offset < pixelStride ) ? pixelStride : 0;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Returns the scanline stride of a sample model handled by the fast path.
+	 *
+	 * @param sampleModel A single pixel packed or component sample model
+	 *
+	 * @return The number of elements between the starts of two consecutive rows
+	 */
+	private static int scanlineStride( SampleModel sampleModel ) {
+		if ( sampleModel instanceof SinglePixelPackedSampleModel packed ) {
+			return packed.getScanlineStride();
+		}
+		return ( ( ComponentSampleModel ) sampleModel ).getScanlineStride();
+	}
+
+	/**
+	 * Returns the index in the data array of the first element of the raster's pixel {@code (0, 0)}.
+	 * This accounts for the offset of sub-image rasters into the data of their parent.
+	 *
+	 * @param raster         The raster
+	 * @param scanlineStride The scanline stride of its sample model
+	 * @param pixelStride    The number of elements per pixel
+	 *
+	 * @return The index of the first element of the pixel at the origin
+	 */
+	private static int elementOrigin( WritableRaster raster, int scanlineStride, int pixelStride ) {
+		return raster.getDataBuffer().getOffset()
+		    - raster.getSampleModelTranslateY() * scanlineStride
+		    - raster.getSampleModelTranslateX() * pixelStride;
+	}
+
+	/**
+	 * Returns the backing array of a single bank data buffer.
+	 *
+	 * @param buffer The data buffer
+	 *
+	 * @return The {@code int[]}, {@code short[]} or {@code byte[]} holding the data, or null for other buffer types
+	 */
+	private static Object data( DataBuffer buffer ) {
+		if ( buffer instanceof DataBufferInt intBuffer ) {
+			return intBuffer.getData();
+		}
+		if ( buffer instanceof DataBufferByte byteBuffer ) {
+			return byteBuffer.getData();
+		}
+		if ( buffer instanceof DataBufferUShort shortBuffer ) {
+			return shortBuffer.getData();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,77 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.scopes.Key;
+
+public class ImageBeginDisplayListTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should render a display list exactly like immediate drawing" )
+	@Test
+	public void testDisplayListMatchesImmediateDrawing() {
+		runtime.executeSource( """
+		                       function drawScene( img ) {
+		                           img.setAntiAliasing( true );
+		                           for ( i = 0; i < 400; i++ ) {
+		                               img.setDrawingColor( i % 3 == 0 ? "red" : ( i % 3 == 1 ? "blue" : "green" ) );
+		                               x = ( i * 37 ) % 480;
+		                               y = ( i * 53 ) % 460;
+		                               img.drawOval( x, y, 40, 30, i % 2 == 0 );
+		                               img.drawLine( x, y, x + 60, y + 25 );
+		                               img.drawQuadraticCurve( x + 20, y - 30, x, y, x + 40, y + 10 );
+		                               img.drawText( "#i#", x, y );
+		                           }
+		                       }
+
+		                       immediate = ImageNew( "", 500, 500, "rgb", "white" );
+		                       drawScene( immediate );
+
+		                       result = ImageNew( "", 500, 500, "rgb", "white" );
+		                       ImageBeginDisplayList( result );
+		                       drawScene( result );
+		                       ImageEndDisplayList( result );
+		                       """, context );
+
+		BufferedImage	expected	= ( ( BoxImage ) variables.get( Key.of( "immediate" ) ) ).getBufferedImage();
+		BufferedImage	actual		= ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		for ( int y = 0; y < expected.getHeight(); y++ ) {
+			for ( int x = 0; x < expected.getWidth(); x++ ) {
+				assertThat( actual.getRGB( x, y ) ).isEqualTo( expected.getRGB( x, y ) );
+			}
+		}
+	}
+
+	@DisplayName( "It should render recorded operations before the pixels are read and keep recording" )
+	@Test
+	public void testDisplayListFlushesOnRead() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 50, 50, "rgb", "white" );
+		                       result.beginDisplayList();
+		                       result.setDrawingColor( "red" );
+		                       result.drawRect( 0, 0, 10, 10, true );
+		                       copy = result.copy( 0, 0, 50, 50 );
+		                       result.drawRect( 20, 20, 10, 10, true );
+		                       """, context );
+
+		BoxImage	image	= ( BoxImage ) variables.get( result );
+		BoxImage	copy	= ( BoxImage ) variables.get( Key.of( "copy" ) );
+
+		assertThat( copy.getBufferedImage().getRGB( 5, 5 ) ).isEqualTo( 0xffff0000 );
+		assertThat( copy.getBufferedImage().getRGB( 25, 25 ) ).isEqualTo( 0xffffffff );
+		assertThat( image.isDisplayListActive() ).isTrue();
+
+		image.endDisplayList();
+
+		assertThat( image.isDisplayListActive() ).isFalse();
+		assertThat( image.getBufferedImage().getRGB( 25, 25 ) ).isEqualTo( 0xffff0000 );
+	}
+
+}
@@ -0,0 +1,104 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.util.RasterUtil;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class ImageBlendTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should multiply an image onto another at an offset" )
+	@Test
+	public void testMultiply() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 20, 20, "rgb", "red" );
+		                       top = ImageNew( "", 10, 10, "rgb", "gray" );
+		                       ImageBlend( result, top, "multiply", 5, 5 );
+		                       """, context );
+
+		BufferedImage blended = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( blended.getRGB( 7, 7 ) ).isEqualTo( 0xff800000 );
+		assertThat( blended.getRGB( 2, 2 ) ).isEqualTo( 0xffff0000 );
+		assertThat( blended.getRGB( 17, 17 ) ).isEqualTo( 0xffff0000 );
+	}
+
+	@DisplayName( "It should be callable as a member function with an opacity and a negative offset" )
+	@Test
+	public void testBlendMember() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 20, 20, "rgb", "black" );
+		                       top = ImageNew( "", 10, 10, "rgb", "white" );
+		                       result.blend( top, "screen", -5, -5, 0.5 );
+		                       """, context );
+
+		BufferedImage blended = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( blended.getRGB( 2, 2 ) ).isEqualTo( 0xff808080 );
+		assertThat( blended.getRGB( 7, 7 ) ).isEqualTo( 0xff000000 );
+	}
+
+	@DisplayName( "It should leave the blended image's source untouched" )
+	@Test
+	public void testBlendLeavesSourceIntact() {
+		runtime.executeSource( """
+		                       source = ImageNew( "", 20, 20, "rgb", "blue" );
+		                       result = source.snapshot();
+		                       top = ImageNew( "", 10, 10, "rgb", "white" );
+		                       result.blend( top, "difference" );
+		                       """, context );
+
+		BufferedImage	source	= ( ( BoxImage ) variables.get( Key.of( "source" ) ) ).getBufferedImage();
+		BufferedImage	blended	= ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( source.getRGB( 0, 0 ) ).isEqualTo( 0xff0000ff );
+		assertThat( blended.getRGB( 0, 0 ) ).isEqualTo( 0xffffff00 );
+	}
+
+	@DisplayName( "It should reject unknown blend modes" )
+	@Test
+	public void testInvalidBlendMode() {
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( """
+		                                                                      result = ImageNew( "", 20, 20, "rgb", "black" );
+		                                                                      top = ImageNew( "", 10, 10, "rgb", "white" );
+		                                                                      ImageBlend( result, top, "dodge" );
+		                                                                      """, context ) );
+	}
+
+	@DisplayName( "It should blend an image onto itself as if onto a copy of it" )
+	@Test
+	public void testBlendOntoItself() {
+		BufferedImage pixels = new BufferedImage( 64, 600, BufferedImage.TYPE_INT_RGB );
+		for ( int y = 0; y < 600; y++ ) {
+			for ( int x = 0; x < 64; x++ ) {
+				pixels.setRGB( x, y, ( ( x * 4 ) << 16 ) | ( ( y % 256 ) << 8 ) | ( ( x + y ) & 255 ) );
+			}
+		}
+		variables.put( result, new BoxImage( pixels ) );
+		variables.put( Key.of( "reference" ), new BoxImage( RasterUtil.copy( pixels ) ) );
+		variables.put( Key.of( "top" ), new BoxImage( RasterUtil.copy( pixels ) ) );
+
+		runtime.executeSource( """
+		                       ImageBlend( result, result, "screen", 0, 3 );
+		                       ImageBlend( reference, top, "screen", 0, 3 );
+		                       """, context );
+
+		BufferedImage	blended		= ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+		BufferedImage	reference	= ( ( BoxImage ) variables.get( Key.of( "reference" ) ) ).getBufferedImage();
+		for ( int y = 0; y < 600; y++ ) {
+			for ( int x = 0; x < 64; x++ ) {
+				assertThat( blended.getRGB( x, y ) ).isEqualTo( reference.getRGB( x, y ) );
+			}
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package ortus.boxlang.modules.image.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
 
 public class ImageBlurTest extends BaseIntegrationTest {
 
@@ -58,4 +60,47 @@ public class ImageBlurTest extends BaseIntegrationTest {
 		assertThat( true ).isTrue();
 	}
 
+	@DisplayName( "It can blur the image with an exact gaussian kernel" )
+	@Test
+	public void testGaussianBlurImage() throws IOException {
+		runtime.executeSource( """
+		                       result = ImageRead( "src/test/resources/logo.png" );
+		                       ImageBlur( result, 50, "gaussian" );
+		                       ImageWrite( result, "src/test/resources/generated/logo-blurred-gaussian.png" );
+		                       """, context );
+
+		var	actual		= Files.readAllBytes( Paths.get( "src/test/resources/generated/logo-blurred-gaussian.png" ) );
+		var	expected	= Files.readAllBytes( Paths.get( "src/test/resources/test-images/blurred-gaussian-50.png" ) );
+
+		assertThat( Arrays.equals( actual, expected ) ).isTrue();
+	}
+
+	@DisplayName( "It can select the blur algorithm as a member function" )
+	@Test
+	public void testMemberInvocationGaussianBlurImage() throws IOException {
+		runtime.executeSource( """
+		                       result = ImageRead( "src/test/resources/logo.png" );
+		                       result.blur( 25, "gaussian" );
+		                       ImageWrite( result, "src/test/resources/generated/logo-blurred-gaussian.png" );
+		                       """, context );
+
+		var	actual		= Files.readAllBytes( Paths.get( "src/test/resources/generated/logo-blurred-gaussian.png" ) );
+		var	expected	= Files.readAllBytes( Paths.get( "src/test/resources/test-images/blurred-gaussian-25.png" ) );
+
+		assertThat( Arrays.equals( actual, expected ) ).isTrue();
+	}
+
+	@DisplayName( "It rejects unknown blur algorithms" )
+	@Test
+	public void testInvalidAlgorithm() {
+		BoxRuntimeException exception = assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                       result = ImageRead( "src/test/resources/logo.png" );
+			                       ImageBlur( result, 5, "motion" );
+			                       """, context );
+		} );
+
+		assertThat( exception.getMessage() ).contains( "Unsupported blur algorithm [motion]" );
+	}
+
 }
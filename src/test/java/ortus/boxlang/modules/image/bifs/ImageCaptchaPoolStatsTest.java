@@ -0,0 +1,32 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class ImageCaptchaPoolStatsTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should count captchas generated on demand while the pool is disabled" )
+	@Test
+	public void testDisabledPool() {
+		runtime.executeSource( """
+		                       before = ImageCaptchaPoolStats();
+		                       captcha = ImageGenerateCaptcha( height = 75, width = 200, textVariable = "answer" );
+		                       result = ImageCaptchaPoolStats();
+		                       """, context );
+
+		IStruct	before	= ( IStruct ) variables.get( Key.of( "before" ) );
+		IStruct	stats	= ( IStruct ) variables.get( result );
+
+		assertThat( stats.get( "enabled" ) ).isEqualTo( false );
+		assertThat( stats.get( "ready" ) ).isEqualTo( 0 );
+		assertThat( stats.getAsLong( Key.of( "misses" ) ) ).isEqualTo( before.getAsLong( Key.of( "misses" ) ) + 1 );
+		assertThat( stats.getAsLong( Key.of( "generated" ) ) ).isEqualTo( before.getAsLong( Key.of( "generated" ) ) + 1 );
+	}
+
+}
@@ -0,0 +1,52 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class ImageCodecStatsTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should buffer encoded streams in memory rather than in temporary files" )
+	@Test
+	public void testMemoryStreams() {
+		runtime.executeSource( """
+		                       before = ImageCodecStats();
+		                       img = ImageNew( "", 40, 40, "rgb", "red" );
+		                       encoded = ImageWriteBase64( img, "png" );
+		                       copy = ImageReadBase64( encoded );
+		                       result = ImageCodecStats();
+		                       """, context );
+
+		IStruct	before	= ( IStruct ) variables.get( Key.of( "before" ) );
+		IStruct	stats	= ( IStruct ) variables.get( result );
+
+		assertThat( stats.get( "diskCache" ) ).isEqualTo( false );
+		assertThat( stats.getAsLong( Key.of( "memoryStreams" ) ) ).isAtLeast( before.getAsLong( Key.of( "memoryStreams" ) ) + 2 );
+		assertThat( stats.getAsLong( Key.of( "tempFiles" ) ) ).isEqualTo( before.getAsLong( Key.of( "tempFiles" ) ) );
+	}
+
+	@DisplayName( "It should encode the default blob of an image through the pooled writers" )
+	@Test
+	public void testBlobUsesPooledWriters() {
+		runtime.executeSource( """
+		                       img = ImageNew( "", 40, 40, "rgb", "red" );
+		                       before = ImageCodecStats();
+		                       blob = ImageGetBlob( img );
+		                       result = ImageCodecStats();
+		                       """, context );
+
+		IStruct	before	= ( IStruct ) variables.get( Key.of( "before" ) );
+		IStruct	stats	= ( IStruct ) variables.get( result );
+		long	writes	= stats.getAsLong( Key.of( "writerHits" ) ) + stats.getAsLong( Key.of( "writerMisses" ) );
+
+		assertThat( writes ).isAtLeast( before.getAsLong( Key.of( "writerHits" ) ) + before.getAsLong( Key.of( "writerMisses" ) ) + 1 );
+		assertThat( stats.getAsLong( Key.of( "memoryStreams" ) ) ).isAtLeast( before.getAsLong( Key.of( "memoryStreams" ) ) + 1 );
+		assertThat( stats.getAsLong( Key.of( "tempFiles" ) ) ).isEqualTo( before.getAsLong( Key.of( "tempFiles" ) ) );
+	}
+
+}
@@ -0,0 +1,79 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class ImageConvolveTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should leave an image untouched with an identity kernel" )
+	@Test
+	public void testIdentityKernel() {
+		runtime.executeSource( """
+		                       original = ImageRead( "src/test/resources/logo.png" );
+		                       result = ImageRead( "src/test/resources/logo.png" );
+		                       ImageConvolve( result, [ [ 0, 0, 0 ], [ 0, 1, 0 ], [ 0, 0, 0 ] ] );
+		                       """, context );
+
+		BufferedImage	original	= ( ( BoxImage ) variables.get( Key.of( "original" ) ) ).getBufferedImage();
+		BufferedImage	actual		= ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		for ( int y = 0; y < original.getHeight(); y++ ) {
+			for ( int x = 0; x < original.getWidth(); x++ ) {
+				assertThat( actual.getRGB( x, y ) ).isEqualTo( original.getRGB( x, y ) );
+			}
+		}
+	}
+
+	@DisplayName( "It should keep a uniform image uniform when clamping edges" )
+	@Test
+	public void testClampEdges() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 50, 50, "argb", "red" );
+		                       result.convolve( [ [ 1/9, 1/9, 1/9 ], [ 1/9, 1/9, 1/9 ], [ 1/9, 1/9, 1/9 ] ] );
+		                       """, context );
+
+		BufferedImage actual = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( actual.getRGB( 0, 0 ) ).isEqualTo( 0xFFFF0000 );
+		assertThat( actual.getRGB( 25, 25 ) ).isEqualTo( 0xFFFF0000 );
+		assertThat( actual.getRGB( 49, 49 ) ).isEqualTo( 0xFFFF0000 );
+	}
+
+	@DisplayName( "It should fade the edges of an image when using the zero edge mode" )
+	@Test
+	public void testZeroEdges() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 50, 50, "argb", "red" );
+		                       ImageConvolve( result, [ [ 1/9, 1/9, 1/9 ], [ 1/9, 1/9, 1/9 ], [ 1/9, 1/9, 1/9 ] ], "zero" );
+		                       """, context );
+
+		BufferedImage actual = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( actual.getRGB( 0, 0 ) >>> 24 ).isLessThan( 255 );
+		assertThat( actual.getRGB( 25, 25 ) ).isEqualTo( 0xFFFF0000 );
+	}
+
+	@DisplayName( "It should reject kernels with rows of different lengths" )
+	@Test
+	public void testInvalidKernel() {
+		BoxRuntimeException exception = assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                       result = ImageNew( "", 50, 50, "argb", "red" );
+			                       ImageConvolve( result, [ [ 1, 1 ], [ 1 ] ] );
+			                       """, context );
+		} );
+
+		assertThat( exception.getMessage() ).contains( "same, non-zero length" );
+	}
+
+}
@@ -1,6 +1,11 @@
 package ortus.boxlang.modules.image.bifs;
 
+import static com.google.common.truth.Truth.assertThat;
+
+import java.awt.Color;
+
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,4 +45,45 @@ public class ImageCropTest extends BaseIntegrationTest {
 		// assertInstanceOf( ortus.boxlang.modules.image.BoxImage.class, variables.get( result ) );
 	}
 
+	@DisplayName( "It should crop to a view that shares the pixels of the original" )
+	@Test
+	public void testCropIsAView() {
+		runtime.executeSource( """
+		                       template = ImageRead( "src/test/resources/logo.png" );
+		                       result = template.snapshot();
+		                       result.crop( 20, 20, 120, 120 );
+		                       """, context );
+
+		BoxImage	template	= ( BoxImage ) variables.get( Key.of( "template" ) );
+		BoxImage	cropped		= ( BoxImage ) variables.get( result );
+
+		assertThat( cropped.getWidth() ).isEqualTo( 120 );
+		assertThat( cropped.isShared() ).isTrue();
+		assertThat( cropped.getBufferedImage().getRaster().getDataBuffer() )
+		    .isSameInstanceAs( template.getBufferedImage().getRaster().getDataBuffer() );
+		assertThat( cropped.getBufferedImage().getRGB( 0, 0 ) ).isEqualTo( template.getBufferedImage().getRGB( 20, 20 ) );
+	}
+
+	@DisplayName( "It should copy only the cropped region when drawing on a shared crop" )
+	@Test
+	public void testDrawOnSharedCrop() {
+		runtime.executeSource( """
+		                       template = ImageRead( "src/test/resources/logo.png" );
+		                       before = ImageGetBlob( template );
+		                       result = template.snapshot();
+		                       result.crop( 20, 20, 120, 120 );
+		                       result.setDrawingColor( "red" );
+		                       result.drawRect( 0, 0, 10, 10, true );
+		                       after = ImageGetBlob( template );
+		                       """, context );
+
+		BoxImage cropped = ( BoxImage ) variables.get( result );
+
+		// Drawing uses the coordinates of the crop, not of the original image
+		assertThat( cropped.getBufferedImage().getRGB( 5, 5 ) ).isEqualTo( Color.RED.getRGB() );
+		assertThat( cropped.isShared() ).isFalse();
+		assertThat( cropped.getMemoryFootprint() ).isEqualTo( 120L * 120 * 4 );
+		assertThat( variables.get( Key.of( "after" ) ) ).isEqualTo( variables.get( Key.of( "before" ) ) );
+	}
+
 }
@@ -0,0 +1,61 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+
+public class ImageDisposeTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should release the image data" )
+	@Test
+	public void testDispose() {
+		runtime.executeSource( """
+		                       result = ImageRead( "src/test/resources/logo.png" );
+		                       ImageDispose( result );
+		                       """, context );
+
+		BoxImage image = ( BoxImage ) variables.get( result );
+		assertThat( image.isReleased() ).isTrue();
+		assertThat( image.getMemoryFootprint() ).isEqualTo( 0L );
+		assertThat( image.getExifMetaData() ).isNull();
+	}
+
+	@DisplayName( "It should be callable as a member function" )
+	@Test
+	public void testMemberInvocation() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 100, 100, "rgb", "red" );
+		                       result.dispose();
+		                       """, context );
+
+		assertThat( ( ( BoxImage ) variables.get( result ) ).isReleased() ).isTrue();
+	}
+
+	@DisplayName( "It should be safe to dispose an image more than once" )
+	@Test
+	public void testDisposeTwice() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 100, 100, "rgb", "red" );
+		                       ImageDispose( result );
+		                       result.dispose();
+		                       """, context );
+
+		assertThat( ( ( BoxImage ) variables.get( result ) ).isReleased() ).isTrue();
+	}
+
+	@DisplayName( "It should close images used in try-with-resources" )
+	@Test
+	public void testAutoCloseable() throws Exception {
+		BoxImage image;
+		try ( BoxImage opened = new BoxImage( "src/test/resources/logo.png" ) ) {
+			image = opened;
+			assertThat( opened.getMemoryFootprint() ).isGreaterThan( 0L );
+		}
+
+		assertThat( image.isReleased() ).isTrue();
+	}
+}
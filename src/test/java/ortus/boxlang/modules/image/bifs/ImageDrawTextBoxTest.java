@@ -0,0 +1,76 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class ImageDrawTextBoxTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should wrap text inside the box and clip it to the box" )
+	@Test
+	public void testWrapAndClip() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 300, 200, "rgb", "white" );
+		                       result.setDrawingColor( "black" );
+		                       result.drawTextBox( "The quick brown fox jumps over the lazy dog, again and again and again", 50, 50, 100, 60, { size : 14 } );
+		                       """, context );
+
+		BufferedImage	image	= ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+		boolean			inside	= false;
+
+		for ( int y = 0; y < image.getHeight(); y++ ) {
+			for ( int x = 0; x < image.getWidth(); x++ ) {
+				boolean painted = image.getRGB( x, y ) != 0xffffffff;
+
+				if ( x < 50 || x >= 150 || y < 50 || y >= 110 ) {
+					assertThat( painted ).isFalse();
+				} else {
+					inside |= painted;
+				}
+			}
+		}
+		assertThat( inside ).isTrue();
+	}
+
+	@DisplayName( "It should align the lines in the box" )
+	@Test
+	public void testAlignRight() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 300, 100, "rgb", "white" );
+		                       result.setDrawingColor( "black" );
+		                       ImageDrawTextBox( result, "right", 0, 0, 300, 100, { size : 20 }, "right" );
+		                       """, context );
+
+		BufferedImage	image		= ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+		int				leftmost	= image.getWidth();
+
+		for ( int y = 0; y < image.getHeight(); y++ ) {
+			for ( int x = 0; x < image.getWidth(); x++ ) {
+				if ( image.getRGB( x, y ) != 0xffffffff ) {
+					leftmost = Math.min( leftmost, x );
+				}
+			}
+		}
+		assertThat( leftmost ).isGreaterThan( 200 );
+	}
+
+	@DisplayName( "It should reject unknown alignments" )
+	@Test
+	public void testInvalidAlign() {
+		assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                       img = ImageNew( "", 100, 100, "rgb", "white" );
+			                       img.drawTextBox( "Hello", 0, 0, 100, 100, {}, "justify" );
+			                       """, context );
+		} );
+	}
+
+}
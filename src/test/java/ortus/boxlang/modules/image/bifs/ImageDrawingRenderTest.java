@@ -0,0 +1,93 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class ImageDrawingRenderTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should render a captured drawing at a larger scale" )
+	@Test
+	public void testRenderAtScale() {
+		runtime.executeSource( """
+		                       canvas = ImageNew( "", 50, 50, "rgb", "white" );
+		                       canvas.beginDisplayList();
+		                       canvas.setDrawingColor( "red" );
+		                       canvas.drawRect( 10, 10, 10, 10, true );
+		                       drawing = canvas.captureDrawing();
+		                       result = ImageDrawingRender( drawing, 2 );
+		                       """, context );
+
+		BoxImage	canvas	= ( BoxImage ) variables.get( Key.of( "canvas" ) );
+		BoxImage	image	= ( BoxImage ) variables.get( result );
+
+		assertThat( canvas.isDisplayListActive() ).isFalse();
+		assertThat( canvas.getBufferedImage().getRGB( 15, 15 ) ).isEqualTo( 0xffffffff );
+		assertThat( image.getWidth() ).isEqualTo( 100 );
+		assertThat( image.getHeight() ).isEqualTo( 100 );
+		assertThat( image.getBufferedImage().getRGB( 30, 30 ) ).isEqualTo( 0xffff0000 );
+		assertThat( image.getBufferedImage().getRGB( 10, 10 ) ).isEqualTo( 0xffffffff );
+	}
+
+	@DisplayName( "It should render a captured drawing for every target" )
+	@Test
+	public void testRenderManyTargets() {
+		runtime.executeSource( """
+		                       canvas = ImageNew( "", 40, 20, "rgb", "white" );
+		                       canvas.beginDisplayList();
+		                       canvas.setDrawingColor( "blue" );
+		                       canvas.drawLine( 0, 0, 40, 20 );
+		                       drawing = canvas.captureDrawing();
+		                       result = drawing.render( [ 0.5, { width : 80 }, ImageNew( "", 30, 30, "rgb", "white" ) ] );
+		                       """, context );
+
+		Array images = variables.getAsArray( result );
+
+		assertThat( images.size() ).isEqualTo( 3 );
+		assertThat( ( ( BoxImage ) images.get( 0 ) ).getWidth() ).isEqualTo( 20 );
+		assertThat( ( ( BoxImage ) images.get( 1 ) ).getHeight() ).isEqualTo( 40 );
+		assertThat( ( ( BoxImage ) images.get( 2 ) ).getWidth() ).isEqualTo( 30 );
+	}
+
+	@DisplayName( "It should refuse to capture a drawing when no display list is recording" )
+	@Test
+	public void testCaptureWithoutDisplayList() {
+		assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                       canvas = ImageNew( "", 50, 50, "rgb", "white" );
+			                       drawing = canvas.captureDrawing();
+			                       """, context );
+		} );
+	}
+
+	@DisplayName( "It should stop sharing the images drawn in a captured drawing" )
+	@Test
+	public void testCaptureReleasesDrawnImages() {
+		runtime.executeSource( """
+		                       logo = ImageNew( "", 10, 10, "rgb", "blue" );
+		                       canvas = ImageNew( "", 40, 40, "rgb", "white" );
+		                       canvas.beginDisplayList();
+		                       canvas.drawImage( logo, 5, 5 );
+		                       drawing = canvas.captureDrawing();
+		                       logo.setDrawingColor( "red" );
+		                       logo.drawRect( 0, 0, 10, 10, true );
+		                       result = ImageDrawingRender( drawing, 1 );
+		                       """, context );
+
+		BoxImage	logo	= ( BoxImage ) variables.get( Key.of( "logo" ) );
+		BoxImage	image	= ( BoxImage ) variables.get( result );
+
+		assertThat( logo.isShared() ).isFalse();
+		assertThat( logo.getBufferedImage().getRGB( 5, 5 ) ).isEqualTo( 0xffff0000 );
+		assertThat( image.getBufferedImage().getRGB( 10, 10 ) ).isEqualTo( 0xff0000ff );
+	}
+
+}
@@ -2,6 +2,8 @@ package ortus.boxlang.modules.image.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -11,6 +13,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.scopes.Key;
 
 public class ImageFlipTest extends BaseIntegrationTest {
 
@@ -150,4 +154,59 @@ public class ImageFlipTest extends BaseIntegrationTest {
 		assertThat( Arrays.equals( actual, expected ) ).isTrue();
 	}
 
+	@DisplayName( "It should rotate by remapping pixels, keeping the image type and every pixel value" )
+	@Test
+	public void testRotateIsLossless() {
+		runtime.executeSource( """
+		                       source = ImageNew( "", 40, 30, "grayscale" );
+		                       source.setDrawingColor( "gray" );
+		                       source.drawRect( 0, 0, 10, 5, true );
+		                       result = source.snapshot();
+		                       ImageFlip( result, "90" );
+		                       """, context );
+
+		BufferedImage	source	= ( ( BoxImage ) variables.get( Key.of( "source" ) ) ).getBufferedImage();
+		BufferedImage	rotated	= ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( rotated.getWidth() ).isEqualTo( 30 );
+		assertThat( rotated.getHeight() ).isEqualTo( 40 );
+		assertThat( rotated.getType() ).isEqualTo( BufferedImage.TYPE_BYTE_GRAY );
+		for ( int y = 0; y < 40; y++ ) {
+			for ( int x = 0; x < 30; x++ ) {
+				assertThat( rotated.getRGB( x, y ) ).isEqualTo( source.getRGB( y, 29 - x ) );
+			}
+		}
+	}
+
+	@DisplayName( "It should keep the palette of an indexed image" )
+	@Test
+	public void testFlipKeepsPalette() {
+		IndexColorModel	palette	= new IndexColorModel( 8, 4,
+		    new byte[] { 10, ( byte ) 200, 30, ( byte ) 250 },
+		    new byte[] { 20, 40, ( byte ) 180, ( byte ) 250 },
+		    new byte[] { 90, 60, 70, 5 } );
+		BufferedImage	indexed	= new BufferedImage( 20, 10, BufferedImage.TYPE_BYTE_INDEXED, palette );
+		int[][]			samples	= new int[ 10 ][ 20 ];
+		for ( int y = 0; y < 10; y++ ) {
+			for ( int x = 0; x < 20; x++ ) {
+				samples[ y ][ x ] = ( x * 3 + y ) % 4;
+				indexed.getRaster().setSample( x, y, 0, samples[ y ][ x ] );
+			}
+		}
+
+		variables.put( result, new BoxImage( indexed ) );
+		runtime.executeSource( """
+		                       ImageFlip( result, "horizontal" );
+		                       """, context );
+
+		BufferedImage flipped = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( flipped.getColorModel() ).isEqualTo( palette );
+		for ( int y = 0; y < 10; y++ ) {
+			for ( int x = 0; x < 20; x++ ) {
+				assertThat( flipped.getRaster().getSample( x, y, 0 ) ).isEqualTo( samples[ y ][ 19 - x ] );
+			}
+		}
+	}
+
 }
@@ -32,6 +32,7 @@ import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.compiler.parser.BoxSourceType;
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
 import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
 
@@ -264,4 +265,52 @@ public class ImageGenerateCaptchaTest extends BaseIntegrationTest {
 		assertThat( ( int ) variables.get( Key.of( "h" ) ) ).isEqualTo( 75 );
 	}
 
+	@DisplayName( "It generates a captcha with a random answer stored in textVariable when no text is given" )
+	@Test
+	public void testGenerateCaptchaWithoutText() {
+		runtime.executeSource( """
+		                           result = ImageGenerateCaptcha( height = 60, width = 180, difficulty = "medium", textVariable = "answer" );
+		                           w = result.getWidth();
+		                       """, context );
+
+		assertThat( variables.get( result ) ).isInstanceOf( BoxImage.class );
+		assertThat( ( int ) variables.get( Key.of( "w" ) ) ).isEqualTo( 180 );
+		assertThat( variables.getAsString( Key.of( "answer" ) ) ).matches( "[A-Z2-9]{6}" );
+	}
+
+	@DisplayName( "It requires text or textVariable to generate a captcha" )
+	@Test
+	public void testGenerateCaptchaWithoutTextVariable() {
+		BoxRuntimeException exception = assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                           result = ImageGenerateCaptcha( height = 60, width = 180 );
+			                       """, context );
+		} );
+
+		assertThat( exception.getMessage() ).contains( "textVariable" );
+	}
+
+	@DisplayName( "It stores the random answer of a captcha generated via bx:image without text" )
+	@Test
+	public void testCaptchaComponentWithTextVariable() {
+		runtime.executeSource( """
+		                           <bx:image action="captcha" textVariable="answer" width="200" height="75" name="myCaptcha" />
+		                       """, context, BoxSourceType.BOXTEMPLATE );
+
+		assertThat( variables.get( Key.of( "myCaptcha" ) ) ).isNotNull();
+		assertThat( variables.getAsString( Key.of( "answer" ) ) ).matches( "[A-Z2-9]{6}" );
+	}
+
+	@DisplayName( "It requires text or textVariable for the captcha action" )
+	@Test
+	public void testCaptchaComponentWithoutText() {
+		BoxRuntimeException exception = assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                           <bx:image action="captcha" width="200" height="75" name="myCaptcha" />
+			                       """, context, BoxSourceType.BOXTEMPLATE );
+		} );
+
+		assertThat( exception.getMessage() ).contains( "textVariable" );
+	}
+
 }
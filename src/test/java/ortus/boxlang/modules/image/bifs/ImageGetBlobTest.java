@@ -2,12 +2,16 @@ package ortus.boxlang.modules.image.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
+import javax.imageio.ImageIO;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
 
 public class ImageGetBlobTest extends BaseIntegrationTest {
 
@@ -35,4 +39,55 @@ public class ImageGetBlobTest extends BaseIntegrationTest {
 		assertThat( ( ( byte[] ) variables.get( result ) ).length ).isGreaterThan( 100 );
 	}
 
+	@DisplayName( "It should encode the blob in another format with encoder options" )
+	@Test
+	public void testFormatAndOptions() throws IOException {
+		runtime.executeSource( """
+		                       img = ImageRead( "src/test/resources/logo.png" );
+		                       baseline = ImageGetBlob( img, "jpg" );
+		                       result = ImageGetBlob( img, "jpg", { progressive : true, optimizeHuffman : true } );
+		                       """, context );
+
+		byte[] bytes = ( byte[] ) variables.get( result );
+		// A JPEG, with a progressive (SOF2) frame header
+		assertThat( bytes[ 0 ] & 0xff ).isEqualTo( 0xff );
+		assertThat( bytes[ 1 ] & 0xff ).isEqualTo( 0xd8 );
+		assertThat( containsMarker( bytes, 0xc2 ) ).isTrue();
+		assertThat( containsMarker( ( byte[] ) variables.get( Key.of( "baseline" ) ), 0xc2 ) ).isFalse();
+		assertThat( ImageIO.read( new ByteArrayInputStream( bytes ) ).getWidth() ).isEqualTo( 256 );
+	}
+
+	@DisplayName( "It should apply encoder options in the format of the source file when no format is given" )
+	@Test
+	public void testOptionsWithoutFormat() throws IOException {
+		runtime.executeSource( """
+		                       img = ImageRead( "src/test/resources/test-images/exif-test.jpg" );
+		                       baseline = ImageGetBlob( img );
+		                       result = ImageGetBlob( img, options = { quality : 0.1 } );
+		                       png = ImageGetBlob( ImageRead( "src/test/resources/logo.png" ), options = { quality : 0.1 } );
+		                       """, context );
+
+		byte[]	bytes		= ( byte[] ) variables.get( result );
+		byte[]	baseline	= ( byte[] ) variables.get( Key.of( "baseline" ) );
+		byte[]	png			= ( byte[] ) variables.get( Key.of( "png" ) );
+		// Both JPEGs, the low quality one noticeably smaller
+		assertThat( bytes[ 0 ] & 0xff ).isEqualTo( 0xff );
+		assertThat( bytes[ 1 ] & 0xff ).isEqualTo( 0xd8 );
+		assertThat( baseline[ 0 ] & 0xff ).isEqualTo( 0xff );
+		assertThat( baseline[ 1 ] & 0xff ).isEqualTo( 0xd8 );
+		assertThat( bytes.length ).isLessThan( baseline.length / 2 );
+		// A PNG source stays a PNG
+		assertThat( png[ 0 ] & 0xff ).isEqualTo( 0x89 );
+		assertThat( new String( png, 1, 3, "US-ASCII" ) ).isEqualTo( "PNG" );
+	}
+
+	private static boolean containsMarker( byte[] bytes, int marker ) {
+		for ( int i = 0; i < bytes.length - 1; i++ ) {
+			if ( ( bytes[ i ] & 0xff ) == 0xff && ( bytes[ i + 1 ] & 0xff ) == marker ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
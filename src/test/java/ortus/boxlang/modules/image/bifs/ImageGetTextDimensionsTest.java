@@ -0,0 +1,60 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class ImageGetTextDimensionsTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should measure a single line of text" )
+	@Test
+	public void testSingleLine() {
+		runtime.executeSource( """
+		                       result = ImageGetTextDimensions( "Hello World", { font : "Serif", size : 24 } );
+		                       """, context );
+
+		IStruct dimensions = variables.getAsStruct( result );
+
+		assertThat( dimensions.getAsDouble( Key.of( "width" ) ) ).isGreaterThan( 0.0 );
+		assertThat( dimensions.getAsDouble( Key.of( "ascent" ) ) ).isGreaterThan( 0.0 );
+		assertThat( dimensions.getAsDouble( Key.of( "height" ) ) ).isEqualTo( dimensions.getAsDouble( Key.of( "lineHeight" ) ) );
+		assertThat( ( ( Array ) dimensions.get( "lines" ) ).size() ).isEqualTo( 1 );
+	}
+
+	@DisplayName( "It should wrap text to a width" )
+	@Test
+	public void testWrap() {
+		runtime.executeSource( """
+		                       result = ImageGetTextDimensions( "The quick brown fox jumps over the lazy dog", { size : 20 }, 150 );
+		                       """, context );
+
+		IStruct	dimensions	= variables.getAsStruct( result );
+		Array	lines		= ( Array ) dimensions.get( "lines" );
+
+		assertThat( lines.size() ).isGreaterThan( 1 );
+		assertThat( dimensions.getAsDouble( Key.of( "width" ) ) ).isAtMost( 150.0 );
+	}
+
+	@DisplayName( "It should find the largest font size that fits in a box" )
+	@Test
+	public void testFitToBox() {
+		runtime.executeSource( """
+		                       result = ImageGetTextDimensions( "Fit this caption in the box", { style : "bold" }, 300, 100 );
+		                       larger = ImageGetTextDimensions( "Fit this caption in the box", { style : "bold", size : result.size + 1 }, 300 );
+		                       """, context );
+
+		IStruct	dimensions	= variables.getAsStruct( result );
+		IStruct	larger		= variables.getAsStruct( Key.of( "larger" ) );
+
+		assertThat( dimensions.get( "fits" ) ).isEqualTo( true );
+		assertThat( dimensions.getAsDouble( Key.of( "height" ) ) ).isAtMost( 100.0 );
+		assertThat( larger.getAsDouble( Key.of( "height" ) ) > 100 || larger.getAsDouble( Key.of( "width" ) ) > 300 ).isTrue();
+	}
+
+}
@@ -75,6 +75,8 @@ public class ImageInfoTest extends BaseIntegrationTest {
 		assertThat( info.get( "width" ) ).isEqualTo( 256 );
 		assertThat( info.get( "height" ) ).isEqualTo( 256 );
 		assertThat( info.get( "source" ) ).isEqualTo( variables.get( "sourcePath" ) );
+		// 256 x 256 pixels, 4 bytes each
+		assertThat( info.get( "memory_footprint" ) ).isEqualTo( 262144L );
 
 		IStruct colorModel = info.getAsStruct( Key.of( "colormodel" ) );
 
@@ -0,0 +1,31 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class ImageMeasureTextTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should measure text as it would be drawn on the image" )
+	@Test
+	public void testMeasureText() {
+		runtime.executeSource( """
+		                       img = ImageNew( "", 200, 100, "rgb", "white" );
+		                       result = img.measureText( "first line#chr( 10 )#second line", { size : 16 } );
+		                       """, context );
+
+		IStruct	dimensions	= variables.getAsStruct( result );
+		Array	lines		= ( Array ) dimensions.get( "lines" );
+
+		assertThat( lines.size() ).isEqualTo( 2 );
+		assertThat( ( ( IStruct ) lines.get( 1 ) ).get( "text" ) ).isEqualTo( "second line" );
+		assertThat( dimensions.getAsDouble( Key.of( "height" ) ) ).isGreaterThan( dimensions.getAsDouble( Key.of( "lineHeight" ) ) );
+	}
+
+}
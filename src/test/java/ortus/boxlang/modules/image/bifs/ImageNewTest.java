@@ -1,6 +1,12 @@
 package ortus.boxlang.modules.image.bifs;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -73,4 +79,79 @@ public class ImageNewTest extends BaseIntegrationTest {
 		// assertInstanceOf( ortus.boxlang.modules.image.BoxImage.class, variables.get( result ) );
 	}
 
+	@DisplayName( "It keeps an image created from an existing BoxImage independent of its source" )
+	@Test
+	public void testImageFromBoxImageIsIndependent() {
+		runtime.executeSource(
+		    """
+		    a = ImageNew( "", 100, 100, "rgb", "red" );
+		    result = ImageNew( a );
+		    result.setDrawingColor( "blue" );
+		    result.drawRect( 0, 0, 50, 50, true );
+		    a.setDrawingColor( "green" );
+		    a.drawRect( 50, 50, 50, 50, true );
+		    """,
+		    context );
+
+		BoxImage	source	= ( BoxImage ) variables.get( Key.of( "a" ) );
+		BoxImage	copy	= ( BoxImage ) variables.get( result );
+
+		assertThat( source.isShared() ).isFalse();
+		assertThat( copy.isShared() ).isFalse();
+		assertThat( source.getBufferedImage().getRGB( 10, 10 ) ).isEqualTo( Color.RED.getRGB() );
+		assertThat( source.getBufferedImage().getRGB( 90, 90 ) ).isEqualTo( Color.GREEN.getRGB() );
+		assertThat( copy.getBufferedImage().getRGB( 10, 10 ) ).isEqualTo( Color.BLUE.getRGB() );
+		assertThat( copy.getBufferedImage().getRGB( 90, 90 ) ).isEqualTo( Color.RED.getRGB() );
+	}
+
+	@DisplayName( "It shares the pixels of a snapshot until one of the images is modified" )
+	@Test
+	public void testSnapshotCopyOnWrite() {
+		runtime.executeSource(
+		    """
+		    a = ImageRead( "src/test/resources/logo.png" );
+		    result = a.snapshot();
+		    """,
+		    context );
+
+		BoxImage		source		= ( BoxImage ) variables.get( Key.of( "a" ) );
+		BoxImage		snapshot	= ( BoxImage ) variables.get( result );
+		BufferedImage	original	= source.copy().getBufferedImage();
+
+		assertThat( snapshot.isShared() ).isTrue();
+		assertThat( snapshot.getBufferedImage() ).isSameInstanceAs( source.getBufferedImage() );
+
+		snapshot.setDrawingColor( "blue" );
+		snapshot.drawRect( 0, 0, 256, 256, true );
+
+		assertThat( snapshot.isShared() ).isFalse();
+		assertThat( snapshot.getBufferedImage().getRGB( 128, 128 ) ).isEqualTo( Color.BLUE.getRGB() );
+		for ( int y = 0; y < original.getHeight(); y++ ) {
+			for ( int x = 0; x < original.getWidth(); x++ ) {
+				assertThat( source.getBufferedImage().getRGB( x, y ) ).isEqualTo( original.getRGB( x, y ) );
+			}
+		}
+	}
+
+	@DisplayName( "It copies an image without altering its type or transparency" )
+	@Test
+	public void testCopyKeepsTypeAndTransparency() {
+		runtime.executeSource(
+		    """
+		    a = ImageRead( "src/test/resources/logo.png" );
+		    """,
+		    context );
+
+		BufferedImage	source	= ( ( BoxImage ) variables.get( Key.of( "a" ) ) ).getBufferedImage();
+		BufferedImage	copy	= ( ( BoxImage ) variables.get( Key.of( "a" ) ) ).copy().getBufferedImage();
+
+		assertThat( copy ).isNotSameInstanceAs( source );
+		assertThat( copy.getType() ).isEqualTo( source.getType() );
+		for ( int y = 0; y < source.getHeight(); y++ ) {
+			for ( int x = 0; x < source.getWidth(); x++ ) {
+				assertThat( copy.getRGB( x, y ) ).isEqualTo( source.getRGB( x, y ) );
+			}
+		}
+	}
+
 }
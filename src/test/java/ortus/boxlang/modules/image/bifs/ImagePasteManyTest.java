@@ -0,0 +1,65 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class ImagePasteManyTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should paste many images at their positions and opacities" )
+	@Test
+	public void testPasteMany() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 100, 100, "rgb", "black" );
+		                       marker = ImageNew( "", 10, 10, "rgb", "red" );
+		                       ImagePasteMany( result, [
+		                           { image : marker, x : 5, y : 60 },
+		                           { image : marker, x : 50, y : 50, opacity : 0.5 },
+		                           { image : marker, x : 95, y : 95 }
+		                       ] );
+		                       """, context );
+
+		BufferedImage pasted = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( pasted.getRGB( 7, 62 ) ).isEqualTo( 0xffff0000 );
+		assertThat( pasted.getRGB( 55, 55 ) ).isEqualTo( 0xff800000 );
+		assertThat( pasted.getRGB( 99, 99 ) ).isEqualTo( 0xffff0000 );
+		assertThat( pasted.getRGB( 30, 30 ) ).isEqualTo( 0xff000000 );
+	}
+
+	@DisplayName( "It should paint later items over earlier ones as a member function" )
+	@Test
+	public void testDrawImagesMember() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 40, 40, "rgb", "white" );
+		                       result.drawImages( [
+		                           { image : ImageNew( "", 20, 20, "rgb", "red" ) },
+		                           { image : ImageNew( "", 20, 20, "rgb", "blue" ), x : 10, y : 10 }
+		                       ] );
+		                       """, context );
+
+		BufferedImage pasted = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( pasted.getRGB( 5, 5 ) ).isEqualTo( 0xffff0000 );
+		assertThat( pasted.getRGB( 15, 15 ) ).isEqualTo( 0xff0000ff );
+		assertThat( pasted.getRGB( 35, 35 ) ).isEqualTo( 0xffffffff );
+	}
+
+	@DisplayName( "It should reject items without an image" )
+	@Test
+	public void testInvalidItem() {
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( """
+		                                                                      result = ImageNew( "", 20, 20, "rgb", "black" );
+		                                                                      ImagePasteMany( result, [ { x : 1, y : 1 } ] );
+		                                                                      """, context ) );
+	}
+
+}
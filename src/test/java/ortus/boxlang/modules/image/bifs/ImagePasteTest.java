@@ -1,6 +1,11 @@
 package ortus.boxlang.modules.image.bifs;
 
+import static com.google.common.truth.Truth.assertThat;
+
+import java.awt.image.BufferedImage;
+
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,4 +35,35 @@ public class ImagePasteTest extends BaseIntegrationTest {
 		// assertInstanceOf( ortus.boxlang.modules.image.BoxImage.class, variables.get( result ) );
 	}
 
+	@DisplayName( "It should paste at the given x and y coordinates" )
+	@Test
+	public void testPastePosition() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 60, 60, "rgb", "black" );
+		                       top = ImageNew( "", 5, 5, "rgb", "red" );
+		                       ImagePaste( result, top, 10, 40 );
+		                       """, context );
+
+		BufferedImage pasted = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( pasted.getRGB( 10, 40 ) ).isEqualTo( 0xffff0000 );
+		assertThat( pasted.getRGB( 40, 10 ) ).isEqualTo( 0xff000000 );
+	}
+
+	@DisplayName( "It should paste with an opacity and a blend mode" )
+	@Test
+	public void testPasteOpacityAndBlendMode() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 20, 20, "rgb", "black" );
+		                       top = ImageNew( "", 10, 10, "rgb", "red" );
+		                       result.paste( top, 0, 0, 0.5 );
+		                       result.paste( top, 10, 10, 1, "multiply" );
+		                       """, context );
+
+		BufferedImage pasted = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( pasted.getRGB( 5, 5 ) ).isEqualTo( 0xff800000 );
+		assertThat( pasted.getRGB( 15, 15 ) ).isEqualTo( 0xff000000 );
+	}
+
 }
@@ -0,0 +1,45 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class ImageReadCacheClearTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should remove a single file from the decoded image cache" )
+	@Test
+	public void testClearPath() {
+		ImageService.getInstance().setDecodedImageCacheEnabled( true );
+		try {
+			runtime.executeSource( """
+			                       ImageRead( "src/test/resources/logo.png" );
+			                       result = ImageReadCacheClear( "src/test/resources/logo.png" );
+			                       again = ImageReadCacheClear( "src/test/resources/logo.png" );
+			                       """, context );
+		} finally {
+			ImageService.getInstance().setDecodedImageCacheEnabled( false );
+		}
+
+		assertThat( variables.get( result ) ).isEqualTo( 1 );
+		assertThat( variables.get( Key.of( "again" ) ) ).isEqualTo( 0 );
+	}
+
+	@DisplayName( "It should clear the whole decoded image cache" )
+	@Test
+	public void testClearAll() {
+		runtime.executeSource( """
+		                       ImageReadCacheClear();
+		                       result = ImageReadCacheStats();
+		                       """, context );
+
+		IStruct stats = ( IStruct ) variables.get( result );
+		assertThat( stats.get( "entries" ) ).isEqualTo( 0 );
+		assertThat( stats.get( "bytes" ) ).isEqualTo( 0L );
+	}
+}
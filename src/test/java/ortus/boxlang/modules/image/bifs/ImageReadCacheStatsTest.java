@@ -0,0 +1,50 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.services.ImageService;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class ImageReadCacheStatsTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should report the decoded image cache as disabled by default" )
+	@Test
+	public void testDisabledByDefault() {
+		runtime.executeSource( """
+		                       result = ImageReadCacheStats();
+		                       """, context );
+
+		IStruct stats = ( IStruct ) variables.get( result );
+		assertThat( stats.get( "enabled" ) ).isEqualTo( false );
+		assertThat( stats.getAsLong( Key.of( "maxBytes" ) ) ).isEqualTo( 128L * 1024 * 1024 );
+	}
+
+	@DisplayName( "It should count cache hits and cached bytes" )
+	@Test
+	public void testHits() {
+		ImageService.getInstance().setDecodedImageCacheEnabled( true );
+		try {
+			runtime.executeSource( """
+			                       ImageReadCacheClear();
+			                       before = ImageReadCacheStats();
+			                       ImageRead( "src/test/resources/logo.png" );
+			                       ImageRead( "src/test/resources/logo.png" );
+			                       result = ImageReadCacheStats();
+			                       """, context );
+		} finally {
+			ImageService.getInstance().setDecodedImageCacheEnabled( false );
+		}
+
+		IStruct	before	= ( IStruct ) variables.get( Key.of( "before" ) );
+		IStruct	stats	= ( IStruct ) variables.get( result );
+		assertThat( stats.get( "enabled" ) ).isEqualTo( true );
+		assertThat( stats.get( "entries" ) ).isEqualTo( 1 );
+		assertThat( stats.getAsLong( Key.of( "hits" ) ) ).isEqualTo( before.getAsLong( Key.of( "hits" ) ) + 1 );
+		assertThat( stats.getAsLong( Key.of( "bytes" ) ) ).isGreaterThan( 0L );
+	}
+}
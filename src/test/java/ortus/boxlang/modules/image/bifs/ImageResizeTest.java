@@ -2,6 +2,7 @@ package ortus.boxlang.modules.image.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -11,6 +12,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.scopes.Key;
 
 public class ImageResizeTest extends BaseIntegrationTest {
 
@@ -48,4 +51,35 @@ public class ImageResizeTest extends BaseIntegrationTest {
 		assertThat( Arrays.equals( actual, expected ) ).isTrue();
 	}
 
+	@DisplayName( "It should resize an image with a resampling filter" )
+	@Test
+	public void testResizeLanczos() {
+		runtime.executeSource( """
+		                       result = ImageRead( "src/test/resources/logo.png" );
+		                       imageResize( result, 100, 60, "lanczos" );
+		                       w = result.getWidth();
+		                       h = result.getHeight();
+		                       """, context );
+
+		assertThat( ( int ) variables.get( Key.of( "w" ) ) ).isEqualTo( 100 );
+		assertThat( ( int ) variables.get( Key.of( "h" ) ) ).isEqualTo( 60 );
+	}
+
+	@DisplayName( "It should keep solid colors intact when resampling via member function" )
+	@Test
+	public void testResizeResampleMemberFunc() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 300, 200, "rgb", "blue" );
+		                       result.resize( 37, 411, "mitchell", 2 );
+		                       """, context );
+
+		BufferedImage actual = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( actual.getWidth() ).isEqualTo( 37 );
+		assertThat( actual.getHeight() ).isEqualTo( 411 );
+		assertThat( actual.getRGB( 0, 0 ) ).isEqualTo( 0xFF0000FF );
+		assertThat( actual.getRGB( 18, 205 ) ).isEqualTo( 0xFF0000FF );
+		assertThat( actual.getRGB( 36, 410 ) ).isEqualTo( 0xFF0000FF );
+	}
+
 }
@@ -2,6 +2,7 @@ package ortus.boxlang.modules.image.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -11,6 +12,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.runtime.scopes.Key;
 
 public class ImageRotateTest extends BaseIntegrationTest {
 
@@ -48,4 +51,38 @@ public class ImageRotateTest extends BaseIntegrationTest {
 		assertThat( Arrays.equals( actual, expected ) ).isTrue();
 	}
 
+	@DisplayName( "It should rotate by fractional angles with exact bounds" )
+	@Test
+	public void testRotateFractionalAngle() {
+		runtime.executeSource( """
+		                       result = ImageNew( "", 200, 100, "grayscale", "black" );
+		                       ImageSetBackgroundColor( result, "white" );
+		                       ImageRotate( result, 2.5, "bicubic" );
+		                       """, context );
+
+		BufferedImage	rotated	= ( ( BoxImage ) variables.get( Key.of( "result" ) ) ).getBufferedImage();
+		double			radians	= Math.toRadians( 2.5 );
+
+		assertThat( rotated.getWidth() ).isEqualTo( ( int ) Math.ceil( 200 * Math.cos( radians ) + 100 * Math.sin( radians ) ) );
+		assertThat( rotated.getHeight() ).isEqualTo( ( int ) Math.ceil( 200 * Math.sin( radians ) + 100 * Math.cos( radians ) ) );
+		assertThat( rotated.getType() ).isEqualTo( BufferedImage.TYPE_BYTE_GRAY );
+		// The uncovered corners take the background color, the center keeps the image
+		assertThat( rotated.getRGB( 0, 0 ) ).isEqualTo( 0xffffffff );
+		assertThat( rotated.getRGB( rotated.getWidth() / 2, rotated.getHeight() / 2 ) ).isEqualTo( 0xff000000 );
+	}
+
+	@DisplayName( "It should leave the corners transparent for images with an alpha channel" )
+	@Test
+	public void testRotateTransparentCorners() {
+		runtime.executeSource( """
+		                       result = ImageRead( "src/test/resources/logo.png" );
+		                       result.rotate( 30.5, "bilinear" );
+		                       """, context );
+
+		BufferedImage rotated = ( ( BoxImage ) variables.get( Key.of( "result" ) ) ).getBufferedImage();
+
+		assertThat( rotated.getColorModel().hasAlpha() ).isTrue();
+		assertThat( rotated.getRGB( 0, 0 ) >>> 24 ).isEqualTo( 0 );
+	}
+
 }
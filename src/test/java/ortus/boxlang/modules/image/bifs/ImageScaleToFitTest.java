@@ -2,6 +2,7 @@ package ortus.boxlang.modules.image.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
 import ortus.boxlang.runtime.scopes.Key;
 
 public class ImageScaleToFitTest extends BaseIntegrationTest {
@@ -129,4 +131,41 @@ public class ImageScaleToFitTest extends BaseIntegrationTest {
 		assertThat( height ).isEqualTo( 50 );
 	}
 
+	@DisplayName( "It should create thumbnails with the fast-quality interpolation" )
+	@Test
+	public void testScaleToFitFastQuality() throws IOException {
+		// @formatter:off
+		runtime.executeSource( """
+			result = ImageNew( "", 1600, 900, "rgb", "green" );
+			ImageScaleToFit( result, 150, 150, "fast-quality" );
+			width = result.getWidth();
+			height = result.getHeight();
+		""", context );
+		// @formatter:on
+
+		int	width	= ( int ) variables.get( Key.of( "width" ) );
+		int	height	= ( int ) variables.get( Key.of( "height" ) );
+
+		// Image is 1600x900, fitting within 150x150 maintains aspect ratio: 150x84
+		assertThat( width ).isEqualTo( 150 );
+		assertThat( height ).isEqualTo( 84 );
+	}
+
+	@DisplayName( "It should keep colors intact when using the fast-quality interpolation" )
+	@Test
+	public void testScaleToFitFastQualityMemberInvocation() throws IOException {
+		// @formatter:off
+		runtime.executeSource( """
+			result = ImageNew( "", 1000, 1000, "rgb", "blue" );
+			result.scaleToFit( 90, 90, "fast-quality" );
+		""", context );
+		// @formatter:on
+
+		BufferedImage actual = ( ( BoxImage ) variables.get( result ) ).getBufferedImage();
+
+		assertThat( actual.getWidth() ).isEqualTo( 90 );
+		assertThat( actual.getRGB( 0, 0 ) ).isEqualTo( 0xFF0000FF );
+		assertThat( actual.getRGB( 89, 89 ) ).isEqualTo( 0xFF0000FF );
+	}
+
 }
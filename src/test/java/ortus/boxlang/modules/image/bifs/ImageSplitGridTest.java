@@ -131,4 +131,19 @@ public class ImageSplitGridTest extends BaseIntegrationTest {
 		}
 	}
 
+	@DisplayName( "It should not draw through a tile onto the source image" )
+	@Test
+	public void testDrawingOnTileLeavesSourceIntact() {
+		runtime.executeSource( """
+		                       theSource = ImageRead( "src/test/resources/logo.png" );
+		                       before = ImageGetBlob( theSource );
+		                       result = ImageSplitGrid( theSource, 2, 2 );
+		                       result[1][1].setDrawingColor( "red" );
+		                       result[1][1].drawRect( 0, 0, 50, 50, true );
+		                       after = ImageGetBlob( theSource );
+		                       """, context );
+
+		assertThat( variables.get( Key.of( "after" ) ) ).isEqualTo( variables.get( Key.of( "before" ) ) );
+	}
+
 }
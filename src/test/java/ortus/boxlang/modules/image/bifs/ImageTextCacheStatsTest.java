@@ -0,0 +1,47 @@
+package ortus.boxlang.modules.image.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class ImageTextCacheStatsTest extends BaseIntegrationTest {
+
+	@DisplayName( "It should reuse fonts and glyph runs for repeated text" )
+	@Test
+	public void testHits() {
+		runtime.executeSource( """
+		                       before = ImageTextCacheStats();
+		                       for ( i = 0; i < 3; i++ ) {
+		                           img = ImageNew( "", 200, 50, "rgb", "white" );
+		                           img.drawText( "Cached watermark 42", 10, 30, { font : "Serif", size : 18, style : "bold" } );
+		                       }
+		                       result = ImageTextCacheStats();
+		                       """, context );
+
+		IStruct	before	= ( IStruct ) variables.get( Key.of( "before" ) );
+		IStruct	stats	= ( IStruct ) variables.get( result );
+
+		assertThat( stats.get( "enabled" ) ).isEqualTo( true );
+		assertThat( stats.getAsLong( Key.of( "fontHits" ) ) ).isAtLeast( before.getAsLong( Key.of( "fontHits" ) ) + 2 );
+		assertThat( stats.getAsLong( Key.of( "glyphHits" ) ) ).isAtLeast( before.getAsLong( Key.of( "glyphHits" ) ) + 2 );
+	}
+
+	@DisplayName( "It should still reject unknown font styles" )
+	@Test
+	public void testInvalidStyle() {
+		assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                       img = ImageNew( "", 200, 50, "rgb", "white" );
+			                       img.drawText( "Hello", 10, 30, { style : "heavy" } );
+			                       """, context );
+		} );
+	}
+
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
 import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
 
@@ -132,4 +133,62 @@ public class ImageWriteTest extends BaseIntegrationTest {
 		int width = ( int ) variables.get( Key.of( "width" ) );
 		assertThat( width ).isEqualTo( 200 );
 	}
+
+	@DisplayName( "It should write a smaller JPEG with a lower quality option" )
+	@Test
+	public void testImageWriteQualityOption() throws IOException {
+		String	lowFile		= "src/test/resources/generated/test-write-quality-low.jpg";
+		String	highFile	= "src/test/resources/generated/test-write-quality-high.jpg";
+
+		// @formatter:off
+		runtime.executeSource( """
+			img = ImageRead( "src/test/resources/logo.png" );
+			ImageWrite( img, "%s", { quality : 0.2 } );
+			img.write( "%s", { quality : 0.95, chromaSubsampling : "4:4:4" } );
+			width = ImageRead( "%s" ).getWidth();
+		""".formatted( lowFile, highFile, lowFile ), context );
+		// @formatter:on
+
+		assertThat( Files.size( Paths.get( lowFile ) ) ).isLessThan( Files.size( Paths.get( highFile ) ) );
+		assertThat( variables.get( Key.of( "width" ) ) ).isEqualTo( 256 );
+	}
+
+	@DisplayName( "It should throw an exception for an invalid write option" )
+	@Test
+	public void testImageWriteInvalidOption() {
+		assertThrows( BoxRuntimeException.class, () -> {
+			runtime.executeSource( """
+			                       	img = ImageRead( "src/test/resources/logo.png" );
+			                       	ImageWrite( img, "src/test/resources/generated/test-write-invalid.jpg", { quality : 5 } );
+			                       """, context );
+		} );
+	}
+
+	@DisplayName( "It should write a large PNG compressed in several blocks without altering its pixels" )
+	@Test
+	public void testImageWritePngBlocks() throws IOException {
+		String outputFile = "src/test/resources/generated/test-write-png-blocks.png";
+
+		// @formatter:off
+		runtime.executeSource( """
+			img = ImageNew( "", 600, 400, "argb", "white" );
+			img.setDrawingColor( "red" );
+			img.drawOval( 50, 50, 500, 300, true );
+			img.setDrawingColor( "blue" );
+			img.drawLine( 0, 0, 600, 400 );
+			ImageWrite( img, "%s", { compressionLevel : 6, filter : "paeth" } );
+			reloaded = ImageRead( "%s" );
+		""".formatted( outputFile, outputFile ), context );
+		// @formatter:on
+
+		BoxImage	original	= ( BoxImage ) variables.get( Key.of( "img" ) );
+		BoxImage	reloaded	= ( BoxImage ) variables.get( Key.of( "reloaded" ) );
+
+		assertThat( reloaded.getHeight() ).isEqualTo( 400 );
+		for ( int y = 0; y < 400; y += 7 ) {
+			for ( int x = 0; x < 600; x += 11 ) {
+				assertThat( reloaded.getBufferedImage().getRGB( x, y ) ).isEqualTo( original.getBufferedImage().getRGB( x, y ) );
+			}
+		}
+	}
 }
@@ -17,13 +17,29 @@
  */
 package ortus.boxlang.modules.image.services;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.image.BaseIntegrationTest;
+import ortus.boxlang.modules.image.BoxImage;
+import ortus.boxlang.modules.image.ImageType;
+import ortus.boxlang.modules.image.util.RasterPool;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Struct;
 
 public class ImageServiceTest extends BaseIntegrationTest {
 
@@ -291,4 +307,172 @@ public class ImageServiceTest extends BaseIntegrationTest {
 		// Verify logger exists
 		assertNotNull( resultObj, "Result should not be null" );
 	}
+
+	@DisplayName( "It normalizes decoded images when the normalizeDecodedImages setting is enabled" )
+	@Test
+	public void testNormalizeDecodedImages() {
+		ImageService service = ImageService.getInstance();
+
+		service.setNormalizeDecodedImages( true );
+		try {
+			runtime.executeSource( """
+			                       ImageWrite( ImageRead( "src/test/resources/logo.png" ), "src/test/resources/generated/logo-normalize.jpg" );
+			                       withAlpha = ImageRead( "src/test/resources/logo.png" );
+			                       opaque = ImageRead( "src/test/resources/generated/logo-normalize.jpg" );
+			                       """, context );
+		} finally {
+			service.setNormalizeDecodedImages( false );
+		}
+
+		BufferedImage	withAlpha	= ( ( BoxImage ) variables.get( Key.of( "withAlpha" ) ) ).getBufferedImage();
+		BufferedImage	opaque		= ( ( BoxImage ) variables.get( Key.of( "opaque" ) ) ).getBufferedImage();
+
+		assertEquals( BufferedImage.TYPE_INT_ARGB_PRE, withAlpha.getType() );
+		assertEquals( BufferedImage.TYPE_INT_RGB, opaque.getType() );
+	}
+
+	@DisplayName( "It leaves decoded images untouched by default" )
+	@Test
+	public void testDoesNotNormalizeByDefault() {
+		runtime.executeSource( """
+		                       service = getBoxRuntime().getGlobalService( "imageService" );
+		                       enabled = service.isNormalizeDecodedImages();
+		                       """, context );
+
+		assertFalse( ( Boolean ) variables.get( Key.of( "enabled" ) ) );
+	}
+
+	@DisplayName( "It reuses the pixel buffers of released images for later transforms" )
+	@Test
+	public void testRasterPoolReusesReleasedBuffers() {
+		RasterPool	pool	= ImageService.getInstance().getRasterPool();
+		BoxImage	image	= new BoxImage( 400, 300, ImageType.RGB, "red" ).translate( 10, 10 );
+
+		image.release();
+		assertTrue( image.isReleased() );
+
+		long			reused		= pool.getStats().getAsLong( Key.of( "reused" ) );
+		BufferedImage	recycled	= pool.borrowImage( 400, 300, BufferedImage.TYPE_INT_RGB );
+
+		assertTrue( pool.getStats().getAsLong( Key.of( "reused" ) ) > reused );
+		assertEquals( BufferedImage.TYPE_INT_RGB, recycled.getType() );
+		// The recycled buffer must not leak the pixels of the released image
+		assertEquals( Color.BLACK.getRGB(), recycled.getRGB( 200, 150 ) );
+
+		pool.release( recycled );
+	}
+
+	@DisplayName( "It never recycles a pixel buffer that was handed out" )
+	@Test
+	public void testRasterPoolSkipsExposedBuffers() {
+		RasterPool		pool		= ImageService.getInstance().getRasterPool();
+		BoxImage		image		= new BoxImage( 400, 300, ImageType.RGB, "red" );
+		BufferedImage	exposed		= image.getBufferedImage();
+		long			released	= pool.getStats().getAsLong( Key.of( "released" ) );
+
+		image.release();
+
+		assertEquals( released, pool.getStats().getAsLong( Key.of( "released" ) ) );
+		assertEquals( Color.RED.getRGB(), exposed.getRGB( 10, 10 ) );
+	}
+
+	@DisplayName( "It serves repeated reads of a file from the decoded image cache when enabled" )
+	@Test
+	public void testDecodedImageCache() throws Exception {
+		DecodedImageCache	cache	= ImageService.getInstance().getDecodedImageCache();
+		Path				file	= Path.of( "src/test/resources/generated/logo-decoded-cache.png" );
+
+		Files.createDirectories( file.getParent() );
+		Files.copy( Path.of( "src/test/resources/logo.png" ), file, StandardCopyOption.REPLACE_EXISTING );
+		cache.invalidate( file );
+
+		long hits = cache.getStats().getAsLong( Key.of( "hits" ) );
+
+		ImageService.getInstance().setDecodedImageCacheEnabled( true );
+		try {
+			runtime.executeSource( """
+			                       first = ImageRead( "src/test/resources/generated/logo-decoded-cache.png" );
+			                       first.setDrawingColor( "red" );
+			                       first.drawRect( 0, 0, 50, 50, true );
+			                       second = ImageRead( "src/test/resources/generated/logo-decoded-cache.png" );
+			                       """, context );
+		} finally {
+			ImageService.getInstance().setDecodedImageCacheEnabled( false );
+		}
+
+		BoxImage	first	= ( BoxImage ) variables.get( Key.of( "first" ) );
+		BoxImage	second	= ( BoxImage ) variables.get( Key.of( "second" ) );
+
+		assertEquals( hits + 1, cache.getStats().getAsLong( Key.of( "hits" ) ) );
+		assertTrue( second.isShared() );
+		// Drawing on one read must not leak into the cached image or later reads
+		assertEquals( Color.RED.getRGB(), first.getBufferedImage().getRGB( 10, 10 ) );
+		assertTrue( second.getBufferedImage().getRGB( 10, 10 ) != Color.RED.getRGB() );
+	}
+
+	@DisplayName( "It decodes a cached file again once it changes on disk" )
+	@Test
+	public void testDecodedImageCacheDetectsChanges() throws Exception {
+		DecodedImageCache	cache	= ImageService.getInstance().getDecodedImageCache();
+		Path				file	= Path.of( "src/test/resources/generated/logo-decoded-cache-changed.png" );
+
+		Files.createDirectories( file.getParent() );
+		Files.copy( Path.of( "src/test/resources/logo.png" ), file, StandardCopyOption.REPLACE_EXISTING );
+		cache.invalidate( file );
+
+		cache.get( file );
+		long misses = cache.getStats().getAsLong( Key.of( "misses" ) );
+
+		Files.setLastModifiedTime( file, FileTime.fromMillis( Files.getLastModifiedTime( file ).toMillis() + 5000 ) );
+		cache.get( file );
+		assertEquals( misses + 1, cache.getStats().getAsLong( Key.of( "misses" ) ) );
+
+		cache.get( file );
+		assertEquals( misses + 1, cache.getStats().getAsLong( Key.of( "misses" ) ) );
+		assertTrue( cache.invalidate( file ) );
+	}
+
+	@DisplayName( "It warms up the image stack without failing" )
+	@Test
+	public void testWarmUp() {
+		new ImageWarmUp( ImageService.getInstance().getLogger(), ImageService.getInstance().getCodecPool() ).run();
+
+		BoxImage image = new BoxImage( new BufferedImage( 20, 20, BufferedImage.TYPE_INT_ARGB ) );
+		assertTrue( image.toByteArray( "png" ).length > 0 );
+		assertTrue( image.toByteArray( "jpg" ).length > 0 );
+	}
+
+	@DisplayName( "It reuses image writers and readers across encodes and decodes" )
+	@Test
+	public void testCodecPoolReusesCodecs() throws Exception {
+		ImageCodecPool	pool	= ImageService.getInstance().getCodecPool();
+		BoxImage		image	= new BoxImage( new BufferedImage( 20, 20, BufferedImage.TYPE_INT_RGB ) );
+
+		image.toByteArray( "png" );
+		long	writerHits	= pool.getStats().getAsLong( Key.of( "writerHits" ) );
+		String	encoded		= image.toBase64String( "png" );
+		assertTrue( pool.getStats().getAsLong( Key.of( "writerHits" ) ) > writerHits );
+
+		BoxImage.fromBase64( encoded );
+		long readerHits = pool.getStats().getAsLong( Key.of( "readerHits" ) );
+		assertEquals( 20, BoxImage.fromBase64( encoded ).getWidth() );
+		assertTrue( pool.getStats().getAsLong( Key.of( "readerHits" ) ) > readerHits );
+	}
+
+	@DisplayName( "It only pools captcha profiles that generate, and drops the least recently used beyond the maximum" )
+	@Test
+	public void testCaptchaPoolProfiles() {
+		CaptchaPool pool = new CaptchaPool( 1, 1, 6, new Struct(), ImageService.getInstance().getLogger() );
+		try {
+			assertThrows( IllegalArgumentException.class, () -> pool.take( new CaptchaPool.Profile( 0, 75, 24, "low", List.of() ) ) );
+			assertEquals( 0, pool.getStats().get( "profiles" ) );
+
+			for ( int width = 100; width < 140; width++ ) {
+				assertNotNull( pool.take( new CaptchaPool.Profile( width, 40, 12, "low", List.of() ) ).image() );
+			}
+			assertEquals( 32, pool.getStats().get( "profiles" ) );
+		} finally {
+			pool.shutdown();
+		}
+	}
 }